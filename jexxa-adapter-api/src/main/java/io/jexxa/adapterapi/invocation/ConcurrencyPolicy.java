@@ -0,0 +1,171 @@
+package io.jexxa.adapterapi.invocation;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Function;
+
+import static io.jexxa.adapterapi.invocation.DefaultInvocationHandler.GLOBAL_SYNCHRONIZATION_OBJECT;
+
+/**
+ * A ConcurrencyPolicy defines how invocations of a single port are synchronized against each other.
+ * <p>
+ * By default, all invocations are serialized via {@link DefaultInvocationHandler#GLOBAL_SYNCHRONIZATION_OBJECT}.
+ * Ports that are known to be thread safe (e.g. read-only application services) can use a less restrictive policy.
+ */
+@FunctionalInterface
+public interface ConcurrencyPolicy
+{
+    int DEFAULT_STRIPES = 64;
+
+    /**
+     * Runs the given invocation according to this policy.
+     *
+     * @param invocationContext context of the invocation which is executed
+     * @param invocation performs the invocation including all interceptors and transaction handling
+     */
+    void execute(InvocationContext invocationContext, Runnable invocation);
+
+    /**
+     * All invocations of all ports using this policy are serialized. This is the default policy.
+     */
+    static ConcurrencyPolicy globalSerial()
+    {
+        return GlobalSerialPolicy.INSTANCE;
+    }
+
+    /**
+     * All invocations on the same target object are serialized. Invocations of different objects run in parallel.
+     */
+    static ConcurrencyPolicy perObject()
+    {
+        return PerObjectPolicy.INSTANCE;
+    }
+
+    /**
+     * Invocations that belong to the same key are serialized. By default, the key is the first argument of the
+     * invocation, which is typically the identifier of an aggregate.
+     *
+     * @param stripes number of locks that are shared between all keys
+     */
+    static ConcurrencyPolicy striped(int stripes)
+    {
+        return striped(stripes, StripedPolicy::firstArgument);
+    }
+
+    /**
+     * Invocations that belong to the same key are serialized.
+     *
+     * @param stripes number of locks that are shared between all keys
+     * @param keyFunction returns the key of an invocation such as the identifier of an aggregate
+     */
+    static ConcurrencyPolicy striped(int stripes, Function<InvocationContext, Object> keyFunction)
+    {
+        return new StripedPolicy(stripes, keyFunction);
+    }
+
+    /**
+     * Invocations are not synchronized at all. The port and all used driven adapters must be thread safe.
+     */
+    static ConcurrencyPolicy concurrent()
+    {
+        return (invocationContext, invocation) -> invocation.run();
+    }
+
+    /**
+     * Returns the policy for given name. Supported values are
+     * {@code global-serial}, {@code per-object}, {@code striped} and {@code concurrent}.
+     *
+     * @param name name of the policy
+     * @param stripes number of locks that are used by policy {@code striped}
+     * @return the requested policy
+     */
+    static ConcurrencyPolicy of(String name, int stripes)
+    {
+        Objects.requireNonNull(name);
+        return switch (name.trim().toLowerCase(Locale.ROOT)) {
+            case "global-serial" -> globalSerial();
+            case "per-object" -> perObject();
+            case "striped" -> striped(stripes);
+            case "concurrent" -> concurrent();
+            default -> throw new IllegalArgumentException("Unknown concurrency policy: " + name);
+        };
+    }
+
+    final class GlobalSerialPolicy implements ConcurrencyPolicy
+    {
+        private static final GlobalSerialPolicy INSTANCE = new GlobalSerialPolicy();
+
+        @Override
+        public void execute(InvocationContext invocationContext, Runnable invocation)
+        {
+            synchronized (GLOBAL_SYNCHRONIZATION_OBJECT)
+            {
+                invocation.run();
+            }
+        }
+
+        private GlobalSerialPolicy()
+        {
+            //Private constructor
+        }
+    }
+
+    final class PerObjectPolicy implements ConcurrencyPolicy
+    {
+        private static final PerObjectPolicy INSTANCE = new PerObjectPolicy();
+
+        @Override
+        public void execute(InvocationContext invocationContext, Runnable invocation)
+        {
+            synchronized (invocationContext.getTarget())
+            {
+                invocation.run();
+            }
+        }
+
+        private PerObjectPolicy()
+        {
+            //Private constructor
+        }
+    }
+
+    final class StripedPolicy implements ConcurrencyPolicy
+    {
+        private final Object[] locks;
+        private final Function<InvocationContext, Object> keyFunction;
+
+        private StripedPolicy(int stripes, Function<InvocationContext, Object> keyFunction)
+        {
+            if (stripes <= 0)
+            {
+                throw new IllegalArgumentException("Number of stripes must be greater than 0");
+            }
+
+            this.keyFunction = Objects.requireNonNull(keyFunction);
+            this.locks = new Object[stripes];
+            for (int i = 0; i < stripes; ++i)
+            {
+                locks[i] = new Object();
+            }
+        }
+
+        @Override
+        public void execute(InvocationContext invocationContext, Runnable invocation)
+        {
+            synchronized (locks[Math.floorMod(Objects.hashCode(keyFunction.apply(invocationContext)), locks.length)])
+            {
+                invocation.run();
+            }
+        }
+
+        private static Object firstArgument(InvocationContext invocationContext)
+        {
+            var args = invocationContext.getArgs();
+            if (args == null || args.length == 0)
+            {
+                return invocationContext.getTarget();
+            }
+            return args[0];
+        }
+    }
+}
@@ -15,27 +15,35 @@ import io.jexxa.adapterapi.invocation.function.SerializableSupplier;
 import io.jexxa.adapterapi.invocation.transaction.TransactionManager;
 
 import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Objects;
 
 @SuppressWarnings("UnusedReturnValue")
 public class DefaultInvocationHandler implements AroundInterceptor, BeforeInterceptor, AfterInterceptor, JexxaInvocationHandler {
-    private final List<BeforeInterceptor> beforeList = new ArrayList<>();
-    private final List<AfterInterceptor> afterList = new ArrayList<>();
-    private final List<AroundInterceptor> aroundList = new ArrayList<>();
+    // Interceptors are compiled into an immutable chain when they are registered, so that an invocation neither
+    // allocates iterators nor requires synchronization
+    private volatile InterceptorChain interceptorChain = InterceptorChain.EMPTY;
 
     public static final Object GLOBAL_SYNCHRONIZATION_OBJECT = new Object();
 
+    private ConcurrencyPolicy concurrencyPolicy;
+
     @Override
     public void before(InvocationContext invocationContext)
     {
-        beforeList.forEach(element -> element.before(invocationContext));
+        for (var interceptor : interceptorChain.before())
+        {
+            interceptor.before(invocationContext);
+        }
     }
 
     @Override
     public void after(InvocationContext invocationContext)
     {
-        afterList.forEach(element -> element.after(invocationContext));
+        for (var interceptor : interceptorChain.after())
+        {
+            interceptor.after(invocationContext);
+        }
     }
 
     @Override
@@ -44,18 +52,41 @@ public class DefaultInvocationHandler implements AroundInterceptor, BeforeInterc
         invocationContext.proceed();
     }
 
-    public DefaultInvocationHandler registerAround(AroundInterceptor interceptor) {
-        aroundList.add(interceptor);
+    /**
+     * Defines how invocations handled by this invocation handler are synchronized. If no policy is set,
+     * {@link InvocationManager#getDefaultConcurrencyPolicy()} is used.
+     *
+     * @param concurrencyPolicy policy used for all following invocations
+     * @return this invocation handler
+     */
+    public DefaultInvocationHandler setConcurrencyPolicy(ConcurrencyPolicy concurrencyPolicy) {
+        this.concurrencyPolicy = Objects.requireNonNull(concurrencyPolicy);
         return this;
     }
 
-    public DefaultInvocationHandler registerBefore(BeforeInterceptor interceptor) {
-        beforeList.add(interceptor);
+    public ConcurrencyPolicy getConcurrencyPolicy() {
+        if (concurrencyPolicy == null)
+        {
+            return InvocationManager.getDefaultConcurrencyPolicy();
+        }
+        return concurrencyPolicy;
+    }
+
+    public synchronized DefaultInvocationHandler registerAround(AroundInterceptor interceptor) {
+        var chain = interceptorChain;
+        interceptorChain = new InterceptorChain(chain.before(), append(chain.around(), interceptor), chain.after());
+        return this;
+    }
+
+    public synchronized DefaultInvocationHandler registerBefore(BeforeInterceptor interceptor) {
+        var chain = interceptorChain;
+        interceptorChain = new InterceptorChain(append(chain.before(), interceptor), chain.around(), chain.after());
         return this;
     }
 
-    public DefaultInvocationHandler registerAfter(AfterInterceptor interceptor) {
-        afterList.add(interceptor);
+    public synchronized DefaultInvocationHandler registerAfter(AfterInterceptor interceptor) {
+        var chain = interceptorChain;
+        interceptorChain = new InterceptorChain(chain.before(), chain.around(), append(chain.after(), interceptor));
         return this;
     }
 
@@ -63,7 +94,7 @@ public class DefaultInvocationHandler implements AroundInterceptor, BeforeInterc
     @Override
     public Object invoke(Method method, Object object, Object[] args)
     {
-        var invocationContext = new MethodInvocationContext(method, object, args, aroundList);
+        var invocationContext = new MethodInvocationContext(method, object, args, interceptorChain.around());
 
         invoke(invocationContext);
 
@@ -73,45 +104,72 @@ public class DefaultInvocationHandler implements AroundInterceptor, BeforeInterc
     @Override
     public void invoke(Object targetObject, SerializableRunnable runnable)
     {
-        var invocationContext = new RunnableInvocationContext(targetObject, runnable, aroundList);
+        var invocationContext = new RunnableInvocationContext(targetObject, runnable, interceptorChain.around());
         invoke(invocationContext);
     }
 
     @Override
     public <T> void invoke(Object targetObject,SerializableConsumer<T> consumer, T argument)
     {
-        var invocationContext = new ConsumerInvocationContext<>(targetObject, consumer, argument, aroundList);
+        var invocationContext = new ConsumerInvocationContext<>(targetObject, consumer, argument, interceptorChain.around());
         invoke(invocationContext);
     }
 
     @Override
     public <T> T invoke(Object targetObject,SerializableSupplier<T> supplier) {
-        var invocationContext = new SupplierInvocationContext<>(targetObject, supplier, aroundList);
+        var invocationContext = new SupplierInvocationContext<>(targetObject, supplier, interceptorChain.around());
         invoke(invocationContext);
         return invocationContext.getReturnValue();
     }
 
     @Override
     public <T, R> R invoke(Object targetObject,SerializableFunction<T, R> function, T argument) {
-        var invocationContext = new FunctionInvocationContext<>(targetObject, function, argument, aroundList);
+        var invocationContext = new FunctionInvocationContext<>(targetObject, function, argument, interceptorChain.around());
         invoke(invocationContext);
         return invocationContext.getReturnValue();
     }
 
     protected void invoke(InvocationContext invocationContext)  {
-        synchronized (GLOBAL_SYNCHRONIZATION_OBJECT)
-        {
-            try {
-                TransactionManager.initTransaction();
+        getConcurrencyPolicy().execute(invocationContext, () -> invokeInTransaction(invocationContext));
+    }
+
+    private void invokeInTransaction(InvocationContext invocationContext)  {
+        var chain = interceptorChain;
+        try {
+            TransactionManager.initTransaction();
+            if (chain.isEmpty())
+            {
+                invocationContext.invoke();
+            } else {
                 before(invocationContext);
                 around(invocationContext);
                 after(invocationContext);
-                TransactionManager.closeTransaction();
-            } catch (Exception e) {
-                TransactionManager.rollback();
-                TransactionManager.closeTransaction();
-                throw e;
             }
+        } catch (Exception e) {
+            TransactionManager.rollback();
+            TransactionManager.closeTransaction();
+            throw e;
+        }
+
+        // If the transaction can not be closed, it rolls back all handlers itself
+        TransactionManager.closeTransaction();
+    }
+
+    private static <T> T[] append(T[] interceptors, T interceptor)
+    {
+        var result = Arrays.copyOf(interceptors, interceptors.length + 1);
+        result[interceptors.length] = Objects.requireNonNull(interceptor);
+        return result;
+    }
+
+    private record InterceptorChain(BeforeInterceptor[] before, AroundInterceptor[] around, AfterInterceptor[] after)
+    {
+        private static final InterceptorChain EMPTY = new InterceptorChain(
+                new BeforeInterceptor[0], new AroundInterceptor[0], new AfterInterceptor[0]);
+
+        boolean isEmpty()
+        {
+            return before.length == 0 && around.length == 0 && after.length == 0;
         }
     }
 }
@@ -4,18 +4,29 @@ import io.jexxa.adapterapi.interceptor.AroundInterceptor;
 
 import java.lang.reflect.Method;
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.Objects;
-import java.util.stream.Stream;
 
 public abstract class InvocationContext
 {
-    private final Iterator<AroundInterceptor> currentInterceptor;
+    private static final AroundInterceptor[] NO_INTERCEPTORS = new AroundInterceptor[0];
+
+    private final AroundInterceptor[] interceptors;
     private final Object targetObject;
+    private int currentInterceptor;
 
     protected InvocationContext(Object targetObject, Collection<AroundInterceptor> interceptors)
     {
-        this.currentInterceptor = Objects.requireNonNull(interceptors).iterator();
+        this(targetObject, Objects.requireNonNull(interceptors).toArray(NO_INTERCEPTORS));
+    }
+
+    /**
+     * @param targetObject object on which the invocation is performed
+     * @param interceptors around interceptors in the order in which they are called. Since the array is not copied,
+     *                     it can be shared by all invocations but must not be modified.
+     */
+    protected InvocationContext(Object targetObject, AroundInterceptor[] interceptors)
+    {
+        this.interceptors = Objects.requireNonNull(interceptors);
         this.targetObject = targetObject;
     }
 
@@ -50,14 +61,20 @@ public abstract class InvocationContext
 
     public Class<?>[] getArgTypes()
     {
-        return Stream.of(getArgs()).map(Object::getClass).toArray(Class<?>[]::new);
+        var args = getArgs();
+        var argTypes = new Class<?>[args.length];
+        for (int i = 0; i < args.length; ++i)
+        {
+            argTypes[i] = args[i].getClass();
+        }
+        return argTypes;
     }
 
     public void proceed()
     {
-        if (currentInterceptor.hasNext())
+        if (currentInterceptor < interceptors.length)
         {
-            currentInterceptor.next().around(this);
+            interceptors[currentInterceptor++].around(this);
         } else {
             invoke();
         }
@@ -1,10 +1,12 @@
 package io.jexxa.adapterapi.invocation;
 
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 
 public final class InvocationManager {
     private static final Map<Object, DefaultInvocationHandler> INVOCATION_HANDLER_MAP = new ConcurrentHashMap<>();
+    private static volatile ConcurrencyPolicy defaultConcurrencyPolicy = ConcurrencyPolicy.globalSerial();
 
 
     public static synchronized JexxaInvocationHandler getInvocationHandler(Object object)
@@ -17,6 +19,21 @@ public final class InvocationManager {
         return (DefaultInvocationHandler) getInvocationHandler(object);
     }
 
+    /**
+     * Defines the concurrency policy of all invocation handlers that do not define their own policy.
+     *
+     * @param concurrencyPolicy policy to be used. Default is {@link ConcurrencyPolicy#globalSerial()}
+     */
+    public static void setDefaultConcurrencyPolicy(ConcurrencyPolicy concurrencyPolicy)
+    {
+        defaultConcurrencyPolicy = Objects.requireNonNull(concurrencyPolicy);
+    }
+
+    public static ConcurrencyPolicy getDefaultConcurrencyPolicy()
+    {
+        return defaultConcurrencyPolicy;
+    }
+
     private static DefaultInvocationHandler createDefaultInvocationHandler()
     {
         return new DefaultInvocationHandler();
@@ -24,6 +24,16 @@ public class ConsumerInvocationContext<T> extends InvocationContext
         this.argument  = argument;
     }
 
+    public ConsumerInvocationContext(Object targetObject,
+                                     SerializableConsumer<T> consumer,
+                                     T argument,
+                                     AroundInterceptor[] interceptors)
+    {
+        super(targetObject,interceptors);
+        this.consumer = consumer;
+        this.argument  = argument;
+    }
+
     @Override
     public void invoke()
     {
@@ -24,6 +24,16 @@ public class FunctionInvocationContext<T, R> extends InvocationContext
         this.argument = argument;
     }
 
+    public FunctionInvocationContext(Object targetObject,
+                                     SerializableFunction<T, R> function,
+                                     T argument,
+                                     AroundInterceptor[] interceptors)
+    {
+        super(targetObject,interceptors);
+        this.function = function;
+        this.argument = argument;
+    }
+
     @Override
     public void invoke()
     {
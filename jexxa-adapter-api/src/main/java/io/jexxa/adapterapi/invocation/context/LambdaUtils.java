@@ -6,8 +6,10 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 final class LambdaUtils {
 
@@ -26,7 +28,27 @@ final class LambdaUtils {
         WRAPPER_TYPE_MAP.put(Void.class, void.class);
     }
 
+    // The implementation method of a lambda only depends on the class of the lambda, the target and the arguments.
+    // The methods are attached to the class of the lambda, so that they do not prevent unloading its class loader.
+    private static final ClassValue<Map<ImplMethodKey, Method>> IMPL_METHOD_CACHE = new ClassValue<>() {
+        @Override
+        protected Map<ImplMethodKey, Method> computeValue(Class<?> lambdaClass)
+        {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private record ImplMethodKey(Class<?> targetClass, List<Class<?>> argTypes) { }
+
     static  <T extends Serializable> Method getImplMethod(Object targetObject, T functionalInterface, Class<?>[] argTypes)
+    {
+        var key = new ImplMethodKey(targetObject.getClass(), List.of(argTypes));
+
+        return IMPL_METHOD_CACHE.get(functionalInterface.getClass())
+                .computeIfAbsent(key, element -> resolveImplMethod(targetObject, functionalInterface, argTypes));
+    }
+
+    private static  <T extends Serializable> Method resolveImplMethod(Object targetObject, T functionalInterface, Class<?>[] argTypes)
     {
         try {
             var serializedLambda = Objects.requireNonNull(getSerializedLambda(functionalInterface));
@@ -40,7 +62,7 @@ final class LambdaUtils {
         } catch (NoSuchMethodException e) { // Check if an alternative method with primitive types is available
             if (includePrimitives(argTypes))
             {
-                return getImplMethod(targetObject, functionalInterface, convertToPrimitives(argTypes));
+                return resolveImplMethod(targetObject, functionalInterface, convertToPrimitives(argTypes));
             }
             throw new IllegalArgumentException(e);
         } catch ( SecurityException e) {
@@ -24,6 +24,14 @@ public class MethodInvocationContext extends InvocationContext {
         this.args = Objects.requireNonNull( args );
     }
 
+    public MethodInvocationContext(Method method, Object object, Object[] args, AroundInterceptor[] interceptors)
+    {
+        super(object,interceptors);
+        this.method = Objects.requireNonNull( method );
+        this.object = Objects.requireNonNull( object );
+        this.args = Objects.requireNonNull( args );
+    }
+
     @Override
     public void invoke()
     {
@@ -20,6 +20,13 @@ public class RunnableInvocationContext extends InvocationContext
         this.targetObject = targetObject;
     }
 
+    public RunnableInvocationContext(Object targetObject, SerializableRunnable runnable, AroundInterceptor[] interceptors)
+    {
+        super(targetObject,interceptors);
+        this.runnable = runnable;
+        this.targetObject = targetObject;
+    }
+
     @Override
     public void invoke()
     {
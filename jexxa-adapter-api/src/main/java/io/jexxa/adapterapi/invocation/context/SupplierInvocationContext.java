@@ -21,6 +21,14 @@ public class SupplierInvocationContext<T> extends InvocationContext
         this.supplier = supplier;
     }
 
+    public SupplierInvocationContext(Object targetObject,
+                                     SerializableSupplier<T> supplier,
+                                     AroundInterceptor[] interceptors)
+    {
+        super(targetObject,interceptors);
+        this.supplier = supplier;
+    }
+
     @Override
     public void invoke()
     {
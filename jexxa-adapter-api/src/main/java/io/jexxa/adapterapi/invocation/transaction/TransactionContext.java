@@ -0,0 +1,157 @@
+package io.jexxa.adapterapi.invocation.transaction;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * A TransactionContext is the scope of a transaction of a single thread. It is created by the outermost
+ * {@link TransactionManager#initTransaction()} and carries all handlers that joined the transaction. Nested
+ * transactions of the same thread join the context.
+ * <p>
+ * Since each thread uses its own context, closing or rolling back a transaction only affects the handlers enlisted in
+ * this context, so that invocations can run in parallel without interleaving their commits.
+ */
+public final class TransactionContext
+{
+    private final Map<Object, TransactionHandler> handlerMap = new IdentityHashMap<>();
+    private final List<TransactionHandler> handlerList = new ArrayList<>();
+    private int depth;
+
+    TransactionContext()
+    {
+        //Created by TransactionManager
+    }
+
+    /**
+     * Joins given handler to this transaction, if it has not joined so far. In this case
+     * {@link TransactionHandler#initTransaction()} is called and the handler is closed or rolled back together with
+     * this transaction.
+     */
+    public void enlist(TransactionHandler transactionHandler)
+    {
+        enlist(transactionHandler, () -> transactionHandler);
+    }
+
+    /**
+     * Returns the handler enlisted for given key. If no handler is enlisted for this key, a new one is created by
+     * given factory and joins this transaction. This allows a resource that is used by multiple objects, such as a
+     * connection, to join a transaction only once.
+     *
+     * @param key identifies the handler. Keys are compared by identity.
+     * @param handlerFactory creates the handler if required
+     * @return handler enlisted for given key
+     */
+    @SuppressWarnings("unchecked")
+    public <H extends TransactionHandler> H enlist(Object key, Supplier<H> handlerFactory)
+    {
+        var transactionHandler = handlerMap.get(key);
+        if (transactionHandler != null)
+        {
+            return (H) transactionHandler;
+        }
+
+        var newHandler = handlerFactory.get();
+        handlerMap.put(key, newHandler);
+        handlerList.add(newHandler);
+        try
+        {
+            newHandler.initTransaction();
+        }
+        catch (RuntimeException e)
+        {
+            handlerMap.remove(key);
+            handlerList.remove(handlerList.size() - 1);
+            throw e;
+        }
+        return newHandler;
+    }
+
+    /**
+     * Returns the handler enlisted for given key, or an empty Optional if no handler joined this transaction for it.
+     */
+    public Optional<TransactionHandler> getEnlisted(Object key)
+    {
+        return Optional.ofNullable(handlerMap.get(key));
+    }
+
+    int incrementDepth()
+    {
+        return ++depth;
+    }
+
+    int decrementDepth()
+    {
+        return --depth;
+    }
+
+    int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * Closes given registered handlers and all enlisted handlers in two phases. First, all handlers are prepared so that
+     * they can reject the transaction before any changes are committed. Then, they are closed one after another.
+     * <p>
+     * If a handler fails in either phase, all handlers that are not closed so far are rolled back and closed, so that
+     * they only release their resources, and the first exception is rethrown. Handlers closed before a failing handler
+     * are not rolled back, because their changes are already committed.
+     */
+    void close(List<TransactionHandler> registeredHandlers)
+    {
+        var transactionHandlers = new ArrayList<>(registeredHandlers);
+        transactionHandlers.addAll(handlerList);
+        handlerMap.clear();
+        handlerList.clear();
+
+        try
+        {
+            transactionHandlers.forEach(TransactionHandler::prepareTransaction);
+        }
+        catch (RuntimeException e)
+        {
+            discard(transactionHandlers, e);
+            throw e;
+        }
+
+        for (int i = 0; i < transactionHandlers.size(); ++i)
+        {
+            try
+            {
+                transactionHandlers.get(i).closeTransaction();
+            }
+            catch (RuntimeException e)
+            {
+                // The failed handler is responsible for discarding its own changes
+                discard(transactionHandlers.subList(i + 1, transactionHandlers.size()), e);
+                throw e;
+            }
+        }
+    }
+
+    void rollback()
+    {
+        List.copyOf(handlerList).forEach(TransactionHandler::rollback);
+    }
+
+    // Rolls back and closes given handlers. Their exceptions are added as suppressed to given exception.
+    private static void discard(List<TransactionHandler> transactionHandlers, RuntimeException exception)
+    {
+        for (var transactionHandler : transactionHandlers)
+        {
+            try
+            {
+                transactionHandler.rollback();
+                transactionHandler.closeTransaction();
+            }
+            catch (RuntimeException e)
+            {
+                exception.addSuppressed(e);
+            }
+        }
+    }
+}
@@ -2,6 +2,17 @@ package io.jexxa.adapterapi.invocation.transaction;
 
 public interface TransactionHandler {
     void initTransaction();
+
+    /**
+     * Validates that the changes of this handler can be committed. It is called for all handlers of a transaction
+     * before the first one is closed, so that a handler can reject the transaction before any changes are committed.
+     * If a handler throws an exception, all handlers are rolled back and closed.
+     */
+    default void prepareTransaction()
+    {
+        // Handlers that can not detect conflicts in advance validate their changes when they are closed
+    }
+
     void closeTransaction();
 
     void rollback();
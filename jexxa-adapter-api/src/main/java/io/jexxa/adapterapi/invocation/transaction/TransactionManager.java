@@ -2,36 +2,101 @@ package io.jexxa.adapterapi.invocation.transaction;
 
 import io.jexxa.adapterapi.JexxaContext;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class TransactionManager {
     private static final TransactionManager INSTANCE = new TransactionManager();
 
-    private final List<TransactionHandler> transactionHandlerList = new ArrayList<>();
+    private final List<TransactionHandler> transactionHandlerList = new CopyOnWriteArrayList<>();
+
+    // Each thread has its own transaction context. Nested invocations within the same thread join the outer transaction
+    private final ThreadLocal<TransactionContext> transactionContext = new ThreadLocal<>();
+
     public static TransactionManager getInstance()
     {
         return INSTANCE;
     }
 
+    /**
+     * Registers a handler that joins each transaction, regardless of whether it is used within the transaction.
+     * Handlers that are used only by some invocations should use {@link #enlist(TransactionHandler)} instead.
+     */
     public static void registerTransactionHandler(TransactionHandler transactionHandler)
     {
         INSTANCE.transactionHandlerList.add(transactionHandler);
     }
 
+    /**
+     * Joins given handler to the transaction of the current thread, if a transaction is active and the handler has not
+     * joined it so far. In this case {@link TransactionHandler#initTransaction()} is called and the handler is closed
+     * or rolled back together with the transaction. Otherwise, this method does nothing.
+     * <p>
+     * This method is typically called by a handler each time before it accesses its resource.
+     */
+    public static void enlist(TransactionHandler transactionHandler)
+    {
+        var context = INSTANCE.transactionContext.get();
+        if (context != null && !INSTANCE.transactionHandlerList.contains(transactionHandler))
+        {
+            context.enlist(transactionHandler);
+        }
+    }
+
+    /**
+     * Returns the context of the transaction of the current thread, or an empty Optional if no transaction is active.
+     */
+    public static Optional<TransactionContext> getTransactionContext()
+    {
+        return Optional.ofNullable(INSTANCE.transactionContext.get());
+    }
+
     public static void initTransaction()
     {
-        INSTANCE.transactionHandlerList.forEach(TransactionHandler::initTransaction);
+        var context = INSTANCE.transactionContext.get();
+        if (context == null)
+        {
+            context = new TransactionContext();
+            INSTANCE.transactionContext.set(context);
+            INSTANCE.transactionHandlerList.forEach(TransactionHandler::initTransaction);
+        }
+        context.incrementDepth();
     }
 
     public static void closeTransaction()
     {
-        INSTANCE.transactionHandlerList.forEach(TransactionHandler::closeTransaction);
+        var context = INSTANCE.transactionContext.get();
+        if (context == null || context.decrementDepth() > 0)
+        {
+            return;
+        }
+
+        // The context is removed before the handlers are closed so that they do not enlist again. Registered and
+        // enlisted handlers are closed together, so that all of them are rolled back if one of them fails.
+        INSTANCE.transactionContext.remove();
+        context.close(INSTANCE.transactionHandlerList);
     }
 
     public static void rollback()
     {
+        // A nested transaction is rolled back by the outer one because the exception is propagated
+        var context = INSTANCE.transactionContext.get();
+        if (context != null && context.getDepth() > 1)
+        {
+            return;
+        }
+
         INSTANCE.transactionHandlerList.forEach(TransactionHandler::rollback);
+        if (context != null)
+        {
+            context.rollback();
+        }
+    }
+
+    public static boolean isTransactionActive()
+    {
+        return INSTANCE.transactionContext.get() != null;
     }
 
     public static void clear()
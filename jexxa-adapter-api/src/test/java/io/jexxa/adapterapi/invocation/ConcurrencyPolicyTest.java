@@ -0,0 +1,148 @@
+package io.jexxa.adapterapi.invocation;
+
+import io.jexxa.adapterapi.invocation.transaction.TransactionHandler;
+import io.jexxa.adapterapi.invocation.transaction.TransactionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.jexxa.adapterapi.invocation.InvocationManager.getRootInterceptor;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrencyPolicyTest {
+
+    @AfterEach
+    void cleanup()
+    {
+        TransactionManager.clear();
+    }
+
+    @Test
+    void concurrentInvocation() throws InterruptedException
+    {
+        //Arrange
+        var objectUnderTest = new BlockingObject(2);
+        var invocationHandler = getRootInterceptor(objectUnderTest).setConcurrencyPolicy(ConcurrencyPolicy.concurrent());
+
+        //Act - Both invocations must run in parallel, otherwise the latch is never released
+        var result = runInParallel(2, () -> invocationHandler.invoke(objectUnderTest, objectUnderTest::await, "key"));
+
+        //Assert
+        assertTrue(result);
+        assertEquals(2, objectUnderTest.getMaxParallelInvocations());
+    }
+
+    @Test
+    void stripedInvocationWithSameKey() throws InterruptedException
+    {
+        //Arrange
+        var objectUnderTest = new BlockingObject(1);
+        var invocationHandler = getRootInterceptor(objectUnderTest).setConcurrencyPolicy(ConcurrencyPolicy.striped(16));
+
+        //Act
+        var result = runInParallel(4, () -> invocationHandler.invoke(objectUnderTest, objectUnderTest::await, "key"));
+
+        //Assert
+        assertTrue(result);
+        assertEquals(1, objectUnderTest.getMaxParallelInvocations());
+    }
+
+    @Test
+    void nestedInvocationJoinsTransaction()
+    {
+        //Arrange
+        var transactionHandler = new CountingTransactionHandler();
+        TransactionManager.registerTransactionHandler(transactionHandler);
+        var outerObject = new Object();
+        var innerObject = new Object();
+        var outerHandler = getRootInterceptor(outerObject);
+        var innerHandler = getRootInterceptor(innerObject);
+
+        //Act
+        outerHandler.invoke(outerObject, () -> innerHandler.invoke(innerObject, () -> { }));
+
+        //Assert
+        assertEquals(1, transactionHandler.initCounter.get());
+        assertEquals(1, transactionHandler.closeCounter.get());
+        assertEquals(0, transactionHandler.rollbackCounter.get());
+    }
+
+    @Test
+    void invalidPolicy()
+    {
+        assertThrows(IllegalArgumentException.class, () -> ConcurrencyPolicy.of("unknown", 1));
+        assertThrows(IllegalArgumentException.class, () -> ConcurrencyPolicy.striped(0));
+    }
+
+    private static boolean runInParallel(int threads, Runnable runnable) throws InterruptedException
+    {
+        var executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; ++i)
+        {
+            executor.execute(runnable);
+        }
+        executor.shutdown();
+        return executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    public static class BlockingObject
+    {
+        private final CountDownLatch latch;
+        private final AtomicInteger parallelInvocations = new AtomicInteger();
+        private final AtomicInteger maxParallelInvocations = new AtomicInteger();
+
+        BlockingObject(int expectedParallelInvocations)
+        {
+            this.latch = new CountDownLatch(expectedParallelInvocations);
+        }
+
+        public void await(String key)
+        {
+            maxParallelInvocations.accumulateAndGet(parallelInvocations.incrementAndGet(), Math::max);
+            latch.countDown();
+            try {
+                //noinspection ResultOfMethodCallIgnored
+                latch.await(2, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            parallelInvocations.decrementAndGet();
+        }
+
+        int getMaxParallelInvocations()
+        {
+            return maxParallelInvocations.get();
+        }
+    }
+
+    private static class CountingTransactionHandler implements TransactionHandler
+    {
+        private final AtomicInteger initCounter = new AtomicInteger();
+        private final AtomicInteger closeCounter = new AtomicInteger();
+        private final AtomicInteger rollbackCounter = new AtomicInteger();
+
+        @Override
+        public void initTransaction()
+        {
+            initCounter.incrementAndGet();
+        }
+
+        @Override
+        public void closeTransaction()
+        {
+            closeCounter.incrementAndGet();
+        }
+
+        @Override
+        public void rollback()
+        {
+            rollbackCounter.incrementAndGet();
+        }
+    }
+}
@@ -10,6 +10,7 @@ import static io.jexxa.adapterapi.invocation.InvocationManager.getInvocationHand
 import static io.jexxa.adapterapi.invocation.InvocationManager.getRootInterceptor;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 class InvocationContextTest {
     private CountingObject objectUnderTest;
@@ -59,6 +60,20 @@ class InvocationContextTest {
         assertEquals("setGetCounter", resultingContext[SET_GET_COUNTER_CONTEXT].getMethod().getName());
     }
 
+    @Test
+    void testGetMethodOfRepeatedInvocation() {
+        //Arrange
+        invokeTestMethods();
+        var firstMethod = resultingContext[SET_COUNTER_CONTEXT].getMethod();
+
+        //Act
+        invokeTestMethods();
+
+        //Assert - The method is resolved only once, so that the cached instance is returned
+        assertSame(firstMethod, resultingContext[SET_COUNTER_CONTEXT].getMethod());
+        assertEquals("setCounter", resultingContext[SET_COUNTER_CONTEXT].getMethod().getName());
+    }
+
     @Test
     void testGetTarget() {
         //Act
@@ -6,6 +6,8 @@ import org.junit.jupiter.api.Test;
 
 import static io.jexxa.adapterapi.invocation.InvocationManager.getInvocationHandler;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class InvocationHandlerTest {
     private CountingObject objectUnderTest;
@@ -67,4 +69,44 @@ class InvocationHandlerTest {
         //Assert
         assertEquals(element, result);
     }
-}
\ No newline at end of file
+
+    @Test
+    void invokeMethod() throws NoSuchMethodException
+    {
+        //Arrange
+        int element = 100;
+        var method = CountingObject.class.getMethod("setGetCounter", int.class);
+
+        //Act
+        var result = invocationHandler.invoke( method, objectUnderTest, new Object[]{element} );
+
+        //Assert
+        assertEquals(element, result);
+        assertEquals(element, objectUnderTest.getCounter());
+    }
+
+    @Test
+    void invokeMethodWithInvalidArgument() throws NoSuchMethodException
+    {
+        //Arrange
+        var method = CountingObject.class.getMethod("setCounter", int.class);
+        var invalidArguments = new Object[]{"invalid"};
+
+        //Act / Assert
+        assertThrows(IllegalArgumentException.class, () -> invocationHandler.invoke( method, objectUnderTest, invalidArguments ));
+    }
+
+    @Test
+    void invokeMethodThrowingException() throws NoSuchMethodException
+    {
+        //Arrange - Calling notify without owning the monitor throws an exception
+        var method = Object.class.getMethod("notify");
+        var noArguments = new Object[0];
+
+        //Act
+        var result = assertThrows(InvocationTargetRuntimeException.class, () -> invocationHandler.invoke( method, objectUnderTest, noArguments ));
+
+        //Assert
+        assertInstanceOf(IllegalMonitorStateException.class, result.getTargetException());
+    }
+}
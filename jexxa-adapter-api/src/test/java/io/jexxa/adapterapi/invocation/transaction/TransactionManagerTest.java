@@ -0,0 +1,257 @@
+package io.jexxa.adapterapi.invocation.transaction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransactionManagerTest
+{
+    private final CountingTransactionHandler transactionHandler = new CountingTransactionHandler();
+
+    @AfterEach
+    void cleanup()
+    {
+        TransactionManager.clear();
+    }
+
+    @Test
+    void enlistOnce()
+    {
+        //Act
+        TransactionManager.initTransaction();
+        TransactionManager.enlist(transactionHandler);
+        TransactionManager.enlist(transactionHandler);
+        TransactionManager.closeTransaction();
+
+        //Assert
+        assertEquals(1, transactionHandler.initCounter.get());
+        assertEquals(1, transactionHandler.closeCounter.get());
+        assertEquals(0, transactionHandler.rollbackCounter.get());
+    }
+
+    @Test
+    void enlistInNestedTransaction()
+    {
+        //Act
+        TransactionManager.initTransaction();
+        TransactionManager.initTransaction();
+        TransactionManager.enlist(transactionHandler);
+        TransactionManager.closeTransaction();
+
+        //Assert - Handler is closed with the outer transaction
+        assertEquals(1, transactionHandler.initCounter.get());
+        assertEquals(0, transactionHandler.closeCounter.get());
+
+        //Act
+        TransactionManager.closeTransaction();
+
+        //Assert
+        assertEquals(1, transactionHandler.closeCounter.get());
+    }
+
+    @Test
+    void enlistWithoutTransaction()
+    {
+        //Act
+        TransactionManager.enlist(transactionHandler);
+        TransactionManager.initTransaction();
+        TransactionManager.closeTransaction();
+
+        //Assert - Handler is not used within the transaction and thus not enlisted
+        assertEquals(0, transactionHandler.initCounter.get());
+        assertEquals(0, transactionHandler.closeCounter.get());
+    }
+
+    @Test
+    void rollbackEnlistedHandler()
+    {
+        //Act
+        TransactionManager.initTransaction();
+        TransactionManager.enlist(transactionHandler);
+        TransactionManager.rollback();
+        TransactionManager.closeTransaction();
+
+        //Assert
+        assertEquals(1, transactionHandler.rollbackCounter.get());
+        assertEquals(1, transactionHandler.closeCounter.get());
+    }
+
+    @Test
+    void enlistFailingHandler()
+    {
+        //Arrange
+        CountingTransactionHandler failingHandler = new CountingTransactionHandler() {
+            @Override
+            public void initTransaction()
+            {
+                throw new IllegalStateException("No connection available");
+            }
+        };
+
+        //Act
+        TransactionManager.initTransaction();
+        assertThrows(IllegalStateException.class, () -> TransactionManager.enlist(failingHandler));
+        TransactionManager.closeTransaction();
+
+        //Assert - A handler that could not join the transaction is not closed
+        assertEquals(0, failingHandler.closeCounter.get());
+    }
+
+    @Test
+    void enlistWithKey()
+    {
+        //Arrange
+        var key = new Object();
+
+        //Act
+        TransactionManager.initTransaction();
+        var context = TransactionManager.getTransactionContext().orElseThrow();
+        var firstHandler = context.enlist(key, CountingTransactionHandler::new);
+        var secondHandler = context.enlist(key, CountingTransactionHandler::new);
+        TransactionManager.closeTransaction();
+
+        //Assert
+        assertSame(firstHandler, secondHandler);
+        assertEquals(1, firstHandler.initCounter.get());
+        assertEquals(1, firstHandler.closeCounter.get());
+    }
+
+    @Test
+    void separateContextPerThread() throws ExecutionException, InterruptedException
+    {
+        //Arrange
+        var otherHandler = new CountingTransactionHandler();
+        TransactionManager.initTransaction();
+        TransactionManager.enlist(transactionHandler);
+
+        //Act - Close a transaction in another thread while the transaction of this thread is active
+        CompletableFuture.runAsync(() -> {
+            TransactionManager.initTransaction();
+            TransactionManager.enlist(otherHandler);
+            TransactionManager.rollback();
+            TransactionManager.closeTransaction();
+        }).get();
+
+        //Assert
+        assertEquals(1, otherHandler.rollbackCounter.get());
+        assertEquals(1, otherHandler.closeCounter.get());
+        assertEquals(0, transactionHandler.rollbackCounter.get());
+        assertEquals(0, transactionHandler.closeCounter.get());
+
+        //Act
+        TransactionManager.closeTransaction();
+
+        //Assert
+        assertEquals(1, transactionHandler.closeCounter.get());
+    }
+
+    @Test
+    void closeAllHandlersIfOneFails()
+    {
+        //Arrange
+        CountingTransactionHandler failingHandler = new CountingTransactionHandler() {
+            @Override
+            public void closeTransaction()
+            {
+                throw new IllegalStateException("Commit failed");
+            }
+        };
+
+        //Act
+        TransactionManager.initTransaction();
+        TransactionManager.enlist(failingHandler);
+        TransactionManager.enlist(transactionHandler);
+        assertThrows(IllegalStateException.class, TransactionManager::closeTransaction);
+
+        //Assert - The remaining handler is rolled back before it is closed
+        assertEquals(1, transactionHandler.rollbackCounter.get());
+        assertEquals(1, transactionHandler.closeCounter.get());
+        assertFalse(TransactionManager.isTransactionActive());
+    }
+
+    @Test
+    void rollbackAllHandlersIfPrepareFails()
+    {
+        //Arrange
+        var otherHandler = new CountingTransactionHandler();
+        CountingTransactionHandler failingHandler = new CountingTransactionHandler() {
+            @Override
+            public void prepareTransaction()
+            {
+                throw new IllegalStateException("Conflicting changes");
+            }
+        };
+
+        //Act
+        TransactionManager.initTransaction();
+        TransactionManager.enlist(transactionHandler);
+        TransactionManager.enlist(failingHandler);
+        TransactionManager.enlist(otherHandler);
+        assertThrows(IllegalStateException.class, TransactionManager::closeTransaction);
+
+        //Assert - No handler commits its changes, but all of them release their resources
+        assertEquals(1, transactionHandler.rollbackCounter.get());
+        assertEquals(1, failingHandler.rollbackCounter.get());
+        assertEquals(1, otherHandler.rollbackCounter.get());
+        assertEquals(1, transactionHandler.closeCounter.get());
+        assertEquals(1, failingHandler.closeCounter.get());
+        assertEquals(1, otherHandler.closeCounter.get());
+        assertFalse(TransactionManager.isTransactionActive());
+    }
+
+    @Test
+    void rollbackEnlistedHandlersIfRegisteredHandlerFails()
+    {
+        //Arrange
+        TransactionManager.registerTransactionHandler(new CountingTransactionHandler() {
+            @Override
+            public void closeTransaction()
+            {
+                throw new IllegalStateException("Commit failed");
+            }
+        });
+
+        //Act
+        TransactionManager.initTransaction();
+        TransactionManager.enlist(transactionHandler);
+        assertThrows(IllegalStateException.class, TransactionManager::closeTransaction);
+
+        //Assert
+        assertEquals(1, transactionHandler.rollbackCounter.get());
+        assertEquals(1, transactionHandler.closeCounter.get());
+        assertFalse(TransactionManager.isTransactionActive());
+    }
+
+    private static class CountingTransactionHandler implements TransactionHandler
+    {
+        private final AtomicInteger initCounter = new AtomicInteger();
+        private final AtomicInteger closeCounter = new AtomicInteger();
+        private final AtomicInteger rollbackCounter = new AtomicInteger();
+
+        @Override
+        public void initTransaction()
+        {
+            initCounter.incrementAndGet();
+        }
+
+        @Override
+        public void closeTransaction()
+        {
+            closeCounter.incrementAndGet();
+        }
+
+        @Override
+        public void rollback()
+        {
+            rollbackCounter.incrementAndGet();
+        }
+    }
+}
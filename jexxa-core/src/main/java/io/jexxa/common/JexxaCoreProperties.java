@@ -20,6 +20,27 @@ public final class JexxaCoreProperties
     /** Configures the global system property user.timezone to define the timezone used by the application */
     public static final String JEXXA_USER_TIMEZONE = "io.jexxa.user.timezone";
 
+    /** Defines the default concurrency policy of all ports. Supported values are global-serial (default), per-object, striped and concurrent */
+    public static final String JEXXA_INVOCATION_CONCURRENCY = "io.jexxa.invocation.concurrency";
+
+    /** Defines the number of locks used by concurrency policy striped. Default value is 64 */
+    public static final String JEXXA_INVOCATION_STRIPES = "io.jexxa.invocation.stripes";
+
+    /** Defines how IMDB repositories copy stored aggregates. Supported values are json (default) and auto */
+    public static final String JEXXA_IMDB_COPY_STRATEGY = "io.jexxa.imdb.copy.strategy";
+
+    /** Defines whether IMDB repositories collect their changes within a transaction and discard them on rollback. Default value is false */
+    public static final String JEXXA_IMDB_TRANSACTIONAL = "io.jexxa.imdb.transactional";
+
+    /** Defines the maximum number of messages that the transactional outbox relays within one transaction. Default value is 100 */
+    public static final String JEXXA_OUTBOX_BATCH_SIZE = "io.jexxa.outbox.batch.size";
+
+    /** Defines the number of workers that forward messages of the transactional outbox in parallel. Default value is 1 */
+    public static final String JEXXA_OUTBOX_WORKERS = "io.jexxa.outbox.workers";
+
+    /** Defines a message header whose value determines the order of outbox messages. Messages with the same value are forwarded in order. Default is the destination of a message */
+    public static final String JEXXA_OUTBOX_ORDERING_KEY = "io.jexxa.outbox.ordering.key";
+
     /** Defines the default properties file which is /jexxa-application.properties */
     public static final String JEXXA_APPLICATION_PROPERTIES = "/jexxa-application.properties";
 
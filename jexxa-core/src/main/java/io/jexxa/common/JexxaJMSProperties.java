@@ -3,6 +3,24 @@ package io.jexxa.common;
 public final class JexxaJMSProperties {
     public static final String JEXXA_JMS_STRATEGY = "io.jexxa.jms.strategy";
     public static final String JEXXA_JMS_SIMULATE = "io.jexxa.jms.simulate";
+    public static final String JEXXA_JMS_PRODUCER_CACHE_SIZE = "io.jexxa.jms.producer.cache.size";
+    public static final String JEXXA_JMS_BATCH_SIZE = "io.jexxa.jms.batch.size";
+    public static final String JEXXA_JMS_BATCH_WINDOW = "io.jexxa.jms.batch.window";
+    public static final String JEXXA_JMS_DELIVERY_MODE = "io.jexxa.jms.delivery.mode";
+    public static final String JEXXA_JMS_PRIORITY = "io.jexxa.jms.priority";
+    public static final String JEXXA_JMS_TIME_TO_LIVE = "io.jexxa.jms.time.to.live";
+    public static final String JEXXA_JMS_CONCURRENCY = "io.jexxa.jms.concurrency";
+    /**
+     * Defines the number of delivered but unprocessed messages at which receiving messages is stopped. Default value
+     * is 0, which means unlimited.
+     * <p>
+     * A listener receives only one message at a time, so that this limit is only reached if it is not greater than
+     * the number of consumers, or if messages are received in batches. Messages that are prefetched by the JMS
+     * provider are not counted. To limit them, configure the prefetch of the provider, such as
+     * {@code consumerWindowSize} of ActiveMQ Artemis.
+     */
+    public static final String JEXXA_JMS_MAX_IN_FLIGHT = "io.jexxa.jms.max.in.flight";
+    public static final String JEXXA_JMS_BACKPRESSURE_INTERVAL = "io.jexxa.jms.backpressure.interval";
     private JexxaJMSProperties()
     {
         //private constructor
@@ -0,0 +1,239 @@
+package io.jexxa.common.wrapper.jdbc;
+
+import org.apache.commons.lang3.Validate;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded pool of {@link JDBCConnection}s for a single JDBC URL.
+ * <p>
+ * Connections are created on demand up to the configured maximum size. Idle connections exceeding the minimum size
+ * are closed when they are unused longer than the idle timeout. Eviction is performed whenever a connection is
+ * leased or released, so that no additional thread is required.
+ */
+final class BoundedConnectionPool implements AutoCloseable
+{
+    static final int DEFAULT_MIN_SIZE = 1;
+    static final int DEFAULT_MAX_SIZE = 10;
+    static final long DEFAULT_IDLE_TIMEOUT = 600_000;
+    static final long DEFAULT_LEASE_TIMEOUT = 30_000;
+
+    private final Properties properties;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeout;
+    private final long leaseTimeout;
+
+    private final ReentrantLock lock;
+    private final Condition connectionReleased;
+    // Most recently released connections are at the head, so that the oldest ones are evicted first
+    private final Deque<IdleConnection> idleConnections = new ArrayDeque<>();
+
+    private int totalConnections;
+    private int activeConnections;
+    private int waitingThreads;
+    private long leaseCount;
+    private long timeoutCount;
+    private long totalWaitTime;
+    private boolean closed;
+
+    private record IdleConnection(JDBCConnection connection, long idleSince) { }
+
+    BoundedConnectionPool(Properties properties)
+    {
+        this.properties = properties;
+        this.minSize = Integer.parseInt(properties.getProperty(JexxaJDBCProperties.JEXXA_JDBC_POOL_MIN_SIZE, String.valueOf(DEFAULT_MIN_SIZE)));
+        this.maxSize = Integer.parseInt(properties.getProperty(JexxaJDBCProperties.JEXXA_JDBC_POOL_MAX_SIZE, String.valueOf(DEFAULT_MAX_SIZE)));
+        this.idleTimeout = Long.parseLong(properties.getProperty(JexxaJDBCProperties.JEXXA_JDBC_POOL_IDLE_TIMEOUT, String.valueOf(DEFAULT_IDLE_TIMEOUT)));
+        this.leaseTimeout = Long.parseLong(properties.getProperty(JexxaJDBCProperties.JEXXA_JDBC_POOL_LEASE_TIMEOUT, String.valueOf(DEFAULT_LEASE_TIMEOUT)));
+
+        Validate.isTrue(maxSize > 0, "Parameter " + JexxaJDBCProperties.JEXXA_JDBC_POOL_MAX_SIZE + " must be greater than 0");
+        Validate.isTrue(minSize >= 0 && minSize <= maxSize, "Parameter " + JexxaJDBCProperties.JEXXA_JDBC_POOL_MIN_SIZE + " must be between 0 and " + maxSize);
+
+        this.lock = new ReentrantLock(Boolean.parseBoolean(properties.getProperty(JexxaJDBCProperties.JEXXA_JDBC_POOL_FAIR, "true")));
+        this.connectionReleased = lock.newCondition();
+    }
+
+    /**
+     * Leases a connection from this pool. If all connections are in use, the calling thread waits until a connection
+     * is released or the lease timeout expires.
+     *
+     * @throws IllegalStateException if no connection is available within the lease timeout
+     * @return JDBCConnection that is in a valid state.
+     */
+    JDBCConnection lease()
+    {
+        var startTime = System.nanoTime();
+        var remainingTime = TimeUnit.MILLISECONDS.toNanos(leaseTimeout);
+        JDBCConnection connection = null;
+        var createConnection = false;
+        var evictedConnections = new ArrayList<JDBCConnection>();
+
+        lock.lock();
+        try {
+            evictIdleConnections(evictedConnections);
+            while (connection == null && !createConnection)
+            {
+                if (closed)
+                {
+                    throw new IllegalStateException("Connection pool is closed for connection " + getConnectionName());
+                }
+
+                if (!idleConnections.isEmpty())
+                {
+                    connection = idleConnections.pollFirst().connection();
+                }
+                else if (totalConnections < maxSize)
+                {
+                    ++totalConnections;
+                    createConnection = true;
+                }
+                else
+                {
+                    remainingTime = awaitConnection(remainingTime);
+                }
+            }
+            ++activeConnections;
+            ++leaseCount;
+            totalWaitTime += System.nanoTime() - startTime;
+        } finally {
+            lock.unlock();
+            evictedConnections.forEach(JDBCConnection::close);
+        }
+
+        try {
+            if (createConnection)
+            {
+                return new JDBCConnection(properties);
+            }
+            return connection.validateOnLease();
+        } catch (RuntimeException e)
+        {
+            discard(connection);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a connection to this pool that was leased via {@link #lease()}.
+     */
+    void release(JDBCConnection connection)
+    {
+        var evictedConnections = new ArrayList<JDBCConnection>();
+
+        lock.lock();
+        try {
+            --activeConnections;
+            if (closed)
+            {
+                --totalConnections;
+                evictedConnections.add(connection);
+            }
+            else
+            {
+                idleConnections.addFirst(new IdleConnection(connection, System.currentTimeMillis()));
+                evictIdleConnections(evictedConnections);
+                connectionReleased.signal();
+            }
+        } finally {
+            lock.unlock();
+            evictedConnections.forEach(JDBCConnection::close);
+        }
+    }
+
+    JDBCConnectionPoolMetrics getMetrics()
+    {
+        lock.lock();
+        try {
+            return new JDBCConnectionPoolMetrics(
+                    activeConnections,
+                    idleConnections.size(),
+                    waitingThreads,
+                    leaseCount,
+                    timeoutCount,
+                    Duration.ofNanos(totalWaitTime)
+            );
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        var evictedConnections = new ArrayList<JDBCConnection>();
+
+        lock.lock();
+        try {
+            closed = true;
+            idleConnections.forEach(element -> evictedConnections.add(element.connection()));
+            totalConnections -= idleConnections.size();
+            idleConnections.clear();
+            connectionReleased.signalAll();
+        } finally {
+            lock.unlock();
+            evictedConnections.forEach(JDBCConnection::close);
+        }
+    }
+
+    private long awaitConnection(long remainingTime)
+    {
+        if (remainingTime <= 0)
+        {
+            ++timeoutCount;
+            throw new IllegalStateException("Could not lease a JDBC connection within " + leaseTimeout + " ms for connection " + getConnectionName());
+        }
+
+        ++waitingThreads;
+        try {
+            return connectionReleased.awaitNanos(remainingTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a JDBC connection", e);
+        } finally {
+            --waitingThreads;
+        }
+    }
+
+    private void evictIdleConnections(List<JDBCConnection> evictedConnections)
+    {
+        var evictionTime = System.currentTimeMillis() - idleTimeout;
+        while (totalConnections > minSize
+                && !idleConnections.isEmpty()
+                && idleConnections.peekLast().idleSince() < evictionTime)
+        {
+            evictedConnections.add(idleConnections.pollLast().connection());
+            --totalConnections;
+        }
+    }
+
+    private void discard(JDBCConnection connection)
+    {
+        lock.lock();
+        try {
+            --activeConnections;
+            --totalConnections;
+            connectionReleased.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        if (connection != null)
+        {
+            connection.close();
+        }
+    }
+
+    private String getConnectionName()
+    {
+        return properties.getProperty(JexxaJDBCProperties.JEXXA_JDBC_URL);
+    }
+}
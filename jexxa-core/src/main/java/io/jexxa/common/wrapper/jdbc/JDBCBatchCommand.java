@@ -0,0 +1,104 @@
+package io.jexxa.common.wrapper.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Executes the same SQL command for a list of arguments by using JDBC batches. Each batch includes at most
+ * {@link JexxaJDBCProperties#JEXXA_JDBC_BATCH_SIZE} rows.
+ */
+public class JDBCBatchCommand extends JDBCPreparedStatement
+{
+    private static final String SQL_STATEMENT_FAILED = "Could not execute SQL Statement : ";
+
+    private final List<List<Object>> batchArguments;
+    private final int batchSize;
+    private int executedRows;
+
+    /**
+     * Creates a JDBCBatchCommand
+     *
+     * @param jdbcConnection used connection to execute command
+     * @param sqlCommand must include the complete command with a '?' as placeholder for each argument
+     * @param batchArguments includes the arguments of each execution of the sqlCommand
+     * @param batchSize maximal number of executions sent to the database within a single batch
+     */
+    public JDBCBatchCommand(Supplier<JDBCConnection> jdbcConnection, String sqlCommand, List<List<Object>> batchArguments, int batchSize)
+    {
+        super(jdbcConnection, sqlCommand, Collections.emptyList());
+        this.batchArguments = Objects.requireNonNull(batchArguments);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Execute command as 'update' so that each execution of the command must change a row
+     */
+    public void asUpdate()
+    {
+        executeBatches(true);
+    }
+
+    /**
+     * Just execute command. Return values of the executions are not processed
+     */
+    public void asIgnore()
+    {
+        executeBatches(false);
+    }
+
+    private void executeBatches(boolean requireChangedRows)
+    {
+        if (batchArguments.isEmpty())
+        {
+            return;
+        }
+
+        executedRows = 0;
+        try
+        {
+            execute(preparedStatement -> executeBatches(preparedStatement, requireChangedRows));
+        }
+        catch (SQLException e)
+        {
+            throw new IllegalArgumentException(SQL_STATEMENT_FAILED + getSQLStatement(), e);
+        }
+    }
+
+    // In case the statement is executed once more after a connection failure, already executed batches are skipped
+    private Integer executeBatches(PreparedStatement preparedStatement, boolean requireChangedRows) throws SQLException
+    {
+        while (executedRows < batchArguments.size())
+        {
+            var endOfBatch = Math.min(executedRows + batchSize, batchArguments.size());
+            for (var i = executedRows; i < endOfBatch; ++i)
+            {
+                bindArguments(preparedStatement, batchArguments.get(i));
+                preparedStatement.addBatch();
+            }
+
+            var changedRows = preparedStatement.executeBatch();
+            executedRows = endOfBatch;
+
+            if (requireChangedRows)
+            {
+                validateChangedRows(changedRows);
+            }
+        }
+        return executedRows;
+    }
+
+    private void validateChangedRows(int[] changedRows)
+    {
+        for (var changedRow : changedRows)
+        {
+            if (changedRow == 0)
+            {
+                throw new IllegalArgumentException("Command was executed but returned that nothing changed! ");
+            }
+        }
+    }
+}
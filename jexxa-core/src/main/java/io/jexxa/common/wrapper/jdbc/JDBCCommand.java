@@ -1,5 +1,6 @@
 package io.jexxa.common.wrapper.jdbc;
 
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.function.Supplier;
@@ -28,17 +29,20 @@ public class JDBCCommand extends JDBCPreparedStatement
      */
     public void asUpdate()
     {
-        try (var preparedStatement = createPreparedStatement())
+        int changedRows;
+        try
         {
-            if( preparedStatement.executeUpdate() == 0)
-            {
-                throw new IllegalArgumentException("Command was executed but returned that nothing changed! ");
-            }
+            changedRows = execute(PreparedStatement::executeUpdate);
         }
         catch (SQLException e)
         {
             throw new IllegalArgumentException(SQL_STATEMENT_FAILED + getSQLStatement(), e);
         }
+
+        if (changedRows == 0)
+        {
+            throw new IllegalArgumentException("Command was executed but returned that nothing changed! ");
+        }
     }
 
     /**
@@ -46,18 +50,20 @@ public class JDBCCommand extends JDBCPreparedStatement
      */
     public void asEmpty( )
     {
-        try (var preparedStatement = createPreparedStatement())
+        int changedRows;
+        try
         {
-            if( preparedStatement.executeUpdate() == 1)
-            {
-                throw new IllegalArgumentException("Command was executed but returned that something changed! ");
-            }
+            changedRows = execute(PreparedStatement::executeUpdate);
         }
-
         catch (SQLException e)
         {
             throw new IllegalArgumentException(SQL_STATEMENT_FAILED + getSQLStatement(), e);
         }
+
+        if (changedRows == 1)
+        {
+            throw new IllegalArgumentException("Command was executed but returned that something changed! ");
+        }
     }
 
     /**
@@ -65,9 +71,9 @@ public class JDBCCommand extends JDBCPreparedStatement
      */
     public void asIgnore( )
     {
-        try (var preparedStatement = createPreparedStatement())
+        try
         {
-            preparedStatement.executeUpdate();
+            execute(PreparedStatement::executeUpdate);
         }
         catch (SQLException e)
         {
@@ -0,0 +1,30 @@
+package io.jexxa.common.wrapper.jdbc;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable SQL command including placeholders for its arguments. A template is created once via
+ * {@link io.jexxa.common.wrapper.jdbc.builder.JDBCCommandBuilder#createTemplate()} and executed via
+ * {@link JDBCConnection#createCommand(JDBCCommandTemplate, Object...)} so that the SQL statement is not generated again.
+ *
+ * @param sqlCommand SQL command including a '?' as placeholder for each argument
+ * @param argumentCount number of arguments that must be provided when executing the command
+ */
+public record JDBCCommandTemplate(String sqlCommand, int argumentCount)
+{
+    public JDBCCommandTemplate
+    {
+        Objects.requireNonNull(sqlCommand);
+    }
+
+    List<Object> bind(Object[] arguments)
+    {
+        if (arguments.length != argumentCount)
+        {
+            throw new IllegalArgumentException("Command " + sqlCommand + " requires " + argumentCount + " arguments but got " + arguments.length);
+        }
+        return Arrays.asList(arguments);
+    }
+}
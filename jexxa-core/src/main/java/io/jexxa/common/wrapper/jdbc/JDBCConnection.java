@@ -12,6 +12,10 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
@@ -41,12 +45,36 @@ public class JDBCConnection implements AutoCloseable
     }
 
 
+    /**
+     * Defines when a connection is validated via {@link Connection#isValid(int)}.
+     */
+    public enum ValidationStrategy {
+        /** Connection is validated when it is handed out and before each statement */
+        ALWAYS,
+        /** Connection is only validated when it is handed out by {@link JDBCConnectionPool} */
+        ON_LEASE,
+        /** Connection is validated if it was not successfully used within the validation interval */
+        TIME_BASED,
+        /** Connection is not validated upfront. In case of a connection failure outside a transaction, the connection is reset and the statement is retried once */
+        ON_FAILURE
+    }
+
     public static final int NO_TIMEOUT = 0;
+    public static final long DEFAULT_VALIDATION_INTERVAL = 1000;
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 32;
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    public static final int DEFAULT_FETCH_SIZE = 1000;
 
     private Connection connection;
     private final Properties properties;
     private IsolationLevel isolationLevel;
     private boolean autoCommit = true;
+    private final ValidationStrategy validationStrategy;
+    private final long validationInterval;
+    private volatile long lastValidation;
+    private final PreparedStatementCache statementCache;
+    private final int batchSize;
+    private final int fetchSize;
 
     private static final Logger LOGGER = getLogger(JDBCConnection.class);
 
@@ -60,9 +88,28 @@ public class JDBCConnection implements AutoCloseable
 
         this.connection = initJDBCConnection(properties, autoCommit);
         this.properties = properties;
+        this.validationStrategy = ValidationStrategy.valueOf(properties
+                .getProperty(JexxaJDBCProperties.JEXXA_JDBC_VALIDATION_STRATEGY, "time-based")
+                .toUpperCase(Locale.ROOT).replace('-', '_'));
+        this.validationInterval = Long.parseLong(properties
+                .getProperty(JexxaJDBCProperties.JEXXA_JDBC_VALIDATION_INTERVAL, String.valueOf(DEFAULT_VALIDATION_INTERVAL)));
+        this.lastValidation = System.currentTimeMillis();
+        this.statementCache = new PreparedStatementCache(Integer.parseInt(properties
+                .getProperty(JexxaJDBCProperties.JEXXA_JDBC_STATEMENT_CACHE_SIZE, String.valueOf(DEFAULT_STATEMENT_CACHE_SIZE))));
+        this.batchSize = Integer.parseInt(properties
+                .getProperty(JexxaJDBCProperties.JEXXA_JDBC_BATCH_SIZE, String.valueOf(DEFAULT_BATCH_SIZE)));
+        Validate.isTrue(batchSize > 0, "Parameter " + JexxaJDBCProperties.JEXXA_JDBC_BATCH_SIZE + " must be greater than 0");
+        this.fetchSize = Integer.parseInt(properties
+                .getProperty(JexxaJDBCProperties.JEXXA_JDBC_FETCH_SIZE, String.valueOf(DEFAULT_FETCH_SIZE)));
+        Validate.isTrue(fetchSize >= 0, "Parameter " + JexxaJDBCProperties.JEXXA_JDBC_FETCH_SIZE + " must not be negative");
         setIsolationLevel();
     }
 
+    public ValidationStrategy getValidationStrategy()
+    {
+        return validationStrategy;
+    }
+
     @SuppressWarnings("MagicConstant") // The enum IsolationLevel ensures correct constant
     public void setIsolationLevel(IsolationLevel isolationLevel) {
         this.isolationLevel = isolationLevel;
@@ -130,7 +177,7 @@ public class JDBCConnection implements AutoCloseable
     }
 
     @SuppressWarnings("java:S2139") // Here we log and rethrow an exception in order to document that we tried to handle a connection failure without success and must give up
-    public final JDBCConnection validateConnection()
+    public final synchronized JDBCConnection validateConnection()
     {
         try
         {
@@ -141,6 +188,7 @@ public class JDBCConnection implements AutoCloseable
                 reset();
                 LOGGER.warn("JDBC connection for connection {} successfully restarted.",  properties.getProperty(JexxaJDBCProperties.JEXXA_JDBC_URL));
             }
+            lastValidation = System.currentTimeMillis();
         } catch (RuntimeException e)
         {
             LOGGER.error("Could not reset JDBC connection for connection {}. Reason: {}", properties.getProperty(JexxaJDBCProperties.JEXXA_JDBC_URL), e.getMessage());
@@ -150,8 +198,89 @@ public class JDBCConnection implements AutoCloseable
         return this;
     }
 
+    /**
+     * Validates this connection according to its {@link ValidationStrategy} when it is handed out by {@link JDBCConnectionPool}.
+     */
+    JDBCConnection validateOnLease()
+    {
+        switch (validationStrategy)
+        {
+            case ALWAYS, ON_LEASE -> validateConnection();
+            case TIME_BASED -> validateIfExpired();
+            case ON_FAILURE -> { /* Connection is validated on failure */ }
+        }
+        return this;
+    }
+
+    /**
+     * Validates this connection according to its {@link ValidationStrategy} before a statement is executed.
+     */
+    private JDBCConnection validateOnStatement()
+    {
+        switch (validationStrategy)
+        {
+            case ALWAYS -> validateConnection();
+            case TIME_BASED -> validateIfExpired();
+            case ON_LEASE, ON_FAILURE -> { /* Connection is validated on lease or on failure */ }
+        }
+        return this;
+    }
+
+    private void validateIfExpired()
+    {
+        if (System.currentTimeMillis() - lastValidation >= validationInterval)
+        {
+            validateConnection();
+        }
+    }
+
+    /**
+     * Marks this connection as valid because a statement was successfully executed.
+     */
+    void confirmValid()
+    {
+        lastValidation = System.currentTimeMillis();
+    }
+
+    /**
+     * Resets this connection if given exception indicates a connection failure and the statement can be safely retried,
+     * which requires {@link ValidationStrategy#ON_FAILURE} and that no transaction is active.
+     *
+     * @param exception exception thrown while executing a statement
+     * @return true if the connection was reset so that the statement can be retried, otherwise false
+     */
+    boolean resetOnFailure(SQLException exception)
+    {
+        if (validationStrategy != ValidationStrategy.ON_FAILURE || !autoCommit || !isConnectionFailure(exception))
+        {
+            return false;
+        }
+
+        LOGGER.warn("JDBC connection for connection {} failed. Reason: {}", properties.getProperty(JexxaJDBCProperties.JEXXA_JDBC_URL), exception.getMessage());
+        LOGGER.warn("Try to reset JDBC connection for connection {} and retry statement", properties.getProperty(JexxaJDBCProperties.JEXXA_JDBC_URL));
+        reset();
+        return true;
+    }
+
+    /**
+     * Returns true if given exception was caused by a failure of this connection and not by the statement itself.
+     */
+    boolean isConnectionFailure(SQLException exception)
+    {
+        // SQL state class 08 indicates a connection exception. Since not all drivers use it, we check the connection as fallback
+        return exception instanceof SQLRecoverableException
+                || exception instanceof SQLNonTransientConnectionException
+                || exception instanceof SQLTransientConnectionException
+                || (exception.getSQLState() != null && exception.getSQLState().startsWith("08"))
+                || !isValid();
+    }
+
     public void enableAutoCommit()
     {
+        if (autoCommit)
+        {
+            return;
+        }
         autoCommit = true;
         try {
             connection.setAutoCommit(true);
@@ -162,6 +291,10 @@ public class JDBCConnection implements AutoCloseable
 
     public void disableAutoCommit()
     {
+        if (!autoCommit)
+        {
+            return; // Avoids a round trip if the connection is shared by multiple repositories
+        }
         autoCommit = false;
         try {
             connection.setAutoCommit(false);
@@ -196,30 +329,70 @@ public class JDBCConnection implements AutoCloseable
     public <T extends Enum<T>> JDBCQueryBuilder<T> createQuery(Class<T> schema)
     {
         Objects.requireNonNull(schema);
-        return new JDBCQueryBuilder<>(this::validateConnection);
+        return new JDBCQueryBuilder<>(this::validateOnStatement);
     }
 
     public <T extends Enum<T>> JDBCCommandBuilder<T> createCommand(Class<T> schema)
     {
         Objects.requireNonNull(schema);
-        return new JDBCCommandBuilder<>(this::validateConnection);
+        return new JDBCCommandBuilder<>(this::validateOnStatement);
     }
 
     public <T extends Enum<T>> JDBCTableBuilder<T> createTableCommand(Class<T> schema)
     {
         Objects.requireNonNull(schema);
-        return new JDBCTableBuilder<>(this::validateConnection);
+        return new JDBCTableBuilder<>(this::validateOnStatement);
+    }
+
+    /**
+     * Creates a query from a template so that only the arguments must be bound.
+     *
+     * @param template of the query
+     * @param arguments of the query in the same order as the placeholders in the template
+     * @return query that can be executed
+     */
+    public JDBCQuery createQuery(JDBCQueryTemplate template, Object... arguments)
+    {
+        return new JDBCQuery(this::validateOnStatement, template.sqlQuery(), template.bind(arguments));
+    }
+
+    /**
+     * Creates a command from a template so that only the arguments must be bound.
+     *
+     * @param template of the command
+     * @param arguments of the command in the same order as the placeholders in the template
+     * @return command that can be executed
+     */
+    public JDBCCommand createCommand(JDBCCommandTemplate template, Object... arguments)
+    {
+        return new JDBCCommand(this::validateOnStatement, template.sqlCommand(), template.bind(arguments));
+    }
+
+    /**
+     * Creates a command that executes given template once for each entry of the given arguments using JDBC batches
+     * of size {@link JexxaJDBCProperties#JEXXA_JDBC_BATCH_SIZE}.
+     *
+     * @param template of the command
+     * @param batchArguments includes the arguments of each execution of the command
+     * @return command that can be executed
+     */
+    public JDBCBatchCommand createBatchCommand(JDBCCommandTemplate template, List<Object[]> batchArguments)
+    {
+        return new JDBCBatchCommand(this::validateOnStatement,
+                template.sqlCommand(),
+                batchArguments.stream().map(template::bind).toList(),
+                batchSize);
     }
 
     public JDBCTableBuilder<?> createTableCommand()
     {
-        return new JDBCTableBuilder<>(this::validateConnection);
+        return new JDBCTableBuilder<>(this::validateOnStatement);
     }
 
     /**
      * This method resets the internal JDBC connection in the following way:
      * <ol>
-     *  <li>The existing JDBC connection is closed.</li>
+     *  <li>The existing JDBC connection and all cached PreparedStatements are closed.</li>
      *  <li>A new JDBC connection is established based on the given properties in constructor.</li>
      *  <li>The new JDBC connection is validated using {@link Connection#isValid(int) }.</li>
      * </ol>
@@ -234,6 +407,7 @@ public class JDBCConnection implements AutoCloseable
             {
                 throw new IllegalStateException("JDBC Connection is invalid for connection " + properties.getProperty(JexxaJDBCProperties.JEXXA_JDBC_URL));
             }
+            lastValidation = System.currentTimeMillis();
         } catch (SQLException e)
         {
             throw new IllegalStateException("Could not reset JDCConnection. Reason: " + e.getMessage(), e);
@@ -272,8 +446,61 @@ public class JDBCConnection implements AutoCloseable
         return getConnection().prepareStatement(sqlStatement);
     }
 
+    /**
+     * Returns a PreparedStatement from the statement cache or creates a new one. The statement must be returned
+     * via {@link #releaseStatement(String, PreparedStatement)} after it was successfully executed.
+     *
+     * @param sqlStatement describes the template of the command
+     * @return PreparedStatement without any arguments
+     * @throws SQLException in case of an error
+     */
+    PreparedStatement acquireStatement(String sqlStatement) throws SQLException
+    {
+        if (statementCache.isEnabled())
+        {
+            var preparedStatement = statementCache.acquire(sqlStatement);
+            if (preparedStatement != null)
+            {
+                return preparedStatement;
+            }
+        }
+        return prepareStatement(sqlStatement);
+    }
+
+    /**
+     * Returns a PreparedStatement acquired via {@link #acquireStatement(String)} to the statement cache. Statements
+     * that belong to a connection that was reset in the meantime are closed.
+     */
+    void releaseStatement(String sqlStatement, PreparedStatement preparedStatement)
+    {
+        try
+        {
+            if (statementCache.isEnabled() && preparedStatement.getConnection() == connection)
+            {
+                preparedStatement.clearParameters();
+                statementCache.release(sqlStatement, preparedStatement);
+                return;
+            }
+        } catch (SQLException e)
+        {
+            LOGGER.debug("Could not cache statement {}. Reason: {}", sqlStatement, e.getMessage());
+        }
+        PreparedStatementCache.close(preparedStatement);
+    }
+
+    int getFetchSize()
+    {
+        return fetchSize;
+    }
+
+    public JDBCStatementCacheMetrics getStatementCacheMetrics()
+    {
+        return statementCache.getMetrics();
+    }
+
     public void close()
     {
+        statementCache.clear();
         Optional.ofNullable(connection)
                 .ifPresent(ThrowingConsumer.exceptionLogger(Connection::close, getLogger(JDBCConnection.class)));
         connection = null;
@@ -1,8 +1,15 @@
 package io.jexxa.common.wrapper.jdbc;
 
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
 
 import static io.jexxa.adapterapi.JexxaContext.registerCleanupHandler;
 
@@ -15,23 +22,140 @@ public class JDBCConnectionPool implements AutoCloseable {
     private final Map<String, JDBCConnection> sharedConnectionMap = new ConcurrentHashMap<>();
     private final Map<Object, JDBCConnection> exclusiveConnectionMap = new ConcurrentHashMap<>();
     private final Map<Object, JDBCConnection.IsolationLevel> connectionConfiguration = new ConcurrentHashMap<>();
+    private final Map<String, BoundedConnectionPool> boundedPoolMap = new ConcurrentHashMap<>();
+    private final Map<Object, Deque<JDBCConnection>> idleExclusiveConnectionMap = new ConcurrentHashMap<>();
 
-    public static synchronized JDBCConnection getConnection(Properties properties, Object managingObject)
+    // Connections leased by the current thread. A lease is shared by all managing objects using the same connection name
+    private final ThreadLocal<Map<String, ConnectionLease>> connectionLeases = ThreadLocal.withInitial(HashMap::new);
+
+    // Exclusive connections leased by the current thread. They are never shared with other managing objects
+    private final ThreadLocal<Map<Object, JDBCConnection>> exclusiveLeases = ThreadLocal.withInitial(IdentityHashMap::new);
+
+    /**
+     * Returns the connection for given managing object. If the current thread leased a connection via
+     * {@link #leaseConnection(Properties, Object)}, this connection is returned. Otherwise, a connection shared by all
+     * managing objects is returned, or by all threads in case of an exclusive connection.
+     */
+    public static JDBCConnection getConnection(Properties properties, Object managingObject)
     {
-        var connectionName = properties.getProperty(JexxaJDBCProperties.JEXXA_JDBC_URL);
+        var connectionName = getConnectionName(properties);
 
-        if ( connectionName == null )
+        if (JDBC_CONNECTION_POOL.requiresExclusiveConnection(managingObject))
         {
-            throw new IllegalArgumentException("Parameter " + JexxaJDBCProperties.JEXXA_JDBC_URL + " is missing");
+            return Optional.ofNullable(JDBC_CONNECTION_POOL.exclusiveLeases.get().get(managingObject))
+                    .orElseGet(() -> JDBC_CONNECTION_POOL.getExclusiveConnection(properties, managingObject));
         }
 
-        if (JDBC_CONNECTION_POOL.requiresExclusiveConnection(managingObject))
+        var connectionLease = JDBC_CONNECTION_POOL.connectionLeases.get().get(connectionName);
+        if (connectionLease != null)
         {
-            return JDBC_CONNECTION_POOL.getExclusiveConnection(properties, managingObject);
+            return connectionLease.connection;
         }
+
         return JDBC_CONNECTION_POOL.getSharedConnection(properties, connectionName);
     }
 
+    /**
+     * Leases a pooled connection for the current thread until {@link #releaseConnection(Properties, Object)} is called.
+     * All managing objects of the same thread using the same connection name share the leased connection, which is
+     * returned to the pool when all of them released it. This is typically used for the duration of a transaction.
+     * <p>
+     * A managing object configured via {@link #configureExclusiveConnection(Object, JDBCConnection.IsolationLevel)}
+     * leases a connection of its own for the current thread, so that concurrent transactions of different threads
+     * never share a connection. These connections are not bounded by the pool size.
+     *
+     * @throws IllegalStateException if no connection is available within {@link JexxaJDBCProperties#JEXXA_JDBC_POOL_LEASE_TIMEOUT}
+     * @return JDBCConnection that is in a valid state.
+     */
+    public static JDBCConnection leaseConnection(Properties properties, Object managingObject)
+    {
+        var connectionName = getConnectionName(properties);
+
+        if (JDBC_CONNECTION_POOL.requiresExclusiveConnection(managingObject))
+        {
+            return JDBC_CONNECTION_POOL.exclusiveLeases.get()
+                    .computeIfAbsent(managingObject, key -> JDBC_CONNECTION_POOL.leaseExclusiveConnection(properties, key));
+        }
+
+        var connectionLease = JDBC_CONNECTION_POOL.connectionLeases.get().computeIfAbsent(connectionName, key -> {
+            var boundedPool = JDBC_CONNECTION_POOL.boundedPoolMap.computeIfAbsent(key, name -> new BoundedConnectionPool(properties));
+            return new ConnectionLease(boundedPool, boundedPool.lease());
+        });
+
+        connectionLease.managingObjects.add(managingObject);
+        return connectionLease.connection;
+    }
+
+    /**
+     * Releases a connection leased via {@link #leaseConnection(Properties, Object)}. The connection is returned to the
+     * pool when all managing objects of the current thread released it.
+     */
+    public static void releaseConnection(Properties properties, Object managingObject)
+    {
+        if (JDBC_CONNECTION_POOL.requiresExclusiveConnection(managingObject))
+        {
+            Optional.ofNullable(JDBC_CONNECTION_POOL.exclusiveLeases.get().remove(managingObject))
+                    .ifPresent(connection -> JDBC_CONNECTION_POOL.releaseExclusiveConnection(managingObject, connection));
+            return;
+        }
+
+        var connectionName = getConnectionName(properties);
+        var leases = JDBC_CONNECTION_POOL.connectionLeases.get();
+        var connectionLease = leases.get(connectionName);
+
+        if (connectionLease != null
+                && connectionLease.managingObjects.remove(managingObject)
+                && connectionLease.managingObjects.isEmpty())
+        {
+            leases.remove(connectionName);
+            connectionLease.boundedPool.release(connectionLease.connection);
+        }
+    }
+
+    /**
+     * Returns true if the given managing object holds a connection leased by the current thread via
+     * {@link #leaseConnection(Properties, Object)}.
+     */
+    public static boolean isLeased(Properties properties, Object managingObject)
+    {
+        if (JDBC_CONNECTION_POOL.requiresExclusiveConnection(managingObject))
+        {
+            return JDBC_CONNECTION_POOL.exclusiveLeases.get().containsKey(managingObject);
+        }
+
+        var connectionLease = JDBC_CONNECTION_POOL.connectionLeases.get().get(getConnectionName(properties));
+        return connectionLease != null && connectionLease.managingObjects.contains(managingObject);
+    }
+
+    /**
+     * Returns true if the given managing object is the last one of the current thread holding its leased connection,
+     * so that the connection is returned to the pool when it is released. This is always true for a leased exclusive
+     * connection.
+     */
+    public static boolean isLastLease(Properties properties, Object managingObject)
+    {
+        if (JDBC_CONNECTION_POOL.requiresExclusiveConnection(managingObject))
+        {
+            return JDBC_CONNECTION_POOL.exclusiveLeases.get().containsKey(managingObject);
+        }
+
+        var connectionLease = JDBC_CONNECTION_POOL.connectionLeases.get().get(getConnectionName(properties));
+        return connectionLease != null
+                && connectionLease.managingObjects.size() == 1
+                && connectionLease.managingObjects.contains(managingObject);
+    }
+
+    /**
+     * Returns the metrics of the connection pool for given connection name, which is the JDBC URL.
+     *
+     * @param connectionName JDBC URL of the connection pool
+     * @return metrics of the connection pool or an empty Optional if no connection was leased for this URL so far
+     */
+    public static Optional<JDBCConnectionPoolMetrics> getMetrics(String connectionName)
+    {
+        return Optional.ofNullable(JDBC_CONNECTION_POOL.boundedPoolMap.get(connectionName))
+                .map(BoundedConnectionPool::getMetrics);
+    }
 
     public static void configureExclusiveConnection(Object managingObject, JDBCConnection.IsolationLevel isolationLevel)
     {
@@ -44,7 +168,16 @@ public class JDBCConnectionPool implements AutoCloseable {
         registerCleanupHandler(this::close);
     }
 
+    private static String getConnectionName(Properties properties)
+    {
+        var connectionName = properties.getProperty(JexxaJDBCProperties.JEXXA_JDBC_URL);
 
+        if ( connectionName == null )
+        {
+            throw new IllegalArgumentException("Parameter " + JexxaJDBCProperties.JEXXA_JDBC_URL + " is missing");
+        }
+        return connectionName;
+    }
 
     private boolean requiresExclusiveConnection(Object managingObject)
     {
@@ -55,18 +188,40 @@ public class JDBCConnectionPool implements AutoCloseable {
     {
         return sharedConnectionMap
                 .computeIfAbsent(connectionName, key -> new JDBCConnection(properties))
-                .validateConnection();
+                .validateOnLease();
     }
 
     private JDBCConnection getExclusiveConnection(Properties properties, Object managingObject)
     {
         return exclusiveConnectionMap
-                .computeIfAbsent(managingObject, key -> {
-                    var jdbcConnection = new JDBCConnection(properties);
-                    jdbcConnection.setIsolationLevel(connectionConfiguration.get(managingObject));
-                    return jdbcConnection;
-                })
-                .validateConnection();
+                .computeIfAbsent(managingObject, key -> newExclusiveConnection(properties, key))
+                .validateOnLease();
+    }
+
+    private JDBCConnection leaseExclusiveConnection(Properties properties, Object managingObject)
+    {
+        return Optional.ofNullable(idleExclusiveConnectionMap.computeIfAbsent(managingObject, key -> new ConcurrentLinkedDeque<>()).pollFirst())
+                .orElseGet(() -> newExclusiveConnection(properties, managingObject))
+                .validateOnLease();
+    }
+
+    private void releaseExclusiveConnection(Object managingObject, JDBCConnection connection)
+    {
+        var idleConnections = idleExclusiveConnectionMap.get(managingObject);
+        if (idleConnections == null)
+        {
+            // The pool was closed while the connection was leased
+            connection.close();
+            return;
+        }
+        idleConnections.addFirst(connection);
+    }
+
+    private JDBCConnection newExclusiveConnection(Properties properties, Object managingObject)
+    {
+        var jdbcConnection = new JDBCConnection(properties);
+        jdbcConnection.setIsolationLevel(connectionConfiguration.get(managingObject));
+        return jdbcConnection;
     }
 
     @Override
@@ -76,5 +231,25 @@ public class JDBCConnectionPool implements AutoCloseable {
 
         exclusiveConnectionMap.forEach( ((s, jdbcConnection) -> jdbcConnection.close()));
         exclusiveConnectionMap.clear();
+
+        idleExclusiveConnectionMap.forEach( ((s, idleConnections) -> idleConnections.forEach(JDBCConnection::close)));
+        idleExclusiveConnectionMap.clear();
+
+        // Connections that are still leased are closed by their pool when they are released
+        boundedPoolMap.forEach( ((s, boundedPool) -> boundedPool.close()));
+        boundedPoolMap.clear();
+    }
+
+    private static final class ConnectionLease
+    {
+        private final BoundedConnectionPool boundedPool;
+        private final JDBCConnection connection;
+        private final Set<Object> managingObjects = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private ConnectionLease(BoundedConnectionPool boundedPool, JDBCConnection connection)
+        {
+            this.boundedPool = boundedPool;
+            this.connection = connection;
+        }
     }
 }
@@ -0,0 +1,30 @@
+package io.jexxa.common.wrapper.jdbc;
+
+import java.time.Duration;
+
+/**
+ * Snapshot of the state of a connection pool managed by {@link JDBCConnectionPool}.
+ *
+ * @param activeConnections number of connections that are currently leased
+ * @param idleConnections number of open connections that are currently not leased
+ * @param waitingThreads number of threads waiting for a connection
+ * @param leaseCount total number of successful leases
+ * @param timeoutCount total number of leases that failed because no connection was available in time
+ * @param totalWaitTime accumulated time that threads waited for a connection
+ */
+public record JDBCConnectionPoolMetrics(int activeConnections,
+                                        int idleConnections,
+                                        int waitingThreads,
+                                        long leaseCount,
+                                        long timeoutCount,
+                                        Duration totalWaitTime)
+{
+    public Duration averageWaitTime()
+    {
+        if (leaseCount == 0)
+        {
+            return Duration.ZERO;
+        }
+        return totalWaitTime.dividedBy(leaseCount);
+    }
+}
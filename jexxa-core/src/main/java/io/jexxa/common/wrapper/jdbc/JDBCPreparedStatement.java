@@ -1,15 +1,26 @@
 package io.jexxa.common.wrapper.jdbc;
 
 import io.jexxa.common.annotation.CheckReturnValue;
+import org.slf4j.Logger;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Supplier;
 
+import static io.jexxa.common.wrapper.logger.SLF4jLogger.getLogger;
+
 class JDBCPreparedStatement
 {
+    @FunctionalInterface
+    protected interface StatementFunction<R> {
+        R apply(PreparedStatement preparedStatement) throws SQLException;
+    }
+
+    private static final Logger LOGGER = getLogger(JDBCPreparedStatement.class);
+
     private final Supplier<JDBCConnection> jdbcConnection;
     private final String sqlStatement;
     private final List<Object> arguments;
@@ -34,20 +45,172 @@ class JDBCPreparedStatement
     {
         try
         {
-            var preparedStatement = jdbcConnection.get().prepareStatement(sqlStatement);
+            return createPreparedStatement(jdbcConnection.get());
+        } catch (SQLException e)
+        {
+            throw new IllegalArgumentException("Invalid Query " + sqlStatement + " " + e.getMessage(), e);
+        }
+    }
 
-            for (var i = 0; i < arguments.size(); ++i)
+    /**
+     * This method takes a PreparedStatement from the statement cache of the connection, applies given function and
+     * returns the PreparedStatement to the cache afterwards.
+     * In case of a connection failure the statement is executed once more if the {@link JDBCConnection} could be reset
+     * (see {@link JDBCConnection.ValidationStrategy#ON_FAILURE}).
+     *
+     * @param function that executes the PreparedStatement and processes its result
+     * @return result of the function
+     * @throws SQLException in case executing the statement failed
+     */
+    protected <R> R execute(StatementFunction<R> function) throws SQLException
+    {
+        var connection = jdbcConnection.get();
+        try
+        {
+            return execute(connection, function);
+        } catch (SQLException e)
+        {
+            if (connection.resetOnFailure(e))
             {
-                preparedStatement.setObject(i+1, arguments.get(i));
+                return execute(connection, function);
             }
+            throw e;
+        }
+    }
+
+    private <R> R execute(JDBCConnection connection, StatementFunction<R> function) throws SQLException
+    {
+        var preparedStatement = prepareStatement(connection);
+        R result;
+        try
+        {
+            result = function.apply(preparedStatement);
+        } catch (SQLException | RuntimeException e)
+        {
+            // A failed statement is not reused because its state is unknown
+            PreparedStatementCache.close(preparedStatement);
+            throw e;
+        }
 
-            return preparedStatement;
+        connection.confirmValid();
+        connection.releaseStatement(sqlStatement, preparedStatement);
+        return result;
+    }
+
+    /**
+     * This method takes a PreparedStatement from the statement cache of the connection and executes it as query.
+     * In contrast to {@link #execute(StatementFunction)} the PreparedStatement remains in use until
+     * {@link #closeResultSet(JDBCConnection, ResultSet, boolean)} is called.
+     *
+     * @param connection that executes the query
+     * @param fetchSize hint for the number of rows that are fetched from the database at once
+     * @return open ResultSet of the query
+     * @throws SQLException in case executing the query failed
+     */
+    protected ResultSet openResultSet(JDBCConnection connection, int fetchSize) throws SQLException
+    {
+        try
+        {
+            return openResultSet(prepareStatement(connection), fetchSize);
         } catch (SQLException e)
         {
+            if (connection.resetOnFailure(e))
+            {
+                return openResultSet(prepareStatement(connection), fetchSize);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Closes a ResultSet opened via {@link #openResultSet(JDBCConnection, int)} and returns its PreparedStatement
+     * to the statement cache.
+     *
+     * @param reuseStatement must be false if processing the ResultSet failed, so that the PreparedStatement is closed
+     */
+    protected void closeResultSet(JDBCConnection connection, ResultSet resultSet, boolean reuseStatement)
+    {
+        PreparedStatement preparedStatement = null;
+        var closedResultSet = false;
+        try
+        {
+            preparedStatement = (PreparedStatement) resultSet.getStatement();
+            resultSet.close();
+            closedResultSet = true;
+        } catch (SQLException e)
+        {
+            LOGGER.debug("Could not close ResultSet of {}. Reason: {}", sqlStatement, e.getMessage());
+        }
+
+        if (reuseStatement && closedResultSet)
+        {
+            connection.releaseStatement(sqlStatement, preparedStatement);
+        } else
+        {
+            PreparedStatementCache.close(preparedStatement);
+        }
+    }
+
+    private static ResultSet openResultSet(PreparedStatement preparedStatement, int fetchSize) throws SQLException
+    {
+        try
+        {
+            preparedStatement.setFetchSize(fetchSize);
+            return preparedStatement.executeQuery();
+        } catch (SQLException | RuntimeException e)
+        {
+            PreparedStatementCache.close(preparedStatement);
+            throw e;
+        }
+    }
+
+    private PreparedStatement prepareStatement(JDBCConnection connection) throws SQLException
+    {
+        try
+        {
+            return bindArguments(connection.acquireStatement(sqlStatement));
+        } catch (SQLException e)
+        {
+            if (connection.isConnectionFailure(e))
+            {
+                throw e;
+            }
             throw new IllegalArgumentException("Invalid Query " + sqlStatement + " " + e.getMessage(), e);
         }
     }
 
+    private PreparedStatement createPreparedStatement(JDBCConnection connection) throws SQLException
+    {
+        return bindArguments(connection.prepareStatement(sqlStatement));
+    }
+
+    private PreparedStatement bindArguments(PreparedStatement preparedStatement) throws SQLException
+    {
+        try
+        {
+            bindArguments(preparedStatement, arguments);
+        } catch (SQLException e)
+        {
+            PreparedStatementCache.close(preparedStatement);
+            throw e;
+        }
+
+        return preparedStatement;
+    }
+
+    protected static void bindArguments(PreparedStatement preparedStatement, List<Object> arguments) throws SQLException
+    {
+        for (var i = 0; i < arguments.size(); ++i)
+        {
+            preparedStatement.setObject(i + 1, arguments.get(i));
+        }
+    }
+
+    protected JDBCConnection getJDBCConnection()
+    {
+        return jdbcConnection.get();
+    }
+
     protected String getSQLStatement()
     {
         return sqlStatement;
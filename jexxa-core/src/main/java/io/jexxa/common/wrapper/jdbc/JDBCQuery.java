@@ -7,8 +7,12 @@ import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @SuppressWarnings("unused")
 public class JDBCQuery extends JDBCPreparedStatement
@@ -38,6 +42,15 @@ public class JDBCQuery extends JDBCPreparedStatement
         return as( resultSet -> resultSet.getString(1) ).map(Optional::ofNullable);
     }
 
+    /**
+     * Returns the first column of the result as lazily populated stream of Strings.
+     * See {@link #asStream(CheckedFunction)} for details.
+     */
+    public Stream<Optional<String>> asStringStream()
+    {
+        return asStream( resultSet -> resultSet.getString(1) ).map(Optional::ofNullable);
+    }
+
     public Stream<Optional<BigDecimal>> asNumeric()
     {
         return as( resultSet -> resultSet.getBigDecimal(1) ).map(Optional::ofNullable);
@@ -76,10 +89,14 @@ public class JDBCQuery extends JDBCPreparedStatement
 
     public boolean isPresent()
     {
-        try (   var preparedStatement = createPreparedStatement();
-                var resultSet = preparedStatement.executeQuery() )
+        try
         {
-            return resultSet.next();
+            return execute(preparedStatement -> {
+                try (var resultSet = preparedStatement.executeQuery())
+                {
+                    return resultSet.next();
+                }
+            });
         }
         catch (SQLException e)
         {
@@ -89,19 +106,110 @@ public class JDBCQuery extends JDBCPreparedStatement
 
     public <R> Stream<R> as(CheckedFunction<ResultSet, R> function)
     {
-        try (   var preparedStatement = createPreparedStatement();
-                var resultSet = preparedStatement.executeQuery() )
+        try
         {
-            List<R> result = new ArrayList<>();
-            while ( resultSet.next() )
-            {
-                result.add(function.apply(resultSet));
-            }
-            return result.stream();
+            return execute(preparedStatement -> {
+                try (var resultSet = preparedStatement.executeQuery())
+                {
+                    List<R> result = new ArrayList<>();
+                    while ( resultSet.next() )
+                    {
+                        result.add(function.apply(resultSet));
+                    }
+                    return result.stream();
+                }
+            });
         }
         catch (SQLException e)
         {
             throw new IllegalStateException(INVALID_QUERY + getSQLStatement(), e);
         }
     }
+
+    /**
+     * Returns the result as a stream that is lazily populated from the open ResultSet. Rows are fetched from the
+     * database in chunks of {@link JexxaJDBCProperties#JEXXA_JDBC_FETCH_SIZE}, so that the whole result never has to be
+     * kept in memory.
+     * <p>
+     * Important note: The ResultSet is only closed when the stream is completely consumed or closed. So the caller
+     * should close the stream, e.g. by using it in a try-with-resources statement. Depending on the JDBC driver, rows are
+     * only fetched in chunks if auto commit is disabled, which is the case within a transaction.
+     *
+     * @param function that maps the current row of the ResultSet
+     * @return lazily populated stream of mapped rows
+     */
+    public <R> Stream<R> asStream(CheckedFunction<ResultSet, R> function)
+    {
+        var connection = getJDBCConnection();
+        try
+        {
+            var spliterator = new ResultSetSpliterator<>(connection, openResultSet(connection, connection.getFetchSize()), function);
+            return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+        }
+        catch (SQLException e)
+        {
+            throw new IllegalStateException(INVALID_QUERY + getSQLStatement(), e);
+        }
+    }
+
+    private final class ResultSetSpliterator<R> extends Spliterators.AbstractSpliterator<R>
+    {
+        private final JDBCConnection connection;
+        private final ResultSet resultSet;
+        private final CheckedFunction<ResultSet, R> function;
+        private boolean closed;
+
+        private ResultSetSpliterator(JDBCConnection connection, ResultSet resultSet, CheckedFunction<ResultSet, R> function)
+        {
+            super(Long.MAX_VALUE, Spliterator.ORDERED);
+            this.connection = connection;
+            this.resultSet = resultSet;
+            this.function = function;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super R> action)
+        {
+            if (closed)
+            {
+                return false;
+            }
+
+            try
+            {
+                if (!resultSet.next())
+                {
+                    close();
+                    return false;
+                }
+                action.accept(function.apply(resultSet));
+                return true;
+            }
+            catch (SQLException e)
+            {
+                close(false);
+                throw new IllegalStateException(INVALID_QUERY + getSQLStatement(), e);
+            }
+            catch (RuntimeException e)
+            {
+                // Callers typically do not close the stream if processing a row fails
+                close(false);
+                throw e;
+            }
+        }
+
+        private void close()
+        {
+            close(true);
+        }
+
+        private void close(boolean reuseStatement)
+        {
+            if (!closed)
+            {
+                closed = true;
+                closeResultSet(connection, resultSet, reuseStatement);
+            }
+        }
+    }
 }
@@ -0,0 +1,30 @@
+package io.jexxa.common.wrapper.jdbc;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable SQL query including placeholders for its arguments. A template is created once via
+ * {@link io.jexxa.common.wrapper.jdbc.builder.JDBCQueryBuilder#createTemplate()} and executed via
+ * {@link JDBCConnection#createQuery(JDBCQueryTemplate, Object...)} so that the SQL statement is not generated again.
+ *
+ * @param sqlQuery SQL query including a '?' as placeholder for each argument
+ * @param argumentCount number of arguments that must be provided when executing the query
+ */
+public record JDBCQueryTemplate(String sqlQuery, int argumentCount)
+{
+    public JDBCQueryTemplate
+    {
+        Objects.requireNonNull(sqlQuery);
+    }
+
+    List<Object> bind(Object[] arguments)
+    {
+        if (arguments.length != argumentCount)
+        {
+            throw new IllegalArgumentException("Query " + sqlQuery + " requires " + argumentCount + " arguments but got " + arguments.length);
+        }
+        return Arrays.asList(arguments);
+    }
+}
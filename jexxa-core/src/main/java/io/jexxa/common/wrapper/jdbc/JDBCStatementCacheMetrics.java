@@ -0,0 +1,12 @@
+package io.jexxa.common.wrapper.jdbc;
+
+/**
+ * Snapshot of the PreparedStatement cache of a {@link JDBCConnection}.
+ *
+ * @param size number of currently cached statements
+ * @param hitCount number of statements that could be taken from the cache
+ * @param missCount number of statements that had to be prepared
+ */
+public record JDBCStatementCacheMetrics(int size, long hitCount, long missCount)
+{
+}
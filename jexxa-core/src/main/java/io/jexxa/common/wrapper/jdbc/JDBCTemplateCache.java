@@ -0,0 +1,49 @@
+package io.jexxa.common.wrapper.jdbc;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Caches {@link JDBCQueryTemplate}s and {@link JDBCCommandTemplate}s by name, so that the SQL statements of
+ * frequently used operations are generated only once.
+ */
+public final class JDBCTemplateCache
+{
+    private final Map<String, JDBCQueryTemplate> queryTemplates = new ConcurrentHashMap<>();
+    private final Map<String, JDBCCommandTemplate> commandTemplates = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the query template with given name. If no template exists, it is created via given supplier.
+     *
+     * @param name unique name of the template such as the name of the operation
+     * @param templateSupplier creates the template, typically via {@link io.jexxa.common.wrapper.jdbc.builder.JDBCQueryBuilder#createTemplate()}
+     * @return the cached query template
+     */
+    public JDBCQueryTemplate getQueryTemplate(String name, Supplier<JDBCQueryTemplate> templateSupplier)
+    {
+        var template = queryTemplates.get(name);
+        if (template == null)
+        {
+            template = queryTemplates.computeIfAbsent(name, key -> templateSupplier.get());
+        }
+        return template;
+    }
+
+    /**
+     * Returns the command template with given name. If no template exists, it is created via given supplier.
+     *
+     * @param name unique name of the template such as the name of the operation
+     * @param templateSupplier creates the template, typically via {@link io.jexxa.common.wrapper.jdbc.builder.JDBCCommandBuilder#createTemplate()}
+     * @return the cached command template
+     */
+    public JDBCCommandTemplate getCommandTemplate(String name, Supplier<JDBCCommandTemplate> templateSupplier)
+    {
+        var template = commandTemplates.get(name);
+        if (template == null)
+        {
+            template = commandTemplates.computeIfAbsent(name, key -> templateSupplier.get());
+        }
+        return template;
+    }
+}
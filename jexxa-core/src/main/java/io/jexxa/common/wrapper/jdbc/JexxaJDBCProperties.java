@@ -15,6 +15,36 @@ public final class JexxaJDBCProperties
     /** Defines the jdbc transaction level. This must be one of the following values "read-uncommitted", "read-committed", "repeatable-read", "serializable"*/
     public static final String JEXXA_JDBC_TRANSACTION_ISOLATION_LEVEL = "io.jexxa.jdbc.transaction.isolation.level";
 
+    /** Defines when a JDBC connection is validated. This must be one of the following values "always", "on-lease", "time-based" (default), "on-failure" */
+    public static final String JEXXA_JDBC_VALIDATION_STRATEGY = "io.jexxa.jdbc.validation.strategy";
+
+    /** Defines the time in ms after which a connection is validated again when using validation strategy "time-based". Default value is 1000 */
+    public static final String JEXXA_JDBC_VALIDATION_INTERVAL = "io.jexxa.jdbc.validation.interval";
+
+    /** Defines the number of PreparedStatements cached per connection. A value of 0 disables the cache. Default value is 32 */
+    public static final String JEXXA_JDBC_STATEMENT_CACHE_SIZE = "io.jexxa.jdbc.statement.cache.size";
+
+    /** Defines the maximal number of rows that are sent to the database within a single JDBC batch. Default value is 1000 */
+    public static final String JEXXA_JDBC_BATCH_SIZE = "io.jexxa.jdbc.batch.size";
+
+    /** Defines the number of rows fetched at once when streaming the result of a query. A value of 0 lets the JDBC driver decide. Default value is 1000 */
+    public static final String JEXXA_JDBC_FETCH_SIZE = "io.jexxa.jdbc.fetch.size";
+
+    /** Defines the minimal number of pooled connections that are kept open. Default value is 1 */
+    public static final String JEXXA_JDBC_POOL_MIN_SIZE = "io.jexxa.jdbc.pool.min.size";
+
+    /** Defines the maximal number of pooled connections. Default value is 10 */
+    public static final String JEXXA_JDBC_POOL_MAX_SIZE = "io.jexxa.jdbc.pool.max.size";
+
+    /** Defines the time in ms after which an unused pooled connection is closed. Default value is 600000 */
+    public static final String JEXXA_JDBC_POOL_IDLE_TIMEOUT = "io.jexxa.jdbc.pool.idle.timeout";
+
+    /** Defines the maximal time in ms a thread waits for a pooled connection. Default value is 30000 */
+    public static final String JEXXA_JDBC_POOL_LEASE_TIMEOUT = "io.jexxa.jdbc.pool.lease.timeout";
+
+    /** Defines if waiting threads get a pooled connection in FIFO order. Default value is true */
+    public static final String JEXXA_JDBC_POOL_FAIR = "io.jexxa.jdbc.pool.fair";
+
     public static final String JEXXA_REPOSITORY_STRATEGY = "io.jexxa.repository.strategy";
 
     public static final String JEXXA_OBJECTSTORE_STRATEGY = "io.jexxa.objectstore.strategy";
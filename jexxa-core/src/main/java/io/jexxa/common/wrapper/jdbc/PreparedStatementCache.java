@@ -0,0 +1,118 @@
+package io.jexxa.common.wrapper.jdbc;
+
+import io.jexxa.common.function.ThrowingConsumer;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static io.jexxa.common.wrapper.logger.SLF4jLogger.getLogger;
+
+/**
+ * LRU cache of PreparedStatements of a single {@link JDBCConnection} keyed by their SQL statement.
+ * <p>
+ * A cached statement is removed from the cache while it is in use, so that a statement is never used by two
+ * threads at the same time. If the same SQL statement is executed concurrently, an additional statement is created.
+ */
+final class PreparedStatementCache
+{
+    private final int maxSize;
+    private final Map<String, PreparedStatement> statementMap;
+    private long hitCount;
+    private long missCount;
+
+    PreparedStatementCache(int maxSize)
+    {
+        this.maxSize = maxSize;
+        this.statementMap = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    boolean isEnabled()
+    {
+        return maxSize > 0;
+    }
+
+    /**
+     * Removes the statement for given SQL statement from the cache.
+     *
+     * @return the cached statement or null if no statement is cached
+     */
+    synchronized PreparedStatement acquire(String sqlStatement)
+    {
+        var preparedStatement = statementMap.remove(sqlStatement);
+        if (preparedStatement == null)
+        {
+            ++missCount;
+        }
+        else
+        {
+            ++hitCount;
+        }
+        return preparedStatement;
+    }
+
+    /**
+     * Adds a statement to the cache. If the cache already contains a statement for the same SQL statement or the
+     * cache exceeds its maximum size, the superfluous statement is closed.
+     */
+    void release(String sqlStatement, PreparedStatement preparedStatement)
+    {
+        PreparedStatement evictedStatement;
+        synchronized (this)
+        {
+            if (statementMap.containsKey(sqlStatement))
+            {
+                evictedStatement = preparedStatement;
+            }
+            else
+            {
+                statementMap.put(sqlStatement, preparedStatement);
+                evictedStatement = evictEldest();
+            }
+        }
+
+        close(evictedStatement);
+    }
+
+    /**
+     * Closes all cached statements
+     */
+    void clear()
+    {
+        ArrayList<PreparedStatement> evictedStatements;
+        synchronized (this)
+        {
+            evictedStatements = new ArrayList<>(statementMap.values());
+            statementMap.clear();
+        }
+        evictedStatements.forEach(PreparedStatementCache::close);
+    }
+
+    synchronized JDBCStatementCacheMetrics getMetrics()
+    {
+        return new JDBCStatementCacheMetrics(statementMap.size(), hitCount, missCount);
+    }
+
+    private PreparedStatement evictEldest()
+    {
+        if (statementMap.size() <= maxSize)
+        {
+            return null;
+        }
+
+        var iterator = statementMap.entrySet().iterator();
+        var eldest = iterator.next().getValue();
+        iterator.remove();
+        return eldest;
+    }
+
+    static void close(PreparedStatement preparedStatement)
+    {
+        if (preparedStatement != null)
+        {
+            ThrowingConsumer.exceptionLogger(PreparedStatement::close, getLogger(PreparedStatementCache.class))
+                    .accept(preparedStatement);
+        }
+    }
+}
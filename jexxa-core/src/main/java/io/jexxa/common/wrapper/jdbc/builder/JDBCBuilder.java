@@ -92,6 +92,11 @@ public class  JDBCBuilder <T extends Enum<T>>
             return is(GREATER_THAN, value);
         }
 
+        public T isGreaterThan(JDBCObject value)
+        {
+            return is(GREATER_THAN, value.getJdbcValue(), value.getBindParameter());
+        }
+
         public T isGreaterOrEqual(Object value)
         {
             return is(GREATER_THAN_OR_EQUAL, value);
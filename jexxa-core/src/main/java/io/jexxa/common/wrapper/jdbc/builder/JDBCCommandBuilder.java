@@ -1,6 +1,7 @@
 package io.jexxa.common.wrapper.jdbc.builder;
 
 import io.jexxa.common.wrapper.jdbc.JDBCCommand;
+import io.jexxa.common.wrapper.jdbc.JDBCCommandTemplate;
 import io.jexxa.common.wrapper.jdbc.JDBCConnection;
 
 import java.util.function.Supplier;
@@ -244,4 +245,16 @@ public class JDBCCommandBuilder<T extends Enum<T>> extends JDBCBuilder<T>
     {
         return new JDBCCommand(jdbcConnection, getStatementBuilder().toString(), getArguments() );
     }
+
+    /**
+     * Creates a template of the command that can be executed multiple times with different arguments via
+     * {@link JDBCConnection#createCommand(JDBCCommandTemplate, Object...)}. Values of the arguments passed to this builder
+     * are ignored.
+     *
+     * @return template of the command
+     */
+    public JDBCCommandTemplate createTemplate()
+    {
+        return new JDBCCommandTemplate(getStatementBuilder().toString(), getArguments().size());
+    }
 }
@@ -2,6 +2,7 @@ package io.jexxa.common.wrapper.jdbc.builder;
 
 import io.jexxa.common.wrapper.jdbc.JDBCConnection;
 import io.jexxa.common.wrapper.jdbc.JDBCQuery;
+import io.jexxa.common.wrapper.jdbc.JDBCQueryTemplate;
 
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -16,6 +17,7 @@ import static io.jexxa.common.wrapper.jdbc.builder.SQLSyntax.OR;
 import static io.jexxa.common.wrapper.jdbc.builder.SQLSyntax.ORDER_BY;
 import static io.jexxa.common.wrapper.jdbc.builder.SQLSyntax.SELECT;
 import static io.jexxa.common.wrapper.jdbc.builder.SQLSyntax.SELECT_COUNT;
+import static io.jexxa.common.wrapper.jdbc.builder.SQLSyntax.SQLOperation.GREATER_THAN;
 import static io.jexxa.common.wrapper.jdbc.builder.SQLSyntax.WHERE;
 
 
@@ -141,6 +143,32 @@ public final <S extends Enum<S>> JDBCQueryBuilder<T> select(Class<S> clazz, S el
         return new JDBCCondition<>(this);
     }
 
+    /**
+     * Adds a row value comparison {@code WHERE (element, secondElement) > (value, secondValue)}, which is typically
+     * used for keyset pagination.
+     */
+    public <S extends Enum<S>> JDBCQueryBuilder<T> whereGreaterThan(T element, Object value, Class<S> clazz, S secondElement, JDBCObject secondValue)
+    {
+        getStatementBuilder()
+                .append(WHERE)
+                .append("( ")
+                .append(element.name())
+                .append(COMMA)
+                .append(secondElement.name())
+                .append(" ) ")
+                .append(GREATER_THAN)
+                .append("( ")
+                .append(ARGUMENT_PLACEHOLDER)
+                .append(COMMA)
+                .append(secondValue.getBindParameter())
+                .append(" ) ");
+
+        addArgument(value);
+        addArgument(secondValue.getJdbcValue());
+
+        return this;
+    }
+
     public JDBCCondition<T, JDBCQueryBuilder<T>> and(T element)
     {
         getStatementBuilder()
@@ -178,6 +206,18 @@ public final <S extends Enum<S>> JDBCQueryBuilder<T> select(Class<S> clazz, S el
         return new JDBCQuery(jdbcConnection, getStatementBuilder().toString(), getArguments());
     }
 
+    /**
+     * Creates a template of the query that can be executed multiple times with different arguments via
+     * {@link JDBCConnection#createQuery(JDBCQueryTemplate, Object...)}. Values of the arguments passed to this builder
+     * are ignored.
+     *
+     * @return template of the query
+     */
+    public JDBCQueryTemplate createTemplate()
+    {
+        return new JDBCQueryTemplate(getStatementBuilder().toString(), getArguments().size());
+    }
+
     public JDBCQueryBuilder<T> orderBy(T element, SQLOrder order)
     {
         if (!orderByAdded)
@@ -185,6 +225,30 @@ public final <S extends Enum<S>> JDBCQueryBuilder<T> select(Class<S> clazz, S el
             getStatementBuilder().append(ORDER_BY);
             orderByAdded = true;
         }
+        else
+        {
+            getStatementBuilder().append(COMMA);
+        }
+
+        getStatementBuilder().append(element.name())
+                .append(BLANK)
+                .append(order.getOrderName())
+                .append(BLANK);
+
+        return this;
+    }
+
+    public <S extends Enum<S>> JDBCQueryBuilder<T> orderBy(Class<S> clazz, S element, SQLOrder order)
+    {
+        if (!orderByAdded)
+        {
+            getStatementBuilder().append(ORDER_BY);
+            orderByAdded = true;
+        }
+        else
+        {
+            getStatementBuilder().append(COMMA);
+        }
 
         getStatementBuilder().append(element.name())
                 .append(BLANK)
@@ -201,6 +265,10 @@ public final <S extends Enum<S>> JDBCQueryBuilder<T> select(Class<S> clazz, S el
             getStatementBuilder().append(ORDER_BY);
             orderByAdded = true;
         }
+        else
+        {
+            getStatementBuilder().append(COMMA);
+        }
 
         getStatementBuilder().append(element.name())
                 .append(BLANK);
@@ -92,7 +92,7 @@ public class GenericSQLDatabase implements IDatabase
     @Override
     public boolean columnExist(JDBCConnection jdbcConnection, String tableName, String columnName)
     {
-        var columnExist = "SELECT column_name FROM information_schema.columns WHERE table_name= ?  and column_name= ? ";
+        var columnExist = "SELECT column_name FROM information_schema.columns WHERE lower(table_name)= ?  and lower(column_name)= ? ";
         var query = new JDBCQuery(() -> jdbcConnection,
                 columnExist,
                 List.of(tableName.toLowerCase(Locale.ENGLISH), columnName.toLowerCase(Locale.ENGLISH))
@@ -1,8 +1,12 @@
 package io.jexxa.common.wrapper.jdbc.database;
 
+import io.jexxa.common.wrapper.jdbc.JDBCCommand;
 import io.jexxa.common.wrapper.jdbc.JDBCConnection;
 import io.jexxa.common.wrapper.jdbc.builder.SQLDataType;
 
+import java.util.List;
+import java.util.Locale;
+
 /**
  * IDatabase provides a uniform interface to database operations that are vendor specific.
  */
@@ -35,5 +39,29 @@ public interface IDatabase
 
     void renameColumn(JDBCConnection jdbcConnection, String tableName, String oldColumnName, String newColumnName);
 
+    /** Add a column to an existing table. The default implementation uses the generic SQL command {@code ALTER TABLE ... ADD COLUMN}.
+     *
+     * @param jdbcConnection connection to execute the command
+     * @param tableName name of the table that is affected
+     * @param columnName name of the new column
+     * @param sqlDataType data type of the new column
+     */
+    default void addColumn(JDBCConnection jdbcConnection, String tableName, String columnName, SQLDataType sqlDataType)
+    {
+        var addColumnCommand =  "ALTER TABLE "
+                + tableName.toLowerCase(Locale.ENGLISH)
+                + " ADD COLUMN "
+                + columnName.toLowerCase(Locale.ENGLISH)
+                + " "
+                + sqlDataType;
+
+        var addCommand = new JDBCCommand(
+                ()->jdbcConnection,
+                addColumnCommand,
+                List.of()
+        );
+        addCommand.asIgnore();
+    }
+
     boolean columnExist(JDBCConnection jdbcConnection, String tableName, String columnName);
 }
@@ -1,5 +1,6 @@
 package io.jexxa.core;
 
+import io.jexxa.adapterapi.invocation.ConcurrencyPolicy;
 import io.jexxa.adapterapi.invocation.InvocationContext;
 import io.jexxa.adapterapi.invocation.InvocationManager;
 
@@ -70,4 +71,27 @@ public final class FluentInterceptor
         around(consumer);
         return this;
     }
+
+    /**
+     * Defines how invocations of the intercepted objects are synchronized against each other.
+     *
+     * @param concurrencyPolicy policy to be used, such as {@link ConcurrencyPolicy#concurrent()}
+     * @return JexxaMain object to call additional methods
+     */
+    @SuppressWarnings("UnusedReturnValue")
+    public JexxaMain withConcurrency(ConcurrencyPolicy concurrencyPolicy)
+    {
+        targetObjects.stream()
+                .map(InvocationManager::getRootInterceptor)
+                .forEach( interceptor -> interceptor.setConcurrencyPolicy(concurrencyPolicy));
+
+        return jexxaMain;
+    }
+
+    @SuppressWarnings("UnusedReturnValue")
+    public FluentInterceptor withConcurrencyAnd(ConcurrencyPolicy concurrencyPolicy)
+    {
+        withConcurrency(concurrencyPolicy);
+        return this;
+    }
 }
@@ -3,6 +3,8 @@ package io.jexxa.core;
 import io.jexxa.adapterapi.JexxaContext;
 import io.jexxa.adapterapi.drivingadapter.HealthCheck;
 import io.jexxa.adapterapi.drivingadapter.IDrivingAdapter;
+import io.jexxa.adapterapi.invocation.ConcurrencyPolicy;
+import io.jexxa.adapterapi.invocation.InvocationManager;
 import io.jexxa.adapterapi.invocation.transaction.TransactionManager;
 import io.jexxa.common.JexxaBanner;
 import io.jexxa.common.JexxaCoreProperties;
@@ -104,6 +106,7 @@ public final class JexxaMain
         this.boundedContext = new BoundedContext(this.properties.getProperty(JexxaCoreProperties.JEXXA_CONTEXT_NAME), this);
 
         setExceptionHandler();
+        setConcurrencyPolicy();
         addConfigBanner(this::printStartupInfo);
     }
 
@@ -477,6 +480,15 @@ public final class JexxaMain
         }
     }
 
+    private void setConcurrencyPolicy()
+    {
+        var policy = properties.getProperty(JexxaCoreProperties.JEXXA_INVOCATION_CONCURRENCY, "global-serial");
+        var stripes = Integer.parseInt(properties.getProperty(JexxaCoreProperties.JEXXA_INVOCATION_STRIPES,
+                String.valueOf(ConcurrencyPolicy.DEFAULT_STRIPES)));
+
+        InvocationManager.setDefaultConcurrencyPolicy(ConcurrencyPolicy.of(policy, stripes));
+    }
+
     public void addProperties(Properties properties)
     {
         this.properties.putAll(properties);
@@ -0,0 +1,15 @@
+package io.jexxa.drivingadapter.messaging;
+
+/**
+ * A signal that indicates whether the application is currently saturated, e.g., because the latency of invocations
+ * increases or a connection pool is exhausted.
+ * <p>
+ * While at least one signal registered at a {@link JMSAdapter} is saturated, the JMSAdapter stops its connection so
+ * that no further messages are delivered. The connection is restarted as soon as all signals are no longer saturated.
+ * Since the signal is periodically polled, it should be cheap to evaluate.
+ */
+@FunctionalInterface
+public interface BackpressureSignal
+{
+    boolean isSaturated();
+}
@@ -0,0 +1,192 @@
+package io.jexxa.drivingadapter.messaging;
+
+import io.jexxa.adapterapi.invocation.InvocationManager;
+import io.jexxa.adapterapi.invocation.JexxaInvocationHandler;
+import io.jexxa.drivingadapter.messaging.listener.BatchMessageListener;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.Session;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import static io.jexxa.common.wrapper.logger.SLF4jLogger.getLogger;
+
+/**
+ * Receives messages for a {@link BatchMessageListener} within a transacted session and passes them as batch to the
+ * listener. The transaction is committed if the listener processed the batch successfully. Otherwise, it is rolled
+ * back and the redelivered messages are passed to the listener one by one. Redelivered messages are detected by
+ * {@link Message#getJMSRedelivered()}, so that this also applies to messages that were received but not committed
+ * before a failover.
+ * <p>
+ * If receiving or committing messages fails, the transaction is rolled back and the receiver continues after
+ * {@link #POLL_TIMEOUT}. In case of a broken connection, the failover of the JMSAdapter stops this receiver and creates
+ * a new one.
+ */
+class BatchReceiver implements Runnable
+{
+    // Time after which a blocking receive returns to check if the receiver was stopped
+    private static final long POLL_TIMEOUT = 500;
+
+    private final Session session;
+    private final MessageConsumer consumer;
+    private final BatchMessageListener<?> batchListener;
+    private final JexxaInvocationHandler invocationHandler;
+    private final IntConsumer messagesDelivered;
+    private final IntConsumer messagesProcessed;
+    private final Thread thread;
+
+    private volatile boolean running = true;
+
+    /**
+     * @param messagesDelivered is informed about each received message
+     * @param messagesProcessed is informed about the number of messages of a batch after it was committed or rolled back
+     */
+    BatchReceiver(Session session, MessageConsumer consumer, BatchMessageListener<?> batchListener,
+                  IntConsumer messagesDelivered, IntConsumer messagesProcessed)
+    {
+        this.session = session;
+        this.consumer = consumer;
+        this.batchListener = batchListener;
+        this.invocationHandler = InvocationManager.getInvocationHandler(batchListener);
+        this.messagesDelivered = messagesDelivered;
+        this.messagesProcessed = messagesProcessed;
+        this.thread = new Thread(this, BatchReceiver.class.getSimpleName() + "-" + batchListener.getClass().getSimpleName());
+    }
+
+    void start()
+    {
+        thread.start();
+    }
+
+    void stop()
+    {
+        running = false;
+    }
+
+    void join()
+    {
+        try
+        {
+            thread.join(POLL_TIMEOUT * 2);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run()
+    {
+        while (running)
+        {
+            var batch = new ArrayList<Message>();
+            var failed = false;
+            try
+            {
+                receiveBatch(batch);
+                if (!batch.isEmpty())
+                {
+                    processBatch(batch);
+                }
+            }
+            catch (JMSException e)
+            {
+                if (running)
+                {
+                    getLogger(BatchReceiver.class).error("Could not receive or commit messages -> Retry in {} ms. Reason: {}", POLL_TIMEOUT, e.getMessage());
+                    rollback();
+                    failed = true;
+                }
+            }
+            finally
+            {
+                messagesProcessed.accept(batch.size());
+            }
+
+            if (failed)
+            {
+                waitBeforeRetry();
+            }
+        }
+    }
+
+    private void rollback()
+    {
+        try
+        {
+            session.rollback();
+        }
+        catch (JMSException e)
+        {
+            getLogger(BatchReceiver.class).warn("Could not rollback received messages. Reason: {}", e.getMessage());
+        }
+    }
+
+    private void waitBeforeRetry()
+    {
+        try
+        {
+            Thread.sleep(POLL_TIMEOUT);
+        }
+        catch (InterruptedException e)
+        {
+            running = false;
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void receiveBatch(List<Message> batch) throws JMSException
+    {
+        var firstMessage = consumer.receive(POLL_TIMEOUT);
+        if (firstMessage == null)
+        {
+            return;
+        }
+        addToBatch(batch, firstMessage);
+
+        // A redelivered message is processed on its own, so that it cannot cause the rollback of other messages again
+        var maxBatchSize = firstMessage.getJMSRedelivered() ? 1 : batchListener.getMaxBatchSize();
+        var deadline = System.currentTimeMillis() + batchListener.getMaxWait().toMillis();
+
+        while (batch.size() < maxBatchSize)
+        {
+            var remainingTime = deadline - System.currentTimeMillis();
+            var message = (remainingTime > 0) ? consumer.receive(remainingTime) : consumer.receiveNoWait();
+            if (message == null)
+            {
+                break;
+            }
+            addToBatch(batch, message);
+        }
+    }
+
+    private void addToBatch(List<Message> batch, Message message)
+    {
+        batch.add(message);
+        messagesDelivered.accept(1);
+    }
+
+    private void processBatch(List<Message> batch) throws JMSException
+    {
+        try
+        {
+            invocationHandler.invoke(batchListener, batchListener::onMessageBatch, batch);
+            session.commit();
+        }
+        catch (RuntimeException e)
+        {
+            session.rollback();
+
+            if (batch.size() > 1)
+            {
+                getLogger(BatchReceiver.class).warn("Could not process batch of {} messages -> Process messages one by one. Reason: {}", batch.size(), e.getMessage());
+            } else {
+                getLogger(BatchReceiver.class).error("Could not process message -> Message will be redelivered. Reason: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -3,14 +3,17 @@ package io.jexxa.drivingadapter.messaging;
 
 import io.jexxa.adapterapi.drivingadapter.IDrivingAdapter;
 import io.jexxa.adapterapi.invocation.InvocationManager;
+import io.jexxa.adapterapi.invocation.JexxaInvocationHandler;
 import io.jexxa.common.JexxaBanner;
 import io.jexxa.common.function.ThrowingConsumer;
 import io.jexxa.common.wrapper.jms.JMSProperties;
+import io.jexxa.drivingadapter.messaging.listener.BatchMessageListener;
 import org.apache.commons.lang3.Validate;
 
 import javax.jms.Connection;
 import javax.jms.Destination;
 import javax.jms.JMSException;
+import javax.jms.Message;
 import javax.jms.MessageConsumer;
 import javax.jms.MessageListener;
 import javax.jms.Session;
@@ -22,10 +25,17 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static io.jexxa.common.JexxaJMSProperties.JEXXA_JMS_BACKPRESSURE_INTERVAL;
+import static io.jexxa.common.JexxaJMSProperties.JEXXA_JMS_CONCURRENCY;
+import static io.jexxa.common.JexxaJMSProperties.JEXXA_JMS_MAX_IN_FLIGHT;
 import static io.jexxa.common.JexxaJMSProperties.JEXXA_JMS_SIMULATE;
 import static io.jexxa.common.wrapper.jms.JMSConnection.createConnection;
 import static io.jexxa.common.wrapper.logger.SLF4jLogger.getLogger;
@@ -35,6 +45,7 @@ public class JMSAdapter implements AutoCloseable, IDrivingAdapter
     private Connection connection;
     private final List<Session> sessionList = new ArrayList<>();
     private final List<MessageConsumer> consumerList = new ArrayList<>();
+    private final List<BatchReceiver> batchReceiverList = new ArrayList<>();
     private final List<Object> registeredListener = new ArrayList<>();
     private final List<JMSConfiguration> jmsConfigurationList = new ArrayList<>();
     private final JMSConnectionExceptionHandler jmsConnectionExceptionHandler;
@@ -42,6 +53,17 @@ public class JMSAdapter implements AutoCloseable, IDrivingAdapter
     private final boolean simulateJMS;
     private final Properties properties;
 
+    // Backpressure: The connection is stopped while the application is saturated. Stopping and starting the
+    // connection is only done by the backpressureExecutor without holding the lock of this object, because stopping
+    // the connection waits until all listeners finished processing their current message.
+    private final List<BackpressureSignal> backpressureSignals = new CopyOnWriteArrayList<>();
+    private final AtomicInteger inFlightMessages = new AtomicInteger(0);
+    private final int maxInFlightMessages; // 0 means unlimited
+    private final long backpressureInterval;
+    private volatile ScheduledExecutorService backpressureExecutor;
+    private final AtomicBoolean paused = new AtomicBoolean(false);
+    private boolean started;
+
     public JMSAdapter(final Properties properties)
     {
         simulateJMS = properties.containsKey(JEXXA_JMS_SIMULATE);
@@ -51,6 +73,11 @@ public class JMSAdapter implements AutoCloseable, IDrivingAdapter
         this.jmsConnectionExceptionHandler = new JMSConnectionExceptionHandler(this, registeredListener);
         this.properties = properties;
 
+        this.maxInFlightMessages = Integer.parseInt(properties.getProperty(JEXXA_JMS_MAX_IN_FLIGHT, "0"));
+        Validate.isTrue(maxInFlightMessages >= 0, JEXXA_JMS_MAX_IN_FLIGHT + " must not be negative");
+        this.backpressureInterval = Long.parseLong(properties.getProperty(JEXXA_JMS_BACKPRESSURE_INTERVAL, "100"));
+        Validate.isTrue(backpressureInterval > 0, JEXXA_JMS_BACKPRESSURE_INTERVAL + " must be greater than 0");
+
         initConnection();
 
         JexxaBanner.addAccessBanner(this::bannerInformation);
@@ -64,6 +91,8 @@ public class JMSAdapter implements AutoCloseable, IDrivingAdapter
             if (!simulateJMS) {
                 jmsConnectionExceptionHandler.setListener(registeredListener);
                 connection.start();
+                batchReceiverList.forEach(BatchReceiver::start);
+                startBackpressure();
             }
         }
         catch (JMSException e)
@@ -79,9 +108,49 @@ public class JMSAdapter implements AutoCloseable, IDrivingAdapter
     {
         Optional.ofNullable( jmsConnectionExceptionHandler )
                 .ifPresent(JMSConnectionExceptionHandler::stopFailover);
+        stopBackpressure();
         close();
     }
 
+    /**
+     * Registers a signal that stops receiving messages while the application is saturated.
+     * See {@link BackpressureSignal} for more details.
+     */
+    public void registerBackpressureSignal(BackpressureSignal backpressureSignal)
+    {
+        backpressureSignals.add(Objects.requireNonNull(backpressureSignal));
+
+        synchronized (this)
+        {
+            if (started)
+            {
+                startBackpressure();
+            }
+        }
+    }
+
+    /**
+     * @return number of messages that are currently delivered to a listener but not yet processed. This includes
+     * messages that wait for the invocation handler of a listener, and all messages of a batch that is received or
+     * processed by a {@link BatchMessageListener}.
+     * <p>
+     * Because each consumer of a plain listener delivers only one message at a time, this number does not exceed the
+     * number of consumers for such listeners. Messages prefetched by the JMS provider are not included, so that the
+     * provider's prefetch setting, such as {@code consumerWindowSize} of ActiveMQ Artemis, must be used to bound them.
+     */
+    public int getInFlightMessages()
+    {
+        return inFlightMessages.get();
+    }
+
+    /**
+     * @return true if receiving messages is currently stopped due to backpressure
+     */
+    public boolean isPaused()
+    {
+        return paused.get();
+    }
+
     @SuppressWarnings("java:S2095") // We must not close the connection
     @Override
     public void register(Object object)
@@ -90,20 +159,31 @@ public class JMSAdapter implements AutoCloseable, IDrivingAdapter
             return;
         }
 
+        if (object instanceof BatchMessageListener<?> batchMessageListener)
+        {
+            registerBatchListener(batchMessageListener);
+            return;
+        }
+
         try {
             var messageListener = (MessageListener) (object);
             var jmsConfiguration = getConfiguration(object);
+            var concurrency = getConcurrency(jmsConfiguration);
+            var invocationHandler = InvocationManager.getInvocationHandler(messageListener);
 
-            var session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
-            sessionList.add(session);
+            // Each consumer requires its own session, because a session delivers its messages sequentially
+            for (int i = 0; i < concurrency; ++i)
+            {
+                var session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+                sessionList.add(session);
 
-            Destination destination = createDestination(session, jmsConfiguration);
-            MessageConsumer consumer = createMessageConsumer(session, destination, jmsConfiguration);
+                Destination destination = createDestination(session, jmsConfiguration);
+                MessageConsumer consumer = createMessageConsumer(session, destination, jmsConfiguration);
 
-            var invocationHandler = InvocationManager.getInvocationHandler(messageListener);
-            consumer.setMessageListener(message -> invocationHandler.invoke(messageListener, messageListener::onMessage, message));
+                consumer.setMessageListener(message -> onMessage(messageListener, invocationHandler, message));
+                consumerList.add(consumer);
+            }
 
-            consumerList.add(consumer);
             registeredListener.add(object);
             jmsConfigurationList.add(jmsConfiguration);
         } catch (JMSException e) {
@@ -116,6 +196,164 @@ public class JMSAdapter implements AutoCloseable, IDrivingAdapter
     }
 
 
+    private void onMessage(MessageListener messageListener, JexxaInvocationHandler invocationHandler, Message message)
+    {
+        messagesDelivered(1);
+        try
+        {
+            invocationHandler.invoke(messageListener, messageListener::onMessage, message);
+        }
+        finally
+        {
+            messagesProcessed(1);
+        }
+    }
+
+    private void messagesDelivered(int messages)
+    {
+        if (inFlightMessages.addAndGet(messages) >= maxInFlightMessages && maxInFlightMessages > 0)
+        {
+            requestBackpressureUpdate();
+        }
+    }
+
+    private void messagesProcessed(int messages)
+    {
+        inFlightMessages.addAndGet(-messages);
+    }
+
+    /**
+     * Starts monitoring the backpressure if it is configured, either by a maximum number of in-flight messages or by
+     * a registered {@link BackpressureSignal}.
+     */
+    private synchronized void startBackpressure()
+    {
+        started = true;
+        if (backpressureExecutor == null && (maxInFlightMessages > 0 || !backpressureSignals.isEmpty()))
+        {
+            backpressureExecutor = Executors.newSingleThreadScheduledExecutor();
+            backpressureExecutor.scheduleWithFixedDelay(this::updateBackpressure, backpressureInterval, backpressureInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void stopBackpressure()
+    {
+        ScheduledExecutorService executorService;
+        synchronized (this)
+        {
+            started = false;
+            executorService = backpressureExecutor;
+            backpressureExecutor = null;
+        }
+
+        // Must be called without holding the lock, because a running update holds it
+        Optional.ofNullable(executorService).ifPresent(ScheduledExecutorService::shutdownNow);
+    }
+
+    private void requestBackpressureUpdate()
+    {
+        try
+        {
+            Optional.ofNullable(backpressureExecutor).ifPresent(executor -> executor.execute(this::updateBackpressure));
+        }
+        catch (RejectedExecutionException e)
+        {
+            // Backpressure was stopped in the meantime
+        }
+    }
+
+    /**
+     * Stops the connection if the application is saturated and restarts it otherwise. Stopping the connection waits
+     * until the listeners finished processing their current message. Therefore, this method is only called by the
+     * backpressureExecutor and must not hold any lock that is also used by a listener.
+     */
+    private void updateBackpressure()
+    {
+        try
+        {
+            var currentConnection = connection;
+            var saturated = isSaturated();
+            if (saturated && !paused.get())
+            {
+                currentConnection.stop();
+                paused.set(true);
+                getLogger(JMSAdapter.class).info("Application is saturated -> Stop receiving messages");
+            }
+            else if (!saturated && paused.get())
+            {
+                currentConnection.start();
+                paused.set(false);
+                getLogger(JMSAdapter.class).info("Application is no longer saturated -> Continue receiving messages");
+            }
+        }
+        catch (JMSException | RuntimeException e)
+        {
+            // In case of a broken connection, the failover restarts the connection
+            getLogger(JMSAdapter.class).warn("Could not update backpressure. Reason: {}", e.getMessage());
+        }
+    }
+
+    private boolean isSaturated()
+    {
+        return (maxInFlightMessages > 0 && inFlightMessages.get() >= maxInFlightMessages)
+                || backpressureSignals.stream().anyMatch(BackpressureSignal::isSaturated);
+    }
+
+    /**
+     * Registers a listener that receives messages in batches. Each consumer uses a transacted session and a thread
+     * that receives the messages, because the batches are formed by the receiving thread.
+     */
+    private void registerBatchListener(BatchMessageListener<?> batchMessageListener)
+    {
+        try {
+            var jmsConfiguration = getConfiguration(batchMessageListener);
+            var concurrency = getConcurrency(jmsConfiguration);
+
+            for (int i = 0; i < concurrency; ++i)
+            {
+                var session = connection.createSession(true, Session.SESSION_TRANSACTED);
+                sessionList.add(session);
+
+                Destination destination = createDestination(session, jmsConfiguration);
+                MessageConsumer consumer = createMessageConsumer(session, destination, jmsConfiguration);
+                consumerList.add(consumer);
+                batchReceiverList.add(new BatchReceiver(session, consumer, batchMessageListener, this::messagesDelivered, this::messagesProcessed));
+            }
+
+            registeredListener.add(batchMessageListener);
+            jmsConfigurationList.add(jmsConfiguration);
+        } catch (JMSException e) {
+            throw new IllegalStateException(
+                    "Registration of of Driving Adapter " + batchMessageListener.getClass().getName() + " failed. Please check the JMSConfiguration.\n" +
+                            " Error message from JMS subsystem: " + e.getMessage()
+                    , e
+            );
+        }
+    }
+
+    private int getConcurrency(JMSConfiguration jmsConfiguration)
+    {
+        var concurrency = jmsConfiguration.concurrency();
+        if (concurrency == 0)
+        {
+            concurrency = Integer.parseInt(properties.getProperty(JEXXA_JMS_CONCURRENCY, "1"));
+        }
+
+        Validate.isTrue(concurrency > 0, "Invalid JMSConfiguration for " + jmsConfiguration.destination() + ": Concurrency must be greater than 0");
+        if (concurrency > 1
+                && jmsConfiguration.messagingType() == JMSConfiguration.MessagingType.TOPIC
+                && jmsConfiguration.sharedSubscriptionName().isEmpty())
+        {
+            // Property JEXXA_JMS_CONCURRENCY is not applied to topics without shared subscription
+            if (jmsConfiguration.concurrency() == 0)
+            {
+                return 1;
+            }
+            throw new IllegalArgumentException("Invalid JMSConfiguration for " + jmsConfiguration.destination() + ": Concurrent consumers of a topic require a shared subscription");
+        }
+        return concurrency;
+    }
+
     private Destination createDestination(Session session, JMSConfiguration jmsConfiguration) throws JMSException {
         if (jmsConfiguration.messagingType() == JMSConfiguration.MessagingType.TOPIC)
         {
@@ -168,12 +406,16 @@ public class JMSAdapter implements AutoCloseable, IDrivingAdapter
     }
 
     @Override
-    public void close()
+    public synchronized void close()
     {
+        paused.set(false); // A new connection is not stopped
+        batchReceiverList.forEach(BatchReceiver::stop);
         consumerList.forEach(consumer -> Optional.ofNullable(consumer).ifPresent(ThrowingConsumer.exceptionLogger(MessageConsumer::close, getLogger(JMSAdapter.class))));
         sessionList.forEach(ThrowingConsumer.exceptionLogger(Session::close, getLogger(JMSAdapter.class)));
         Optional.ofNullable(connection).ifPresent(ThrowingConsumer.exceptionLogger(Connection::close, getLogger(JMSAdapter.class)));
+        batchReceiverList.forEach(BatchReceiver::join);
 
+        batchReceiverList.clear();
         registeredListener.clear();
         consumerList.clear();
         jmsConfigurationList.clear();
@@ -327,6 +569,7 @@ public class JMSAdapter implements AutoCloseable, IDrivingAdapter
                 jmsAdapter.initConnection();
                 listener.forEach(jmsAdapter::register);
                 jmsAdapter.getConnection().start();
+                jmsAdapter.batchReceiverList.forEach(BatchReceiver::start);
 
                 executorService.shutdown();  //Shutdown service if restart was successful
 
@@ -27,4 +27,16 @@ public @interface JMSConfiguration
      */
     String sharedSubscriptionName() default "";
     DurableType durable() default NON_DURABLE;
+
+    /**
+     * Defines the number of sessions and consumers that receive messages for a listener concurrently. Note that the
+     * invocations of the listener are still subject to the concurrency policy of its invocation handler.
+     * <p>
+     * A topic can only be received by more than one consumer if a shared subscription is used, because otherwise each
+     * consumer would receive its own copy of each message.
+     *
+     * @return number of concurrent consumers, or 0 to use the value of property {@code io.jexxa.jms.concurrency}
+     * which is 1 by default
+     */
+    int concurrency() default 0;
 }
@@ -0,0 +1,122 @@
+package io.jexxa.drivingadapter.messaging.listener;
+
+import org.apache.commons.lang3.Validate;
+
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.TextMessage;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static io.jexxa.common.wrapper.json.JSONManager.getJSONConverter;
+
+/**
+ * A listener that receives multiple JSON messages of type T within a single invocation, and thus within a single
+ * transaction of its invocation handler. This allows, for example, to store the content of all messages using a single
+ * batched database operation.
+ * <p>
+ * A batch contains up to {@link #getMaxBatchSize()} messages, or all messages received within {@link #getMaxWait()}
+ * after the first message of the batch. All messages of a batch are acknowledged together after
+ * {@link #onMessages(List)} returned. If it throws an exception, all messages of the batch are redelivered and then
+ * passed to {@link #onMessages(List)} one by one, so that only the messages that cannot be processed are redelivered
+ * again.
+ * <p>
+ * Like all other listeners, a BatchMessageListener must provide a {@link io.jexxa.drivingadapter.messaging.JMSConfiguration}.
+ * The current batch is confined to the receiving thread, so that a BatchMessageListener can be registered with a
+ * concurrency greater than 1.
+ *
+ * @param <T> type of the messages
+ */
+@SuppressWarnings("unused")
+public abstract class BatchMessageListener<T>
+{
+    private final Class<T> clazz;
+    private final int maxBatchSize;
+    private final Duration maxWait;
+    private final ThreadLocal<List<Message>> currentMessages = new ThreadLocal<>(); // Confined to the receiving thread
+
+    protected BatchMessageListener(Class<T> clazz, int maxBatchSize, Duration maxWait)
+    {
+        Validate.isTrue(maxBatchSize > 0, "Maximum batch size must be greater than 0");
+        Validate.isTrue(!maxWait.isNegative(), "Maximum wait time must not be negative");
+
+        this.clazz = Objects.requireNonNull(clazz);
+        this.maxBatchSize = maxBatchSize;
+        this.maxWait = maxWait;
+    }
+
+    public abstract void onMessages(List<T> messages);
+
+    /**
+     * Entry point for the JMSAdapter. Converts given JMS messages and passes them to {@link #onMessages(List)}.
+     */
+    public final void onMessageBatch(List<Message> messages)
+    {
+        try
+        {
+            currentMessages.set(messages);
+
+            var result = new ArrayList<T>(messages.size());
+            for (var message : messages)
+            {
+                result.add(fromJson(getText(message), clazz));
+            }
+
+            onMessages(result);
+        }
+        finally
+        {
+            currentMessages.remove();
+        }
+    }
+
+    public final int getMaxBatchSize()
+    {
+        return maxBatchSize;
+    }
+
+    public final Duration getMaxWait()
+    {
+        return maxWait;
+    }
+
+    /**
+     * Returns the JMS messages of the batch that is currently processed, in the same order as passed to
+     * {@link #onMessages(List)}
+     */
+    protected final List<Message> getCurrentMessages()
+    {
+        return currentMessages.get();
+    }
+
+    protected static <U> U fromJson( String message, Class<U> clazz)
+    {
+        return getJSONConverter().fromJson( message, clazz);
+    }
+
+    private static String getText(Message message)
+    {
+        try
+        {
+            if (message instanceof TextMessage textMessage)
+            {
+                return textMessage.getText();
+            }
+            if (message instanceof BytesMessage bytesMessage)
+            {
+                byte[] payload = new byte[(int) bytesMessage.getBodyLength()];
+                bytesMessage.readBytes(payload);
+                return new String(payload, StandardCharsets.UTF_8);
+            }
+        }
+        catch (JMSException e)
+        {
+            throw new IllegalStateException("Could not read received message as text or byte message", e);
+        }
+        throw new IllegalArgumentException("Unsupported message type " + message.getClass().getSimpleName());
+    }
+}
@@ -1,52 +1,69 @@
 package io.jexxa.drivingadapter.messaging.listener;
 
-import io.jexxa.infrastructure.RepositoryManager;
-import io.jexxa.infrastructure.persistence.repository.IRepository;
+import io.jexxa.adapterapi.JexxaContext;
+import io.jexxa.adapterapi.invocation.InvocationManager;
+import io.jexxa.adapterapi.invocation.InvocationTargetRuntimeException;
+import io.jexxa.infrastructure.ObjectStoreManager;
+import io.jexxa.infrastructure.persistence.objectstore.IObjectStore;
+import io.jexxa.infrastructure.persistence.objectstore.metadata.MetaTag;
+import io.jexxa.infrastructure.persistence.objectstore.metadata.MetadataSchema;
 
 import javax.jms.JMSException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import static io.jexxa.common.wrapper.logger.SLF4jLogger.getLogger;
+import static io.jexxa.infrastructure.persistence.objectstore.metadata.MetaTags.instantTag;
 
 public abstract class IdempotentListener<T> extends JSONMessageListener
 {
     private static final Duration DEFAULT_STORAGE_DURATION = Duration.ofDays(7);
+    private static final Duration MAX_CLEANUP_INTERVAL = Duration.ofMinutes(1);
     private static final String DEFAULT_MESSAGE_ID = "domain_event_id";
-    private final IRepository<JexxaInboundMessage, ReceivingID> messageRepository;
+    private static final int CLEANUP_BATCH_SIZE = 1000;
+    private static final int MAX_CLEANUP_PAGES = 10; // Maximum number of pages per cleanup, remaining pages follow with the next cleanup
+
+    // Removes expired messages of all IdempotentListeners, so that the cleanup does not delay processing a message
+    private static final ScheduledExecutorService CLEANUP_EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, IdempotentListener.class.getSimpleName() + "-Cleanup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final IObjectStore<JexxaInboundMessage, ReceivingID, InboundMessageSchema> messageStore;
     private final Class<T> clazz;
-    private Instant oldestMessage;
+
+    private ScheduledFuture<?> cleanupTask;
+    private String cleanupContinuationToken; // Start of the messages that were not cleaned up. Only accessed by the cleanup executor
 
     protected IdempotentListener(Class<T> clazz, Properties properties)
     {
         this.clazz = Objects.requireNonNull( clazz );
-        messageRepository = RepositoryManager.getRepository(JexxaInboundMessage.class, JexxaInboundMessage::receivingID, properties);
+        messageStore = ObjectStoreManager.getObjectStore(JexxaInboundMessage.class
+                , JexxaInboundMessage::receivingID
+                , InboundMessageSchema.class
+                , properties);
+        JexxaContext.registerCleanupHandler(this::stopCleanup);
     }
     @Override
     public final void onMessage(String message)
     {
-        // If we do not find a uniqueID, we show a warning and process the message
-        var uniqueID = uniqueID();
-        if ( !messageHeaderIncludes( uniqueID ))
-        {
-            getLogger(getClass()).warn("Message does not include an ID {} -> Process message", uniqueID);
-            onMessage( fromJson(message, clazz ));
-            return;
-        }
-
-        // If we already processed the ID, we show an info message and return
-        var receivingID = new ReceivingID(getMessageHeaderValue(uniqueID), this.getClass().getName());
-        if (messageRepository.get(receivingID).isPresent()) {
-            getLogger(getClass()).info("Message with key {} already processed by {} -> Ignore it", receivingID.uuid, receivingID.className);
-            return;
-        }
+        processMessage(() -> fromJson(message, clazz));
+    }
 
-        onMessage( fromJson(message, clazz ));
-        messageRepository.add(new JexxaInboundMessage(receivingID, Instant.now()));
-        removeOldMessages();
+    @Override
+    protected final void onCurrentMessage()
+    {
+        processMessage(() -> fromCurrentMessage(clazz));
     }
+
     public abstract void onMessage(T message);
 
     protected String uniqueID()
@@ -86,60 +103,135 @@ public abstract class IdempotentListener<T> extends JSONMessageListener
         return null;
     }
 
-    private void removeOldMessages()
+    private void processMessage(Supplier<T> messageSupplier)
     {
-        if (!expiredMessageAvailable(oldestMessage))
+        // If we do not find a uniqueID, we show a warning and process the message
+        var uniqueID = uniqueID();
+        if ( !messageHeaderIncludes( uniqueID ))
         {
+            getLogger(getClass()).warn("Message does not include an ID {} -> Process message", uniqueID);
+            onMessage( messageSupplier.get() );
             return;
         }
 
-        messageRepository.get().stream()
-                .filter(this::toBeRemoved)
-                .forEach(this::removeMessage);
+        // If we already processed the ID, we show an info message and return. The message store is queried for each
+        // message because other listeners sharing the subscription, also in other processes, store processed IDs as well
+        var receivingID = new ReceivingID(getMessageHeaderValue(uniqueID), this.getClass().getName());
+        if (messageStore.get(receivingID).isPresent()) {
+            getLogger(getClass()).info("Message with key {} already processed by {} -> Ignore it", receivingID.uuid, receivingID.className);
+            return;
+        }
 
-        oldestMessage = messageRepository.get()
-                .stream()
-                .map(JexxaInboundMessage::processingTime)
-                .sorted()
-                .findFirst()
-                .orElse(null);
+        onMessage( messageSupplier.get() );
+        messageStore.add(new JexxaInboundMessage(receivingID, Instant.now()));
+        startCleanup();
     }
 
-    private boolean expiredMessageAvailable(Instant oldestMessage)
+    private synchronized void startCleanup()
     {
-        if (oldestMessage == null)
+        if (cleanupTask == null)
         {
-            return true;
+            var cleanupInterval = getStorageDuration().compareTo(MAX_CLEANUP_INTERVAL) < 0 ? getStorageDuration() : MAX_CLEANUP_INTERVAL;
+            var interval = Math.max(1, cleanupInterval.toMillis());
+            cleanupTask = CLEANUP_EXECUTOR.scheduleWithFixedDelay(this::cleanup, interval, interval, TimeUnit.MILLISECONDS);
         }
-
-        return Duration.between( oldestMessage, Instant.now() ).compareTo(getStorageDuration()) > 0;
     }
 
-    private boolean toBeRemoved(JexxaInboundMessage jexxaInboundMessage)
+    private synchronized void stopCleanup()
     {
-        return Duration
-                .between( jexxaInboundMessage.processingTime, Instant.now())
-                .compareTo(getStorageDuration()) >= 0;
+        if (cleanupTask != null)
+        {
+            cleanupTask.cancel(false);
+            cleanupTask = null;
+        }
     }
 
-    private void removeMessage(JexxaInboundMessage jexxaInboundMessage)
+    private void cleanup()
     {
         try {
-            messageRepository.remove(jexxaInboundMessage.receivingID);
+            var invocationHandler = InvocationManager.getInvocationHandler(this);
+            boolean pageExpired;
+            var pages = 0;
+            do {
+                pageExpired = invocationHandler.invoke(this, this::removeExpiredMessages);
+                ++pages;
+            } while (pageExpired && pages < MAX_CLEANUP_PAGES);
         } catch (RuntimeException e)
         {
-            // If we use this listener in a sharedSubscription it could happen that a remove fails
-            // Since we are potentially in a transaction, throwing an exception could roll back a successfully executed command
-            // Therefore, we just show error messages, if old message is 10x older than the expiration time.
-            if (Duration.between( jexxaInboundMessage.processingTime, Instant.now())
-                    .compareTo(getStorageDuration().multipliedBy(10)) >=0)
-            {
-                getLogger(getClass()).warn("Could not cleanup inbound messages. There exist messages that are >= 10x older than the allowed storage duration!");
-            }
+            // If we use this listener in a sharedSubscription it could happen that a remove fails because another
+            // listener already removed the messages. In this case, remaining messages are removed by the next cleanup.
+            var reason = (e instanceof InvocationTargetRuntimeException targetException) ? targetException.getTargetException() : e;
+            getLogger(getClass()).warn("Could not cleanup inbound messages. Reason: {}", reason.getMessage());
+            cleanupContinuationToken = null;
+        }
+    }
+
+    /**
+     * Removes the expired messages of this listener from the next page of the oldest messages, so that the cleanup
+     * requires bounded memory. Messages of other listeners are skipped because they can use another storage duration.
+     * <p>
+     * If all messages of a page were expired, the next cleanup continues after this page. Since messages are stored
+     * in the order of their processing time, the skipped messages of other listeners are read only once, instead of
+     * by each cleanup.
+     *
+     * @return true if all messages of the page were expired so that further expired messages may be available
+     */
+    private boolean removeExpiredMessages()
+    {
+        var page = messageStore
+                .getNumericQuery(InboundMessageSchema.PROCESSING_TIME, Instant.class)
+                .getAscendingAfter(cleanupContinuationToken, CLEANUP_BATCH_SIZE);
+
+        var expiredMessages = page.content()
+                .stream()
+                .filter(element -> isExpired(element.processingTime))
+                .toList();
+
+        var ownExpiredMessages = expiredMessages
+                .stream()
+                .map(JexxaInboundMessage::receivingID)
+                .filter(element -> element.className.equals(getClass().getName()))
+                .toList();
+
+        if (!ownExpiredMessages.isEmpty())
+        {
+            messageStore.removeAll(ownExpiredMessages);
+        }
+
+        var allExpired = expiredMessages.size() == page.content().size() && page.hasNext();
+        if (allExpired)
+        {
+            cleanupContinuationToken = page.continuationToken();
         }
+        return allExpired;
+    }
+
+    private boolean isExpired(Instant processingTime)
+    {
+        return Duration
+                .between( processingTime, Instant.now())
+                .compareTo(getStorageDuration()) >= 0;
     }
 
     record JexxaInboundMessage(ReceivingID receivingID, Instant processingTime) {}
     record ReceivingID(String uuid, String className){}
 
+    enum InboundMessageSchema implements MetadataSchema
+    {
+        PROCESSING_TIME(instantTag(JexxaInboundMessage::processingTime));
+
+        private final MetaTag<JexxaInboundMessage, ?, ? > metaTag;
+
+        InboundMessageSchema(MetaTag<JexxaInboundMessage,?, ?> metaTag)
+        {
+            this.metaTag = metaTag;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T, S, V> MetaTag<T, S, V> getTag()
+        {
+            return (MetaTag<T, S, V>) metaTag;
+        }
+    }
 }
@@ -8,19 +8,25 @@ import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.MessageListener;
 import javax.jms.TextMessage;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
 import static io.jexxa.common.wrapper.json.JSONManager.getJSONConverter;
 import static io.jexxa.common.wrapper.logger.SLF4jLogger.getLogger;
 
+/**
+ * A listener that receives JSON messages. The current message is confined to the thread that delivers it, so that a
+ * JSONMessageListener can be registered with a concurrency greater than 1.
+ */
 @SuppressWarnings("unused")
 public abstract class JSONMessageListener implements MessageListener
 {
-    private Message currentMessage;
-    private String currentMessageText;
+    private final ThreadLocal<CurrentMessage> currentMessage = new ThreadLocal<>();
 
     public abstract void onMessage(String message);
 
@@ -29,32 +35,69 @@ public abstract class JSONMessageListener implements MessageListener
     {
         try
         {
-            this.currentMessage = message;
-            if (message instanceof TextMessage)
+            var current = new CurrentMessage(message);
+            if (message instanceof TextMessage textMessage)
             {
-                TextMessage textMessage = (TextMessage)currentMessage;
-                this.currentMessageText = textMessage.getText();
-            } else if ( message instanceof BytesMessage) {
-                BytesMessage byteMessage = (BytesMessage) currentMessage;
+                current.text = textMessage.getText();
+            } else if ( message instanceof BytesMessage byteMessage) {
                 byte[] payload = new byte[(int) byteMessage.getBodyLength()];
                 byteMessage.readBytes(payload);
-                this.currentMessageText = Arrays.toString(payload);
+                current.bytes = payload;
             }
 
-            onMessage( currentMessageText );
+            currentMessage.set(current);
+            onCurrentMessage();
         }
         catch (JMSException exception)
         {
             //In case of a JMS exception we assume that data cannot be read due to some internal JMS issues and discard the message
             getLogger(getClass()).error("Could not process received message as text or byte message -> Discard it. Reason: {}", exception.getMessage());
         }
-        currentMessage = null;
-        currentMessageText = null;
+        finally
+        {
+            currentMessage.remove();
+        }
+    }
+
+    /**
+     * Processes the current message. By default, the message is passed as String to {@link #onMessage(String)}.
+     * Listeners that convert the message into a specific type should override this method and use
+     * {@link #fromCurrentMessage(Class)}, so that a byte message is deserialized without creating an intermediate String.
+     */
+    protected void onCurrentMessage()
+    {
+        onMessage( getCurrentMessageText() );
     }
 
     protected final Message getCurrentMessage()
     {
-        return currentMessage;
+        return getCurrent().message;
+    }
+
+    /**
+     * Returns the content of the current message. The content of a byte message is decoded as UTF-8.
+     */
+    protected final String getCurrentMessageText()
+    {
+        var current = getCurrent();
+        if (current.text == null && current.bytes != null)
+        {
+            current.text = new String(current.bytes, StandardCharsets.UTF_8);
+        }
+        return current.text;
+    }
+
+    /**
+     * Deserializes the current message. The content of a byte message is read directly as UTF-8 stream.
+     */
+    protected final <U> U fromCurrentMessage(Class<U> clazz)
+    {
+        var current = getCurrent();
+        if (current.text == null && current.bytes != null)
+        {
+            return getJSONConverter().fromJson(current.getReader(), clazz);
+        }
+        return fromJson(current.text, clazz);
     }
 
     protected static <U> U fromJson( String message, Class<U> clazz)
@@ -64,8 +107,7 @@ public abstract class JSONMessageListener implements MessageListener
 
     protected boolean messageContains(String attribute)
     {
-        var jsonElement = JsonParser.parseString(currentMessageText);
-        return deepSearchKeys(jsonElement, attribute)
+        return deepSearchKeys(getCurrentJsonElement(), attribute)
                 .stream()
                 .findFirst()
                 .isPresent();
@@ -73,9 +115,7 @@ public abstract class JSONMessageListener implements MessageListener
 
     protected <U> U getFromMessage(String key, Class<U> clazz)
     {
-        var jsonElement = JsonParser.parseString(currentMessageText);
-
-        var result = deepSearchKeys( jsonElement, key )
+        var result = deepSearchKeys( getCurrentJsonElement(), key )
                 .stream()
                 .findFirst()
                 .orElseThrow();
@@ -105,5 +145,46 @@ public abstract class JSONMessageListener implements MessageListener
             });
         }
     }
-}
 
+    private JsonElement getCurrentJsonElement()
+    {
+        var current = getCurrent();
+        if (current.jsonElement == null)
+        {
+            if (current.text == null && current.bytes != null)
+            {
+                current.jsonElement = JsonParser.parseReader(current.getReader());
+            } else {
+                current.jsonElement = JsonParser.parseString(current.text);
+            }
+        }
+        return current.jsonElement;
+    }
+
+    private CurrentMessage getCurrent()
+    {
+        // If no message is processed by the current thread, all attributes of the current message are null
+        return Objects.requireNonNullElseGet(currentMessage.get(), () -> new CurrentMessage(null));
+    }
+
+    /**
+     * The message that is currently processed by a thread
+     */
+    private static final class CurrentMessage
+    {
+        private final Message message;
+        private String text;   // Decoded on demand if a byte message is received
+        private byte[] bytes;
+        private JsonElement jsonElement; // Parsed on demand and then used for all searches within the message
+
+        CurrentMessage(Message message)
+        {
+            this.message = message;
+        }
+
+        Reader getReader()
+        {
+            return new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -22,6 +22,12 @@ public abstract class TypedMessageListener<T> extends JSONMessageListener
         onMessage( fromJson(message, clazz ));
     }
 
+    @Override
+    protected final void onCurrentMessage()
+    {
+        onMessage( fromCurrentMessage( clazz ));
+    }
+
     protected static <U> U fromJson( String message, Class<U> clazz)
     {
         return getJSONConverter().fromJson( message, clazz);
@@ -0,0 +1,57 @@
+package io.jexxa.infrastructure.messaging;
+
+import org.apache.commons.lang3.Validate;
+
+import java.time.Duration;
+
+/**
+ * Defines how a message is delivered by a {@link MessageSender}. Each attribute can be null, which means that the
+ * attribute is not specified and the value configured for the destination or the default of the message sender is used.
+ *
+ * @param deliveryMode defines if a message must survive a restart of the message broker
+ * @param priority priority of a message in range from 0 (lowest) to 9 (highest)
+ * @param timeToLive time after which a message expires. {@link Duration#ZERO} means that a message never expires
+ */
+public record DeliveryProfile(DeliveryMode deliveryMode, Integer priority, Duration timeToLive)
+{
+    public enum DeliveryMode { PERSISTENT, NON_PERSISTENT }
+
+    private static final DeliveryProfile UNSPECIFIED = new DeliveryProfile(null, null, null);
+
+    public DeliveryProfile
+    {
+        Validate.isTrue(priority == null || (priority >= 0 && priority <= 9), "Priority must be in range from 0 to 9");
+        Validate.isTrue(timeToLive == null || !timeToLive.isNegative(), "Time to live must not be negative");
+    }
+
+    public static DeliveryProfile unspecified()
+    {
+        return UNSPECIFIED;
+    }
+
+    public DeliveryProfile withDeliveryMode(DeliveryMode deliveryMode)
+    {
+        return new DeliveryProfile(deliveryMode, priority, timeToLive);
+    }
+
+    public DeliveryProfile withPriority(Integer priority)
+    {
+        return new DeliveryProfile(deliveryMode, priority, timeToLive);
+    }
+
+    public DeliveryProfile withTimeToLive(Duration timeToLive)
+    {
+        return new DeliveryProfile(deliveryMode, priority, timeToLive);
+    }
+
+    /**
+     * Returns a delivery profile in which all unspecified attributes are taken from given profile
+     */
+    public DeliveryProfile orElse(DeliveryProfile defaultProfile)
+    {
+        return new DeliveryProfile(
+                (deliveryMode != null) ? deliveryMode : defaultProfile.deliveryMode(),
+                (priority != null) ? priority : defaultProfile.priority(),
+                (timeToLive != null) ? timeToLive : defaultProfile.timeToLive());
+    }
+}
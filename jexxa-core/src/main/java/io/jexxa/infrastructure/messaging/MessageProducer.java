@@ -2,8 +2,10 @@ package io.jexxa.infrastructure.messaging;
 
 import io.jexxa.common.annotation.CheckReturnValue;
 
+import java.time.Duration;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -17,6 +19,7 @@ public class MessageProducer
     private final Object message;
     private final MessageSender messageSender;
     private final MessageSender.MessageType messageType;
+    private DeliveryProfile deliveryProfile = DeliveryProfile.unspecified();
 
     private DestinationType destinationType;
     private String destination;
@@ -59,6 +62,57 @@ public class MessageProducer
         return this;
     }
 
+    /**
+     * Requests that the message survives a restart of the message broker
+     */
+    @CheckReturnValue
+    public MessageProducer persistent()
+    {
+        deliveryProfile = deliveryProfile.withDeliveryMode(DeliveryProfile.DeliveryMode.PERSISTENT);
+        return this;
+    }
+
+    /**
+     * Requests that the message is not stored by the message broker, which allows a higher throughput
+     */
+    @CheckReturnValue
+    public MessageProducer nonPersistent()
+    {
+        deliveryProfile = deliveryProfile.withDeliveryMode(DeliveryProfile.DeliveryMode.NON_PERSISTENT);
+        return this;
+    }
+
+    /**
+     * @param priority priority of the message in range from 0 (lowest) to 9 (highest)
+     */
+    @CheckReturnValue
+    public MessageProducer withPriority(int priority)
+    {
+        deliveryProfile = deliveryProfile.withPriority(priority);
+        return this;
+    }
+
+    /**
+     * @param timeToLive time after which the message expires. {@link Duration#ZERO} means that the message never expires
+     */
+    @CheckReturnValue
+    public MessageProducer withTimeToLive(Duration timeToLive)
+    {
+        deliveryProfile = deliveryProfile.withTimeToLive(Objects.requireNonNull(timeToLive));
+        return this;
+    }
+
+    /**
+     * Sets the delivery profile of the message. All attributes that are not specified by given profile are taken from
+     * the configuration of the message sender.
+     */
+    @CheckReturnValue
+    public MessageProducer withDeliveryProfile(DeliveryProfile deliveryProfile)
+    {
+        this.deliveryProfile = Objects.requireNonNull(deliveryProfile);
+        return this;
+    }
+
     public void asJson()
     {
         as(getJSONConverter()::toJson);
@@ -75,11 +129,50 @@ public class MessageProducer
 
         if (destinationType == DestinationType.QUEUE)
         {
-            messageSender.sendToQueue( serializer.apply(message), destination, properties, messageType);
+            messageSender.sendToQueue( serializer.apply(message), destination, properties, messageType, deliveryProfile);
+        }
+        else
+        {
+            messageSender.sendToTopic( serializer.apply(message), destination, properties, messageType, deliveryProfile);
+        }
+    }
+
+    /**
+     * Sends the message as JSON without waiting until it is acknowledged
+     *
+     * @return future that is completed as soon as the message is acknowledged
+     */
+    public CompletableFuture<Void> asJsonAsync()
+    {
+        return asAsync(getJSONConverter()::toJson);
+    }
+
+    /**
+     * Sends the message as string without waiting until it is acknowledged
+     *
+     * @return future that is completed as soon as the message is acknowledged
+     */
+    public CompletableFuture<Void> asStringAsync()
+    {
+        return asAsync(Object::toString);
+    }
+
+    /**
+     * Sends the message using given serializer without waiting until it is acknowledged
+     *
+     * @return future that is completed as soon as the message is acknowledged
+     */
+    public CompletableFuture<Void> asAsync( Function<Object, String> serializer )
+    {
+        Objects.requireNonNull(destination, "No destination in MessageProducer set");
+
+        if (destinationType == DestinationType.QUEUE)
+        {
+            return messageSender.sendToQueueAsync( serializer.apply(message), destination, properties, messageType, deliveryProfile);
         }
         else
         {
-            messageSender.sendToTopic( serializer.apply(message), destination, properties, messageType);
+            return messageSender.sendToTopicAsync( serializer.apply(message), destination, properties, messageType, deliveryProfile);
         }
     }
 
@@ -89,11 +182,11 @@ public class MessageProducer
 
         if (destinationType == DestinationType.QUEUE)
         {
-            messageSender.sendToQueue(serializer.get(), destination, properties, messageType);
+            messageSender.sendToQueue(serializer.get(), destination, properties, messageType, deliveryProfile);
         }
         else
         {
-            messageSender.sendToTopic(serializer.get(), destination, properties, messageType);
+            messageSender.sendToTopic(serializer.get(), destination, properties, messageType, deliveryProfile);
         }
     }
 
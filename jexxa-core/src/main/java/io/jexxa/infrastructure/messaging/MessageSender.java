@@ -3,6 +3,7 @@ package io.jexxa.infrastructure.messaging;
 import io.jexxa.common.annotation.CheckReturnValue;
 
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 
 public abstract class MessageSender
 {
@@ -37,4 +38,75 @@ public abstract class MessageSender
      * @param messageProperties additional properties of the message. Can be null if no properties are required
      */
     protected abstract void sendToTopic(String message, String destination, Properties messageProperties, MessageType messageType);
+
+    /**
+     * Sends a message to a queue using given delivery profile. The default implementation ignores the delivery profile
+     * and sends the message via {@link #sendToQueue(String, String, Properties, MessageType)}.
+     *
+     * @param message message as string. Must not be null
+     * @param destination name of the queue to send the message
+     * @param messageProperties additional properties of the message. Can be null if no properties are required
+     * @param deliveryProfile delivery profile of the message. Must not be null
+     */
+    protected void sendToQueue(String message, String destination, Properties messageProperties, MessageType messageType, DeliveryProfile deliveryProfile)
+    {
+        sendToQueue(message, destination, messageProperties, messageType);
+    }
+
+    /**
+     * Sends a message to a topic using given delivery profile. The default implementation ignores the delivery profile
+     * and sends the message via {@link #sendToTopic(String, String, Properties, MessageType)}.
+     *
+     * @param message message as string. Must not be null
+     * @param destination name of the topic to send the message
+     * @param messageProperties additional properties of the message. Can be null if no properties are required
+     * @param deliveryProfile delivery profile of the message. Must not be null
+     */
+    protected void sendToTopic(String message, String destination, Properties messageProperties, MessageType messageType, DeliveryProfile deliveryProfile)
+    {
+        sendToTopic(message, destination, messageProperties, messageType);
+    }
+
+    /**
+     * Sends a message to a queue without waiting until the message is acknowledged. The default implementation sends
+     * the message synchronously via {@link #sendToQueue(String, String, Properties, MessageType, DeliveryProfile)}.
+     *
+     * @param message message as string. Must not be null
+     * @param destination name of the queue to send the message
+     * @param messageProperties additional properties of the message. Can be null if no properties are required
+     * @param deliveryProfile delivery profile of the message. Must not be null
+     * @return future that is completed as soon as the message is acknowledged
+     */
+    protected CompletableFuture<Void> sendToQueueAsync(String message, String destination, Properties messageProperties, MessageType messageType, DeliveryProfile deliveryProfile)
+    {
+        return runSynchronously(() -> sendToQueue(message, destination, messageProperties, messageType, deliveryProfile));
+    }
+
+    /**
+     * Sends a message to a topic without waiting until the message is acknowledged. The default implementation sends
+     * the message synchronously via {@link #sendToTopic(String, String, Properties, MessageType, DeliveryProfile)}.
+     *
+     * @param message message as string. Must not be null
+     * @param destination name of the topic to send the message
+     * @param messageProperties additional properties of the message. Can be null if no properties are required
+     * @param deliveryProfile delivery profile of the message. Must not be null
+     * @return future that is completed as soon as the message is acknowledged
+     */
+    protected CompletableFuture<Void> sendToTopicAsync(String message, String destination, Properties messageProperties, MessageType messageType, DeliveryProfile deliveryProfile)
+    {
+        return runSynchronously(() -> sendToTopic(message, destination, messageProperties, messageType, deliveryProfile));
+    }
+
+    private static CompletableFuture<Void> runSynchronously(Runnable sendOperation)
+    {
+        try
+        {
+            sendOperation.run();
+            return CompletableFuture.completedFuture(null);
+        }
+        catch (RuntimeException e)
+        {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
@@ -1,76 +1,315 @@
 package io.jexxa.infrastructure.messaging.jms;
 
 import io.jexxa.common.function.ThrowingConsumer;
+import io.jexxa.infrastructure.messaging.DeliveryProfile;
 import io.jexxa.infrastructure.messaging.MessageSender;
+import org.apache.commons.lang3.Validate;
 
+import javax.jms.CompletionListener;
 import javax.jms.Connection;
 import javax.jms.DeliveryMode;
+import javax.jms.Destination;
 import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.MessageProducer;
 import javax.jms.Session;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
+import static io.jexxa.common.JexxaJMSProperties.JEXXA_JMS_BATCH_SIZE;
+import static io.jexxa.common.JexxaJMSProperties.JEXXA_JMS_BATCH_WINDOW;
+import static io.jexxa.common.JexxaJMSProperties.JEXXA_JMS_DELIVERY_MODE;
+import static io.jexxa.common.JexxaJMSProperties.JEXXA_JMS_PRIORITY;
+import static io.jexxa.common.JexxaJMSProperties.JEXXA_JMS_TIME_TO_LIVE;
+import static io.jexxa.common.JexxaJMSProperties.JEXXA_JMS_PRODUCER_CACHE_SIZE;
 import static io.jexxa.common.wrapper.jms.JMSConnection.createConnection;
 import static io.jexxa.common.wrapper.logger.SLF4jLogger.getLogger;
 
+/**
+ * Sends messages via JMS. A JMSSender can be used by multiple threads concurrently.
+ * <p>
+ * Since a JMS session must not be used by multiple threads, each sending thread borrows a session from a pool of
+ * sessions. Each session caches the producers of the most recently used destinations, so that sending a message does
+ * not require creating a destination and a producer. The maximum number of cached producers per session is configured
+ * via {@link io.jexxa.common.JexxaJMSProperties#JEXXA_JMS_PRODUCER_CACHE_SIZE}. If sending a message fails, only the
+ * borrowed session is closed. All sessions and producers are closed if the connection reports an error, so that they
+ * are recreated with the next message.
+ * <p>
+ * Messages can also be sent asynchronously via {@link io.jexxa.infrastructure.messaging.MessageProducer#asJsonAsync()}.
+ * In this case, the sending thread does not wait until the broker acknowledged the message.
+ * <p>
+ * If {@link io.jexxa.common.JexxaJMSProperties#JEXXA_JMS_BATCH_SIZE} is greater than 1, all messages are sent within a
+ * transacted session that is committed as soon as the configured number of messages was sent, or at the latest after
+ * {@link io.jexxa.common.JexxaJMSProperties#JEXXA_JMS_BATCH_WINDOW} milliseconds. In this mode, sending a message
+ * waits until the message is committed, so that a failed commit is reported by an exception. The asynchronous methods
+ * return as soon as the message was sent and report a failed commit via the returned future.
+ * <p>
+ * The {@link DeliveryProfile} of a message is defined by the {@link io.jexxa.infrastructure.messaging.MessageProducer}.
+ * All attributes not specified there are taken from the properties of the destination, which are
+ * {@link io.jexxa.common.JexxaJMSProperties#JEXXA_JMS_DELIVERY_MODE}, {@link io.jexxa.common.JexxaJMSProperties#JEXXA_JMS_PRIORITY}
+ * and {@link io.jexxa.common.JexxaJMSProperties#JEXXA_JMS_TIME_TO_LIVE} (in milliseconds) followed by '.' and the name
+ * of the destination, e.g. {@code io.jexxa.jms.delivery.mode.MyTopic=persistent}. Afterwards, the same properties
+ * followed by the messaging type {@code queue} or {@code topic} are used, e.g. {@code io.jexxa.jms.priority.queue=7},
+ * and finally the properties without suffix. By default, messages are sent non-persistent with priority 4 and never
+ * expire. All properties are validated when the JMSSender is created.
+ */
 @SuppressWarnings({"unused", "java:S1133"})
 public class JMSSender extends MessageSender implements AutoCloseable
 {
+    static final int DEFAULT_PRODUCER_CACHE_SIZE = 32;
+    static final int DEFAULT_BATCH_SIZE = 1;
+    static final long DEFAULT_BATCH_WINDOW = 100;
+    static final String QUEUE = "queue";
+    static final String TOPIC = "topic";
+    static final DeliveryProfile DEFAULT_DELIVERY_PROFILE = new DeliveryProfile(DeliveryProfile.DeliveryMode.NON_PERSISTENT, Message.DEFAULT_PRIORITY, Duration.ZERO);
+
     private final Properties properties;
+    private final int producerCacheSize;
+    private final TransactedBatch transactedBatch;
+    private final Map<String, DeliveryProfile> configuredProfiles; // Configured profiles by property suffix
+    private final Map<String, DeliveryProfile> destinationProfiles = new ConcurrentHashMap<>(); // Resolved profiles by destination URI
 
     private Connection connection;
-    private Session session;
+    private final Deque<SessionContext> idleSessions = new ArrayDeque<>();
 
     public JMSSender(Properties properties)
     {
         this.properties = properties;
+        this.producerCacheSize = Integer.parseInt(properties.getProperty(JEXXA_JMS_PRODUCER_CACHE_SIZE,
+                String.valueOf(DEFAULT_PRODUCER_CACHE_SIZE)));
+        Validate.isTrue(producerCacheSize > 0, JEXXA_JMS_PRODUCER_CACHE_SIZE + " must be greater than 0");
+
+        var batchSize = Integer.parseInt(properties.getProperty(JEXXA_JMS_BATCH_SIZE, String.valueOf(DEFAULT_BATCH_SIZE)));
+        var batchWindow = Long.parseLong(properties.getProperty(JEXXA_JMS_BATCH_WINDOW, String.valueOf(DEFAULT_BATCH_WINDOW)));
+        Validate.isTrue(batchSize > 0, JEXXA_JMS_BATCH_SIZE + " must be greater than 0");
+        Validate.isTrue(batchWindow > 0, JEXXA_JMS_BATCH_WINDOW + " must be greater than 0");
+        this.transactedBatch = (batchSize > 1) ? new TransactedBatch(batchSize, batchWindow) : null;
+        this.configuredProfiles = readDeliveryProfiles(properties);
 
         Objects.requireNonNull(getConnection()); //Try to create a connection to ensure fail fast
     }
 
     protected void sendToTopic(String message, String topicName, Properties messageProperties, MessageType messageType)
     {
+        sendToTopic(message, topicName, messageProperties, messageType, DeliveryProfile.unspecified());
+    }
+
+    protected void sendToQueue(String message, String queueName, Properties messageProperties, MessageType messageType)
+    {
+        sendToQueue(message, queueName, messageProperties, messageType, DeliveryProfile.unspecified());
+    }
+
+    @Override
+    protected void sendToTopic(String message, String topicName, Properties messageProperties, MessageType messageType, DeliveryProfile deliveryProfile)
+    {
+        sendJMSMessage(message, "topic://" + topicName, session -> session.createTopic(topicName), messageProperties, messageType, getDeliveryProfile(TOPIC, topicName, deliveryProfile));
+    }
+
+    @Override
+    protected void sendToQueue(String message, String queueName, Properties messageProperties, MessageType messageType, DeliveryProfile deliveryProfile)
+    {
+        sendJMSMessage(message, "queue://" + queueName, session -> session.createQueue(queueName), messageProperties, messageType, getDeliveryProfile(QUEUE, queueName, deliveryProfile));
+    }
+
+    @Override
+    protected CompletableFuture<Void> sendToTopicAsync(String message, String topicName, Properties messageProperties, MessageType messageType, DeliveryProfile deliveryProfile)
+    {
+        return sendJMSMessageAsync(message, "topic://" + topicName, session -> session.createTopic(topicName), messageProperties, messageType, getDeliveryProfile(TOPIC, topicName, deliveryProfile));
+    }
+
+    @Override
+    protected CompletableFuture<Void> sendToQueueAsync(String message, String queueName, Properties messageProperties, MessageType messageType, DeliveryProfile deliveryProfile)
+    {
+        return sendJMSMessageAsync(message, "queue://" + queueName, session -> session.createQueue(queueName), messageProperties, messageType, getDeliveryProfile(QUEUE, queueName, deliveryProfile));
+    }
+
+    /**
+     * Returns given delivery profile completed by the delivery profile configured for given destination, followed by
+     * the delivery profile configured for its messaging type and the default delivery profile
+     */
+    private DeliveryProfile getDeliveryProfile(String messagingType, String destination, DeliveryProfile deliveryProfile)
+    {
+        return deliveryProfile.orElse(destinationProfiles.computeIfAbsent(messagingType + "://" + destination,
+                key -> getConfiguredProfile(destination)
+                        .orElse(getConfiguredProfile(messagingType))
+                        .orElse(getConfiguredProfile(""))
+                        .orElse(DEFAULT_DELIVERY_PROFILE)));
+    }
+
+    private DeliveryProfile getConfiguredProfile(String propertySuffix)
+    {
+        return configuredProfiles.getOrDefault(propertySuffix, DeliveryProfile.unspecified());
+    }
+
+    /**
+     * Reads all configured delivery profiles, so that an invalid configuration is detected when this JMSSender is
+     * created.
+     *
+     * @return delivery profiles by the suffix of their properties, which is either empty, a messaging type or the name
+     *         of a destination
+     */
+    private static Map<String, DeliveryProfile> readDeliveryProfiles(Properties properties)
+    {
+        var propertySuffixes = new HashSet<String>();
+        propertySuffixes.add("");
+        properties.stringPropertyNames().forEach(propertyName -> Stream
+                .of(JEXXA_JMS_DELIVERY_MODE, JEXXA_JMS_PRIORITY, JEXXA_JMS_TIME_TO_LIVE)
+                .filter(prefix -> propertyName.startsWith(prefix + "."))
+                .forEach(prefix -> propertySuffixes.add(propertyName.substring(prefix.length() + 1))));
+
+        var deliveryProfiles = new HashMap<String, DeliveryProfile>();
+        propertySuffixes.forEach(suffix -> deliveryProfiles.put(suffix, readDeliveryProfile(properties, suffix)));
+        return deliveryProfiles;
+    }
+
+    private static DeliveryProfile readDeliveryProfile(Properties properties, String propertySuffix)
+    {
+        var suffix = propertySuffix.isEmpty() ? "" : "." + propertySuffix;
+        var deliveryMode = properties.getProperty(JEXXA_JMS_DELIVERY_MODE + suffix);
+        var priority = properties.getProperty(JEXXA_JMS_PRIORITY + suffix);
+        var timeToLive = properties.getProperty(JEXXA_JMS_TIME_TO_LIVE + suffix);
+
         try
         {
-            var destination = getSession().createTopic(topicName);
-            try (var producer = getSession().createProducer(destination) )
-            {
-                sendJMSMessage(message, producer, messageProperties, messageType);
-            }
+            return new DeliveryProfile(
+                    (deliveryMode == null) ? null : DeliveryProfile.DeliveryMode.valueOf(deliveryMode.trim().toUpperCase(Locale.ENGLISH).replace('-', '_')),
+                    (priority == null) ? null : Integer.valueOf(priority.trim()),
+                    (timeToLive == null) ? null : Duration.ofMillis(Long.parseLong(timeToLive.trim())));
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new IllegalArgumentException("Invalid delivery profile" + (propertySuffix.isEmpty() ? "" : " of " + propertySuffix) + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void sendJMSMessage(String message, String destinationName, DestinationFactory destinationFactory, Properties messageProperties, MessageType messageType, DeliveryProfile deliveryProfile)
+    {
+        if (transactedBatch != null)
+        {
+            awaitCommit(transactedBatch.send(message, destinationName, destinationFactory, messageProperties, messageType, deliveryProfile));
+            return;
+        }
+
+        var sessionContext = acquireSession();
+        var sent = false;
+        try
+        {
+            var producer = sessionContext.getProducer(destinationName, destinationFactory);
+            producer.send(createMessage(sessionContext.getSession(), message, messageProperties, messageType),
+                    toJMSDeliveryMode(deliveryProfile), deliveryProfile.priority(), deliveryProfile.timeToLive().toMillis());
+            sent = true;
         }
         catch (JMSException e)
         {
-            close();
             throw new IllegalStateException("Could not send message", e);
         }
+        finally
+        {
+            returnSession(sessionContext, sent);
+        }
     }
 
-    protected void sendToQueue(String message, String queueName, Properties messageProperties, MessageType messageType)
+    /**
+     * Waits until given message is committed, so that a synchronously sent message is never lost silently
+     */
+    private static void awaitCommit(CompletableFuture<Void> pendingMessage)
     {
         try
         {
-            var destination = getSession().createQueue(queueName);
-            try (var producer = getSession().createProducer(destination) )
+            pendingMessage.join();
+        }
+        catch (CompletionException e)
+        {
+            if (e.getCause() instanceof RuntimeException runtimeException)
             {
-                sendJMSMessage(message, producer, messageProperties, messageType);
+                throw runtimeException;
             }
+            throw new IllegalStateException("Could not send message", e.getCause());
+        }
+    }
+
+    private CompletableFuture<Void> sendJMSMessageAsync(String message, String destinationName, DestinationFactory destinationFactory, Properties messageProperties, MessageType messageType, DeliveryProfile deliveryProfile)
+    {
+        if (transactedBatch != null)
+        {
+            return transactedBatch.send(message, destinationName, destinationFactory, messageProperties, messageType, deliveryProfile);
+        }
+
+        var result = new CompletableFuture<Void>();
+        var sessionContext = acquireSession();
+        var sent = false;
+        try
+        {
+            var producer = sessionContext.getProducer(destinationName, destinationFactory);
+            producer.send(createMessage(sessionContext.getSession(), message, messageProperties, messageType),
+                    toJMSDeliveryMode(deliveryProfile), deliveryProfile.priority(), deliveryProfile.timeToLive().toMillis(),
+                    new CompletionListener()
+            {
+                @Override
+                public void onCompletion(Message jmsMessage)
+                {
+                    result.complete(null);
+                }
+
+                @Override
+                public void onException(Message jmsMessage, Exception exception)
+                {
+                    result.completeExceptionally(new IllegalStateException("Could not send message", exception));
+                }
+            });
+            // The session can be used for further messages before the broker acknowledged this message
+            sent = true;
         }
         catch (JMSException e)
         {
-            close();
-            throw new IllegalStateException("Could not send message ", e);
+            result.completeExceptionally(new IllegalStateException("Could not send message", e));
+        }
+        finally
+        {
+            returnSession(sessionContext, sent);
         }
+        return result;
     }
 
-    private void sendJMSMessage(String message, MessageProducer messageProducer, Properties messageProperties, MessageType messageType) throws JMSException
+    private static int toJMSDeliveryMode(DeliveryProfile deliveryProfile)
     {
-        messageProducer.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
+        return (deliveryProfile.deliveryMode() == DeliveryProfile.DeliveryMode.PERSISTENT)
+                ? DeliveryMode.PERSISTENT
+                : DeliveryMode.NON_PERSISTENT;
+    }
 
-        var jmsMessage = createMessage(messageType, message);
+    private static Message createMessage(Session session, String message, Properties messageProperties, MessageType messageType) throws JMSException
+    {
+        Message jmsMessage;
+        if (messageType == MessageType.BYTE_MESSAGE)
+        {
+            // The content is written as plain UTF-8 without the length prefix of writeUTF, as expected by JSON listeners
+            var bytesMessage = session.createBytesMessage();
+            bytesMessage.writeBytes(message.getBytes(StandardCharsets.UTF_8));
+            jmsMessage = bytesMessage;
+        } else {
+            jmsMessage = session.createTextMessage(message);
+        }
 
         if (messageProperties != null)
         {
@@ -79,33 +318,68 @@ public class JMSSender extends MessageSender implements AutoCloseable
                 jmsMessage.setStringProperty(entry.getKey().toString(), entry.getValue().toString());
             }
         }
-        messageProducer.send(jmsMessage);
+        return jmsMessage;
     }
 
-    private Message createMessage(MessageType messageType, String message) throws JMSException
+    /**
+     * Returns an idle session or creates a new one. The returned session is exclusively used by the calling thread
+     * until it is returned via {@link #returnSession(SessionContext, boolean)}.
+     */
+    private SessionContext acquireSession()
     {
-        if (messageType == MessageType.BYTE_MESSAGE)
+        synchronized (this)
         {
-            var bytesMessage = getSession().createBytesMessage();
-            bytesMessage.writeUTF(message);
-            return bytesMessage;
+            var sessionContext = idleSessions.pollFirst();
+            if (sessionContext != null)
+            {
+                return sessionContext;
+            }
         }
-        return getSession().createTextMessage(message);
+
+        // A JMS connection can be used concurrently, so that the session is created without holding the lock
+        return createSessionContext(false);
     }
 
+    private SessionContext createSessionContext(boolean transacted)
+    {
+        var currentConnection = getConnection();
+        try
+        {
+            return new SessionContext(currentConnection,
+                    currentConnection.createSession(transacted, transacted ? Session.SESSION_TRANSACTED : Session.AUTO_ACKNOWLEDGE),
+                    producerCacheSize);
+        }
+        catch (JMSException e)
+        {
+            // If a connection cannot create a session, it is not usable anymore
+            closeConnection(currentConnection);
+            throw new IllegalStateException("Could not create a session", e);
+        }
+    }
 
-    Session getSession() throws JMSException
+    /**
+     * Returns a borrowed session to the pool of idle sessions. If sending a message failed, the state of the session
+     * is unknown, so that only this session is closed. The connection and all other sessions remain usable.
+     */
+    private void returnSession(SessionContext sessionContext, boolean valid)
     {
-        if (this.session == null)
+        if (valid)
         {
-            this.session = getConnection().createSession(false, Session.AUTO_ACKNOWLEDGE);
+            synchronized (this)
+            {
+                if (sessionContext.getConnection() == connection)
+                {
+                    idleSessions.addFirst(sessionContext);
+                    return;
+                }
+            }
         }
 
-        return this.session;
+        // Either the session is invalid or the connection was closed in the meantime
+        sessionContext.close();
     }
 
-
-    public final Connection getConnection()
+    public final synchronized Connection getConnection()
     {
         if (connection == null)
         {
@@ -116,26 +390,234 @@ public class JMSSender extends MessageSender implements AutoCloseable
             try {
                 connection.setExceptionListener(exception -> {
                     getLogger(JMSSender.class).error(exception.getMessage());
-                    this.close();
+                    Optional.ofNullable(transactedBatch).ifPresent(batch -> batch.discard(exception));
+                    closeConnection();
                 });
             } catch (JMSException e) {
-                this.close();
+                closeConnection();
             }
         }
 
         return connection;
     }
 
+    /**
+     * Closes this JMSSender. A pending batch is committed before the connection is closed. Afterward, no further
+     * messages can be sent in batch mode.
+     */
     @Override
     public void close()
     {
-        Optional.ofNullable(session)
-                .ifPresent(ThrowingConsumer.exceptionLogger(Session::close, getLogger(JMSSender.class)));
+        // Note that the batch is always locked before this JMSSender, so that it must not be closed while holding the
+        // lock of this JMSSender
+        Optional.ofNullable(transactedBatch).ifPresent(TransactedBatch::close);
+        closeConnection();
+    }
+
+    /**
+     * Closes given connection unless it was already replaced by a new one
+     */
+    private synchronized void closeConnection(Connection failedConnection)
+    {
+        if (failedConnection == connection)
+        {
+            closeConnection();
+        }
+    }
+
+    private synchronized void closeConnection()
+    {
+        idleSessions.forEach(SessionContext::close);
+        idleSessions.clear();
 
         Optional.ofNullable(connection)
                 .ifPresent(ThrowingConsumer.exceptionLogger(Connection::close, getLogger(JMSSender.class)));
 
-        session = null;
         connection = null;
     }
+
+    /**
+     * Sends all messages within a single transacted session, which is committed as soon as the configured number of
+     * messages was sent or the configured time window elapsed.
+     */
+    private final class TransactedBatch
+    {
+        private final int batchSize;
+        private final long batchWindow;
+        private final ScheduledExecutorService commitScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, JMSSender.class.getSimpleName() + "-BatchCommit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        private final List<CompletableFuture<Void>> pendingMessages = new ArrayList<>();
+
+        private SessionContext sessionContext;
+        private ScheduledFuture<?> scheduledCommit;
+
+        TransactedBatch(int batchSize, long batchWindow)
+        {
+            this.batchSize = batchSize;
+            this.batchWindow = batchWindow;
+        }
+
+        synchronized CompletableFuture<Void> send(String message, String destinationName, DestinationFactory destinationFactory, Properties messageProperties, MessageType messageType, DeliveryProfile deliveryProfile)
+        {
+            var result = new CompletableFuture<Void>();
+            if (sessionContext == null)
+            {
+                sessionContext = createSessionContext(true);
+            }
+
+            try
+            {
+                var producer = sessionContext.getProducer(destinationName, destinationFactory);
+                producer.send(createMessage(sessionContext.getSession(), message, messageProperties, messageType),
+                        toJMSDeliveryMode(deliveryProfile), deliveryProfile.priority(), deliveryProfile.timeToLive().toMillis());
+                pendingMessages.add(result);
+            }
+            catch (JMSException e)
+            {
+                // The transaction cannot be committed partially, so that all pending messages are discarded
+                result.completeExceptionally(new IllegalStateException("Could not send message", e));
+                rollback(e);
+                return result;
+            }
+
+            if (pendingMessages.size() >= batchSize)
+            {
+                commit();
+            }
+            else if (scheduledCommit == null)
+            {
+                scheduledCommit = commitScheduler.schedule(this::commit, batchWindow, TimeUnit.MILLISECONDS);
+            }
+            return result;
+        }
+
+        synchronized void commit()
+        {
+            if (scheduledCommit != null)
+            {
+                scheduledCommit.cancel(false);
+                scheduledCommit = null;
+            }
+
+            if (pendingMessages.isEmpty())
+            {
+                return;
+            }
+
+            try
+            {
+                sessionContext.getSession().commit();
+                pendingMessages.forEach(pendingMessage -> pendingMessage.complete(null));
+                pendingMessages.clear();
+            }
+            catch (JMSException e)
+            {
+                rollback(e);
+            }
+        }
+
+        synchronized void close()
+        {
+            commit();
+            Optional.ofNullable(sessionContext).ifPresent(SessionContext::close);
+            sessionContext = null;
+            commitScheduler.shutdownNow();
+        }
+
+        /**
+         * Discards all pending messages because the connection failed. Further messages are sent via a new session.
+         */
+        synchronized void discard(Exception exception)
+        {
+            if (scheduledCommit != null)
+            {
+                scheduledCommit.cancel(false);
+                scheduledCommit = null;
+            }
+            rollback(exception);
+        }
+
+        /**
+         * Discards all pending messages. Closing a transacted session rolls back its current transaction.
+         */
+        private void rollback(Exception exception)
+        {
+            if (!pendingMessages.isEmpty())
+            {
+                getLogger(JMSSender.class).error("Could not commit {} messages. Reason: {}", pendingMessages.size(), exception.getMessage());
+            }
+            pendingMessages.forEach(pendingMessage -> pendingMessage.completeExceptionally(new IllegalStateException("Could not send message", exception)));
+            pendingMessages.clear();
+
+            Optional.ofNullable(sessionContext).ifPresent(SessionContext::close);
+            sessionContext = null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface DestinationFactory
+    {
+        Destination create(Session session) throws JMSException;
+    }
+
+    /**
+     * A session together with the producers of its most recently used destinations
+     */
+    private static final class SessionContext
+    {
+        private final Connection connection;
+        private final Session session;
+        private final Map<String, MessageProducer> producerCache;
+
+        SessionContext(Connection connection, Session session, int producerCacheSize)
+        {
+            this.connection = connection;
+            this.session = session;
+            this.producerCache = new LinkedHashMap<>(16, 0.75f, true)
+            {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, MessageProducer> eldest)
+                {
+                    if (size() > producerCacheSize)
+                    {
+                        ThrowingConsumer.exceptionLogger(MessageProducer::close, getLogger(JMSSender.class))
+                                .accept(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        Connection getConnection()
+        {
+            return connection;
+        }
+
+        Session getSession()
+        {
+            return session;
+        }
+
+        MessageProducer getProducer(String destinationName, DestinationFactory destinationFactory) throws JMSException
+        {
+            var producer = producerCache.get(destinationName);
+            if (producer == null)
+            {
+                producer = session.createProducer(destinationFactory.create(session));
+                producerCache.put(destinationName, producer);
+            }
+            return producer;
+        }
+
+        void close()
+        {
+            // Closing a session also closes its producers
+            producerCache.clear();
+            ThrowingConsumer.exceptionLogger(Session::close, getLogger(JMSSender.class)).accept(session);
+        }
+    }
 }
@@ -0,0 +1,20 @@
+package io.jexxa.infrastructure.outbox;
+
+import java.time.Duration;
+
+/**
+ * Snapshot of the state of the {@link TransactionalOutboxSender}.
+ *
+ * @param outboxDepth number of messages that are currently stored in the outbox
+ * @param relayLag time between storing and forwarding of the oldest message in the last forwarded batch
+ * @param relayedMessages total number of forwarded messages
+ * @param failedMessages total number of failed attempts to forward a message. A message that fails in several relay
+ *                       runs is counted for each of them. Messages that are kept in the outbox only because they
+ *                       follow a failed message of the same partition are not counted
+ */
+public record TransactionalOutboxMetrics(long outboxDepth,
+                                         Duration relayLag,
+                                         long relayedMessages,
+                                         long failedMessages)
+{
+}
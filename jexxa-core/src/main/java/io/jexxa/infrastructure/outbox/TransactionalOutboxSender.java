@@ -3,34 +3,81 @@ package io.jexxa.infrastructure.outbox;
 import io.jexxa.adapterapi.JexxaContext;
 import io.jexxa.adapterapi.invocation.InvocationManager;
 import io.jexxa.adapterapi.invocation.InvocationTargetRuntimeException;
+import io.jexxa.common.JexxaCoreProperties;
+import io.jexxa.common.JexxaJMSProperties;
 import io.jexxa.infrastructure.MessageSenderManager;
-import io.jexxa.infrastructure.RepositoryManager;
+import io.jexxa.infrastructure.ObjectStoreManager;
+import io.jexxa.infrastructure.messaging.DeliveryProfile;
 import io.jexxa.infrastructure.messaging.MessageProducer;
 import io.jexxa.infrastructure.messaging.MessageSender;
 import io.jexxa.infrastructure.messaging.jms.JMSSender;
-import io.jexxa.infrastructure.persistence.repository.IRepository;
+import io.jexxa.infrastructure.persistence.objectstore.IObjectStore;
+import io.jexxa.infrastructure.persistence.objectstore.Page;
+import io.jexxa.infrastructure.persistence.objectstore.metadata.MetaTag;
+import io.jexxa.infrastructure.persistence.objectstore.metadata.MetadataSchema;
+import org.apache.commons.lang3.Validate;
 
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 import static io.jexxa.common.wrapper.logger.SLF4jLogger.getLogger;
+import static io.jexxa.infrastructure.persistence.objectstore.metadata.MetaTags.numericTag;
 
 /**
  * This class implements the  <a href="https://microservices.io/patterns/data/transactional-outbox.html">transactional outbox pattern</a>.
  * This class encapsulates both parts, storing messages to a database within the transaction of the incoming method call
  * and the message relay part.
  * <br>
- * In the current implementation, we check each 300 ms if a new message is available that is then forwarded.
+ * In the current implementation, the message relay is triggered after a message is stored and 300 ms after startup
+ * to forward messages left by a previous run. Messages are forwarded in the order in which they were stored, in batches
+ * of at most {@link JexxaCoreProperties#JEXXA_OUTBOX_BATCH_SIZE} messages. Each batch is forwarded and removed within
+ * its own transaction.
+ * <br>
+ * Within a batch, messages are partitioned by their destination, or by the message header configured via
+ * {@link JexxaCoreProperties#JEXXA_OUTBOX_ORDERING_KEY}. The partitions are forwarded in parallel by
+ * {@link JexxaCoreProperties#JEXXA_OUTBOX_WORKERS} workers, each using its own {@link MessageSender}. All messages of a
+ * partition are forwarded by the same worker, so that their order is preserved. If a message cannot be forwarded,
+ * the remaining messages of its partition are kept until the next relay run, while other partitions are still forwarded.
  */
 @SuppressWarnings("unused")
 public class TransactionalOutboxSender extends MessageSender {
+    static final int DEFAULT_BATCH_SIZE = 100;
+    static final int DEFAULT_WORKERS = 1;
+
     private static TransactionalOutboxSender transactionalOutboxSender;
     private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
-    private final IRepository<JexxaOutboxMessage, UUID> outboxRepository;
-    private final MessageSender messageSender;
+    private final ExecutorService relayWorkers;
+    private final IObjectStore<JexxaOutboxMessage, UUID, OutboxSchema> outboxStore;
+    private final List<MessageSender> messageSenders; // One message sender per worker
+    private final int batchSize;
+    private final String orderingKey;
+
+    // Ensures that at most one relay run is pending, regardless of the number of stored messages
+    private final AtomicBoolean relayPending = new AtomicBoolean(false);
+    private final AtomicLong lastSequenceNumber = new AtomicLong(0);
+
+    private final AtomicLong relayLag = new AtomicLong(0);
+    private final AtomicLong relayedMessages = new AtomicLong(0);
+    private final AtomicLong failedMessages = new AtomicLong(0);
 
 
     public static MessageSender createInstance(Properties properties)
@@ -44,18 +91,66 @@ public class TransactionalOutboxSender extends MessageSender {
 
     private TransactionalOutboxSender(Properties properties)
     {
-        this.outboxRepository = RepositoryManager
-                .getRepository(JexxaOutboxMessage.class
+        this(properties, jmsSenderFactory(properties));
+    }
+
+    /**
+     * Creates a transactional outbox that forwards messages via message senders created by given factory
+     *
+     * @param properties configuration of the outbox and its object store
+     * @param messageSenderFactory creates the message sender of each worker
+     */
+    TransactionalOutboxSender(Properties properties, Supplier<MessageSender> messageSenderFactory)
+    {
+        this.outboxStore = ObjectStoreManager
+                .getObjectStore(JexxaOutboxMessage.class
                         , JexxaOutboxMessage::messageId
+                        , OutboxSchema.class
                         , properties );
 
-        MessageSenderManager.setStrategy(JMSSender.class, TransactionalOutboxSender.class); // Ensure that we get a JMSSender for internal sending
-        this.messageSender = MessageSenderManager.getMessageSender(TransactionalOutboxSender.class, properties);
+        this.batchSize = Integer.parseInt(properties.getProperty(JexxaCoreProperties.JEXXA_OUTBOX_BATCH_SIZE,
+                String.valueOf(DEFAULT_BATCH_SIZE)));
+        Validate.isTrue(batchSize > 0, JexxaCoreProperties.JEXXA_OUTBOX_BATCH_SIZE + " must be greater than 0");
+
+        var workers = Integer.parseInt(properties.getProperty(JexxaCoreProperties.JEXXA_OUTBOX_WORKERS,
+                String.valueOf(DEFAULT_WORKERS)));
+        Validate.isTrue(workers > 0, JexxaCoreProperties.JEXXA_OUTBOX_WORKERS + " must be greater than 0");
+        this.orderingKey = properties.getProperty(JexxaCoreProperties.JEXXA_OUTBOX_ORDERING_KEY);
+
+        this.messageSenders = IntStream.range(0, workers)
+                .mapToObj(element -> messageSenderFactory.get())
+                .toList();
+        this.relayWorkers = Executors.newFixedThreadPool(workers);
 
         executor.schedule( this::transactionalSend, 300, TimeUnit.MILLISECONDS);
         JexxaContext.registerCleanupHandler(TransactionalOutboxSender::cleanup);
     }
 
+    private static Supplier<MessageSender> jmsSenderFactory(Properties properties)
+    {
+        MessageSenderManager.setStrategy(JMSSender.class, TransactionalOutboxSender.class); // Ensure that we get a JMSSender for internal sending
+
+        // A message must be committed before it is removed from the outbox, so that the internal JMSSender must not batch messages
+        var senderProperties = new Properties();
+        senderProperties.putAll(properties);
+        senderProperties.remove(JexxaJMSProperties.JEXXA_JMS_BATCH_SIZE);
+        senderProperties.remove(JexxaJMSProperties.JEXXA_JMS_BATCH_WINDOW);
+
+        return () -> MessageSenderManager.getMessageSender(TransactionalOutboxSender.class, senderProperties);
+    }
+
+    /**
+     * Returns the metrics of the transactional outbox. The outbox depth is determined by counting the stored messages
+     * in the object store.
+     *
+     * @return metrics of the transactional outbox or an empty Optional if no instance was created so far
+     */
+    public static Optional<TransactionalOutboxMetrics> getMetrics()
+    {
+        return Optional.ofNullable(transactionalOutboxSender)
+                .map(TransactionalOutboxSender::internalGetMetrics);
+    }
+
     public static void cleanup()
     {
         if (transactionalOutboxSender != null){
@@ -65,39 +160,65 @@ public class TransactionalOutboxSender extends MessageSender {
     }
 
     void internalCleanup() {
+        // The relay must be stopped before its workers, because it waits for them
+        shutdown(executor);
+        shutdown(relayWorkers);
+
+        messageSenders.forEach(messageSender -> {
+            if (messageSender instanceof AutoCloseable autoCloseable)
+            {
+                try {
+                    autoCloseable.close();
+                } catch (Exception e)
+                {
+                    getLogger(TransactionalOutboxSender.class).error(e.getMessage());
+                }
+            }
+        });
+    }
+
+    private void shutdown(ExecutorService executorService)
+    {
         try {
-            executor.shutdown();
-            if (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+            executorService.shutdown();
+            if (!executorService.awaitTermination(1, TimeUnit.SECONDS)) {
                 getLogger(this.getClass()).warn("Could not successfully stop running operations -> Force shutdown");
-                executor.shutdownNow();
+                executorService.shutdownNow();
             }
         } catch (InterruptedException e) {
-            executor.shutdownNow();
+            executorService.shutdownNow();
             getLogger(TransactionalOutboxSender.class).warn("ExecutorService could not be stopped -> Interrupt thread.", e);
             Thread.currentThread().interrupt();
         }
+    }
 
-        if (messageSender instanceof AutoCloseable autoCloseable)
-        {
-            try {
-                autoCloseable.close();
-            } catch (Exception e)
-            {
-                getLogger(TransactionalOutboxSender.class).error(e.getMessage());
-            }
-        }
+    TransactionalOutboxMetrics internalGetMetrics()
+    {
+        return new TransactionalOutboxMetrics(
+                outboxStore.count(),
+                Duration.of(relayLag.get(), ChronoUnit.MICROS),
+                relayedMessages.get(),
+                failedMessages.get());
     }
 
     /**
      * This method is the entry point for the message relay part of the transactional outbox pattern.
-     * It calls method {@link #sendOutboxMessages()} in a transaction managed by the invocation manager
+     * It calls method {@link #sendOutboxMessages(Set)} in a transaction managed by the invocation manager until all
+     * stored messages are forwarded or their partition is blocked by a message that could not be forwarded.
      */
     @SuppressWarnings("java:S1181")
     public void transactionalSend()
     {
+        // Messages stored from now on are not necessarily seen by this run, so that they must request a new run
+        relayPending.set(false);
+
         try {
             var handler = InvocationManager.getInvocationHandler(this);
-            handler.invoke(this, this::sendOutboxMessages);
+            var blockedPartitions = new HashSet<String>();
+            boolean batchCompleted;
+            do {
+                batchCompleted = handler.invoke(this, this::sendOutboxMessages, blockedPartitions);
+            } while (batchCompleted);
         } catch (InvocationTargetRuntimeException e)
         {
             getLogger(getClass()).warn("Could not send outbox messages. Reason: {}", e.getTargetException().getMessage());
@@ -111,44 +232,208 @@ public class TransactionalOutboxSender extends MessageSender {
 
     @Override
     protected void sendToQueue(String message, String destination, Properties messageProperties, MessageType messageType) {
-        outboxRepository.add(new JexxaOutboxMessage(
-                UUID.randomUUID(), message,
+        sendToQueue(message, destination, messageProperties, messageType, DeliveryProfile.unspecified());
+    }
+
+    @Override
+    protected void sendToQueue(String message, String destination, Properties messageProperties, MessageType messageType, DeliveryProfile deliveryProfile) {
+        outboxStore.add(new JexxaOutboxMessage(
+                UUID.randomUUID(), nextSequenceNumber(), message,
                 destination, messageProperties,
-                messageType, DestinationType.QUEUE));
-        executor.schedule( this::transactionalSend,0, TimeUnit.MICROSECONDS);
+                messageType, DestinationType.QUEUE, deliveryProfile));
+        requestRelay();
     }
 
     @Override
     protected void sendToTopic(String message, String destination, Properties messageProperties, MessageType messageType) {
-        outboxRepository.add(new JexxaOutboxMessage(
-                UUID.randomUUID(), message,
+        sendToTopic(message, destination, messageProperties, messageType, DeliveryProfile.unspecified());
+    }
+
+    @Override
+    protected void sendToTopic(String message, String destination, Properties messageProperties, MessageType messageType, DeliveryProfile deliveryProfile) {
+        outboxStore.add(new JexxaOutboxMessage(
+                UUID.randomUUID(), nextSequenceNumber(), message,
                 destination, messageProperties,
-                messageType, DestinationType.TOPIC));
-        executor.schedule( this::transactionalSend,0, TimeUnit.MICROSECONDS);
+                messageType, DestinationType.TOPIC, deliveryProfile));
+        requestRelay();
+    }
+
+    /**
+     * Forwards the oldest stored messages of all partitions that are not blocked, in the order in which they were
+     * stored, and removes exactly the forwarded messages. The messages are partitioned and each partition is forwarded
+     * by the worker assigned to it. Partitions that could not be forwarded are added to the given blocked partitions.
+     *
+     * @param blockedPartitions partitions whose messages must not be forwarded within the current relay run
+     * @return true if a complete batch was processed so that further messages may be available
+     */
+    private boolean sendOutboxMessages(Set<String> blockedPartitions)
+    {
+        var outboxMessages = nextBatch(blockedPartitions);
+
+        if (outboxMessages.isEmpty())
+        {
+            return false;
+        }
+
+        var workerMessages = new LinkedHashMap<Integer, List<JexxaOutboxMessage>>();
+        outboxMessages.forEach(outboxMessage -> workerMessages
+                .computeIfAbsent(getWorker(outboxMessage), key -> new ArrayList<>())
+                .add(outboxMessage));
+
+        var relayTasks = new ArrayList<Future<RelayResult>>();
+        workerMessages.forEach((worker, messages) -> relayTasks.add(
+                relayWorkers.submit(() -> sendPartitions(messageSenders.get(worker), messages))));
+
+        var sentMessages = new ArrayList<UUID>();
+        var failedSends = 0;
+        for (var relayTask : relayTasks)
+        {
+            var relayResult = getResult(relayTask);
+            sentMessages.addAll(relayResult.sentMessages());
+            blockedPartitions.addAll(relayResult.blockedPartitions());
+            failedSends += relayResult.failedMessages();
+        }
+
+        outboxStore.removeAll(sentMessages);
+
+        var currentTime = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        relayLag.set(Math.max(0, currentTime - outboxMessages.get(0).sequenceNumber()));
+        relayedMessages.addAndGet(sentMessages.size());
+        failedMessages.addAndGet(failedSends);
+
+        return outboxMessages.size() == batchSize;
     }
 
-    private void sendOutboxMessages()
+    /**
+     * Returns the oldest stored messages of all partitions that are not blocked, so that a blocked partition cannot
+     * starve the others.
+     */
+    private List<JexxaOutboxMessage> nextBatch(Set<String> blockedPartitions)
+    {
+        var query = outboxStore.getNumericQuery(OutboxSchema.SEQUENCE_NUMBER, Long.class);
+        var outboxMessages = new ArrayList<JexxaOutboxMessage>();
+        String continuationToken = null;
+        Page<JexxaOutboxMessage> page;
+
+        do {
+            page = query.getAscendingAfter(continuationToken, batchSize);
+            page.content().stream()
+                    .filter(outboxMessage -> !blockedPartitions.contains(getPartitionKey(outboxMessage)))
+                    .limit((long) batchSize - outboxMessages.size())
+                    .forEach(outboxMessages::add);
+            continuationToken = page.continuationToken();
+        } while (outboxMessages.size() < batchSize && page.hasNext());
+
+        return outboxMessages;
+    }
+
+    /**
+     * Forwards given messages in order. If a message cannot be forwarded, all following messages of its partition are
+     * kept in the outbox, so that their order is preserved. Messages of other partitions are still forwarded.
+     *
+     * @return ids of all forwarded messages, the partitions that could not be forwarded, and the number of messages
+     * whose forwarding failed
+     */
+    private RelayResult sendPartitions(MessageSender messageSender, List<JexxaOutboxMessage> outboxMessages)
+    {
+        var sentMessages = new ArrayList<UUID>();
+        var blockedPartitions = new HashSet<String>();
+        var failedMessages = 0;
+
+        for (var outboxMessage : outboxMessages)
+        {
+            var partitionKey = getPartitionKey(outboxMessage);
+            if (blockedPartitions.contains(partitionKey))
+            {
+                continue;
+            }
+
+            try
+            {
+                if (outboxMessage.destinationType().equals(DestinationType.QUEUE))
+                {
+                    sendToQueue(messageSender, outboxMessage);
+                } else {
+                    sendToTopic(messageSender, outboxMessage);
+                }
+                sentMessages.add(outboxMessage.messageId());
+            } catch (RuntimeException e)
+            {
+                blockedPartitions.add(partitionKey);
+                ++failedMessages;
+                getLogger(getClass()).warn("Could not send outbox messages of partition {}. Reason: {}", partitionKey, e.getMessage());
+                getLogger(getClass()).debug("Stack Trace", e);
+            }
+        }
+        return new RelayResult(sentMessages, blockedPartitions, failedMessages);
+    }
+
+    private static RelayResult getResult(Future<RelayResult> relayTask)
+    {
+        try
+        {
+            return relayTask.get();
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for outbox workers", e);
+        } catch (ExecutionException e)
+        {
+            throw new IllegalStateException("Outbox worker failed", e.getCause());
+        }
+    }
+
+    private static DeliveryProfile getDeliveryProfile(JexxaOutboxMessage outboxMessage)
     {
-        outboxRepository.get().stream()
-            .filter(outboxMessage -> outboxMessage.destinationType.equals(DestinationType.QUEUE))
-            .forEach(this::sendToQueue);
+        return Objects.requireNonNullElse(outboxMessage.deliveryProfile(), DeliveryProfile.unspecified());
+    }
 
-        outboxRepository.get().stream()
-            .filter(outboxMessage -> outboxMessage.destinationType.equals(DestinationType.TOPIC))
-            .forEach(this::sendToTopic);
+    private int getWorker(JexxaOutboxMessage outboxMessage)
+    {
+        return Math.floorMod(getPartitionKey(outboxMessage).hashCode(), messageSenders.size());
+    }
 
-        outboxRepository.removeAll();
+    private String getPartitionKey(JexxaOutboxMessage outboxMessage)
+    {
+        String partitionKey = null;
+        if (orderingKey != null && outboxMessage.messageProperties() != null)
+        {
+            partitionKey = outboxMessage.messageProperties().getProperty(orderingKey);
+        }
+        if (partitionKey == null)
+        {
+            partitionKey = outboxMessage.destinationType() + ":" + outboxMessage.destination();
+        }
+        return partitionKey;
+    }
+
+    private void requestRelay()
+    {
+        if (relayPending.compareAndSet(false, true))
+        {
+            executor.execute(this::transactionalSend);
+        }
+    }
+
+    /**
+     * Returns a strictly increasing sequence number, which is based on the current time in microseconds, so that
+     * messages stored by a previous run of the application are forwarded first.
+     */
+    private long nextSequenceNumber()
+    {
+        var currentTime = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        return lastSequenceNumber.updateAndGet(lastValue -> Math.max(lastValue + 1, currentTime));
     }
 
     @SuppressWarnings("ResultOfMethodCallIgnored")
-    private void sendToQueue(JexxaOutboxMessage outboxMessage)
+    private static void sendToQueue(MessageSender messageSender, JexxaOutboxMessage outboxMessage)
     {
         MessageProducer producer;
         if (outboxMessage.messageType.equals(MessageType.TEXT_MESSAGE))
         {
-            producer = messageSender.send(outboxMessage.message()).toQueue(outboxMessage.destination());
+            producer = messageSender.send(outboxMessage.message()).toQueue(outboxMessage.destination()).withDeliveryProfile(getDeliveryProfile(outboxMessage));
         } else {
-            producer = messageSender.sendByteMessage(outboxMessage.message()).toQueue(outboxMessage.destination());
+            producer = messageSender.sendByteMessage(outboxMessage.message()).toQueue(outboxMessage.destination()).withDeliveryProfile(getDeliveryProfile(outboxMessage));
         }
         if (outboxMessage.messageProperties() != null) {
             outboxMessage.messageProperties().forEach((key, value) -> producer.addHeader((String) key, (String) value));
@@ -157,14 +442,14 @@ public class TransactionalOutboxSender extends MessageSender {
     }
 
     @SuppressWarnings("ResultOfMethodCallIgnored")
-    private void sendToTopic( JexxaOutboxMessage outboxMessage)
+    private static void sendToTopic(MessageSender messageSender, JexxaOutboxMessage outboxMessage)
     {
         MessageProducer producer;
         if (outboxMessage.messageType().equals(MessageType.TEXT_MESSAGE))
         {
-            producer = messageSender.send(outboxMessage.message()).toTopic(outboxMessage.destination());
+            producer = messageSender.send(outboxMessage.message()).toTopic(outboxMessage.destination()).withDeliveryProfile(getDeliveryProfile(outboxMessage));
         } else {
-            producer = messageSender.sendByteMessage(outboxMessage.message()).toTopic(outboxMessage.destination());
+            producer = messageSender.sendByteMessage(outboxMessage.message()).toTopic(outboxMessage.destination()).withDeliveryProfile(getDeliveryProfile(outboxMessage));
         }
         if (outboxMessage.messageProperties() != null) {
             outboxMessage.messageProperties().forEach((key, value) -> producer.addHeader((String) key, (String) value));
@@ -175,9 +460,30 @@ public class TransactionalOutboxSender extends MessageSender {
 
     enum DestinationType{ TOPIC, QUEUE }
 
-    record JexxaOutboxMessage(UUID messageId, String message, String destination,
+    private record RelayResult(List<UUID> sentMessages, Set<String> blockedPartitions, int failedMessages) { }
+
+    record JexxaOutboxMessage(UUID messageId, long sequenceNumber, String message, String destination,
                               Properties messageProperties, MessageType messageType,
-                              DestinationType destinationType)
+                              DestinationType destinationType, DeliveryProfile deliveryProfile)
     {   }
 
+    enum OutboxSchema implements MetadataSchema
+    {
+        SEQUENCE_NUMBER(numericTag(JexxaOutboxMessage::sequenceNumber));
+
+        private final MetaTag<JexxaOutboxMessage, ?, ? > metaTag;
+
+        OutboxSchema(MetaTag<JexxaOutboxMessage,?, ?> metaTag)
+        {
+            this.metaTag = metaTag;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T, S, V> MetaTag<T, S, V> getTag()
+        {
+            return (MetaTag<T, S, V>) metaTag;
+        }
+    }
+
 }
@@ -1,6 +1,7 @@
 package io.jexxa.infrastructure.persistence.objectstore;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Interface to search numeric based meta tags
@@ -134,4 +135,53 @@ public interface INumericQuery<T, S >
      */
     List<T> getDescending();
 
+    /**
+     * Returns a page of at most {@code amount} elements in ascending order that follow the element identified by
+     * given value and key. Elements with an equal value are ordered by their key. In contrast to
+     * {@link #getAscending(int)}, the latency of this method does not depend on the position of the page.
+     * <p>
+     * Elements whose metadata is null are not included.
+     *
+     * @param lastValue value of the last element of the previous page, or null to get the first page
+     * @param lastKey key of the last element of the previous page. It is ignored if lastValue is null.
+     * @param amount maximum number of elements of the page
+     * @return page of elements including a continuation token for the next page
+     */
+    <K> Page<T> getAscendingAfter(S lastValue, K lastKey, int amount);
+
+    /**
+     * Returns a page of at most {@code amount} elements in ascending order that follow the last element of a page
+     * returned before. See {@link #getAscendingAfter(Object, Object, int)} for details.
+     *
+     * @param continuationToken of the previous page, or null to get the first page
+     * @param amount maximum number of elements of the page
+     * @return page of elements including a continuation token for the next page
+     */
+    Page<T> getAscendingAfter(String continuationToken, int amount);
+
+    /**
+     * Returns all elements in ascending order as stream. In contrast to {@link #getAscending()}, implementations may
+     * load the elements lazily so that large object stores can be processed in constant memory.
+     * <p>
+     * The returned stream should be closed, e.g. by using it in a try-with-resources statement.
+     *
+     * @return stream of all elements in ascending order
+     */
+    default Stream<T> streamAscending()
+    {
+        return getAscending().stream();
+    }
+
+    /**
+     * Returns all elements in descending order as stream. In contrast to {@link #getDescending()}, implementations may
+     * load the elements lazily so that large object stores can be processed in constant memory.
+     * <p>
+     * The returned stream should be closed, e.g. by using it in a try-with-resources statement.
+     *
+     * @return stream of all elements in descending order
+     */
+    default Stream<T> streamDescending()
+    {
+        return getDescending().stream();
+    }
 }
@@ -0,0 +1,56 @@
+package io.jexxa.infrastructure.persistence.objectstore;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Identifies the last element of a {@link Page} by the value of its meta tag and its key. Both values are represented
+ * as they are stored by the object store, so that the cursor can be encoded into an opaque continuation token.
+ *
+ * @param value of the meta tag of the last element
+ * @param key of the last element in its JSON representation
+ */
+public record KeysetCursor(String value, String key)
+{
+    private static final String SEPARATOR = ".";
+
+    public KeysetCursor
+    {
+        Objects.requireNonNull(value);
+        Objects.requireNonNull(key);
+    }
+
+    public String encode()
+    {
+        return toBase64(value) + SEPARATOR + toBase64(key);
+    }
+
+    /**
+     * Decodes a continuation token created by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if given token is invalid
+     */
+    public static KeysetCursor decode(String continuationToken)
+    {
+        var separator = continuationToken.indexOf(SEPARATOR);
+        if (separator < 0)
+        {
+            throw new IllegalArgumentException("Invalid continuation token " + continuationToken);
+        }
+
+        return new KeysetCursor(
+                fromBase64(continuationToken.substring(0, separator)),
+                fromBase64(continuationToken.substring(separator + 1)));
+    }
+
+    private static String toBase64(String value)
+    {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String fromBase64(String value)
+    {
+        return new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+    }
+}
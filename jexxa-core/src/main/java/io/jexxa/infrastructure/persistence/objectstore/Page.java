@@ -0,0 +1,27 @@
+package io.jexxa.infrastructure.persistence.objectstore;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A page of elements returned by a keyset paginated query such as {@link INumericQuery#getAscendingAfter(String, int)}.
+ *
+ * @param content elements of this page
+ * @param continuationToken opaque token to request the next page, or null if this is the last page
+ * @param <T> Type of the managed object
+ */
+public record Page<T>(List<T> content, String continuationToken)
+{
+    public Page
+    {
+        content = List.copyOf(Objects.requireNonNull(content));
+    }
+
+    /**
+     * @return true if a next page exists that can be requested via {@link #continuationToken()}
+     */
+    public boolean hasNext()
+    {
+        return continuationToken != null;
+    }
+}
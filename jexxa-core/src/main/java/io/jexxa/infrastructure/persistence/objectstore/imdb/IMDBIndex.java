@@ -0,0 +1,187 @@
+package io.jexxa.infrastructure.persistence.objectstore.imdb;
+
+import io.jexxa.common.wrapper.json.JSONManager;
+import io.jexxa.infrastructure.persistence.repository.imdb.IMDBChangeListener;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Secondary index of an {@link IMDBObjectStore} for a single meta tag. Keys of the aggregates are sorted by the value
+ * of the meta tag and by the JSON representation of the key for equal values. The JSON representation is compared as
+ * text, so that the order of equal values can differ from the JDBC object store. For example, Postgres stores keys as
+ * JSONB and orders numeric keys numerically, whereas this index orders key 10 before key 9.
+ * <p>
+ * The index is updated by {@link io.jexxa.infrastructure.persistence.repository.imdb.IMDBRepository} while holding
+ * the write lock of the aggregate type. Readers do not lock. During an update, a reader may see the key of an
+ * aggregate at its old and its new position, or find a key whose aggregate was just removed. Readers must therefore
+ * skip duplicate and missing keys and check the value of the aggregates they return.
+ *
+ * @param <T> type of the aggregate
+ * @param <K> type of the key
+ * @param <V> type of the indexed value
+ */
+final class IMDBIndex<T, K, V extends Comparable<V>> implements IMDBChangeListener<T, K>
+{
+    // Bounds of all keys with the same value. A key is never the empty string because it is represented as JSON
+    private static final String LOWEST_KEY = "";
+    private static final String HIGHEST_KEY = null;
+
+    /**
+     * Position of an aggregate in the index, given by the value of the meta tag and the JSON representation of its key
+     */
+    record IndexKey<V>(V value, String key) { }
+
+    private final Function<T, V> valueAccessor;
+    private final ConcurrentSkipListMap<IndexKey<V>, K> index;
+    private final Map<K, IndexKey<V>> indexKeys = new ConcurrentHashMap<>();
+    private final Set<K> nullKeys = ConcurrentHashMap.newKeySet();
+
+    IMDBIndex(Function<T, V> valueAccessor)
+    {
+        this.valueAccessor = valueAccessor;
+        this.index = new ConcurrentSkipListMap<>(Comparator
+                .comparing((IndexKey<V> indexKey) -> indexKey.value())
+                .thenComparing(IndexKey::key, Comparator.nullsLast(Comparator.naturalOrder())));
+    }
+
+    @Override
+    public void onPut(K key, T aggregate)
+    {
+        var value = valueAccessor.apply(aggregate);
+        IndexKey<V> previousIndexKey;
+
+        // The new entry is added before the previous one is removed, so that readers always find the aggregate
+        if (value == null)
+        {
+            nullKeys.add(key);
+            previousIndexKey = indexKeys.remove(key);
+        }
+        else
+        {
+            var indexKey = new IndexKey<>(value, JSONManager.getJSONConverter().toJson(key));
+            index.put(indexKey, key);
+            previousIndexKey = indexKeys.put(key, indexKey);
+            nullKeys.remove(key);
+
+            if (indexKey.equals(previousIndexKey))
+            {
+                return;
+            }
+        }
+
+        if (previousIndexKey != null)
+        {
+            index.remove(previousIndexKey);
+        }
+    }
+
+    @Override
+    public void onRemove(K key)
+    {
+        var previousIndexKey = indexKeys.remove(key);
+        if (previousIndexKey != null)
+        {
+            index.remove(previousIndexKey);
+        }
+        nullKeys.remove(key);
+    }
+
+    @Override
+    public void onClear()
+    {
+        index.clear();
+        indexKeys.clear();
+        nullKeys.clear();
+    }
+
+    V getValue(T aggregate)
+    {
+        return valueAccessor.apply(aggregate);
+    }
+
+    /**
+     * Returns the keys of all aggregates with a value in ascending order
+     */
+    Stream<K> ascending()
+    {
+        return index.values().stream();
+    }
+
+    /**
+     * Returns the keys of all aggregates with a value in descending order
+     */
+    Stream<K> descending()
+    {
+        return index.descendingMap().values().stream();
+    }
+
+    /**
+     * Returns the keys of all aggregates whose value is null
+     */
+    Stream<K> nullValues()
+    {
+        return nullKeys.stream();
+    }
+
+    /**
+     * Returns the keys of all aggregates whose value is within given range in ascending order.
+     *
+     * @param fromValue lower bound of the range, or null if the range has no lower bound
+     * @param fromInclusive true if the lower bound is part of the range
+     * @param toValue upper bound of the range, or null if the range has no upper bound
+     * @param toInclusive true if the upper bound is part of the range
+     */
+    Stream<K> range(V fromValue, boolean fromInclusive, V toValue, boolean toInclusive)
+    {
+        NavigableMap<IndexKey<V>, K> range = index;
+        if (fromValue != null)
+        {
+            range = range.tailMap(new IndexKey<>(fromValue, fromInclusive ? LOWEST_KEY : HIGHEST_KEY), false);
+        }
+        if (toValue != null)
+        {
+            range = range.headMap(new IndexKey<>(toValue, toInclusive ? HIGHEST_KEY : LOWEST_KEY), false);
+        }
+        return range.values().stream();
+    }
+
+    /**
+     * Returns the positions and keys of all aggregates with a value in ascending order
+     */
+    Stream<Map.Entry<IndexKey<V>, K>> ascendingEntries()
+    {
+        return index.entrySet().stream();
+    }
+
+    /**
+     * Returns the positions and keys of all aggregates that follow given value and key in ascending order
+     *
+     * @param value of the last aggregate
+     * @param key JSON representation of the key of the last aggregate
+     */
+    Stream<Map.Entry<IndexKey<V>, K>> entriesAfter(V value, String key)
+    {
+        return index.tailMap(new IndexKey<>(value, key), false).entrySet().stream();
+    }
+
+    /**
+     * Returns the keys of all aggregates starting from given value in ascending order, as long as their value
+     * matches given condition.
+     */
+    Stream<K> startingFrom(V fromValue, Predicate<V> condition)
+    {
+        return index.tailMap(new IndexKey<>(fromValue, LOWEST_KEY), false)
+                .entrySet()
+                .stream()
+                .takeWhile(entry -> condition.test(entry.getKey().value()))
+                .map(Map.Entry::getValue);
+    }
+}
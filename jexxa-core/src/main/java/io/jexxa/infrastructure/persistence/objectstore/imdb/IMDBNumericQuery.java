@@ -1,26 +1,37 @@
 package io.jexxa.infrastructure.persistence.objectstore.imdb;
 
 import io.jexxa.infrastructure.persistence.objectstore.INumericQuery;
+import io.jexxa.infrastructure.persistence.objectstore.KeysetCursor;
+import io.jexxa.infrastructure.persistence.objectstore.Page;
+import io.jexxa.infrastructure.persistence.objectstore.metadata.MetadataSchema;
 import io.jexxa.infrastructure.persistence.objectstore.metadata.NumericTag;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Stream;
 
-class IMDBNumericQuery<T, K, S> implements INumericQuery<T, S>
+class IMDBNumericQuery<T, K, S, M extends Enum<M> & MetadataSchema> implements INumericQuery<T, S>
 {
     private final NumericTag<T, S> numericTag;
-    private final IMDBObjectStore<T, K, ?> objectStore;
+    private final IMDBObjectStore<T, K, M> objectStore;
+    private final M metaTag;
 
     private Map<K, T> getOwnAggregateMap()
     {
         return objectStore.getAggregates();
     }
 
-    IMDBNumericQuery(IMDBObjectStore<T, K, ?> objectStore, NumericTag<T, S> numericTag, Class<S> queryType)
+    private IMDBIndex<T, K, BigDecimal> getIndex()
+    {
+        return objectStore.getIndex(metaTag, element -> toBigDecimal(numericTag.getFromAggregate(element)));
+    }
+
+    IMDBNumericQuery(IMDBObjectStore<T, K, M> objectStore, M metaTag, NumericTag<T, S> numericTag, Class<S> queryType)
     {
         this.objectStore = objectStore;
+        this.metaTag = metaTag;
         this.numericTag = numericTag;
         Objects.requireNonNull( queryType );//Type required for java type inference
     }
@@ -28,10 +39,7 @@ class IMDBNumericQuery<T, K, S> implements INumericQuery<T, S>
     @Override
     public List<T> isGreaterOrEqualThan(S startValue)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .filter( element -> numericTag.getFromAggregate(element) != null)
+        return getRange(startValue, true, null, false)
                 .filter(element -> compareToValue(element, startValue) >= 0)
                 .toList();
     }
@@ -39,10 +47,7 @@ class IMDBNumericQuery<T, K, S> implements INumericQuery<T, S>
     @Override
     public List<T> isGreaterThan(S value)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .filter( element -> numericTag.getFromAggregate(element) != null)
+        return getRange(value, false, null, false)
                 .filter(element -> compareToValue(element, value) > 0)
                 .toList();
     }
@@ -50,10 +55,7 @@ class IMDBNumericQuery<T, K, S> implements INumericQuery<T, S>
     @Override
     public List<T> getRangeClosed(S startValue, S endValue)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .filter( element -> numericTag.getFromAggregate(element) != null)
+        return getRange(startValue, true, endValue, true)
                 .filter(element -> compareToValue(element, startValue) >= 0)
                 .filter(element -> compareToValue(element, endValue) <= 0)
                 .toList();
@@ -62,10 +64,7 @@ class IMDBNumericQuery<T, K, S> implements INumericQuery<T, S>
     @Override
     public List<T> getRange(S startValue, S endValue)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .filter( element -> numericTag.getFromAggregate(element) != null)
+        return getRange(startValue, true, endValue, false)
                 .filter(element -> compareToValue(element, startValue) >= 0)
                 .filter(element -> compareToValue(element, endValue) < 0)
                 .toList();
@@ -74,9 +73,7 @@ class IMDBNumericQuery<T, K, S> implements INumericQuery<T, S>
     @Override
     public List<T> isLessOrEqualThan(S endValue)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
+        return getRange(null, false, endValue, true)
                 .filter( element -> numericTag.getFromAggregate(element) != null)
                 .filter(element -> compareToValue(element, endValue) <= 0)
                 .toList();
@@ -85,9 +82,7 @@ class IMDBNumericQuery<T, K, S> implements INumericQuery<T, S>
     @Override
     public List<T> isLessThan(S endValue)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
+        return getRange(null, false, endValue, false)
                 .filter( element -> numericTag.getFromAggregate(element) != null)
                 .filter(element -> compareToValue(element, endValue) < 0)
                 .toList();
@@ -96,10 +91,7 @@ class IMDBNumericQuery<T, K, S> implements INumericQuery<T, S>
     @Override
     public List<T> getAscending(int amount)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .sorted(this::compareToAggregate)
+        return getAscendingStream()
                 .limit(amount)
                 .toList();
     }
@@ -107,20 +99,36 @@ class IMDBNumericQuery<T, K, S> implements INumericQuery<T, S>
     @Override
     public List<T> getAscending()
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .sorted(this::compareToAggregate)
+        return getAscendingStream()
                 .toList();
     }
 
+    @Override
+    public <L> Page<T> getAscendingAfter(S lastValue, L lastKey, int amount)
+    {
+        if (lastValue == null)
+        {
+            return getAscendingPage(null, amount);
+        }
+
+        return getAscendingPage(new KeysetCursor(String.valueOf(numericTag.getFromValue(lastValue)), objectStore.keyToJson(lastKey)), amount);
+    }
+
+    @Override
+    public Page<T> getAscendingAfter(String continuationToken, int amount)
+    {
+        if (continuationToken == null)
+        {
+            return getAscendingPage(null, amount);
+        }
+
+        return getAscendingPage(KeysetCursor.decode(continuationToken), amount);
+    }
+
     @Override
     public List<T> getDescending(int amount)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .sorted((element1, element2) -> compareToAggregate(element2, element1))
+        return getDescendingStream()
                 .limit(amount)
                 .toList();
     }
@@ -128,19 +136,14 @@ class IMDBNumericQuery<T, K, S> implements INumericQuery<T, S>
     @Override
     public List<T> getDescending()
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .sorted((element1, element2) -> compareToAggregate(element2, element1))
+        return getDescendingStream()
                 .toList();
     }
 
     @Override
     public List<T> isEqualTo(S value)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
+        return getRange(value, true, value, true)
                 .filter(element-> compareToValue(element, value) == 0)
                 .toList();
     }
@@ -158,9 +161,7 @@ class IMDBNumericQuery<T, K, S> implements INumericQuery<T, S>
     @Override
     public List<T> isNull()
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
+        return objectStore.getAggregates(getIndex().nullValues())
                 .filter( element -> numericTag.getFromAggregate(element) == null)
                 .toList();
     }
@@ -168,13 +169,52 @@ class IMDBNumericQuery<T, K, S> implements INumericQuery<T, S>
     @Override
     public List<T> isNotNull()
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
+        return objectStore.getAggregates(getIndex().ascending())
                 .filter( element -> numericTag.getFromAggregate(element) != null)
                 .toList();
     }
 
+    /**
+     * Returns all aggregates with a value in given range in ascending order. A value of null means that the range
+     * has no bound. Since the index is read without locking, the returned aggregates must be checked by the caller.
+     */
+    private Stream<T> getRange(S fromValue, boolean fromInclusive, S toValue, boolean toInclusive)
+    {
+        return objectStore.getAggregates(getIndex().range(
+                (fromValue == null) ? null : toBigDecimal(numericTag.getFromValue(fromValue)),
+                fromInclusive,
+                (toValue == null) ? null : toBigDecimal(numericTag.getFromValue(toValue)),
+                toInclusive));
+    }
+
+    /**
+     * Returns all aggregates in ascending order followed by all aggregates whose value is null
+     */
+    private Stream<T> getAscendingStream()
+    {
+        var index = getIndex();
+        return objectStore.getAggregates(Stream.concat(index.ascending(), index.nullValues()));
+    }
+
+    /**
+     * Returns all aggregates in descending order followed by all aggregates whose value is null
+     */
+    private Stream<T> getDescendingStream()
+    {
+        var index = getIndex();
+        return objectStore.getAggregates(Stream.concat(index.descending(), index.nullValues()));
+    }
+
+    private Page<T> getAscendingPage(KeysetCursor cursor, int amount)
+    {
+        return objectStore.getAscendingPage(getIndex(), BigDecimal::new, cursor, amount);
+    }
+
+    private static BigDecimal toBigDecimal(Number value)
+    {
+        return (value == null) ? null : new BigDecimal(value.toString());
+    }
+
     private int compareToValue(T aggregate, S value)
     {
         Objects.requireNonNull(aggregate);
@@ -197,33 +237,4 @@ class IMDBNumericQuery<T, K, S> implements INumericQuery<T, S>
         var aggregateValue2BD = new BigDecimal( value2.toString() );
         return aggregateValue1BD.compareTo(aggregateValue2BD);
     }
-    /**
-     * Compares the value of the two aggregates which each other
-     *
-     * @param aggregate1 first aggregate
-     * @param aggregate2 second aggregate
-     * @return 0 If the value of aggregate1 is equal to value aggregate2 <br>
-     *     -1 if value of aggregate1 &lt; value of aggregate2 <br>
-     *     1 if value of aggregate1 &gt; value of aggregate2 <br>
-     *     1 if one of the given values is null <br>
-     */
-    @SuppressWarnings("DuplicatedCode")
-    private int compareToAggregate(T aggregate1, T aggregate2)
-    {
-        Objects.requireNonNull(aggregate1);
-        Objects.requireNonNull(aggregate2);
-
-        var aggregateValue1 = numericTag.getFromAggregate(aggregate1);
-        var aggregateValue2 = numericTag.getFromAggregate(aggregate2);
-
-        if ( aggregateValue1 == null && aggregateValue2 == null)
-        {
-            return 0;
-        } else if ( aggregateValue1 == null || aggregateValue2 == null)
-        {
-            return 1;
-        }
-
-        return typeSpecificCompareTo( aggregateValue1, aggregateValue2);
-    }
 }
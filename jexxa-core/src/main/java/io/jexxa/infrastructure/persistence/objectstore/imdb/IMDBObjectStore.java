@@ -4,23 +4,30 @@ import io.jexxa.common.wrapper.json.JSONManager;
 import io.jexxa.infrastructure.persistence.objectstore.INumericQuery;
 import io.jexxa.infrastructure.persistence.objectstore.IObjectStore;
 import io.jexxa.infrastructure.persistence.objectstore.IStringQuery;
+import io.jexxa.infrastructure.persistence.objectstore.KeysetCursor;
+import io.jexxa.infrastructure.persistence.objectstore.Page;
 import io.jexxa.infrastructure.persistence.objectstore.metadata.MetadataSchema;
 import io.jexxa.infrastructure.persistence.objectstore.metadata.NumericTag;
 import io.jexxa.infrastructure.persistence.objectstore.metadata.StringTag;
 import io.jexxa.infrastructure.persistence.repository.imdb.IMDBRepository;
+import org.apache.commons.lang3.Validate;
 
 import java.util.EnumSet;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @SuppressWarnings("rawtypes")
 public class IMDBObjectStore<T, K, M extends Enum<M> & MetadataSchema>  extends IMDBRepository<T, K> implements IObjectStore<T, K, M>
 {
     private final Set<M> metaData;
 
+    private record KeysetElement<T, V>(IMDBIndex.IndexKey<V> indexKey, T aggregate) { }
+
     public IMDBObjectStore(
             Class<T> aggregateClazz,
             Function<T, K> keyFunction,
@@ -44,7 +51,7 @@ public class IMDBObjectStore<T, K, M extends Enum<M> & MetadataSchema>  extends
         //noinspection unchecked
         NumericTag<T, S> numericTag = (NumericTag) metaTag.getTag();
 
-        return new IMDBNumericQuery<>(this, numericTag, queryType);
+        return new IMDBNumericQuery<>(this, metaTag, numericTag, queryType);
     }
 
     @Override
@@ -59,17 +66,89 @@ public class IMDBObjectStore<T, K, M extends Enum<M> & MetadataSchema>  extends
         //noinspection unchecked
         StringTag<T, S> stringTag = (StringTag) metaTag.getTag();
 
-        return new IMDBStringQuery<>(this, stringTag, queryType);
+        return new IMDBStringQuery<>(this, metaTag, stringTag, queryType);
     }
 
 
     Map<K, T> getAggregates()
     {
-        Map<K, String> myggregateMap = getAggregateMap(getAggregateClazz());
-        return myggregateMap
+        var copyStrategy = getCopyStrategy();
+        return getAggregateMap()
                 .entrySet()
                 .stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, entry -> JSONManager.getJSONConverter().fromJson(entry.getValue(), getAggregateClazz())));
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> copyStrategy.fromSnapshot(entry.getValue())));
+    }
+
+    /**
+     * Returns the index of given meta tag. The index is created on first access.
+     */
+    <V extends Comparable<V>> IMDBIndex<T, K, V> getIndex(M metaTag, Function<T, V> valueAccessor)
+    {
+        return getChangeListener(metaTag, () -> new IMDBIndex<>(valueAccessor));
+    }
+
+    /**
+     * Returns the aggregates of given keys in the same order. Duplicate keys and keys of aggregates that were removed
+     * in the meantime are skipped.
+     */
+    Stream<T> getAggregates(Stream<K> keys)
+    {
+        var aggregateMap = getAggregateMap();
+        var copyStrategy = getCopyStrategy();
+
+        return keys.distinct()
+                .map(aggregateMap::get)
+                .filter(Objects::nonNull)
+                .map(copyStrategy::fromSnapshot);
+    }
+
+    /**
+     * Returns a page of aggregates in the order of given index. Aggregates whose value is null are excluded.
+     * <p>
+     * An aggregate is only returned at the position of the index that matches its current value, so that an aggregate
+     * updated concurrently is neither returned twice nor at a wrong position. The continuation token is created from
+     * the position of the last aggregate in the index.
+     */
+    <V extends Comparable<V>> Page<T> getAscendingPage(IMDBIndex<T, K, V> index, Function<String, V> valueParser, KeysetCursor cursor, int amount)
+    {
+        Validate.isTrue(amount > 0, "Amount of elements of a page must be greater than 0");
+
+        var entries = (cursor == null) ? index.ascendingEntries() : index.entriesAfter(valueParser.apply(cursor.value()), cursor.key());
+        var aggregateMap = getAggregateMap();
+        var copyStrategy = getCopyStrategy();
+
+        // One additional element is requested to determine whether a next page exists
+        var elements = entries
+                .map(entry -> new KeysetElement<>(entry.getKey(), aggregateMap.get(entry.getValue())))
+                .filter(element -> element.aggregate() != null)
+                .map(element -> new KeysetElement<>(element.indexKey(), copyStrategy.fromSnapshot(element.aggregate())))
+                .filter(element -> isAtPosition(index, element))
+                .limit(amount + 1L)
+                .toList();
+
+        var content = elements.stream()
+                .limit(amount)
+                .map(KeysetElement::aggregate)
+                .toList();
+
+        if (elements.size() <= amount)
+        {
+            return new Page<>(content, null);
+        }
+
+        var lastIndexKey = elements.get(amount - 1).indexKey();
+        return new Page<>(content, new KeysetCursor(lastIndexKey.value().toString(), lastIndexKey.key()).encode());
+    }
+
+    private static <T, V extends Comparable<V>> boolean isAtPosition(IMDBIndex<T, ?, V> index, KeysetElement<T, V> element)
+    {
+        var value = index.getValue(element.aggregate());
+        return value != null && value.compareTo(element.indexKey().value()) == 0;
+    }
+
+    String keyToJson(Object key)
+    {
+        return JSONManager.getJSONConverter().toJson(key);
     }
 
 }
@@ -1,25 +1,37 @@
 package io.jexxa.infrastructure.persistence.objectstore.imdb;
 
 import io.jexxa.infrastructure.persistence.objectstore.IStringQuery;
+import io.jexxa.infrastructure.persistence.objectstore.KeysetCursor;
+import io.jexxa.infrastructure.persistence.objectstore.Page;
+import io.jexxa.infrastructure.persistence.objectstore.metadata.MetadataSchema;
 import io.jexxa.infrastructure.persistence.objectstore.metadata.StringTag;
 
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
-class IMDBStringQuery<T, K, S> implements IStringQuery<T, S>
+class IMDBStringQuery<T, K, S, M extends Enum<M> & MetadataSchema> implements IStringQuery<T, S>
 {
     private final StringTag<T, S> stringTag;
-    private final IMDBObjectStore<T, K, ?> objectStore;
+    private final IMDBObjectStore<T, K, M> objectStore;
+    private final M metaTag;
+
     private Map<K, T> getOwnAggregateMap()
     {
         return objectStore.getAggregates();
     }
 
-    IMDBStringQuery(IMDBObjectStore<T, K, ?> objectStore, StringTag<T, S> stringTag, Class<S> queryType)
+    private IMDBIndex<T, K, String> getIndex()
+    {
+        return objectStore.getIndex(metaTag, stringTag::getFromAggregate);
+    }
+
+    IMDBStringQuery(IMDBObjectStore<T, K, M> objectStore, M metaTag, StringTag<T, S> stringTag, Class<S> queryType)
     {
         this.objectStore = objectStore;
+        this.metaTag = metaTag;
         this.stringTag = stringTag;
         Objects.requireNonNull( queryType );//Type required for java type inference
     }
@@ -28,11 +40,12 @@ class IMDBStringQuery<T, K, S> implements IStringQuery<T, S>
     @Override
     public List<T> beginsWith(S value)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
+        var prefix = stringTag.getFromValue(value);
+
+        // All values starting with the prefix directly follow the prefix in the index
+        return objectStore.getAggregates(getIndex().startingFrom(prefix, element -> element.startsWith(prefix)))
                 .filter( element -> stringTag.getFromAggregate(element) != null)
-                .filter( element -> stringTag.getFromAggregate(element).startsWith(stringTag.getFromValue(value)))
+                .filter( element -> stringTag.getFromAggregate(element).startsWith(prefix))
                 .toList();
     }
 
@@ -61,11 +74,11 @@ class IMDBStringQuery<T, K, S> implements IStringQuery<T, S>
     @Override
     public List<T> isEqualTo(S value)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
+        var stringValue = stringTag.getFromValue(value);
+
+        return objectStore.getAggregates(getIndex().range(stringValue, true, stringValue, true))
                 .filter( element -> stringTag.getFromAggregate(element) != null)
-                .filter( element -> stringTag.getFromAggregate(element).equals(stringTag.getFromValue(value)))
+                .filter( element -> stringTag.getFromAggregate(element).equals(stringValue))
                 .toList();
     }
 
@@ -83,9 +96,7 @@ class IMDBStringQuery<T, K, S> implements IStringQuery<T, S>
     @Override
     public List<T> isNull()
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
+        return objectStore.getAggregates(getIndex().nullValues())
                 .filter( element -> stringTag.getFromAggregate(element) == null)
                 .toList();
     }
@@ -93,9 +104,7 @@ class IMDBStringQuery<T, K, S> implements IStringQuery<T, S>
     @Override
     public List<T> isNotNull()
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
+        return objectStore.getAggregates(getIndex().ascending())
                 .filter( element -> stringTag.getFromAggregate(element) != null)
                 .toList();
     }
@@ -103,10 +112,7 @@ class IMDBStringQuery<T, K, S> implements IStringQuery<T, S>
     @Override
     public List<T> getAscending(int amount)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .sorted(Comparator.comparing(stringTag::getFromAggregate))
+        return getAscendingStream()
                 .limit(amount)
                 .toList();
     }
@@ -114,20 +120,36 @@ class IMDBStringQuery<T, K, S> implements IStringQuery<T, S>
     @Override
     public List<T> getAscending()
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .sorted(this::compareToAggregate)
+        return getAscendingStream()
                 .toList();
     }
 
+    @Override
+    public <L> Page<T> getAscendingAfter(S lastValue, L lastKey, int amount)
+    {
+        if (lastValue == null)
+        {
+            return getAscendingPage(null, amount);
+        }
+
+        return getAscendingPage(new KeysetCursor(String.valueOf(stringTag.getFromValue(lastValue)), objectStore.keyToJson(lastKey)), amount);
+    }
+
+    @Override
+    public Page<T> getAscendingAfter(String continuationToken, int amount)
+    {
+        if (continuationToken == null)
+        {
+            return getAscendingPage(null, amount);
+        }
+
+        return getAscendingPage(KeysetCursor.decode(continuationToken), amount);
+    }
+
     @Override
     public List<T> getDescending(int amount)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .sorted((element1, element2) -> compareToAggregate(element2, element1))
+        return getDescendingStream()
                 .limit(amount)
                 .toList();
     }
@@ -135,44 +157,30 @@ class IMDBStringQuery<T, K, S> implements IStringQuery<T, S>
     @Override
     public List<T> getDescending()
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .sorted((element1, element2) -> compareToAggregate(element2, element1))
+        return getDescendingStream()
                 .toList();
     }
 
-    protected int typeSpecificCompareTo(String value1, String value2)
+    /**
+     * Returns all aggregates in ascending order followed by all aggregates whose value is null
+     */
+    private Stream<T> getAscendingStream()
     {
-        return value1.compareTo(value2);
+        var index = getIndex();
+        return objectStore.getAggregates(Stream.concat(index.ascending(), index.nullValues()));
     }
 
     /**
-     * Compares the value of the two aggregates which each other
-     *
-     * @param aggregate1 first aggregate
-     * @param aggregate2 second aggregate
-     * @return 0 If the value of aggregate1 is equal to value aggregate2 <br>
-     *     -1 if value of aggregate1 &lt; value of aggregate2 <br>
-     *     1 if value of aggregate1 &gt; value of aggregate2 <br>
+     * Returns all aggregates in descending order followed by all aggregates whose value is null
      */
-    @SuppressWarnings("DuplicatedCode")
-    private int compareToAggregate(T aggregate1, T aggregate2)
+    private Stream<T> getDescendingStream()
     {
-        Objects.requireNonNull(aggregate1);
-        Objects.requireNonNull(aggregate2);
-
-        var aggregateValue1 = stringTag.getFromAggregate(aggregate1);
-        var aggregateValue2 = stringTag.getFromAggregate(aggregate2);
-
-        if ( aggregateValue1 == null && aggregateValue2 == null)
-        {
-            return 0;
-        } else if ( aggregateValue1 == null || aggregateValue2 == null)
-        {
-            return 1;
-        }
+        var index = getIndex();
+        return objectStore.getAggregates(Stream.concat(index.descending(), index.nullValues()));
+    }
 
-        return typeSpecificCompareTo( aggregateValue1, aggregateValue2);
+    private Page<T> getAscendingPage(KeysetCursor cursor, int amount)
+    {
+        return objectStore.getAscendingPage(getIndex(), Function.identity(), cursor, amount);
     }
 }
@@ -1,12 +1,14 @@
 package io.jexxa.infrastructure.persistence.objectstore.jdbc;
 
 import io.jexxa.common.wrapper.jdbc.JDBCConnection;
+import io.jexxa.common.wrapper.jdbc.JDBCTemplateCache;
+import io.jexxa.common.wrapper.jdbc.builder.SQLDataType;
 import io.jexxa.common.wrapper.jdbc.builder.SQLOrder;
 import io.jexxa.infrastructure.persistence.objectstore.INumericQuery;
 import io.jexxa.infrastructure.persistence.objectstore.metadata.MetaTag;
 import io.jexxa.infrastructure.persistence.objectstore.metadata.MetadataSchema;
-import io.jexxa.infrastructure.persistence.repository.jdbc.JDBCKeyValueRepository;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Supplier;
@@ -15,22 +17,26 @@ class JDBCNumericQuery<T,S, M extends Enum<M> & MetadataSchema> extends JDBCObje
 {
     private final MetaTag<T, S, ? extends Number> numericTag;
 
-    private final Class<T> aggregateClazz;
     private final M nameOfRow;
-    private final Class<M> metaDataSchema;
 
     JDBCNumericQuery(Supplier<JDBCConnection> jdbcConnection,
+                     JDBCTemplateCache templateCache,
+                     SQLDataType keyDataType,
                      M metaData,
                      Class<T> aggregateClazz,
                      Class<M> metaDataSchema,
                      Class<S> queryType)
     {
-        super(jdbcConnection, metaData, aggregateClazz, metaDataSchema, queryType);
+        super(jdbcConnection, templateCache, keyDataType, metaData, aggregateClazz, metaDataSchema, queryType);
 
-        this.aggregateClazz = Objects.requireNonNull(aggregateClazz);
         this.nameOfRow = Objects.requireNonNull(metaData);
         this.numericTag = Objects.requireNonNull(metaData.getTag());
-        this.metaDataSchema = Objects.requireNonNull(metaDataSchema);
+    }
+
+    @Override
+    protected Object toSQLValue(String cursorValue)
+    {
+        return new BigDecimal(cursorValue);
     }
 
     @Override
@@ -38,16 +44,11 @@ class JDBCNumericQuery<T,S, M extends Enum<M> & MetadataSchema> extends JDBCObje
     {
         var sqlStartValue = numericTag.getFromValue(startValue);
 
-        var jdbcQuery = getConnection()
-                .createQuery(metaDataSchema)
-                .select( JDBCKeyValueRepository.KeyValueSchema.class, JDBCKeyValueRepository.KeyValueSchema.REPOSITORY_VALUE)
-                .from(aggregateClazz)
+        return searchElements("isGreaterOrEqualThan", () -> selectValues()
                 .where(nameOfRow)
                 .isGreaterOrEqual(sqlStartValue)
                 .orderBy(nameOfRow, SQLOrder.ASC_NULLS_LAST)
-                .create();
-
-        return searchElements(jdbcQuery);
+                .createTemplate(), sqlStartValue);
     }
 
     @Override
@@ -55,16 +56,11 @@ class JDBCNumericQuery<T,S, M extends Enum<M> & MetadataSchema> extends JDBCObje
     {
         var sqlStartValue = numericTag.getFromValue(value);
 
-        var jdbcQuery = getConnection()
-                .createQuery(metaDataSchema)
-                .select( JDBCKeyValueRepository.KeyValueSchema.class, JDBCKeyValueRepository.KeyValueSchema.REPOSITORY_VALUE)
-                .from(aggregateClazz)
+        return searchElements("isGreaterThan", () -> selectValues()
                 .where(nameOfRow)
                 .isGreaterThan(sqlStartValue)
                 .orderBy(nameOfRow, SQLOrder.ASC_NULLS_LAST)
-                .create();
-
-        return searchElements(jdbcQuery);
+                .createTemplate(), sqlStartValue);
     }
 
     @Override
@@ -73,19 +69,13 @@ class JDBCNumericQuery<T,S, M extends Enum<M> & MetadataSchema> extends JDBCObje
         var sqlStartValue = numericTag.getFromValue(startValue);
         var sqlEndValue = numericTag.getFromValue(endValue);
 
-        var jdbcQuery = getConnection()
-                .createQuery(metaDataSchema)
-                .select( JDBCKeyValueRepository.KeyValueSchema.class, JDBCKeyValueRepository.KeyValueSchema.REPOSITORY_VALUE)
-                .from(aggregateClazz)
+        return searchElements("getRangeClosed", () -> selectValues()
                 .where(nameOfRow)
                 .isGreaterOrEqual(sqlStartValue)
                 .and(nameOfRow)
                 .isLessOrEqual(sqlEndValue)
                 .orderBy(nameOfRow, SQLOrder.ASC_NULLS_LAST)
-                .create();
-
-
-        return searchElements(jdbcQuery);
+                .createTemplate(), sqlStartValue, sqlEndValue);
     }
 
     @Override
@@ -94,19 +84,13 @@ class JDBCNumericQuery<T,S, M extends Enum<M> & MetadataSchema> extends JDBCObje
         var sqlStartValue = numericTag.getFromValue(startValue);
         var sqlEndValue = numericTag.getFromValue(endValue);
 
-        var jdbcQuery = getConnection()
-                .createQuery(metaDataSchema)
-                .select( JDBCKeyValueRepository.KeyValueSchema.class, JDBCKeyValueRepository.KeyValueSchema.REPOSITORY_VALUE)
-                .from(aggregateClazz)
+        return searchElements("getRange", () -> selectValues()
                 .where(nameOfRow)
                 .isGreaterOrEqual(sqlStartValue)
                 .and(nameOfRow)
                 .isLessThan(sqlEndValue)
                 .orderBy(nameOfRow, SQLOrder.ASC_NULLS_LAST)
-                .create();
-
-
-        return searchElements(jdbcQuery);
+                .createTemplate(), sqlStartValue, sqlEndValue);
     }
 
     @Override
@@ -114,17 +98,11 @@ class JDBCNumericQuery<T,S, M extends Enum<M> & MetadataSchema> extends JDBCObje
     {
         var sqlEndValue = numericTag.getFromValue(endValue);
 
-        //"select value from %s where %s <= %s",
-        var jdbcQuery = getConnection()
-                .createQuery(metaDataSchema)
-                .select( JDBCKeyValueRepository.KeyValueSchema.class, JDBCKeyValueRepository.KeyValueSchema.REPOSITORY_VALUE)
-                .from(aggregateClazz)
+        return searchElements("isLessOrEqualThan", () -> selectValues()
                 .where(nameOfRow)
                 .isLessOrEqual(sqlEndValue)
                 .orderBy(nameOfRow, SQLOrder.ASC_NULLS_LAST)
-                .create();
-
-        return searchElements(jdbcQuery);
+                .createTemplate(), sqlEndValue);
     }
 
     @Override
@@ -132,48 +110,32 @@ class JDBCNumericQuery<T,S, M extends Enum<M> & MetadataSchema> extends JDBCObje
     {
         var sqlEndValue = numericTag.getFromValue(endValue);
 
-        //"select value from %s where %s <= %s",
-        var jdbcQuery = getConnection()
-                .createQuery(metaDataSchema)
-                .select( JDBCKeyValueRepository.KeyValueSchema.class, JDBCKeyValueRepository.KeyValueSchema.REPOSITORY_VALUE)
-                .from(aggregateClazz)
+        return searchElements("isLessThan", () -> selectValues()
                 .where(nameOfRow)
                 .isLessThan(sqlEndValue)
                 .orderBy(nameOfRow, SQLOrder.ASC_NULLS_LAST)
-                .create();
-
-        return searchElements(jdbcQuery);
+                .createTemplate(), sqlEndValue);
     }
 
     @Override
     public List<T> isEqualTo(S value)
     {
         var sqlValue = numericTag.getFromValue(value);
-        var jdbcQuery = getConnection()
-                .createQuery(metaDataSchema)
-                .select( JDBCKeyValueRepository.KeyValueSchema.class, JDBCKeyValueRepository.KeyValueSchema.REPOSITORY_VALUE)
-                .from(aggregateClazz)
+        return searchElements("isEqualTo", () -> selectValues()
                 .where(nameOfRow)
                 .isEqual(sqlValue)
-                .create();
-
-        return searchElements(jdbcQuery);
+                .createTemplate(), sqlValue);
     }
 
     @Override
     public List<T> isNotEqualTo(S value)
     {
         var sqlValue = numericTag.getFromValue(value);
-        var jdbcQuery = getConnection()
-                .createQuery(metaDataSchema)
-                .select( JDBCKeyValueRepository.KeyValueSchema.class, JDBCKeyValueRepository.KeyValueSchema.REPOSITORY_VALUE)
-                .from(aggregateClazz)
+        return searchElements("isNotEqualTo", () -> selectValues()
                 .where(nameOfRow)
                 .isNotEqual(sqlValue)
                 .orderBy(nameOfRow, SQLOrder.ASC_NULLS_LAST)
-                .create();
-
-        return searchElements(jdbcQuery);
+                .createTemplate(), sqlValue);
     }
 
 }
@@ -2,15 +2,24 @@ package io.jexxa.infrastructure.persistence.objectstore.jdbc;
 
 import io.jexxa.common.wrapper.jdbc.JDBCConnection;
 import io.jexxa.common.wrapper.jdbc.JDBCQuery;
+import io.jexxa.common.wrapper.jdbc.JDBCQueryTemplate;
+import io.jexxa.common.wrapper.jdbc.JDBCTemplateCache;
+import io.jexxa.common.wrapper.jdbc.builder.JDBCObject;
+import io.jexxa.common.wrapper.jdbc.builder.JDBCQueryBuilder;
+import io.jexxa.common.wrapper.jdbc.builder.SQLDataType;
 import io.jexxa.common.wrapper.jdbc.builder.SQLOrder;
 import io.jexxa.common.wrapper.json.JSONConverter;
+import io.jexxa.infrastructure.persistence.objectstore.KeysetCursor;
+import io.jexxa.infrastructure.persistence.objectstore.Page;
 import io.jexxa.infrastructure.persistence.objectstore.metadata.MetadataSchema;
 import io.jexxa.infrastructure.persistence.repository.jdbc.JDBCKeyValueRepository;
+import org.apache.commons.lang3.Validate;
 
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static io.jexxa.common.wrapper.json.JSONManager.getJSONConverter;
 
@@ -23,9 +32,15 @@ class JDBCObjectQuery <T, S, M extends Enum<M> & MetadataSchema>
     private final JSONConverter jsonConverter = getJSONConverter();
     private final M nameOfRow;
     private final Class<M> metaData;
+    private final JDBCTemplateCache templateCache;
+    private final SQLDataType keyDataType;
+
+    private record KeyValueRow(String key, String value) { }
 
     public JDBCObjectQuery(
             Supplier<JDBCConnection> jdbcConnection,
+            JDBCTemplateCache templateCache,
+            SQLDataType keyDataType,
             M nameOfRow,
             Class<T> aggregateClazz,
             Class<M> metaData,
@@ -33,6 +48,8 @@ class JDBCObjectQuery <T, S, M extends Enum<M> & MetadataSchema>
     )
     {
         this.jdbcConnection = Objects.requireNonNull( jdbcConnection );
+        this.templateCache = Objects.requireNonNull( templateCache );
+        this.keyDataType = Objects.requireNonNull( keyDataType );
         this.aggregateClazz = Objects.requireNonNull(aggregateClazz);
         this.nameOfRow = Objects.requireNonNull(nameOfRow);
         this.metaData = Objects.requireNonNull(metaData);
@@ -42,79 +59,188 @@ class JDBCObjectQuery <T, S, M extends Enum<M> & MetadataSchema>
 
     public List<T> getAscending(int amount)
     {
-        var jdbcQuery = jdbcConnection.get()
-                .createQuery(metaData)
-                .select( JDBCKeyValueRepository.KeyValueSchema.class, JDBCKeyValueRepository.KeyValueSchema.REPOSITORY_VALUE)
-                .from(aggregateClazz)
+        return searchElements("getAscendingLimit", () -> selectValues()
                 .orderBy(nameOfRow, SQLOrder.ASC_NULLS_LAST)
                 .limit(amount)
-                .create();
-
-        return searchElements( jdbcQuery );
+                .createTemplate(), amount);
     }
 
     public List<T> getAscending()
     {
-        var jdbcQuery = jdbcConnection.get()
-                .createQuery(metaData)
-                .select( JDBCKeyValueRepository.KeyValueSchema.class, JDBCKeyValueRepository.KeyValueSchema.REPOSITORY_VALUE)
-                .from(aggregateClazz)
+        return searchElements("getAscending", () -> selectValues()
                 .orderBy(nameOfRow, SQLOrder.ASC_NULLS_LAST)
-                .create();
+                .createTemplate());
+    }
+
+    public Stream<T> streamAscending()
+    {
+        return streamElements("getAscending", () -> selectValues()
+                .orderBy(nameOfRow, SQLOrder.ASC_NULLS_LAST)
+                .createTemplate());
+    }
+
+    public <K> Page<T> getAscendingAfter(S lastValue, K lastKey, int amount)
+    {
+        if (lastValue == null)
+        {
+            return getAscendingPage(null, amount);
+        }
+
+        var sqlValue = nameOfRow.<T, S, Object>getTag().getFromValue(lastValue);
+        return getAscendingPage(new KeysetCursor(String.valueOf(sqlValue), jsonConverter.toJson(lastKey)), amount);
+    }
 
-        return searchElements( jdbcQuery );
+    public Page<T> getAscendingAfter(String continuationToken, int amount)
+    {
+        if (continuationToken == null)
+        {
+            return getAscendingPage(null, amount);
+        }
+
+        return getAscendingPage(KeysetCursor.decode(continuationToken), amount);
     }
 
     public List<T> getDescending(int amount)
     {
-        var jdbcQuery = jdbcConnection.get()
-                .createQuery(metaData)
-                .select( JDBCKeyValueRepository.KeyValueSchema.class, JDBCKeyValueRepository.KeyValueSchema.REPOSITORY_VALUE)
-                .from(aggregateClazz)
+        return searchElements("getDescendingLimit", () -> selectValues()
                 .orderBy(nameOfRow, SQLOrder.DESC_NULLS_LAST)
                 .limit(amount)
-                .create();
-
-        return searchElements( jdbcQuery );
+                .createTemplate(), amount);
     }
 
     public List<T> getDescending()
     {
-        var jdbcQuery = jdbcConnection.get()
-                .createQuery(metaData)
-                .select( JDBCKeyValueRepository.KeyValueSchema.class, JDBCKeyValueRepository.KeyValueSchema.REPOSITORY_VALUE)
-                .from(aggregateClazz)
+        return searchElements("getDescending", () -> selectValues()
                 .orderBy(nameOfRow, SQLOrder.DESC_NULLS_LAST)
-                .create();
+                .createTemplate());
+    }
 
-        return searchElements( jdbcQuery );
+    public Stream<T> streamDescending()
+    {
+        return streamElements("getDescending", () -> selectValues()
+                .orderBy(nameOfRow, SQLOrder.DESC_NULLS_LAST)
+                .createTemplate());
     }
 
     public List<T> isNull()
     {
-        var jdbcQuery = jdbcConnection.get()
-                .createQuery(metaData)
-                .select( JDBCKeyValueRepository.KeyValueSchema.class, JDBCKeyValueRepository.KeyValueSchema.REPOSITORY_VALUE)
-                .from(aggregateClazz)
+        return searchElements("isNull", () -> selectValues()
                 .where(nameOfRow)
                 .isNull()
-                .create();
-
-        return searchElements(jdbcQuery);
+                .createTemplate());
     }
 
     public List<T> isNotNull()
     {
-        var jdbcQuery = jdbcConnection.get()
-                .createQuery(metaData)
-                .select( JDBCKeyValueRepository.KeyValueSchema.class, JDBCKeyValueRepository.KeyValueSchema.REPOSITORY_VALUE)
-                .from(aggregateClazz)
+        return searchElements("isNotNull", () -> selectValues()
                 .where(nameOfRow)
                 .isNotNull()
                 .orderBy(nameOfRow, SQLOrder.ASC_NULLS_LAST)
-                .create();
+                .createTemplate());
+    }
+
+    /**
+     * Returns a builder for a query that selects the values of all aggregates. The builder is intended to create a
+     * {@link JDBCQueryTemplate} that is passed to {@link #searchElements(String, Supplier, Object...)}.
+     */
+    protected JDBCQueryBuilder<M> selectValues()
+    {
+        return jdbcConnection.get()
+                .createQuery(metaData)
+                .select( JDBCKeyValueRepository.KeyValueSchema.class, JDBCKeyValueRepository.KeyValueSchema.REPOSITORY_VALUE)
+                .from(aggregateClazz);
+    }
 
-        return searchElements(jdbcQuery);
+    /**
+     * Executes the query template of given operation with given arguments. The template is created only once per
+     * operation and meta tag via given supplier.
+     *
+     * @param operation name of the operation which must be unique within a query class
+     * @param templateSupplier creates the query template if it was not created so far
+     * @param arguments of the query
+     * @return all aggregates matching the query
+     */
+    protected List<T> searchElements(String operation, Supplier<JDBCQueryTemplate> templateSupplier, Object... arguments)
+    {
+        var template = templateCache.getQueryTemplate(nameOfRow.name() + "." + operation, templateSupplier);
+        return searchElements(jdbcConnection.get().createQuery(template, arguments));
+    }
+
+    /**
+     * Streams the result of the query template of given operation. In contrast to
+     * {@link #searchElements(String, Supplier, Object...)} the aggregates are loaded lazily.
+     */
+    protected Stream<T> streamElements(String operation, Supplier<JDBCQueryTemplate> templateSupplier, Object... arguments)
+    {
+        var template = templateCache.getQueryTemplate(nameOfRow.name() + "." + operation, templateSupplier);
+        return jdbcConnection.get()
+                .createQuery(template, arguments)
+                .asStringStream()
+                .flatMap(Optional::stream)
+                .map( element -> jsonConverter.fromJson(element, aggregateClazz));
+    }
+
+    /**
+     * Converts the value of a {@link KeysetCursor} into the type used by the database.
+     */
+    protected Object toSQLValue(String cursorValue)
+    {
+        return cursorValue;
+    }
+
+    private Page<T> getAscendingPage(KeysetCursor cursor, int amount)
+    {
+        Validate.isTrue(amount > 0, "Amount of elements of a page must be greater than 0");
+
+        // One additional element is requested to determine whether a next page exists
+        JDBCQuery query;
+        if (cursor == null)
+        {
+            var template = templateCache.getQueryTemplate(nameOfRow.name() + ".getAscendingFirstPage", () -> selectKeysAndValues()
+                    .where(nameOfRow)
+                    .isNotNull()
+                    .orderBy(nameOfRow, SQLOrder.ASC)
+                    .orderBy(JDBCKeyValueRepository.KeyValueSchema.class, JDBCKeyValueRepository.KeyValueSchema.REPOSITORY_KEY, SQLOrder.ASC)
+                    .limit(amount)
+                    .createTemplate());
+            query = jdbcConnection.get().createQuery(template, amount + 1);
+        }
+        else
+        {
+            var sqlValue = toSQLValue(cursor.value());
+            var template = templateCache.getQueryTemplate(nameOfRow.name() + ".getAscendingAfter", () -> selectKeysAndValues()
+                    .whereGreaterThan(nameOfRow, sqlValue, JDBCKeyValueRepository.KeyValueSchema.class, JDBCKeyValueRepository.KeyValueSchema.REPOSITORY_KEY, new JDBCObject(cursor.key(), keyDataType))
+                    .orderBy(nameOfRow, SQLOrder.ASC)
+                    .orderBy(JDBCKeyValueRepository.KeyValueSchema.class, JDBCKeyValueRepository.KeyValueSchema.REPOSITORY_KEY, SQLOrder.ASC)
+                    .limit(amount)
+                    .createTemplate());
+            query = jdbcConnection.get().createQuery(template, sqlValue, cursor.key(), amount + 1);
+        }
+
+        var rows = query
+                .as(resultSet -> new KeyValueRow(resultSet.getString(1), resultSet.getString(2)))
+                .toList();
+
+        var content = rows.stream()
+                .limit(amount)
+                .map(row -> jsonConverter.fromJson(row.value(), aggregateClazz))
+                .toList();
+
+        if (rows.size() <= amount)
+        {
+            return new Page<>(content, null);
+        }
+
+        var lastValue = nameOfRow.<T, S, Object>getTag().getFromAggregate(content.get(amount - 1));
+        return new Page<>(content, new KeysetCursor(String.valueOf(lastValue), rows.get(amount - 1).key()).encode());
+    }
+
+    private JDBCQueryBuilder<M> selectKeysAndValues()
+    {
+        return jdbcConnection.get()
+                .createQuery(metaData)
+                .select( JDBCKeyValueRepository.KeyValueSchema.class, JDBCKeyValueRepository.KeyValueSchema.REPOSITORY_KEY, JDBCKeyValueRepository.KeyValueSchema.REPOSITORY_VALUE)
+                .from(aggregateClazz);
     }
 
     protected List<T> searchElements(JDBCQuery query)
@@ -1,7 +1,11 @@
 package io.jexxa.infrastructure.persistence.objectstore.jdbc;
 
+import io.jexxa.common.wrapper.jdbc.JDBCCommandTemplate;
+import io.jexxa.common.wrapper.jdbc.JDBCQuery;
 import io.jexxa.common.wrapper.jdbc.JexxaJDBCProperties;
 import io.jexxa.common.wrapper.jdbc.builder.JDBCObject;
+import io.jexxa.common.wrapper.jdbc.builder.JDBCQueryBuilder;
+import io.jexxa.common.wrapper.jdbc.builder.SQLOrder;
 import io.jexxa.common.wrapper.jdbc.builder.SQLDataType;
 import io.jexxa.common.wrapper.jdbc.database.DatabaseManager;
 import io.jexxa.common.wrapper.jdbc.database.IDatabase;
@@ -24,6 +28,7 @@ import static io.jexxa.common.wrapper.jdbc.builder.JDBCTableBuilder.SQLConstrain
 import static io.jexxa.common.wrapper.jdbc.builder.SQLDataType.JSONB;
 import static io.jexxa.common.wrapper.jdbc.builder.SQLDataType.NUMERIC;
 import static io.jexxa.common.wrapper.jdbc.builder.SQLDataType.TEXT;
+import static io.jexxa.common.wrapper.json.JSONManager.getJSONConverter;
 import static io.jexxa.common.wrapper.logger.SLF4jLogger.getLogger;
 
 
@@ -31,6 +36,9 @@ import static io.jexxa.common.wrapper.logger.SLF4jLogger.getLogger;
 public class JDBCObjectStore<T,K, M extends Enum<M> & MetadataSchema> extends JDBCKeyValueRepository<T, K> implements IObjectStore<T, K, M>
 {
     private static final Logger LOGGER = getLogger(JDBCObjectStore.class);
+    private static final int UPDATE_BATCH_SIZE = 1000;
+
+    private record KeyValueRow(String key, String value) { }
 
     private final Function<T, K> keyFunction;
     private final Class<T> aggregateClazz;
@@ -60,60 +68,75 @@ public class JDBCObjectStore<T,K, M extends Enum<M> & MetadataSchema> extends JD
 
 
     @Override
-    public void update(T aggregate)
+    protected JDBCCommandTemplate updateTemplate()
     {
-        Objects.requireNonNull(aggregate);
-
-        var valueSet = new ArrayList<JDBCObject>();
-        List<String> keySet = new ArrayList<>();
-
-        valueSet.add(valueToJSONB(aggregate));
-
-        jdbcSchema.forEach(element -> valueSet.add( new JDBCObject(
-                element.getTag().getFromAggregate(aggregate),
-                typeToSQL(element.getTag().getTagType())) ));
-
-        keySet.add(KeyValueSchema.REPOSITORY_VALUE.name());
-        jdbcSchema.forEach(element -> keySet.add(element.name()));
-
-        var jdbcKey = primaryKeyToJSONB(keyFunction.apply(aggregate));
-
-        var command = getConnection()
-                .createCommand(KeyValueSchema.class)
-                .update(aggregateClazz)
-                .set(keySet.toArray(new String[0]), valueSet.toArray(new JDBCObject[0]))
-                .where(KeyValueSchema.REPOSITORY_KEY).isEqual(jdbcKey)
-                .create();
+        return getTemplateCache().getCommandTemplate("updateObject", () -> {
+            List<String> keySet = new ArrayList<>();
+            keySet.add(KeyValueSchema.REPOSITORY_VALUE.name());
+            jdbcSchema.forEach(element -> keySet.add(element.name()));
+
+            var valueSet = new ArrayList<JDBCObject>();
+            valueSet.add(valueToJSONB(null));
+            jdbcSchema.forEach(element -> valueSet.add(new JDBCObject(null, typeToSQL(element.getTag().getTagType()))));
+
+            return getConnection()
+                    .createCommand(KeyValueSchema.class)
+                    .update(aggregateClazz)
+                    .set(keySet.toArray(new String[0]), valueSet.toArray(new JDBCObject[0]))
+                    .where(KeyValueSchema.REPOSITORY_KEY).isEqual(primaryKeyToJSONB(null))
+                    .createTemplate();
+        });
+    }
 
-        command.asUpdate();
+    @Override
+    protected Object[] updateArguments(T aggregate)
+    {
+        var arguments = new Object[jdbcSchema.size() + 2];
+        var index = 0;
+        arguments[index++] = valueToJSONB(aggregate).getJdbcValue();
+        for (var element : jdbcSchema)
+        {
+            arguments[index++] = element.getTag().getFromAggregate(aggregate);
+        }
+        arguments[index] = primaryKeyToJSONB(keyFunction.apply(aggregate)).getJdbcValue();
+        return arguments;
     }
 
+    @Override
+    protected JDBCCommandTemplate addTemplate()
+    {
+        return getTemplateCache().getCommandTemplate("addObject", () -> {
+            List<String> keySet = new ArrayList<>();
+            keySet.add(KeyValueSchema.REPOSITORY_KEY.name());
+            keySet.add(KeyValueSchema.REPOSITORY_VALUE.name());
+            jdbcSchema.forEach(element -> keySet.add(element.name()));
+
+            var objectList = new ArrayList<JDBCObject>();
+            objectList.add(primaryKeyToJSONB(null));
+            objectList.add(valueToJSONB(null));
+            jdbcSchema.forEach(metaTag -> objectList.add(new JDBCObject(null, typeToSQL(metaTag.getTag().getTagType()))));
+
+            return getConnection()
+                    .createCommand(KeyValueSchema.class)
+                    .insertInto(aggregateClazz)
+                    .columns(keySet.toArray(new String[0]))
+                    .values(objectList.toArray(new JDBCObject[0]))
+                    .createTemplate();
+        });
+    }
 
     @Override
-    public void add(T aggregate)
+    protected Object[] addArguments(T aggregate)
     {
-        Objects.requireNonNull(aggregate);
-
-        List<String> keySet = new ArrayList<>();
-        keySet.add(KeyValueSchema.REPOSITORY_KEY.name());
-        keySet.add(KeyValueSchema.REPOSITORY_VALUE.name());
-        jdbcSchema.forEach(element -> keySet.add(element.name()));
-
-        var objectList = new ArrayList<JDBCObject>();
-        objectList.add (primaryKeyToJSONB(keyFunction.apply(aggregate)));
-        objectList.add (valueToJSONB(aggregate));
-        jdbcSchema.forEach(metaTag -> objectList.add(
-                new JDBCObject( metaTag.getTag().getFromAggregate(aggregate), typeToSQL(metaTag.getTag().getTagType())))
-        );
-
-        var command = getConnection()
-                .createCommand(KeyValueSchema.class)
-                .insertInto(aggregateClazz)
-                .columns(keySet.toArray(new String[0]))
-                .values(objectList.toArray(new JDBCObject[0]))
-                .create();
-
-        command.asUpdate();
+        var arguments = new Object[jdbcSchema.size() + 2];
+        var index = 0;
+        arguments[index++] = primaryKeyToJSONB(keyFunction.apply(aggregate)).getJdbcValue();
+        arguments[index++] = valueToJSONB(aggregate).getJdbcValue();
+        for (var metaTag : jdbcSchema)
+        {
+            arguments[index++] = metaTag.getTag().getFromAggregate(aggregate);
+        }
+        return arguments;
     }
 
 
@@ -129,7 +152,7 @@ public class JDBCObjectStore<T,K, M extends Enum<M> & MetadataSchema> extends JD
             throw new IllegalArgumentException(metaTag.name() + " does not use a numeric value -> Could not create a numeric query");
         }
 
-        return new JDBCNumericQuery<>(this::getConnection, metaTag, aggregateClazz, metaData, queryType );
+        return new JDBCNumericQuery<>(this::getConnection, getTemplateCache(), database.matchingPrimaryKey(JSONB), metaTag, aggregateClazz, metaData, queryType );
     }
 
     @Override
@@ -145,7 +168,7 @@ public class JDBCObjectStore<T,K, M extends Enum<M> & MetadataSchema> extends JD
             throw new IllegalArgumentException(metaTag.name() + " does not use a numeric value -> Could not create a String query");
         }
 
-        return new JDBCStringQuery<>(this::getConnection, metaTag, aggregateClazz, metaData, queryType );
+        return new JDBCStringQuery<>(this::getConnection, getTemplateCache(), database.matchingPrimaryKey(JSONB), metaTag, aggregateClazz, metaData, queryType );
     }
 
     private void manageObjectStore(Properties properties)
@@ -156,6 +179,8 @@ public class JDBCObjectStore<T,K, M extends Enum<M> & MetadataSchema> extends JD
             autoCreateDatabase();
             renameKeyValueColumns();
             alterKeyValueRows();
+            addMissingMetadataColumns();
+            autoCreateKeysetIndexes();
         }
     }
 
@@ -187,6 +212,99 @@ public class JDBCObjectStore<T,K, M extends Enum<M> & MetadataSchema> extends JD
         }
     }
 
+    /**
+     * Adds the columns of metatags that were added to the schema after the table was created. Since the metadata of
+     * existing objects is only written when they are stored, all objects are updated afterward in batches.
+     */
+    private void addMissingMetadataColumns()
+    {
+        var missingColumns = jdbcSchema.stream()
+                .filter(element -> !database.columnExist(getConnection(), aggregateClazz.getSimpleName(), element.name()))
+                .toList();
+
+        if (missingColumns.isEmpty())
+        {
+            return;
+        }
+
+        missingColumns.forEach(element -> {
+            LOGGER.info("Add column {} to table {}", element.name(), aggregateClazz.getSimpleName());
+            database.addColumn(getConnection(), aggregateClazz.getSimpleName(), element.name(), typeToSQL(element.getTag().getTagType()));
+        });
+
+        updateAllInBatches();
+    }
+
+    /**
+     * Updates all stored objects in batches ordered by their key, so that large tables are not loaded into memory at once.
+     */
+    private void updateAllInBatches()
+    {
+        var firstBatch = getTemplateCache().getQueryTemplate("updateAllFirstBatch", () -> selectKeysAndValues()
+                .orderBy(KeyValueSchema.REPOSITORY_KEY, SQLOrder.ASC)
+                .limit(UPDATE_BATCH_SIZE)
+                .createTemplate());
+
+        var nextBatch = getTemplateCache().getQueryTemplate("updateAllNextBatch", () -> selectKeysAndValues()
+                .where(KeyValueSchema.REPOSITORY_KEY).isGreaterThan(primaryKeyToJSONB(null))
+                .orderBy(KeyValueSchema.REPOSITORY_KEY, SQLOrder.ASC)
+                .limit(UPDATE_BATCH_SIZE)
+                .createTemplate());
+
+        var rows = readBatch(getConnection().createQuery(firstBatch, UPDATE_BATCH_SIZE));
+        while (!rows.isEmpty())
+        {
+            updateAll(rows.stream()
+                    .map(row -> getJSONConverter().fromJson(row.value(), aggregateClazz))
+                    .toList());
+
+            if (rows.size() < UPDATE_BATCH_SIZE)
+            {
+                return;
+            }
+
+            var lastKey = rows.get(rows.size() - 1).key();
+            rows = readBatch(getConnection().createQuery(nextBatch, lastKey, UPDATE_BATCH_SIZE));
+        }
+    }
+
+    private static List<KeyValueRow> readBatch(JDBCQuery query)
+    {
+        return query
+                .as(resultSet -> new KeyValueRow(resultSet.getString(1), resultSet.getString(2)))
+                .toList();
+    }
+
+    private JDBCQueryBuilder<KeyValueSchema> selectKeysAndValues()
+    {
+        return getConnection().createQuery(KeyValueSchema.class)
+                .select(KeyValueSchema.REPOSITORY_KEY, KeyValueSchema.REPOSITORY_VALUE)
+                .from(aggregateClazz);
+    }
+
+    /**
+     * Creates an index on (tag, key) for each metatag, which is required by the keyset pagination of the queries.
+     * Each index is created separately so that it is also added to tables that already exist.
+     */
+    private void autoCreateKeysetIndexes()
+    {
+        jdbcSchema.forEach(element -> {
+            var indexName = aggregateClazz.getSimpleName() + "_" + element.name() + "_keyset_index";
+            try
+            {
+                getConnection().createCommand(metaData)
+                        .createIndex(indexName)
+                        .on(aggregateClazz.getSimpleName(), element.name(), KeyValueSchema.REPOSITORY_KEY.name())
+                        .create()
+                        .asIgnore();
+            }
+            catch (RuntimeException e)
+            {
+                LOGGER.debug("Could not create index {} => Assume that index already exists", indexName);
+            }
+        });
+    }
+
     private static SQLDataType typeToSQL(Class<?> clazz)
     {
         if ( Number.class.isAssignableFrom(clazz) )
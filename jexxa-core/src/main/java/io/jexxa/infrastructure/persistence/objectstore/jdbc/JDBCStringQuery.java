@@ -1,11 +1,12 @@
 package io.jexxa.infrastructure.persistence.objectstore.jdbc;
 
 import io.jexxa.common.wrapper.jdbc.JDBCConnection;
+import io.jexxa.common.wrapper.jdbc.JDBCTemplateCache;
+import io.jexxa.common.wrapper.jdbc.builder.SQLDataType;
 import io.jexxa.common.wrapper.jdbc.builder.SQLOrder;
 import io.jexxa.infrastructure.persistence.objectstore.IStringQuery;
 import io.jexxa.infrastructure.persistence.objectstore.metadata.MetaTag;
 import io.jexxa.infrastructure.persistence.objectstore.metadata.MetadataSchema;
-import io.jexxa.infrastructure.persistence.repository.jdbc.JDBCKeyValueRepository;
 
 import java.util.List;
 import java.util.Objects;
@@ -15,24 +16,22 @@ public class JDBCStringQuery <T, S, M extends Enum<M> & MetadataSchema> extends
 {
     private final MetaTag<T, S, String> stringMetaTag;
 
-    private final Class<T> aggregateClazz;
     private final M nameOfRow;
-    private final Class<M> metaData;
 
     public JDBCStringQuery(
             Supplier<JDBCConnection> jdbcConnection,
+            JDBCTemplateCache templateCache,
+            SQLDataType keyDataType,
             M metaTag,
             Class<T> aggregateClazz,
             Class<M> metaData,
             Class<S> queryType
     )
     {
-        super(jdbcConnection, metaTag, aggregateClazz, metaData, queryType);
+        super(jdbcConnection, templateCache, keyDataType, metaTag, aggregateClazz, metaData, queryType);
 
-        this.aggregateClazz = Objects.requireNonNull(aggregateClazz);
         this.nameOfRow = Objects.requireNonNull(metaTag);
         this.stringMetaTag = nameOfRow.getTag();
-        this.metaData = Objects.requireNonNull(metaData);
     }
 
     @Override
@@ -40,16 +39,11 @@ public class JDBCStringQuery <T, S, M extends Enum<M> & MetadataSchema> extends
     {
         var sqlStartValue = stringMetaTag.getFromValue(value) + "%";
 
-        var jdbcQuery = getConnection()
-                .createQuery(metaData)
-                .select( JDBCKeyValueRepository.KeyValueSchema.class, JDBCKeyValueRepository.KeyValueSchema.REPOSITORY_VALUE)
-                .from(aggregateClazz)
+        return searchElements("beginsWith", () -> selectValues()
                 .where(nameOfRow)
                 .like(sqlStartValue)
                 .orderBy(nameOfRow, SQLOrder.ASC)
-                .create();
-
-        return searchElements(jdbcQuery);
+                .createTemplate(), sqlStartValue);
     }
 
     @Override
@@ -57,16 +51,11 @@ public class JDBCStringQuery <T, S, M extends Enum<M> & MetadataSchema> extends
     {
         var sqlEndValue = "%" + stringMetaTag.getFromValue(value);
 
-        var jdbcQuery = getConnection()
-                .createQuery(metaData)
-                .select( JDBCKeyValueRepository.KeyValueSchema.class, JDBCKeyValueRepository.KeyValueSchema.REPOSITORY_VALUE)
-                .from(aggregateClazz)
+        return searchElements("endsWith", () -> selectValues()
                 .where(nameOfRow)
                 .like(sqlEndValue)
                 .orderBy(nameOfRow, SQLOrder.ASC)
-                .create();
-
-        return searchElements(jdbcQuery);
+                .createTemplate(), sqlEndValue);
     }
 
     @Override
@@ -74,16 +63,11 @@ public class JDBCStringQuery <T, S, M extends Enum<M> & MetadataSchema> extends
     {
         var sqlIncludeValue = "%" + stringMetaTag.getFromValue(value) + "%";
 
-        var jdbcQuery = getConnection()
-                .createQuery(metaData)
-                .select( JDBCKeyValueRepository.KeyValueSchema.class, JDBCKeyValueRepository.KeyValueSchema.REPOSITORY_VALUE)
-                .from(aggregateClazz)
+        return searchElements("includes", () -> selectValues()
                 .where(nameOfRow)
                 .like(sqlIncludeValue)
                 .orderBy(nameOfRow, SQLOrder.ASC)
-                .create();
-
-        return searchElements(jdbcQuery);
+                .createTemplate(), sqlIncludeValue);
     }
 
     @Override
@@ -91,16 +75,11 @@ public class JDBCStringQuery <T, S, M extends Enum<M> & MetadataSchema> extends
     {
         var sqlEqualValue = stringMetaTag.getFromValue(value) ;
 
-        var jdbcQuery = getConnection()
-                .createQuery(metaData)
-                .select( JDBCKeyValueRepository.KeyValueSchema.class, JDBCKeyValueRepository.KeyValueSchema.REPOSITORY_VALUE)
-                .from(aggregateClazz)
+        return searchElements("isEqualTo", () -> selectValues()
                 .where(nameOfRow)
                 .like(sqlEqualValue)
                 .orderBy(nameOfRow, SQLOrder.ASC)
-                .create();
-
-        return searchElements(jdbcQuery);
+                .createTemplate(), sqlEqualValue);
     }
 
     @Override
@@ -108,15 +87,10 @@ public class JDBCStringQuery <T, S, M extends Enum<M> & MetadataSchema> extends
     {
         var sqlIncludeValue = "%" + stringMetaTag.getFromValue(value) + "%";
 
-        var jdbcQuery = getConnection()
-                .createQuery(metaData)
-                .select( JDBCKeyValueRepository.KeyValueSchema.class, JDBCKeyValueRepository.KeyValueSchema.REPOSITORY_VALUE)
-                .from(aggregateClazz)
+        return searchElements("notIncludes", () -> selectValues()
                 .where(nameOfRow)
                 .notLike(sqlIncludeValue)
                 .orderBy(nameOfRow, SQLOrder.ASC)
-                .create();
-
-        return searchElements(jdbcQuery);
+                .createTemplate(), sqlIncludeValue);
     }
 }
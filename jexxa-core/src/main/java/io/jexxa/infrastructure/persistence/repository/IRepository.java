@@ -1,7 +1,9 @@
 package io.jexxa.infrastructure.persistence.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Interface for all strategies for the implementation of a repository in the terms of DDD
@@ -22,6 +24,17 @@ public interface IRepository<T, K>
      */
     void update(T aggregate);
 
+    /**
+     * Updates all given aggregates inside the repository. Implementations should override this method if the
+     * underlying technology stack allows updating several aggregates more efficiently.
+     * @param aggregates that should be updated
+     * @pre All given aggregates must be added by using {@link #add(Object)}}
+     */
+    default void updateAll(Collection<T> aggregates)
+    {
+        aggregates.forEach(this::update);
+    }
+
     /**
      * Removed aggregate identified by given key.
      * @param key to the aggregate to be removed
@@ -29,6 +42,17 @@ public interface IRepository<T, K>
      */
     void remove(K key);
 
+    /**
+     * Removes all aggregates identified by given keys. Implementations should override this method if the
+     * underlying technology stack allows removing several aggregates more efficiently.
+     * @param keys of the aggregates to be removed
+     * @pre All aggregates must be added by using {@link #add(Object)}}
+     */
+    default void removeAll(Collection<K> keys)
+    {
+        keys.forEach(this::remove);
+    }
+
     /**
      * Removes all aggregates managed by the Repository
      */
@@ -41,6 +65,17 @@ public interface IRepository<T, K>
      */
     void add(T aggregate);
 
+    /**
+     * Adds all given aggregates to this repository. Implementations should override this method if the
+     * underlying technology stack allows adding several aggregates more efficiently.
+     * @param aggregates that should be added
+     * @pre None of the aggregates must be added before
+     */
+    default void addAll(Collection<T> aggregates)
+    {
+        aggregates.forEach(this::add);
+    }
+
     /**
      * Returns the aggregate identified by given key.
      * @param key that identifies the aggregate
@@ -53,4 +88,31 @@ public interface IRepository<T, K>
      * @return list of aggregates
      */
     List<T> get();
+
+    /**
+     * Returns the number of aggregates managed by this repository. Implementations should override this method if the
+     * underlying technology stack allows counting the aggregates without reading them.
+     * @return number of aggregates
+     */
+    default long count()
+    {
+        try (var aggregates = stream())
+        {
+            return aggregates.count();
+        }
+    }
+
+    /**
+     * Returns all aggregates managed by this repository as stream. In contrast to {@link #get()}, implementations
+     * may load the aggregates lazily so that large repositories can be processed in constant memory.
+     * <p>
+     * The returned stream should be closed, e.g. by using it in a try-with-resources statement, so that all
+     * underlying resources are released.
+     *
+     * @return stream of aggregates
+     */
+    default Stream<T> stream()
+    {
+        return get().stream();
+    }
 }
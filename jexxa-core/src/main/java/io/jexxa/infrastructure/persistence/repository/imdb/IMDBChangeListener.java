@@ -0,0 +1,34 @@
+package io.jexxa.infrastructure.persistence.repository.imdb;
+
+/**
+ * Is notified about all changes of the aggregates of a specific type managed by {@link IMDBRepository}s, e.g. to
+ * maintain a secondary index.
+ * <p>
+ * All methods are called while holding the write lock of the aggregate type, so that they are never called
+ * concurrently for the same aggregate type.
+ *
+ * @param <T> type of the aggregate
+ * @param <K> type of the key
+ */
+public interface IMDBChangeListener<T, K>
+{
+    /**
+     * Called after an aggregate was added or updated.
+     *
+     * @param key of the aggregate
+     * @param aggregate as it was stored. The aggregate must not be changed or kept by the listener.
+     */
+    void onPut(K key, T aggregate);
+
+    /**
+     * Called after an aggregate was removed.
+     *
+     * @param key of the removed aggregate
+     */
+    void onRemove(K key);
+
+    /**
+     * Called after all aggregates were removed.
+     */
+    void onClear();
+}
@@ -0,0 +1,230 @@
+package io.jexxa.infrastructure.persistence.repository.imdb;
+
+import io.jexxa.common.JexxaCoreProperties;
+import io.jexxa.common.wrapper.json.JSONManager;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Provides the {@link IMDBCopyStrategy}s supported by {@link IMDBRepository}.
+ * <p>
+ * The strategy used by a repository is configured via {@link JexxaCoreProperties#JEXXA_IMDB_COPY_STRATEGY}:
+ * <ul>
+ *     <li>{@code json} (default): Aggregates are stored as JSON and deserialized on each read. This behaves like a
+ *     database but requires the most CPU time.</li>
+ *     <li>{@code auto}: The strategy is selected based on the aggregate type. Records consisting of immutable values
+ *     are stored as they are. Aggregates providing a copy constructor are copied. All other aggregates are stored as
+ *     JSON.</li>
+ * </ul>
+ */
+public final class IMDBCopyStrategies
+{
+    public static final String JSON_STRATEGY = "json";
+    public static final String AUTO_STRATEGY = "auto";
+
+    private static final Set<Class<?>> IMMUTABLE_TYPES = Set.of(
+            String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class,
+            Float.class, Double.class, BigDecimal.class, BigInteger.class, UUID.class);
+
+    /**
+     * Returns the strategy configured in given properties.
+     *
+     * @throws IllegalArgumentException if the configured strategy is unknown
+     */
+    public static <T> IMDBCopyStrategy<T> fromProperties(Class<T> aggregateClazz, Properties properties)
+    {
+        var strategy = properties.getProperty(JexxaCoreProperties.JEXXA_IMDB_COPY_STRATEGY, JSON_STRATEGY);
+
+        return switch (strategy)
+        {
+            case JSON_STRATEGY -> jsonCopy(aggregateClazz);
+            case AUTO_STRATEGY -> detect(aggregateClazz);
+            default -> throw new IllegalArgumentException("Unknown value " + strategy + " for " + JexxaCoreProperties.JEXXA_IMDB_COPY_STRATEGY
+                    + ". Supported values are " + JSON_STRATEGY + " and " + AUTO_STRATEGY);
+        };
+    }
+
+    /**
+     * Returns the fastest strategy that is safe for given aggregate type.
+     */
+    public static <T> IMDBCopyStrategy<T> detect(Class<T> aggregateClazz)
+    {
+        if (isImmutable(aggregateClazz))
+        {
+            return immutable(aggregateClazz);
+        }
+
+        if (hasCopyConstructor(aggregateClazz))
+        {
+            return copyConstructor(aggregateClazz);
+        }
+
+        return jsonCopy(aggregateClazz);
+    }
+
+    /**
+     * Stores aggregates as JSON, which is the behavior of a database.
+     */
+    public static <T> IMDBCopyStrategy<T> jsonCopy(Class<T> aggregateClazz)
+    {
+        return new JSONCopyStrategy<>(aggregateClazz);
+    }
+
+    /**
+     * Stores aggregates as they are. This strategy must only be used for aggregates that cannot be changed.
+     */
+    public static <T> IMDBCopyStrategy<T> immutable(Class<T> aggregateClazz)
+    {
+        return new ImmutableCopyStrategy<>(aggregateClazz);
+    }
+
+    /**
+     * Copies aggregates using a constructor that takes an aggregate of the same type. This constructor must perform
+     * a deep copy of all mutable attributes.
+     *
+     * @throws IllegalArgumentException if given aggregate type does not provide a copy constructor
+     */
+    public static <T> IMDBCopyStrategy<T> copyConstructor(Class<T> aggregateClazz)
+    {
+        try
+        {
+            var constructor = aggregateClazz.getDeclaredConstructor(aggregateClazz);
+            if (!constructor.trySetAccessible())
+            {
+                throw new IllegalArgumentException("Copy constructor of " + aggregateClazz.getName() + " is not accessible");
+            }
+            return new CopyConstructorStrategy<>(constructor);
+        }
+        catch (NoSuchMethodException e)
+        {
+            throw new IllegalArgumentException(aggregateClazz.getName() + " does not provide a copy constructor", e);
+        }
+    }
+
+    /**
+     * Returns true if given type is a record whose components are primitives, immutable JDK types, enums, or records
+     * of such components.
+     */
+    static boolean isImmutable(Class<?> clazz)
+    {
+        return isImmutable(clazz, new HashSet<>());
+    }
+
+    private static boolean isImmutable(Class<?> clazz, Set<Class<?>> visitedRecords)
+    {
+        if (clazz.isPrimitive() || clazz.isEnum() || IMMUTABLE_TYPES.contains(clazz))
+        {
+            return true;
+        }
+
+        if (clazz.getPackageName().equals("java.time"))
+        {
+            return true;
+        }
+
+        if (!clazz.isRecord())
+        {
+            return false;
+        }
+
+        if (!visitedRecords.add(clazz))
+        {
+            return true; // Record is already checked
+        }
+
+        for (var component : clazz.getRecordComponents())
+        {
+            if (!isImmutable(component.getType(), visitedRecords))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasCopyConstructor(Class<?> clazz)
+    {
+        try
+        {
+            return clazz.getDeclaredConstructor(clazz).trySetAccessible();
+        }
+        catch (NoSuchMethodException e)
+        {
+            return false;
+        }
+    }
+
+    private record JSONCopyStrategy<T>(Class<T> aggregateClazz) implements IMDBCopyStrategy<T>
+    {
+        @Override
+        public Object toSnapshot(T aggregate)
+        {
+            return JSONManager.getJSONConverter().toJson(aggregate);
+        }
+
+        @Override
+        public T fromSnapshot(Object snapshot)
+        {
+            return JSONManager.getJSONConverter().fromJson((String) snapshot, aggregateClazz);
+        }
+    }
+
+    private record ImmutableCopyStrategy<T>(Class<T> aggregateClazz) implements IMDBCopyStrategy<T>
+    {
+        @Override
+        public Object toSnapshot(T aggregate)
+        {
+            return Objects.requireNonNull(aggregate);
+        }
+
+        @Override
+        public T fromSnapshot(Object snapshot)
+        {
+            return aggregateClazz.cast(snapshot);
+        }
+    }
+
+    private record CopyConstructorStrategy<T>(Constructor<T> constructor) implements IMDBCopyStrategy<T>
+    {
+        @Override
+        public Object toSnapshot(T aggregate)
+        {
+            return copy(Objects.requireNonNull(aggregate));
+        }
+
+        @Override
+        public T fromSnapshot(Object snapshot)
+        {
+            return copy(snapshot);
+        }
+
+        private T copy(Object aggregate)
+        {
+            try
+            {
+                return constructor.newInstance(aggregate);
+            }
+            catch (InvocationTargetException e)
+            {
+                throw new IllegalStateException("Could not copy aggregate of type " + constructor.getDeclaringClass().getName(), e.getCause());
+            }
+            catch (ReflectiveOperationException e)
+            {
+                throw new IllegalStateException("Could not copy aggregate of type " + constructor.getDeclaringClass().getName(), e);
+            }
+        }
+    }
+
+    private IMDBCopyStrategies()
+    {
+        //Private constructor
+    }
+}
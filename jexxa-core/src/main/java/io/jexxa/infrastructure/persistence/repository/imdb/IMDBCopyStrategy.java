@@ -0,0 +1,29 @@
+package io.jexxa.infrastructure.persistence.repository.imdb;
+
+/**
+ * Defines how an {@link IMDBRepository} decouples stored aggregates from the aggregates handed out to the application.
+ * <p>
+ * A repository stores the snapshot of an aggregate and returns a new aggregate created from this snapshot on each read.
+ * So changing an aggregate without calling {@code update} must neither change the stored snapshot nor any aggregate
+ * returned before. See {@link IMDBCopyStrategies} for available strategies.
+ *
+ * @param <T> type of the aggregate
+ */
+public interface IMDBCopyStrategy<T>
+{
+    /**
+     * Creates the snapshot of given aggregate that is stored by the repository.
+     *
+     * @param aggregate to be stored
+     * @return snapshot of the aggregate that is not affected by further changes of the aggregate
+     */
+    Object toSnapshot(T aggregate);
+
+    /**
+     * Creates an aggregate from a snapshot created by {@link #toSnapshot(Object)}.
+     *
+     * @param snapshot stored by the repository
+     * @return aggregate whose changes do not affect the snapshot
+     */
+    T fromSnapshot(Object snapshot);
+}
@@ -1,31 +1,349 @@
 package io.jexxa.infrastructure.persistence.repository.imdb;
 
+import io.jexxa.adapterapi.invocation.transaction.TransactionHandler;
+import io.jexxa.adapterapi.invocation.transaction.TransactionManager;
+import io.jexxa.common.JexxaCoreProperties;
 import io.jexxa.common.wrapper.json.JSONManager;
 import io.jexxa.infrastructure.persistence.repository.IRepository;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
+import java.util.Spliterator;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
-
+/**
+ * Stores aggregates in memory. All IMDBRepositories of the same aggregate type share the stored aggregates.
+ * <p>
+ * If {@link JexxaCoreProperties#JEXXA_IMDB_TRANSACTIONAL} is enabled, changes made within a transaction are collected
+ * in a change set of the transaction context of the current thread. They are visible only within this transaction
+ * until it is closed, and discarded on rollback. Queries of an IMDBObjectStore that use an index only consider
+ * aggregates added or changed within the transaction after it was closed.
+ * <p>
+ * When a transaction is closed, its changes are only applied if none of the changed aggregates was changed by another
+ * transaction since it was read or changed within this transaction. Otherwise, an {@link IllegalStateException} is
+ * thrown and the transaction is rolled back, including other repositories such as JDBC repositories that joined it, so
+ * that concurrent updates are not lost. Removing all aggregates within a transaction is not validated, so that it
+ * overrides concurrent changes.
+ */
 public class IMDBRepository<T, K>  implements IRepository<T, K>
 {
     // Each IMDB repository is represented by a map for a specific type.
-    private static final Map< Class<?>, Map<?,String>> REPOSITORY_MAP = new ConcurrentHashMap<>();
+    private static final Map< Class<?>, AggregateStore> REPOSITORY_MAP = new ConcurrentHashMap<>();
     private static final Map< Class<?>, IMDBRepository<?,?> > IMDB_REPOSITORY_MAP = new ConcurrentHashMap<>();
 
     private final Function<T,K> keyFunction;
     private final Class<T> aggregateClazz;
+    private final IMDBCopyStrategy<T> copyStrategy;
+    private final boolean transactional;
+
+    // Target of a modification, which is either the aggregate store or the change set of the current transaction
+    private interface Snapshots
+    {
+        Map<Object, Object> snapshots();
+        void put(Object key, Object snapshot, Object aggregate);
+        void remove(Object key);
+        void clear();
+    }
+
+    // Snapshots of all aggregates of a specific type together with the type of the strategy that created them.
+    // Writers synchronize on the AggregateStore, readers are lock-free.
+    private record AggregateStore(
+            Class<?> copyStrategyType,
+            Map<Object, Object> snapshots,
+            Map<Object, IMDBChangeListener<?, ?>> changeListeners) implements Snapshots
+    {
+        @Override
+        public void put(Object key, Object snapshot, Object aggregate)
+        {
+            snapshots.put(key, snapshot);
+            getChangeListeners().forEach(listener -> listener.onPut(key, aggregate));
+        }
+
+        @Override
+        public void remove(Object key)
+        {
+            if (snapshots.remove(key) != null)
+            {
+                getChangeListeners().forEach(listener -> listener.onRemove(key));
+            }
+        }
 
-    @SuppressWarnings("java:S1172")
-    public IMDBRepository(Class<T> aggregateClazz, Function<T,K> keyFunction, Properties ignoredProperties)
+        @Override
+        public void clear()
+        {
+            snapshots.clear();
+            getChangeListeners().forEach(IMDBChangeListener::onClear);
+        }
+
+        @SuppressWarnings("unchecked")
+        private Collection<IMDBChangeListener<Object, Object>> getChangeListeners()
+        {
+            return (Collection<IMDBChangeListener<Object, Object>>) (Collection<?>) changeListeners.values();
+        }
+    }
+
+    // Copy-on-write changes of a transaction to the aggregates of a specific type. They are applied to the aggregate
+    // store when the transaction is closed. A change set is only used by the thread of its transaction.
+    private static final class ChangeSet implements Snapshots, TransactionHandler
+    {
+        private static final Object REMOVED = new Object();
+        private static final Object ABSENT = new Object();
+
+        private final AggregateStore aggregateStore;
+        private final IMDBCopyStrategy<?> copyStrategy;
+        private final Map<Object, Object> changes = new LinkedHashMap<>();
+        // Snapshot of the aggregate store when a key was read or changed for the first time, or ABSENT
+        private final Map<Object, Object> readSnapshots = new HashMap<>();
+        private final Map<Object, Object> snapshots = new ChangeSetView();
+        private boolean cleared;
+
+        private ChangeSet(AggregateStore aggregateStore, IMDBCopyStrategy<?> copyStrategy)
+        {
+            this.aggregateStore = aggregateStore;
+            this.copyStrategy = copyStrategy;
+        }
+
+        /**
+         * Returns the snapshots of the aggregate store including the changes of this change set.
+         */
+        @Override
+        public Map<Object, Object> snapshots()
+        {
+            return snapshots;
+        }
+
+        @Override
+        public void put(Object key, Object snapshot, Object aggregate)
+        {
+            read(key);
+            changes.put(key, snapshot);
+        }
+
+        @Override
+        public void remove(Object key)
+        {
+            read(key);
+            changes.put(key, REMOVED);
+        }
+
+        @Override
+        public void clear()
+        {
+            changes.clear();
+            cleared = true;
+        }
+
+        @Override
+        public void initTransaction()
+        {
+            // Changes are collected when the repository is modified
+        }
+
+        /**
+         * Validates the changes before any handler of the transaction is closed, so that a conflict rolls back the
+         * whole transaction instead of only this change set.
+         *
+         * @throws IllegalStateException if an aggregate changed by this transaction was changed by another transaction
+         */
+        @Override
+        public void prepareTransaction()
+        {
+            if (changes.isEmpty() || cleared)
+            {
+                return;
+            }
+
+            synchronized (aggregateStore)
+            {
+                validateChanges();
+            }
+        }
+
+        /**
+         * Applies the changes to the aggregate store. If an aggregate changed by this transaction was changed by
+         * another transaction since it was read, all changes of this transaction are discarded. Since other handlers
+         * may be closed between {@link #prepareTransaction()} and this method, the changes are validated again.
+         *
+         * @throws IllegalStateException if an aggregate changed by this transaction was changed by another transaction
+         */
+        @Override
+        public void closeTransaction()
+        {
+            try
+            {
+                if (changes.isEmpty() && !cleared)
+                {
+                    return;
+                }
+
+                synchronized (aggregateStore)
+                {
+                    if (cleared)
+                    {
+                        aggregateStore.clear();
+                    } else {
+                        validateChanges();
+                    }
+
+                    changes.forEach((key, snapshot) -> {
+                        if (snapshot == REMOVED)
+                        {
+                            aggregateStore.remove(key);
+                        } else {
+                            // The aggregate passed to the repository may have been changed in the meantime
+                            var aggregate = aggregateStore.changeListeners().isEmpty() ? null : copyStrategy.fromSnapshot(snapshot);
+                            aggregateStore.put(key, snapshot, aggregate);
+                        }
+                    });
+                }
+            }
+            finally
+            {
+                rollback();
+            }
+        }
+
+        @Override
+        public void rollback()
+        {
+            changes.clear();
+            readSnapshots.clear();
+            cleared = false;
+        }
+
+        /**
+         * Returns the snapshot of given key in the aggregate store and remembers it, if the key was not read before.
+         */
+        private Object read(Object key)
+        {
+            if (cleared)
+            {
+                return null;
+            }
+
+            var snapshot = aggregateStore.snapshots().get(key);
+            readSnapshots.putIfAbsent(key, Objects.requireNonNullElse(snapshot, ABSENT));
+            return snapshot;
+        }
+
+        // Snapshots are replaced on each change, so that a changed aggregate is detected by identity
+        private void validateChanges()
+        {
+            for (var key : changes.keySet())
+            {
+                var currentSnapshot = aggregateStore.snapshots().getOrDefault(key, ABSENT);
+                if (currentSnapshot != readSnapshots.get(key))
+                {
+                    throw new IllegalStateException(IMDBRepository.class.getSimpleName()
+                            + ": An object with given key "
+                            + keyAsString(key)
+                            + " was changed by another transaction");
+                }
+            }
+        }
+
+        private Stream<Map.Entry<Object, Object>> entries()
+        {
+            var storedEntries = cleared ? Stream.<Map.Entry<Object, Object>>empty() : aggregateStore.snapshots().entrySet()
+                    .stream()
+                    .filter(entry -> !changes.containsKey(entry.getKey()));
+
+            var changedEntries = changes.entrySet()
+                    .stream()
+                    .filter(entry -> entry.getValue() != REMOVED);
+
+            return Stream.concat(storedEntries, changedEntries).map(AbstractMap.SimpleImmutableEntry<Object, Object>::new);
+        }
+
+        private final class ChangeSetView extends AbstractMap<Object, Object>
+        {
+            @Override
+            public Object get(Object key)
+            {
+                var snapshot = changes.get(key);
+                if (snapshot != null)
+                {
+                    return (snapshot == REMOVED) ? null : snapshot;
+                }
+                return read(key);
+            }
+
+            @Override
+            public boolean containsKey(Object key)
+            {
+                return get(key) != null;
+            }
+
+            // The entries are determined lazily, so that the aggregate store is not copied
+            @Override
+            public Set<Entry<Object, Object>> entrySet()
+            {
+                return new AbstractSet<>()
+                {
+                    @Override
+                    public Iterator<Entry<Object, Object>> iterator()
+                    {
+                        return entries().iterator();
+                    }
+
+                    @Override
+                    public Spliterator<Entry<Object, Object>> spliterator()
+                    {
+                        return entries().spliterator();
+                    }
+
+                    @Override
+                    public int size()
+                    {
+                        return (int) entries().count();
+                    }
+                };
+            }
+        }
+    }
+
+    public IMDBRepository(Class<T> aggregateClazz, Function<T,K> keyFunction, Properties properties)
+    {
+        this(aggregateClazz,
+                keyFunction,
+                IMDBCopyStrategies.fromProperties(aggregateClazz, properties),
+                Boolean.parseBoolean(properties.getProperty(JexxaCoreProperties.JEXXA_IMDB_TRANSACTIONAL, "false")));
+    }
+
+    /**
+     * Creates an IMDBRepository using given copy strategy. All repositories of the same aggregate type must use the
+     * same type of copy strategy.
+     *
+     * @throws IllegalStateException if another repository of the same aggregate type uses a different copy strategy
+     */
+    public IMDBRepository(Class<T> aggregateClazz, Function<T,K> keyFunction, IMDBCopyStrategy<T> copyStrategy)
+    {
+        this(aggregateClazz, keyFunction, copyStrategy, false);
+    }
+
+    private IMDBRepository(Class<T> aggregateClazz, Function<T,K> keyFunction, IMDBCopyStrategy<T> copyStrategy, boolean transactional)
     {
         this.aggregateClazz = Objects.requireNonNull(aggregateClazz);
         this.keyFunction = Objects.requireNonNull(keyFunction);
+        this.copyStrategy = Objects.requireNonNull(copyStrategy);
+        this.transactional = transactional;
+        getAggregateStore(); // Validates the copy strategy
         IMDB_REPOSITORY_MAP.put(aggregateClazz, this);
     }
 
@@ -33,73 +351,165 @@ public class IMDBRepository<T, K>  implements IRepository<T, K>
     public void update(T aggregate)
     {
         Objects.requireNonNull(aggregate);
-        if (! getAggregateMap(aggregateClazz).containsKey( keyFunction.apply(aggregate)))
-        {
-            var keyAsString = keyFunction.apply(aggregate).getClass().getSimpleName()
-                    + JSONManager.getJSONConverter().toJson(keyFunction.apply(aggregate));
-            throw new IllegalArgumentException(IMDBRepository.class.getSimpleName()
-                    + ": An object with given key "
-                    + keyAsString
-                    + " does not exists");
-        } else {
-            getAggregateMap(aggregateClazz).put(keyFunction.apply(aggregate), JSONManager.getJSONConverter().toJson(aggregate));
-        }
+        var key = keyFunction.apply(aggregate);
+
+        modify(target -> {
+            if (!target.snapshots().containsKey(key))
+            {
+                var keyAsString = keyAsString(key);
+                throw new IllegalArgumentException(IMDBRepository.class.getSimpleName()
+                        + ": An object with given key "
+                        + keyAsString
+                        + " does not exists");
+            }
+            target.put(key, copyStrategy.toSnapshot(aggregate), aggregate);
+        });
+    }
+
+    @Override
+    public void updateAll(Collection<T> aggregates)
+    {
+        modify(target -> {
+            var updatedAggregates = new LinkedHashMap<K, T>();
+
+            // Validate all aggregates before applying them, so that the repository is not changed in case of an error
+            for (var aggregate : aggregates)
+            {
+                Objects.requireNonNull(aggregate);
+                var key = keyFunction.apply(aggregate);
+                if (!target.snapshots().containsKey(key))
+                {
+                    throw new IllegalArgumentException(IMDBRepository.class.getSimpleName()
+                            + ": An object with given key "
+                            + keyAsString(key)
+                            + " does not exists");
+                }
+                updatedAggregates.put(key, aggregate);
+            }
+
+            putAll(target, updatedAggregates);
+        });
     }
 
     @Override
     public void remove(K key)
     {
-        if ( getAggregateMap(aggregateClazz).remove( key ) == null)
-        {
-            var keyAsString = key.getClass().getSimpleName() + JSONManager.getJSONConverter().toJson(key);
-            throw new IllegalArgumentException(IMDBRepository.class.getSimpleName()
-                    + ": An object with given "
-                    + keyAsString
-                    + "key does not exists");
-        }
+        modify(target -> {
+            if (!target.snapshots().containsKey(key))
+            {
+                var keyAsString = keyAsString(key);
+                throw new IllegalArgumentException(IMDBRepository.class.getSimpleName()
+                        + ": An object with given "
+                        + keyAsString
+                        + "key does not exists");
+            }
+            target.remove(key);
+        });
+    }
+
+    @Override
+    public void removeAll(Collection<K> keys)
+    {
+        modify(target -> {
+            var removedKeys = new HashSet<K>();
+
+            // Validate all keys before removing them, so that the repository is not changed in case of an error
+            for (var key : keys)
+            {
+                if (!target.snapshots().containsKey(key) || !removedKeys.add(key))
+                {
+                    throw new IllegalArgumentException(IMDBRepository.class.getSimpleName()
+                            + ": An object with given "
+                            + keyAsString(key)
+                            + "key does not exists");
+                }
+            }
+
+            removedKeys.forEach(target::remove);
+        });
     }
 
     @Override
     public void removeAll()
     {
-        getAggregateMap(aggregateClazz).clear();
+        modify(Snapshots::clear);
     }
 
     @Override
     public void add(T aggregate)
     {
-        if (getAggregateMap(aggregateClazz).containsKey( keyFunction.apply(aggregate)))
-        {
-            var keyAsString = keyFunction.apply(aggregate).getClass().getSimpleName()
-                    + JSONManager.getJSONConverter().toJson(keyFunction.apply(aggregate));
-            throw new IllegalArgumentException(IMDBRepository.class.getSimpleName()
-                    + ": An object with given key "
-                    + keyAsString
-                    + " already exists");
-        }
-        getAggregateMap(aggregateClazz).put(keyFunction.apply(aggregate), JSONManager.getJSONConverter().toJson(aggregate));
+        var key = keyFunction.apply(aggregate);
+
+        modify(target -> {
+            if (target.snapshots().containsKey(key))
+            {
+                var keyAsString = keyAsString(key);
+                throw new IllegalArgumentException(IMDBRepository.class.getSimpleName()
+                        + ": An object with given key "
+                        + keyAsString
+                        + " already exists");
+            }
+            target.put(key, copyStrategy.toSnapshot(aggregate), aggregate);
+        });
+    }
+
+    @Override
+    public void addAll(Collection<T> aggregates)
+    {
+        modify(target -> {
+            var addedAggregates = new LinkedHashMap<K, T>();
+
+            // Validate all aggregates before applying them, so that the repository is not changed in case of an error
+            for (var aggregate : aggregates)
+            {
+                var key = keyFunction.apply(aggregate);
+                if (target.snapshots().containsKey(key)
+                        || addedAggregates.put(key, aggregate) != null)
+                {
+                    throw new IllegalArgumentException(IMDBRepository.class.getSimpleName()
+                            + ": An object with given key "
+                            + keyAsString(key)
+                            + " already exists");
+                }
+            }
+
+            putAll(target, addedAggregates);
+        });
     }
 
     @Override
     public Optional<T> get(K primaryKey)
     {
-        if (getAggregateMap(aggregateClazz).containsKey(primaryKey)) {
-            return Optional.of(JSONManager.getJSONConverter().fromJson(getAggregateMap(aggregateClazz).get(primaryKey), aggregateClazz));
-        }
-        return Optional.empty();
+        return Optional.ofNullable(getAggregateMap().get(primaryKey))
+                .map(copyStrategy::fromSnapshot);
     }
 
 
     @Override
     public List<T> get()
     {
-        return getAggregateMap(aggregateClazz)
+        return getAggregateMap()
                 .values()
                 .stream()
-                .map( element -> JSONManager.getJSONConverter().fromJson(element, aggregateClazz))
+                .map( copyStrategy::fromSnapshot )
                 .toList();
     }
 
+    @Override
+    public Stream<T> stream()
+    {
+        return getAggregateMap()
+                .values()
+                .stream()
+                .map( copyStrategy::fromSnapshot );
+    }
+
+    @Override
+    public long count()
+    {
+        return getAggregateMap().size();
+    }
+
     /**
      * This method resets all IMDBRepositories instance within an application and removes all stored objects!
      * <p>
@@ -108,14 +518,132 @@ public class IMDBRepository<T, K>  implements IRepository<T, K>
     public static synchronized void clear()
     {
         IMDB_REPOSITORY_MAP.forEach( (aggregateType, repository) -> repository.removeAll() );
-        REPOSITORY_MAP.forEach( (aggregateType, imdbMap) -> imdbMap.clear() );
+        REPOSITORY_MAP.forEach( (aggregateType, aggregateStore) -> aggregateStore.snapshots().clear() );
         REPOSITORY_MAP.clear();
     }
 
+    /**
+     * Returns the snapshots of all aggregates managed by this repository. Use {@link #getCopyStrategy()} to create
+     * aggregates from these snapshots.
+     */
+    @SuppressWarnings("unchecked")
+    protected Map<K, Object> getAggregateMap()
+    {
+        var aggregateStore = getAggregateStore();
+        if (!transactional)
+        {
+            return (Map<K, Object>) (Map<?, ?>) aggregateStore.snapshots();
+        }
+
+        // Aggregates read within a transaction join its change set, so that concurrent changes are detected on close
+        return (Map<K, Object>) (Map<?, ?>) TransactionManager.getTransactionContext()
+                .map(transactionContext -> transactionContext.enlist(aggregateStore, () -> new ChangeSet(aggregateStore, copyStrategy)))
+                .map(ChangeSet::snapshots)
+                .orElse(aggregateStore.snapshots());
+    }
+
+    /**
+     * Returns the aggregates of given type as JSON, mapped by their key.
+     *
+     * @deprecated Aggregates are no longer stored as JSON if another {@link IMDBCopyStrategy} is configured. Use
+     * {@link #getAggregateMap()} together with {@link #getCopyStrategy()} instead. If the aggregates of given type are
+     * stored as JSON, which is the default, the returned map is the underlying store. Otherwise, it is a read-only copy.
+     */
+    @Deprecated(since = "6.1.5")
     @SuppressWarnings("unchecked")
     protected static synchronized <T> Map<T, String> getAggregateMap(Class<?> aggregateClazz)
     {
-        return (Map<T, String>)REPOSITORY_MAP.computeIfAbsent(aggregateClazz, element -> new ConcurrentHashMap<T,String>());
+        var jsonCopyStrategy = IMDBCopyStrategies.jsonCopy(aggregateClazz);
+        var aggregateStore = REPOSITORY_MAP.computeIfAbsent(aggregateClazz,
+                element -> new AggregateStore(jsonCopyStrategy.getClass(), new ConcurrentHashMap<>(), new ConcurrentHashMap<>()));
+
+        if (aggregateStore.copyStrategyType() == jsonCopyStrategy.getClass())
+        {
+            return (Map<T, String>) (Map<?, ?>) aggregateStore.snapshots();
+        }
+
+        var copyStrategy = (IMDBCopyStrategy<Object>) IMDB_REPOSITORY_MAP.get(aggregateClazz).getCopyStrategy();
+        var jsonMap = new LinkedHashMap<T, String>();
+        aggregateStore.snapshots().forEach((key, snapshot) ->
+                jsonMap.put((T) key, JSONManager.getJSONConverter().toJson(copyStrategy.fromSnapshot(snapshot))));
+        return Collections.unmodifiableMap(jsonMap);
+    }
+
+    /**
+     * Returns the change listener registered for given id. If no listener is registered for this id, a new listener
+     * is created, initialized with all stored aggregates, and registered for all repositories of this aggregate type.
+     * <p>
+     * The listener is removed when all IMDB repositories are cleared via {@link #clear()}. So a listener should be
+     * requested each time it is used instead of being kept.
+     */
+    @SuppressWarnings("unchecked")
+    protected <L extends IMDBChangeListener<T, K>> L getChangeListener(Object id, Supplier<L> listenerFactory)
+    {
+        var aggregateStore = getAggregateStore();
+        var changeListener = aggregateStore.changeListeners().get(id);
+        if (changeListener != null)
+        {
+            return (L) changeListener;
+        }
+
+        synchronized (aggregateStore)
+        {
+            return (L) aggregateStore.changeListeners().computeIfAbsent(id, key -> {
+                var newListener = listenerFactory.get();
+                aggregateStore.snapshots().forEach((aggregateKey, snapshot) -> newListener.onPut((K) aggregateKey, copyStrategy.fromSnapshot(snapshot)));
+                return newListener;
+            });
+        }
+    }
+
+    protected IMDBCopyStrategy<T> getCopyStrategy()
+    {
+        return copyStrategy;
+    }
+
+    private AggregateStore getAggregateStore()
+    {
+        var aggregateStore = REPOSITORY_MAP.computeIfAbsent(aggregateClazz,
+                element -> new AggregateStore(copyStrategy.getClass(), new ConcurrentHashMap<>(), new ConcurrentHashMap<>()));
+
+        if (aggregateStore.copyStrategyType() != copyStrategy.getClass())
+        {
+            throw new IllegalStateException(IMDBRepository.class.getSimpleName()
+                    + ": Aggregates of type " + aggregateClazz.getSimpleName()
+                    + " are already stored using " + aggregateStore.copyStrategyType().getSimpleName());
+        }
+        return aggregateStore;
+    }
+
+    /**
+     * Applies given modification to the change set of the current transaction, or directly to the aggregate store if
+     * this repository is not transactional or no transaction is active.
+     */
+    private void modify(Consumer<Snapshots> modification)
+    {
+        var aggregateStore = getAggregateStore();
+        var transactionContext = TransactionManager.getTransactionContext();
+
+        if (transactional && transactionContext.isPresent())
+        {
+            modification.accept(transactionContext.get().enlist(aggregateStore, () -> new ChangeSet(aggregateStore, copyStrategy)));
+            return;
+        }
+
+        synchronized (aggregateStore)
+        {
+            modification.accept(aggregateStore);
+        }
+    }
+
+    private void putAll(Snapshots target, Map<K, T> aggregates)
+    {
+        aggregates.forEach((key, aggregate) -> target.put(key, copyStrategy.toSnapshot(aggregate), aggregate));
+    }
+
+    private static String keyAsString(Object key)
+    {
+        return key.getClass().getSimpleName() + JSONManager.getJSONConverter().toJson(key);
     }
 
     protected Class<T> getAggregateClazz()
@@ -1,5 +1,8 @@
 package io.jexxa.infrastructure.persistence.repository.jdbc;
 
+import io.jexxa.common.wrapper.jdbc.JDBCCommandTemplate;
+import io.jexxa.common.wrapper.jdbc.JDBCQueryTemplate;
+import io.jexxa.common.wrapper.jdbc.JDBCTemplateCache;
 import io.jexxa.common.wrapper.jdbc.JexxaJDBCProperties;
 import io.jexxa.common.wrapper.jdbc.builder.JDBCObject;
 import io.jexxa.common.wrapper.jdbc.database.DatabaseManager;
@@ -7,11 +10,13 @@ import io.jexxa.common.wrapper.jdbc.database.IDatabase;
 import io.jexxa.infrastructure.persistence.repository.IRepository;
 import org.slf4j.Logger;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static io.jexxa.common.wrapper.jdbc.builder.JDBCTableBuilder.SQLConstraint.PRIMARY_KEY;
 import static io.jexxa.common.wrapper.jdbc.builder.SQLDataType.JSONB;
@@ -27,6 +32,7 @@ public class JDBCKeyValueRepository<T, K> extends JDBCRepository implements IRep
     private final Function<T,K> keyFunction;
     private final Class<T> aggregateClazz;
     private final IDatabase database;
+    private final JDBCTemplateCache templateCache = new JDBCTemplateCache();
 
     public enum KeyValueSchema
     {
@@ -36,13 +42,7 @@ public class JDBCKeyValueRepository<T, K> extends JDBCRepository implements IRep
 
     public JDBCKeyValueRepository(Class<T> aggregateClazz, Function<T,K> keyFunction, Properties properties)
     {
-        super(properties);
-
-        this.keyFunction = Objects.requireNonNull( keyFunction );
-        this.aggregateClazz = Objects.requireNonNull(aggregateClazz);
-        this.database = DatabaseManager.getDatabase(properties.getProperty(JexxaJDBCProperties.JEXXA_JDBC_URL));
-
-        manageDBTable(properties);
+        this(aggregateClazz, keyFunction, properties, true);
     }
 
     protected JDBCKeyValueRepository(Class<T> aggregateClazz, Function<T,K> keyFunction, Properties properties, boolean manageTable)
@@ -64,25 +64,37 @@ public class JDBCKeyValueRepository<T, K> extends JDBCRepository implements IRep
     public void remove(K key)
     {
         Objects.requireNonNull(key);
-        var jdbcKey = new JDBCObject(getJSONConverter().toJson(key), database.matchingValue(JSONB));
 
-        var command = getConnection().createCommand(KeyValueSchema.class)
-                .deleteFrom(aggregateClazz)
-                .where(REPOSITORY_KEY)
-                .isEqual(jdbcKey)
-                .create();
+        getConnection()
+                .createCommand(removeTemplate(), toJSON(key))
+                .asUpdate();
+    }
 
-        command.asUpdate();
+    @Override
+    public void removeAll(Collection<K> keys)
+    {
+        var batchArguments = keys.stream()
+                .map(Objects::requireNonNull)
+                .map(key -> new Object[]{toJSON(key)})
+                .toList();
+
+        getConnection()
+                .createBatchCommand(removeTemplate(), batchArguments)
+                .asUpdate();
     }
 
     @Override
     public void removeAll()
     {
-        var command = getConnection().createCommand(KeyValueSchema.class)
-                .deleteFrom(aggregateClazz)
-                .create();
-
-        command.asIgnore();
+        var template = templateCache.getCommandTemplate("removeAll", () ->
+                getConnection().createCommand(KeyValueSchema.class)
+                        .deleteFrom(aggregateClazz)
+                        .createTemplate()
+        );
+
+        getConnection()
+                .createCommand(template)
+                .asIgnore();
     }
 
     @Override
@@ -90,15 +102,22 @@ public class JDBCKeyValueRepository<T, K> extends JDBCRepository implements IRep
     {
         Objects.requireNonNull(aggregate);
 
-        var command = getConnection().createCommand(KeyValueSchema.class)
-                .insertInto(aggregateClazz)
-                .values(new JDBCObject[]{
-                        primaryKeyToJSONB(keyFunction.apply(aggregate)),
-                        valueToJSONB(aggregate)}
-                )
-                .create();
+        getConnection()
+                .createCommand(addTemplate(), addArguments(aggregate))
+                .asUpdate();
+    }
 
-        command.asUpdate();
+    @Override
+    public void addAll(Collection<T> aggregates)
+    {
+        var batchArguments = aggregates.stream()
+                .map(Objects::requireNonNull)
+                .map(this::addArguments)
+                .toList();
+
+        getConnection()
+                .createBatchCommand(addTemplate(), batchArguments)
+                .asUpdate();
     }
 
     @SuppressWarnings({"unused"})
@@ -107,14 +126,22 @@ public class JDBCKeyValueRepository<T, K> extends JDBCRepository implements IRep
     {
         Objects.requireNonNull(aggregate);
 
-        var command = getConnection().createCommand(KeyValueSchema.class)
-                .update(aggregateClazz)
-                .set(REPOSITORY_VALUE, valueToJSONB(aggregate))
-                .where(REPOSITORY_KEY)
-                .isEqual(primaryKeyToJSONB(keyFunction.apply(aggregate)))
-                .create();
+        getConnection()
+                .createCommand(updateTemplate(), updateArguments(aggregate))
+                .asUpdate();
+    }
+
+    @Override
+    public void updateAll(Collection<T> aggregates)
+    {
+        var batchArguments = aggregates.stream()
+                .map(Objects::requireNonNull)
+                .map(this::updateArguments)
+                .toList();
 
-        command.asUpdate();
+        getConnection()
+                .createBatchCommand(updateTemplate(), batchArguments)
+                .asUpdate();
     }
 
     @Override
@@ -122,14 +149,17 @@ public class JDBCKeyValueRepository<T, K> extends JDBCRepository implements IRep
     {
         Objects.requireNonNull(primaryKey);
 
-        var query = getConnection().createQuery(KeyValueSchema.class)
-                .select(REPOSITORY_VALUE)
-                .from(aggregateClazz)
-                .where(REPOSITORY_KEY)
-                .isEqual(primaryKeyToJSONB(primaryKey))
-                .create();
-
-        return  query
+        var template = templateCache.getQueryTemplate("get", () ->
+                getConnection().createQuery(KeyValueSchema.class)
+                        .select(REPOSITORY_VALUE)
+                        .from(aggregateClazz)
+                        .where(REPOSITORY_KEY)
+                        .isEqual(new JDBCObject(null, database.matchingPrimaryKey(JSONB)))
+                        .createTemplate()
+        );
+
+        return getConnection()
+                .createQuery(template, toJSON(primaryKey))
                 .asString()
                 .flatMap(Optional::stream)
                 .findFirst()
@@ -140,18 +170,41 @@ public class JDBCKeyValueRepository<T, K> extends JDBCRepository implements IRep
     @Override
     public List<T> get()
     {
-        var query = getConnection().createQuery(KeyValueSchema.class)
-                .select(REPOSITORY_VALUE)
-                .from(aggregateClazz)
-                .create();
-
-        return query
+        return getConnection()
+                .createQuery(getAllTemplate())
                 .asString()
                 .flatMap(Optional::stream)
                 .map( element -> getJSONConverter().fromJson(element, aggregateClazz))
                 .toList();
     }
 
+    @Override
+    public Stream<T> stream()
+    {
+        return getConnection()
+                .createQuery(getAllTemplate())
+                .asStringStream()
+                .flatMap(Optional::stream)
+                .map( element -> getJSONConverter().fromJson(element, aggregateClazz));
+    }
+
+    @Override
+    public long count()
+    {
+        var template = templateCache.getQueryTemplate("count", () ->
+                getConnection().createQuery(KeyValueSchema.class)
+                        .selectCount()
+                        .from(aggregateClazz)
+                        .createTemplate()
+        );
+
+        return getConnection()
+                .createQuery(template)
+                .asLong()
+                .findFirst()
+                .orElse(0L);
+    }
+
     private void manageDBTable(Properties properties)
     {
         if (properties.containsKey(JexxaJDBCProperties.JEXXA_JDBC_AUTOCREATE_TABLE))
@@ -202,6 +255,82 @@ public class JDBCKeyValueRepository<T, K> extends JDBCRepository implements IRep
     }
 
 
+    /**
+     * Returns the template to add an aggregate. The arguments of the template are provided by {@link #addArguments(Object)}.
+     */
+    protected JDBCCommandTemplate addTemplate()
+    {
+        return templateCache.getCommandTemplate("add", () ->
+                getConnection().createCommand(KeyValueSchema.class)
+                        .insertInto(aggregateClazz)
+                        .values(new JDBCObject[]{
+                                new JDBCObject(null, database.matchingPrimaryKey(JSONB)),
+                                new JDBCObject(null, database.matchingValue(JSONB))}
+                        )
+                        .createTemplate()
+        );
+    }
+
+    protected Object[] addArguments(T aggregate)
+    {
+        return new Object[]{toJSON(keyFunction.apply(aggregate)), toJSON(aggregate)};
+    }
+
+    /**
+     * Returns the template to update an aggregate. The arguments of the template are provided by {@link #updateArguments(Object)}.
+     */
+    protected JDBCCommandTemplate updateTemplate()
+    {
+        return templateCache.getCommandTemplate("update", () ->
+                getConnection().createCommand(KeyValueSchema.class)
+                        .update(aggregateClazz)
+                        .set(REPOSITORY_VALUE, new JDBCObject(null, database.matchingValue(JSONB)))
+                        .where(REPOSITORY_KEY)
+                        .isEqual(new JDBCObject(null, database.matchingPrimaryKey(JSONB)))
+                        .createTemplate()
+        );
+    }
+
+    protected Object[] updateArguments(T aggregate)
+    {
+        return new Object[]{toJSON(aggregate), toJSON(keyFunction.apply(aggregate))};
+    }
+
+    private JDBCQueryTemplate getAllTemplate()
+    {
+        return templateCache.getQueryTemplate("getAll", () ->
+                getConnection().createQuery(KeyValueSchema.class)
+                        .select(REPOSITORY_VALUE)
+                        .from(aggregateClazz)
+                        .createTemplate()
+        );
+    }
+
+    private JDBCCommandTemplate removeTemplate()
+    {
+        return templateCache.getCommandTemplate("remove", () ->
+                getConnection().createCommand(KeyValueSchema.class)
+                        .deleteFrom(aggregateClazz)
+                        .where(REPOSITORY_KEY)
+                        .isEqual(new JDBCObject(null, database.matchingValue(JSONB)))
+                        .createTemplate()
+        );
+    }
+
+    /**
+     * Returns the cache for the SQL templates of this repository. Each template is identified by a name that must be
+     * unique within this repository.
+     */
+    protected JDBCTemplateCache getTemplateCache()
+    {
+        return templateCache;
+    }
+
+    private static String toJSON(Object value)
+    {
+        return getJSONConverter().toJson(value);
+    }
+
     protected JDBCObject primaryKeyToJSONB(Object value)
     {
         return new JDBCObject(getJSONConverter().toJson(value), database.matchingPrimaryKey(JSONB));
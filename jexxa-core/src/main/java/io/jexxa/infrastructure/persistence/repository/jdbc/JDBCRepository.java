@@ -17,27 +17,56 @@ public abstract class JDBCRepository implements TransactionHandler {
     {
         this.properties = Objects.requireNonNull(properties);
         getConnection(); // To ensure that connection is valid
-        TransactionManager.registerTransactionHandler(this);
     }
 
     /**
      * Returns a JDBCConnection that is in a valid state. If the connection can not be changed into a valid state, an IllegalStateException is thrown.
+     * <p>
+     * If a transaction is active for the current thread, this repository joins it when the connection is requested for
+     * the first time within the transaction.
      *
      * @throws IllegalStateException if JDBCConnection can not be reset
      * @return JDBCConnection that is in a valid state.
      */
     public JDBCConnection getConnection()
     {
+        TransactionManager.enlist(this);
         return JDBCConnectionPool.getConnection(properties, this);
     }
+
+    /**
+     * Leases a pooled connection for the current thread that is used until {@link #closeTransaction()} is called.
+     * Repositories using the same connection share the lease.
+     */
     public void initTransaction()
     {
-        getConnection().disableAutoCommit();
+        JDBCConnectionPool.leaseConnection(properties, this).disableAutoCommit();
     }
+
     public void closeTransaction()
     {
-        getConnection().commit();
-        getConnection().enableAutoCommit();
+        if (!JDBCConnectionPool.isLeased(properties, this))
+        {
+            return;
+        }
+
+        // The transaction on a shared connection is committed by the last repository releasing it
+        if (!JDBCConnectionPool.isLastLease(properties, this))
+        {
+            JDBCConnectionPool.releaseConnection(properties, this);
+            return;
+        }
+
+        var connection = getConnection();
+        try {
+            connection.commit();
+        } finally {
+            try {
+                connection.enableAutoCommit();
+            } finally {
+                JDBCConnectionPool.releaseConnection(properties, this);
+            }
+        }
     }
 
     public void rollback()
@@ -0,0 +1,131 @@
+package io.jexxa.common.wrapper.jdbc;
+
+import io.jexxa.TestConstants;
+import io.jexxa.adapterapi.JexxaContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag(TestConstants.INTEGRATION_TEST)
+@Execution(ExecutionMode.SAME_THREAD)
+class JDBCConnectionPoolIT
+{
+    private final Object firstManagingObject = new Object();
+    private final Object secondManagingObject = new Object();
+
+    @AfterEach
+    void cleanup()
+    {
+        JexxaContext.cleanup();
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void leaseConnectionPerThread(Properties properties) throws ExecutionException, InterruptedException
+    {
+        //Arrange
+        var connectionName = properties.getProperty(JexxaJDBCProperties.JEXXA_JDBC_URL);
+
+        //Act
+        var firstLease = JDBCConnectionPool.leaseConnection(properties, firstManagingObject);
+        var secondLease = JDBCConnectionPool.leaseConnection(properties, secondManagingObject);
+        var otherThreadLease = CompletableFuture.supplyAsync(() -> {
+            var connection = JDBCConnectionPool.leaseConnection(properties, firstManagingObject);
+            JDBCConnectionPool.releaseConnection(properties, firstManagingObject);
+            return connection;
+        }).get();
+
+        //Assert - Same thread shares a lease, other threads get their own connection
+        assertSame(firstLease, secondLease);
+        assertSame(firstLease, JDBCConnectionPool.getConnection(properties, firstManagingObject));
+        assertFalse(JDBCConnectionPool.isLastLease(properties, firstManagingObject));
+        assertNotSame(firstLease, otherThreadLease);
+        assertEquals(1, JDBCConnectionPool.getMetrics(connectionName).orElseThrow().activeConnections());
+
+        //Act - Connection is returned when all managing objects released it
+        JDBCConnectionPool.releaseConnection(properties, firstManagingObject);
+
+        //Assert
+        assertFalse(JDBCConnectionPool.isLeased(properties, firstManagingObject));
+        assertTrue(JDBCConnectionPool.isLastLease(properties, secondManagingObject));
+
+        //Act
+        JDBCConnectionPool.releaseConnection(properties, secondManagingObject);
+
+        //Assert
+        var metrics = JDBCConnectionPool.getMetrics(connectionName).orElseThrow();
+        assertEquals(0, metrics.activeConnections());
+        assertEquals(2, metrics.idleConnections());
+        assertEquals(2, metrics.leaseCount());
+        assertNotSame(firstLease, JDBCConnectionPool.getConnection(properties, firstManagingObject));
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void leaseExclusiveConnectionPerThread(Properties properties) throws ExecutionException, InterruptedException
+    {
+        //Arrange
+        JDBCConnectionPool.configureExclusiveConnection(firstManagingObject, JDBCConnection.IsolationLevel.SERIALIZABLE);
+
+        //Act
+        var lease = JDBCConnectionPool.leaseConnection(properties, firstManagingObject);
+        var otherThreadLease = CompletableFuture.supplyAsync(() -> {
+            var connection = JDBCConnectionPool.leaseConnection(properties, firstManagingObject);
+            var isLastLease = JDBCConnectionPool.isLastLease(properties, firstManagingObject);
+            JDBCConnectionPool.releaseConnection(properties, firstManagingObject);
+            return isLastLease ? connection : null;
+        }).get();
+
+        //Assert - Other threads get their own connection
+        assertNotSame(lease, otherThreadLease);
+        assertSame(lease, JDBCConnectionPool.getConnection(properties, firstManagingObject));
+        assertTrue(JDBCConnectionPool.isLastLease(properties, firstManagingObject));
+
+        //Act - Released connections are reused
+        JDBCConnectionPool.releaseConnection(properties, firstManagingObject);
+
+        //Assert
+        assertFalse(JDBCConnectionPool.isLeased(properties, firstManagingObject));
+        assertNotSame(lease, JDBCConnectionPool.getConnection(properties, firstManagingObject));
+        assertSame(lease, JDBCConnectionPool.leaseConnection(properties, firstManagingObject));
+        JDBCConnectionPool.releaseConnection(properties, firstManagingObject);
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void leaseTimeout(Properties properties) throws ExecutionException, InterruptedException
+    {
+        //Arrange
+        var poolProperties = new Properties();
+        poolProperties.putAll(properties);
+        poolProperties.put(JexxaJDBCProperties.JEXXA_JDBC_POOL_MAX_SIZE, "1");
+        poolProperties.put(JexxaJDBCProperties.JEXXA_JDBC_POOL_LEASE_TIMEOUT, "100");
+        var connectionName = properties.getProperty(JexxaJDBCProperties.JEXXA_JDBC_URL);
+
+        JDBCConnectionPool.leaseConnection(poolProperties, firstManagingObject);
+
+        //Act
+        var result = CompletableFuture.supplyAsync(() ->
+                assertThrows(IllegalStateException.class, () -> JDBCConnectionPool.leaseConnection(poolProperties, firstManagingObject))
+        ).get();
+
+        //Assert
+        assertTrue(result.getMessage().contains(connectionName));
+        assertEquals(1, JDBCConnectionPool.getMetrics(connectionName).orElseThrow().timeoutCount());
+        JDBCConnectionPool.releaseConnection(poolProperties, firstManagingObject);
+    }
+}
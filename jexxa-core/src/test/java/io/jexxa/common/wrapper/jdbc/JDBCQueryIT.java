@@ -13,11 +13,13 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @Tag(TestConstants.INTEGRATION_TEST)
@@ -222,6 +224,160 @@ class JDBCQueryIT
         );
     }
 
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void testRetryOnConnectionFailure(Properties properties) throws SQLException
+    {
+        //Arrange
+        var validationProperties = new Properties();
+        validationProperties.putAll(properties);
+        validationProperties.put(JexxaJDBCProperties.JEXXA_JDBC_VALIDATION_STRATEGY, "on-failure");
+        JDBCTestDatabase.setupDatabase(properties).close();
+        jdbcConnection = new JDBCConnection(validationProperties);
+
+        var query = jdbcConnection.createQuery(JDBCTestDatabase.JDBCTestSchema.class)
+                .select(JDBCTestDatabase.JDBCTestSchema.REPOSITORY_KEY)
+                .from(JDBCTestDatabase.class)
+                .create();
+
+        //Act - Close the underlying connection so that the query fails with a connection failure
+        jdbcConnection.getConnection().close();
+        var result = query.asInt().toList();
+
+        //Assert
+        assertEquals(3, result.size());
+        assertTrue(jdbcConnection.isValid());
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void testStatementCache(Properties properties)
+    {
+        //Arrange
+        jdbcConnection = JDBCTestDatabase.setupDatabase(properties);
+        jdbcConnection.reset();
+        var initialMetrics = jdbcConnection.getStatementCacheMetrics();
+
+        var query = jdbcConnection.createQuery(JDBCTestDatabase.JDBCTestSchema.class)
+                .select(JDBCTestDatabase.JDBCTestSchema.REPOSITORY_KEY)
+                .from(JDBCTestDatabase.class)
+                .where(JDBCTestDatabase.JDBCTestSchema.REPOSITORY_KEY).isEqual(JDBCTestDatabase.PRIMARY_KEY_WITH_NONNULL_VALUES)
+                .create();
+
+        //Act
+        var firstResult = query.asInt().toList();
+        var secondResult = query.asInt().toList();
+        var metrics = jdbcConnection.getStatementCacheMetrics();
+        jdbcConnection.reset();
+
+        //Assert
+        assertEquals(firstResult, secondResult);
+        assertEquals(1, metrics.size());
+        assertEquals(1, metrics.missCount() - initialMetrics.missCount());
+        assertEquals(1, metrics.hitCount() - initialMetrics.hitCount());
+        assertEquals(0, jdbcConnection.getStatementCacheMetrics().size());
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void testQueryTemplate(Properties properties)
+    {
+        //Arrange
+        jdbcConnection = JDBCTestDatabase.setupDatabase(properties);
+
+        var template = jdbcConnection.createQuery(JDBCTestDatabase.JDBCTestSchema.class)
+                .select(JDBCTestDatabase.JDBCTestSchema.REPOSITORY_KEY)
+                .from(JDBCTestDatabase.class)
+                .where(JDBCTestDatabase.JDBCTestSchema.REPOSITORY_KEY).isEqual(0)
+                .createTemplate();
+
+        //Act
+        var result = jdbcConnection.createQuery(template, JDBCTestDatabase.PRIMARY_KEY_WITH_NONNULL_VALUES).asInt().toList();
+        var emptyResult = jdbcConnection.createQuery(template, -1).asInt().toList();
+
+        //Assert
+        assertEquals(1, template.argumentCount());
+        assertEquals(List.of(JDBCTestDatabase.PRIMARY_KEY_WITH_NONNULL_VALUES), result);
+        assertTrue(emptyResult.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> jdbcConnection.createQuery(template));
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void testStreamQuery(Properties properties)
+    {
+        //Arrange
+        var streamProperties = new Properties();
+        streamProperties.putAll(properties);
+        streamProperties.put(JexxaJDBCProperties.JEXXA_JDBC_FETCH_SIZE, "1");
+        JDBCTestDatabase.setupDatabase(properties).close();
+        jdbcConnection = new JDBCConnection(streamProperties);
+
+        var query = jdbcConnection.createQuery(JDBCTestDatabase.JDBCTestSchema.class)
+                .select(JDBCTestDatabase.JDBCTestSchema.REPOSITORY_KEY)
+                .from(JDBCTestDatabase.class)
+                .orderBy(JDBCTestDatabase.JDBCTestSchema.REPOSITORY_KEY, SQLOrder.ASC)
+                .create();
+
+        //Act
+        List<Integer> result;
+        try (var stream = query.asStream(resultSet -> resultSet.getInt(1)))
+        {
+            result = stream.toList();
+        }
+
+        Optional<Integer> firstElement;
+        try (var stream = query.asStream(resultSet -> resultSet.getInt(1)))
+        {
+            firstElement = stream.findFirst();
+        }
+
+        //Assert - Statement is returned to the statement cache after the stream is consumed or closed
+        assertEquals(query.asInt().toList(), result);
+        assertEquals(Optional.of(result.get(0)), firstElement);
+        assertEquals(1, jdbcConnection.getStatementCacheMetrics().size());
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void testStreamQueryWithFailingMapping(Properties properties)
+    {
+        //Arrange
+        JDBCTestDatabase.setupDatabase(properties).close();
+        jdbcConnection = new JDBCConnection(properties);
+        var processedResultSet = new ArrayList<ResultSet>();
+
+        var query = jdbcConnection.createQuery(JDBCTestDatabase.JDBCTestSchema.class)
+                .select(JDBCTestDatabase.JDBCTestSchema.REPOSITORY_KEY)
+                .from(JDBCTestDatabase.class)
+                .create();
+
+        var stream = query.asStream(resultSet -> {
+            processedResultSet.add(resultSet);
+            throw new IllegalArgumentException("Invalid row");
+        });
+
+        //Act
+        assertThrows(IllegalArgumentException.class, stream::toList);
+
+        //Assert - ResultSet and PreparedStatement are closed although the stream was not closed
+        assertFalse(processedResultSet.isEmpty());
+        assertTrue(processedResultSet.stream().allMatch(JDBCQueryIT::isClosed));
+        assertEquals(0, jdbcConnection.getStatementCacheMetrics().size());
+    }
+
+    private static boolean isClosed(ResultSet resultSet)
+    {
+        try
+        {
+            return resultSet.isClosed();
+        }
+        catch (SQLException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private Stream<String> readSelectAll(ResultSet resultSet ) throws SQLException
     {
         return Stream.of(
@@ -0,0 +1,185 @@
+package io.jexxa.drivingadapter.messaging;
+
+import io.jexxa.drivingadapter.messaging.listener.BatchMessageListener;
+import io.jexxa.infrastructure.messaging.jms.FakeJMSProvider;
+import io.jexxa.infrastructure.messaging.jms.JMSSender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.jms.JMSException;
+import javax.jms.TextMessage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BatchReceiverTest
+{
+    private static final String QUEUE_DESTINATION = "MyBatchQueue";
+
+    private FakeJMSProvider.Broker broker;
+    private JMSAdapter jmsAdapter;
+    private RecordingBatchListener objectUnderTest;
+
+    @BeforeEach
+    void initTest()
+    {
+        broker = FakeJMSProvider.createBroker(UUID.randomUUID().toString());
+        jmsAdapter = new JMSAdapter(broker.getProperties());
+        objectUnderTest = new RecordingBatchListener();
+        jmsAdapter.register(objectUnderTest);
+    }
+
+    @AfterEach
+    void cleanup()
+    {
+        jmsAdapter.stop();
+    }
+
+    @Test
+    void receiveBatch() throws JMSException
+    {
+        //Arrange
+        deliver(1, 2, 3, 4);
+
+        //Act
+        jmsAdapter.start();
+
+        //Assert
+        await().atMost(1, TimeUnit.SECONDS).until(() -> objectUnderTest.getProcessedBatches().size() == 2);
+        assertEquals(List.of(List.of(1, 2, 3), List.of(4)), objectUnderTest.getProcessedBatches());
+    }
+
+    @Test
+    void receiveBytesMessages() throws JMSException
+    {
+        //Arrange - Bytes messages written by JMSSender
+        try (var jmsSender = new JMSSender(broker.getProperties()))
+        {
+            jmsSender.sendByteMessage(1).toQueue(QUEUE_DESTINATION).asJson();
+            jmsSender.sendByteMessage(2).toQueue(QUEUE_DESTINATION).asJson();
+        }
+        for (var sentMessage : broker.getSentMessages())
+        {
+            broker.deliver("queue://" + QUEUE_DESTINATION, sentMessage.message());
+        }
+
+        //Act
+        jmsAdapter.start();
+
+        //Assert
+        await().atMost(1, TimeUnit.SECONDS).until(() -> objectUnderTest.getProcessedBatches().size() == 1);
+        assertEquals(List.of(List.of(1, 2)), objectUnderTest.getProcessedBatches());
+    }
+
+    @Test
+    void processRedeliveredMessagesOneByOne() throws JMSException
+    {
+        //Arrange - Message 2 fails in the first batch and when it is processed on its own for the first time
+        objectUnderTest.failOn(2, 2);
+        deliver(1, 2, 3);
+
+        //Act
+        jmsAdapter.start();
+        await().atMost(2, TimeUnit.SECONDS).until(() -> objectUnderTest.getProcessedBatches().size() == 3);
+        deliver(4, 5);
+
+        //Assert - Only redelivered messages are processed one by one
+        await().atMost(1, TimeUnit.SECONDS).until(() -> objectUnderTest.getProcessedBatches().size() == 4);
+        assertEquals(List.of(List.of(1), List.of(2), List.of(3), List.of(4, 5)), objectUnderTest.getProcessedBatches());
+    }
+
+    @Test
+    void continueAfterFailedReceive() throws JMSException
+    {
+        //Arrange
+        broker.failNextReceive(new JMSException("Could not receive message"));
+        deliver(1);
+
+        //Act
+        jmsAdapter.start();
+
+        //Assert
+        await().atMost(2, TimeUnit.SECONDS).until(() -> objectUnderTest.getProcessedBatches().size() == 1);
+        assertEquals(List.of(List.of(1)), objectUnderTest.getProcessedBatches());
+    }
+
+    @Test
+    void continueAfterFailedCommit() throws JMSException
+    {
+        //Arrange
+        broker.failNextCommit(new JMSException("Could not commit"));
+        deliver(1, 2);
+
+        //Act
+        jmsAdapter.start();
+
+        //Assert - The batch that could not be committed is rolled back and redelivered
+        await().atMost(2, TimeUnit.SECONDS).until(() -> objectUnderTest.getProcessedBatches().size() == 3);
+        assertEquals(List.of(List.of(1, 2), List.of(1), List.of(2)), objectUnderTest.getProcessedBatches());
+    }
+
+    private void deliver(int... values) throws JMSException
+    {
+        for (var value : values)
+        {
+            broker.deliver("queue://" + QUEUE_DESTINATION, FakeJMSProvider.createMessage(TextMessage.class, String.valueOf(value)));
+        }
+    }
+
+    public static class RecordingBatchListener extends BatchMessageListener<Integer>
+    {
+        private final List<List<Integer>> processedBatches = Collections.synchronizedList(new ArrayList<>());
+        private final Map<Integer, Integer> remainingFailures = new HashMap<>();
+
+        RecordingBatchListener()
+        {
+            super(Integer.class, 3, Duration.ofMillis(100));
+        }
+
+        @Override
+        public void onMessages(List<Integer> messages)
+        {
+            for (var message : messages)
+            {
+                var failures = remainingFailures.getOrDefault(message, 0);
+                if (failures > 0)
+                {
+                    remainingFailures.put(message, failures - 1);
+                    throw new IllegalArgumentException("Could not process message " + message);
+                }
+            }
+            processedBatches.add(messages);
+        }
+
+        /**
+         * Processing given message fails for the given number of times
+         */
+        void failOn(int message, int times)
+        {
+            remainingFailures.put(message, times);
+        }
+
+        List<List<Integer>> getProcessedBatches()
+        {
+            synchronized (processedBatches)
+            {
+                return new ArrayList<>(processedBatches);
+            }
+        }
+
+        @SuppressWarnings("unused") // Used by JMSAdapter
+        public JMSConfiguration getConfiguration()
+        {
+            return new DefaultJMSConfiguration(QUEUE_DESTINATION, JMSConfiguration.MessagingType.QUEUE);
+        }
+    }
+}
@@ -24,6 +24,7 @@ import java.util.Properties;
 import java.util.concurrent.TimeUnit;
 
 import static io.jexxa.common.JexxaCoreProperties.JEXXA_APPLICATION_PROPERTIES;
+import static io.jexxa.common.JexxaJMSProperties.JEXXA_JMS_CONCURRENCY;
 import static io.jexxa.drivingadapter.messaging.listener.TopicListener.TOPIC_DESTINATION;
 import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -172,6 +173,68 @@ class JMSAdapterIT
 
 
 
+    @Test
+    void concurrentQueueListener()
+    {
+        //Arrange
+        var concurrency = 3;
+        var messageCount = 100;
+        var queueListener = new ConfigurableListener(QueueListener.QUEUE_DESTINATION, JMSConfiguration.MessagingType.QUEUE, concurrency);
+
+        try (  var objectUnderTest = new JMSAdapter(properties) )
+        {
+            objectUnderTest.register(queueListener);
+
+            ITMessageSender queueSender = new ITMessageSender(properties, QueueListener.QUEUE_DESTINATION, JMSConfiguration.MessagingType.QUEUE);
+            //Act
+            objectUnderTest.start();
+            for (int i = 0; i < messageCount; ++i)
+            {
+                queueSender.send(MESSAGE);
+            }
+
+            //Assert - Each message is received by exactly one of the concurrent consumers
+            await().atMost(1, TimeUnit.SECONDS).until( () -> queueListener.getMessages().size() == messageCount);
+            assertEquals(concurrency, objectUnderTest.getConsumerList().size());
+
+            assertTimeout(Duration.ofSeconds(1), objectUnderTest::stop);
+        }
+    }
+
+    @Test
+    void concurrentTopicListenerRequiresSharedSubscription()
+    {
+        //Arrange
+        var topicListener = new ConfigurableListener(TOPIC_DESTINATION, JMSConfiguration.MessagingType.TOPIC, 3);
+
+        try (  var objectUnderTest = new JMSAdapter(properties) )
+        {
+            //Act/Assert - Concurrent consumers of a topic without shared subscription would receive each message multiple times
+            assertThrows(IllegalArgumentException.class, () -> objectUnderTest.register(topicListener));
+        }
+    }
+
+    @Test
+    void concurrencyPropertyIsNotAppliedToTopic()
+    {
+        //Arrange
+        properties.put(JEXXA_JMS_CONCURRENCY, "3");
+        var topicListener = new TopicListener();
+        var queueListener = new QueueListener();
+
+        try (  var objectUnderTest = new JMSAdapter(properties) )
+        {
+            //Act
+            objectUnderTest.register(topicListener);
+            objectUnderTest.register(queueListener);
+
+            //Assert - The topic listener falls back to a single consumer
+            assertEquals(1 + 3, objectUnderTest.getConsumerList().size());
+
+            assertTimeout(Duration.ofSeconds(1), objectUnderTest::stop);
+        }
+    }
+
     @Test
     void startJMSAdapterJexxa()
     {
@@ -0,0 +1,328 @@
+package io.jexxa.drivingadapter.messaging;
+
+import io.jexxa.adapterapi.invocation.ConcurrencyPolicy;
+import io.jexxa.adapterapi.invocation.InvocationManager;
+import io.jexxa.drivingadapter.messaging.listener.BatchMessageListener;
+import io.jexxa.drivingadapter.messaging.listener.ConfigurableListener;
+import io.jexxa.drivingadapter.messaging.listener.JSONMessageListener;
+import io.jexxa.infrastructure.messaging.jms.FakeJMSProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import javax.jms.TextMessage;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static io.jexxa.common.JexxaJMSProperties.JEXXA_JMS_BACKPRESSURE_INTERVAL;
+import static io.jexxa.common.JexxaJMSProperties.JEXXA_JMS_CONCURRENCY;
+import static io.jexxa.common.JexxaJMSProperties.JEXXA_JMS_MAX_IN_FLIGHT;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JMSAdapterTest
+{
+    private static final String QUEUE_DESTINATION = "MyQueue";
+    private static final String TOPIC_DESTINATION = "MyTopic";
+
+    private FakeJMSProvider.Broker broker;
+    private JMSAdapter objectUnderTest;
+
+    @BeforeEach
+    void initTest()
+    {
+        broker = FakeJMSProvider.createBroker(UUID.randomUUID().toString());
+        objectUnderTest = new JMSAdapter(broker.getProperties());
+    }
+
+    @AfterEach
+    void cleanup()
+    {
+        objectUnderTest.stop();
+    }
+
+    @Test
+    void concurrentJSONMessageListener() throws InterruptedException
+    {
+        //Arrange - The listener waits until all consumers received their message before it accesses the current message
+        var concurrency = 3;
+        var listener = new ConcurrentJSONListener(concurrency);
+        InvocationManager.getRootInterceptor(listener).setConcurrencyPolicy(ConcurrencyPolicy.concurrent());
+        objectUnderTest.register(listener);
+        objectUnderTest.start();
+
+        //Act
+        var threads = IntStream.range(0, concurrency)
+                .mapToObj(element -> new Thread(() -> deliver("queue://" + QUEUE_DESTINATION, "Message " + element)))
+                .toList();
+        threads.forEach(Thread::start);
+        for (var thread : threads)
+        {
+            thread.join();
+        }
+
+        //Assert - Each consumer sees its own message
+        assertEquals(concurrency, broker.getConsumers("queue://" + QUEUE_DESTINATION));
+        assertEquals(concurrency, listener.getReceivedMessages().size());
+        listener.getReceivedMessages().forEach((expected, actual) -> assertEquals(expected, actual));
+    }
+
+    @Test
+    void concurrentTopicListenerRequiresSharedSubscription()
+    {
+        //Arrange
+        var listener = new ConfigurableListener(TOPIC_DESTINATION, JMSConfiguration.MessagingType.TOPIC, 3);
+
+        //Act/Assert
+        assertThrows(IllegalArgumentException.class, () -> objectUnderTest.register(listener));
+        assertEquals(0, broker.getConsumers("topic://" + TOPIC_DESTINATION));
+    }
+
+    @Test
+    void concurrencyPropertyIsNotAppliedToTopic()
+    {
+        //Arrange
+        var properties = broker.getProperties();
+        properties.put(JEXXA_JMS_CONCURRENCY, "3");
+        recreateJMSAdapter(properties);
+
+        //Act
+        objectUnderTest.register(new ConfigurableListener(TOPIC_DESTINATION, JMSConfiguration.MessagingType.TOPIC));
+        objectUnderTest.register(new ConfigurableListener(QUEUE_DESTINATION, JMSConfiguration.MessagingType.QUEUE));
+
+        //Assert
+        assertEquals(1, broker.getConsumers("topic://" + TOPIC_DESTINATION));
+        assertEquals(3, broker.getConsumers("queue://" + QUEUE_DESTINATION));
+    }
+
+    @Test
+    void invalidConcurrency()
+    {
+        //Arrange
+        var listener = new ConfigurableListener(QUEUE_DESTINATION, JMSConfiguration.MessagingType.QUEUE, -1);
+
+        //Act/Assert
+        assertThrows(IllegalArgumentException.class, () -> objectUnderTest.register(listener));
+    }
+
+    @Test
+    void pauseWhileSaturated()
+    {
+        //Arrange
+        var saturated = new AtomicBoolean(true);
+        var properties = broker.getProperties();
+        properties.put(JEXXA_JMS_BACKPRESSURE_INTERVAL, "10");
+        recreateJMSAdapter(properties);
+        objectUnderTest.register(new ConfigurableListener(QUEUE_DESTINATION, JMSConfiguration.MessagingType.QUEUE));
+        objectUnderTest.registerBackpressureSignal(saturated::get);
+
+        //Act
+        objectUnderTest.start();
+
+        //Assert
+        await().atMost(1, TimeUnit.SECONDS).until(() -> objectUnderTest.isPaused() && !broker.isStarted());
+
+        //Act
+        saturated.set(false);
+
+        //Assert
+        await().atMost(1, TimeUnit.SECONDS).until(() -> !objectUnderTest.isPaused() && broker.isStarted());
+    }
+
+    @Test
+    void stopConnectionWhileListenerAccessesJMSAdapter() throws InterruptedException
+    {
+        //Arrange - The backpressure is only updated when the maximum number of in-flight messages is reached
+        var properties = broker.getProperties();
+        properties.put(JEXXA_JMS_MAX_IN_FLIGHT, "1");
+        properties.put(JEXXA_JMS_BACKPRESSURE_INTERVAL, "60000");
+        recreateJMSAdapter(properties);
+
+        var pausedDuringProcessing = new AtomicBoolean(true);
+        objectUnderTest.register(new CallbackListener(() -> {
+            // Connection.stop() waits for this listener while it accesses the JMSAdapter
+            await().atMost(1, TimeUnit.SECONDS).until(() -> broker.getConnectionStops() == 1);
+            pausedDuringProcessing.set(objectUnderTest.isPaused());
+        }));
+        objectUnderTest.start();
+
+        //Act
+        var deliveringThread = new Thread(() -> deliver("queue://" + QUEUE_DESTINATION, "Message"));
+        deliveringThread.start();
+
+        //Assert
+        assertTimeout(Duration.ofSeconds(2), () -> deliveringThread.join());
+        await().atMost(1, TimeUnit.SECONDS).until(objectUnderTest::isPaused);
+        assertFalse(pausedDuringProcessing.get());
+        assertFalse(broker.isStarted());
+    }
+
+    @Test
+    void countMessagesOfBatch() throws JMSException
+    {
+        //Arrange
+        var properties = broker.getProperties();
+        properties.put(JEXXA_JMS_MAX_IN_FLIGHT, "3");
+        properties.put(JEXXA_JMS_BACKPRESSURE_INTERVAL, "10");
+        recreateJMSAdapter(properties);
+
+        var batchListener = new BlockingBatchListener();
+        objectUnderTest.register(batchListener);
+        for (int i = 0; i < 3; ++i)
+        {
+            broker.deliver("queue://" + QUEUE_DESTINATION, FakeJMSProvider.createMessage(TextMessage.class, String.valueOf(i)));
+        }
+
+        //Act
+        objectUnderTest.start();
+
+        //Assert - All messages of the batch are in flight until the batch is processed
+        await().atMost(1, TimeUnit.SECONDS).until(() -> objectUnderTest.getInFlightMessages() == 3);
+        await().atMost(1, TimeUnit.SECONDS).until(objectUnderTest::isPaused);
+
+        //Act
+        batchListener.release();
+
+        //Assert
+        await().atMost(1, TimeUnit.SECONDS).until(() -> objectUnderTest.getInFlightMessages() == 0);
+        await().atMost(1, TimeUnit.SECONDS).until(() -> !objectUnderTest.isPaused());
+        assertTrue(broker.isStarted());
+    }
+
+    private void recreateJMSAdapter(Properties properties)
+    {
+        objectUnderTest.stop();
+        objectUnderTest = new JMSAdapter(properties);
+    }
+
+    private void deliver(String destination, String text)
+    {
+        try
+        {
+            broker.deliver(destination, FakeJMSProvider.createMessage(TextMessage.class, text));
+        }
+        catch (Exception e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static class CallbackListener implements MessageListener
+    {
+        private final Runnable callback;
+
+        CallbackListener(Runnable callback)
+        {
+            this.callback = callback;
+        }
+
+        @Override
+        public void onMessage(Message message)
+        {
+            callback.run();
+        }
+
+        @SuppressWarnings("unused") // Used by JMSAdapter
+        public JMSConfiguration getConfiguration()
+        {
+            return new DefaultJMSConfiguration(QUEUE_DESTINATION, JMSConfiguration.MessagingType.QUEUE);
+        }
+    }
+
+    public static class BlockingBatchListener extends BatchMessageListener<Integer>
+    {
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        BlockingBatchListener()
+        {
+            super(Integer.class, 3, Duration.ofMillis(100));
+        }
+
+        @Override
+        public void onMessages(List<Integer> messages)
+        {
+            try
+            {
+                released.await();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+
+        void release()
+        {
+            released.countDown();
+        }
+
+        @SuppressWarnings("unused") // Used by JMSAdapter
+        public JMSConfiguration getConfiguration()
+        {
+            return new DefaultJMSConfiguration(QUEUE_DESTINATION, JMSConfiguration.MessagingType.QUEUE);
+        }
+    }
+
+    public static class ConcurrentJSONListener extends JSONMessageListener
+    {
+        private final CyclicBarrier allMessagesReceived;
+        private final int concurrency;
+        private final Map<String, String> receivedMessages = new ConcurrentHashMap<>();
+
+        ConcurrentJSONListener(int concurrency)
+        {
+            this.concurrency = concurrency;
+            this.allMessagesReceived = new CyclicBarrier(concurrency);
+        }
+
+        @Override
+        public void onMessage(String message)
+        {
+            try
+            {
+                allMessagesReceived.await(1, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            catch (BrokenBarrierException | TimeoutException e)
+            {
+                throw new IllegalStateException(e);
+            }
+
+            receivedMessages.put(message, getCurrentMessageText());
+        }
+
+        Map<String, String> getReceivedMessages()
+        {
+            return receivedMessages;
+        }
+
+        @SuppressWarnings("unused") // Used by JMSAdapter
+        public JMSConfiguration getConfiguration()
+        {
+            return new DefaultJMSConfiguration(QUEUE_DESTINATION, JMSConfiguration.MessagingType.QUEUE, concurrency);
+        }
+    }
+}
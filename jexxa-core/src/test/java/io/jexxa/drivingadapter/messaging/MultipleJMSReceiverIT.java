@@ -42,6 +42,15 @@ class MultipleJMSReceiverIT
 
 
 
+    public record ConcurrentApplicationServiceListener(IncrementApplicationService incrementApplicationService) implements MessageListener
+    {
+        @Override
+        @JMSConfiguration(destination = DESTINATION, messagingType = JMSConfiguration.MessagingType.QUEUE, concurrency = MAX_THREADS)
+        public void onMessage(Message message) {
+            incrementApplicationService.increment();
+        }
+    }
+
     @Test
     void synchronizeMultipleClients()
     {
@@ -73,6 +82,34 @@ class MultipleJMSReceiverIT
         jexxaMain.stop();
     }
 
+    @Test
+    void synchronizeConcurrentConsumers()
+    {
+        //Arrange - A single listener instance that is invoked by MAX_THREADS consumers
+        JexxaMain jexxaMain = new JexxaMain(JexxaTestApplication.class);
+
+        jexxaMain.disableBanner();
+
+        incrementApplicationService = jexxaMain.getInstanceOfPort(IncrementApplicationService.class);
+
+        jexxaMain.bind(JMSAdapter.class).to(new ConcurrentApplicationServiceListener(incrementApplicationService));
+        List<Integer> expectedResult = IntStream.rangeClosed(1, MAX_COUNTER)
+                .boxed()
+                .toList();
+
+        jexxaMain.start();
+
+        //Act
+        assertTimeout(Duration.ofSeconds(10), () -> sendToQueue(jexxaMain.getProperties()));
+
+        //Assert
+        await().atMost(5, TimeUnit.SECONDS)
+                .pollInterval(200, TimeUnit.MILLISECONDS)
+                .until( () -> expectedResult.equals( incrementApplicationService.getUsedCounter()) );
+
+        jexxaMain.stop();
+    }
+
     private void incrementService(Properties properties)
     {
         try (ITMessageSender myProducer = new ITMessageSender(properties, DESTINATION, JMSConfiguration.MessagingType.TOPIC))
@@ -83,4 +120,13 @@ class MultipleJMSReceiverIT
             }
         }
     }
+
+    private static void sendToQueue(Properties properties)
+    {
+        // Each message of a queue is received exactly once, so that no further messages remain in the queue
+        try (ITMessageSender myProducer = new ITMessageSender(properties, DESTINATION, JMSConfiguration.MessagingType.QUEUE))
+        {
+            IntStream.range(0, MAX_COUNTER).forEach(element -> myProducer.send(MESSAGE));
+        }
+    }
 }
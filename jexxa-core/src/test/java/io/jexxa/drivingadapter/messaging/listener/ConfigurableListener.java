@@ -6,18 +6,26 @@ import io.jexxa.drivingadapter.messaging.JMSConfiguration;
 import javax.jms.Message;
 import javax.jms.MessageListener;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class ConfigurableListener implements MessageListener
 {
-    private final List<Message> messageList = new ArrayList<>();
+    private final List<Message> messageList = Collections.synchronizedList(new ArrayList<>());
     private final String topicDestination;
     private final JMSConfiguration.MessagingType messagingType;
+    private final int concurrency;
 
     public ConfigurableListener(String topicDestination, JMSConfiguration.MessagingType messagingType)
+    {
+        this(topicDestination, messagingType, 0);
+    }
+
+    public ConfigurableListener(String topicDestination, JMSConfiguration.MessagingType messagingType, int concurrency)
     {
         this.topicDestination = topicDestination;
         this.messagingType = messagingType;
+        this.concurrency = concurrency;
     }
     public void onMessage(Message message)
     {
@@ -32,6 +40,6 @@ public class ConfigurableListener implements MessageListener
     @SuppressWarnings("unused") // Used by JMSAdapter
     public JMSConfiguration getConfiguration()
     {
-        return new DefaultJMSConfiguration(topicDestination, messagingType);
+        return new DefaultJMSConfiguration(topicDestination, messagingType, concurrency);
     }
 }
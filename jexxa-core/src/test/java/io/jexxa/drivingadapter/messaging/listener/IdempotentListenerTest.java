@@ -0,0 +1,158 @@
+package io.jexxa.drivingadapter.messaging.listener;
+
+import io.jexxa.adapterapi.JexxaContext;
+import io.jexxa.drivingadapter.messaging.listener.IdempotentListener.InboundMessageSchema;
+import io.jexxa.drivingadapter.messaging.listener.IdempotentListener.JexxaInboundMessage;
+import io.jexxa.drivingadapter.messaging.listener.IdempotentListener.ReceivingID;
+import io.jexxa.infrastructure.ObjectStoreManager;
+import io.jexxa.infrastructure.messaging.jms.FakeJMSProvider;
+import io.jexxa.infrastructure.persistence.objectstore.IObjectStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import javax.jms.JMSException;
+import javax.jms.TextMessage;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Execution(ExecutionMode.SAME_THREAD)
+class IdempotentListenerTest
+{
+    private static final String MESSAGE_ID = "domain_event_id";
+    private static final String OTHER_LISTENER = "OtherListener";
+
+    private final Properties properties = new Properties();
+    private IObjectStore<JexxaInboundMessage, ReceivingID, InboundMessageSchema> messageStore;
+
+    @BeforeEach
+    void initTest()
+    {
+        messageStore = ObjectStoreManager.getObjectStore(JexxaInboundMessage.class, JexxaInboundMessage::receivingID, InboundMessageSchema.class, properties);
+        messageStore.removeAll();
+    }
+
+    @AfterEach
+    void cleanup()
+    {
+        JexxaContext.cleanup();
+    }
+
+    @Test
+    void ignoreDuplicateMessage() throws JMSException
+    {
+        //Arrange
+        var objectUnderTest = new RecordingListener(properties, Duration.ofHours(1));
+        var messageID = UUID.randomUUID().toString();
+
+        //Act
+        objectUnderTest.onMessage(createMessage(1, messageID));
+        objectUnderTest.onMessage(createMessage(1, messageID));
+        objectUnderTest.onMessage(createMessage(2, UUID.randomUUID().toString()));
+
+        //Assert
+        assertEquals(List.of(1, 2), objectUnderTest.getReceivedMessages());
+        assertEquals(2, messageStore.get().size());
+    }
+
+    @Test
+    void processMessageWithoutID() throws JMSException
+    {
+        //Arrange
+        var objectUnderTest = new RecordingListener(properties, Duration.ofHours(1));
+
+        //Act
+        objectUnderTest.onMessage(createMessage(1, null));
+        objectUnderTest.onMessage(createMessage(1, null));
+
+        //Assert
+        assertEquals(List.of(1, 1), objectUnderTest.getReceivedMessages());
+        assertEquals(0, messageStore.get().size());
+    }
+
+    @Test
+    void processMessageAfterExpiry() throws JMSException
+    {
+        //Arrange
+        var objectUnderTest = new RecordingListener(properties, Duration.ofMillis(50));
+        var messageID = UUID.randomUUID().toString();
+        objectUnderTest.onMessage(createMessage(1, messageID));
+
+        //Act - The cleanup removes the expired message ID
+        await().atMost(1, TimeUnit.SECONDS).until(() -> messageStore.get().size() == 0);
+        objectUnderTest.onMessage(createMessage(1, messageID));
+
+        //Assert
+        assertEquals(List.of(1, 1), objectUnderTest.getReceivedMessages());
+    }
+
+    @Test
+    void cleanupExpiredMessagesOnMultiplePages() throws JMSException
+    {
+        //Arrange - The oldest pages only include messages of another listener that must be skipped
+        var objectUnderTest = new RecordingListener(properties, Duration.ofMillis(50));
+        var processingTime = Instant.now().minus(Duration.ofHours(1));
+        IntStream.range(0, 2500).forEach(element -> messageStore.add(
+                new JexxaInboundMessage(new ReceivingID(UUID.randomUUID().toString(), OTHER_LISTENER), processingTime)));
+        IntStream.range(0, 1500).forEach(element -> messageStore.add(
+                new JexxaInboundMessage(new ReceivingID(UUID.randomUUID().toString(), RecordingListener.class.getName()), processingTime.plusMillis(1))));
+
+        //Act - Processing a message starts the cleanup
+        objectUnderTest.onMessage(createMessage(1, UUID.randomUUID().toString()));
+
+        //Assert - Only the messages of the other listener remain
+        await().atMost(2, TimeUnit.SECONDS).until(() -> messageStore.get().size() == 2500);
+        assertEquals(2500, messageStore.get().stream().filter(element -> element.receivingID().className().equals(OTHER_LISTENER)).count());
+    }
+
+    private static TextMessage createMessage(int value, String messageID) throws JMSException
+    {
+        var message = FakeJMSProvider.createMessage(TextMessage.class, String.valueOf(value));
+        if (messageID != null)
+        {
+            message.setStringProperty(MESSAGE_ID, messageID);
+        }
+        return message;
+    }
+
+    public static class RecordingListener extends IdempotentListener<Integer>
+    {
+        private final List<Integer> receivedMessages = Collections.synchronizedList(new ArrayList<>());
+        private final Duration storageDuration;
+
+        RecordingListener(Properties properties, Duration storageDuration)
+        {
+            super(Integer.class, properties);
+            this.storageDuration = storageDuration;
+        }
+
+        @Override
+        public void onMessage(Integer message)
+        {
+            receivedMessages.add(message);
+        }
+
+        @Override
+        protected Duration getStorageDuration()
+        {
+            return storageDuration;
+        }
+
+        List<Integer> getReceivedMessages()
+        {
+            return receivedMessages;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package io.jexxa.drivingadapter.messaging.listener;
+
+import io.jexxa.infrastructure.messaging.jms.FakeJMSProvider;
+import io.jexxa.infrastructure.messaging.jms.JMSSender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.jms.BytesMessage;
+import javax.jms.Message;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+class JSONMessageListenerTest
+{
+    private static final String QUEUE_NAME = "MyQueue";
+    private static final Greeting GREETING = new Greeting("Grüße aus Köln für 5 €");
+
+    private FakeJMSProvider.Broker broker;
+    private JMSSender jmsSender;
+
+    @BeforeEach
+    void initTest()
+    {
+        broker = FakeJMSProvider.createBroker(UUID.randomUUID().toString());
+        jmsSender = new JMSSender(broker.getProperties());
+    }
+
+    @AfterEach
+    void cleanup()
+    {
+        jmsSender.close();
+    }
+
+    @Test
+    void receiveTextMessage()
+    {
+        //Arrange
+        var objectUnderTest = new GreetingListener();
+
+        //Act
+        objectUnderTest.onMessage(sentMessage(false));
+
+        //Assert
+        assertEquals(List.of(GREETING), objectUnderTest.getGreetings());
+    }
+
+    @Test
+    void receiveBytesMessage()
+    {
+        //Arrange
+        var objectUnderTest = new GreetingListener();
+        var bytesMessage = sentMessage(true);
+
+        //Act
+        objectUnderTest.onMessage(bytesMessage);
+
+        //Assert - The content written by JMSSender is decoded including all non-ASCII characters
+        assertInstanceOf(BytesMessage.class, bytesMessage);
+        assertEquals(List.of(GREETING), objectUnderTest.getGreetings());
+    }
+
+    @Test
+    void receiveBytesMessageAsText()
+    {
+        //Arrange
+        var receivedMessages = new ArrayList<String>();
+        var objectUnderTest = new JSONMessageListener()
+        {
+            @Override
+            public void onMessage(String message)
+            {
+                receivedMessages.add(message);
+            }
+        };
+
+        //Act
+        objectUnderTest.onMessage(sentMessage(true));
+
+        //Assert
+        assertEquals(1, receivedMessages.size());
+        assertEquals(GREETING, JSONMessageListener.fromJson(receivedMessages.get(0), Greeting.class));
+    }
+
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    private Message sentMessage(boolean asBytesMessage)
+    {
+        var producer = asBytesMessage ? jmsSender.sendByteMessage(GREETING) : jmsSender.send(GREETING);
+        producer.toQueue(QUEUE_NAME).asJson();
+        return broker.getSentMessages().get(0).message();
+    }
+
+    record Greeting(String text) { }
+
+    private static class GreetingListener extends JSONMessageListener
+    {
+        private final List<Greeting> greetings = new ArrayList<>();
+
+        @Override
+        public void onMessage(String message)
+        {
+            // Not used because the message is deserialized in onCurrentMessage
+        }
+
+        @Override
+        protected void onCurrentMessage()
+        {
+            greetings.add(fromCurrentMessage(Greeting.class));
+        }
+
+        List<Greeting> getGreetings()
+        {
+            return greetings;
+        }
+    }
+}
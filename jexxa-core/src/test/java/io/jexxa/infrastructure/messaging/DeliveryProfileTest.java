@@ -0,0 +1,43 @@
+package io.jexxa.infrastructure.messaging;
+
+import io.jexxa.TestConstants;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static io.jexxa.infrastructure.messaging.DeliveryProfile.DeliveryMode.NON_PERSISTENT;
+import static io.jexxa.infrastructure.messaging.DeliveryProfile.DeliveryMode.PERSISTENT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tag(TestConstants.UNIT_TEST)
+class DeliveryProfileTest
+{
+    @Test
+    void specifiedAttributesOverrideDefaultProfile()
+    {
+        //Arrange
+        var defaultProfile = new DeliveryProfile(NON_PERSISTENT, 4, Duration.ZERO);
+        var objectUnderTest = DeliveryProfile.unspecified()
+                .withDeliveryMode(PERSISTENT)
+                .withTimeToLive(Duration.ofSeconds(10));
+
+        //Act
+        var result = objectUnderTest.orElse(defaultProfile);
+
+        //Assert
+        assertEquals(new DeliveryProfile(PERSISTENT, 4, Duration.ofSeconds(10)), result);
+    }
+
+    @Test
+    void invalidAttributes()
+    {
+        //Arrange
+        var objectUnderTest = DeliveryProfile.unspecified();
+
+        //Act / Assert
+        assertThrows(IllegalArgumentException.class, () -> objectUnderTest.withPriority(10));
+        assertThrows(IllegalArgumentException.class, () -> objectUnderTest.withTimeToLive(Duration.ofSeconds(-1)));
+    }
+}
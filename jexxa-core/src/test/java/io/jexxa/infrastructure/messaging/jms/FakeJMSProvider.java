@@ -0,0 +1,461 @@
+package io.jexxa.infrastructure.messaging.jms;
+
+import io.jexxa.common.wrapper.jms.JMSProperties;
+
+import javax.jms.BytesMessage;
+import javax.jms.CompletionListener;
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.ExceptionListener;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.MessageProducer;
+import javax.jms.Queue;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+import javax.jms.Topic;
+import javax.naming.Context;
+import javax.naming.spi.InitialContextFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A JMS provider for unit tests that records all sent messages instead of connecting to a message broker. It is
+ * configured via {@link JMSProperties#JNDI_FACTORY_KEY} so that it is used by JMSSender and JMSAdapter like any other
+ * JMS provider. Each {@link Broker} is identified by the provider url, so that tests do not interfere with each other.
+ * Messages are passed to consumers by {@link Broker#deliver(String, Message)}.
+ */
+public final class FakeJMSProvider implements InitialContextFactory
+{
+    private static final Map<String, Broker> BROKERS = new ConcurrentHashMap<>();
+    private static final String REDELIVERED = "JMSRedelivered";
+    private static final String DELIVERY_COUNT = "JMSXDeliveryCount";
+    private static final long STOP_TIMEOUT = 5000;
+
+    public static Broker createBroker(String name)
+    {
+        var broker = new Broker(name);
+        BROKERS.put(name, broker);
+        return broker;
+    }
+
+    @Override
+    public Context getInitialContext(Hashtable<?, ?> environment)
+    {
+        var broker = BROKERS.get((String) environment.get(JMSProperties.JNDI_PROVIDER_URL_KEY));
+        return proxy(Context.class, (method, args) -> switch (method.getName())
+        {
+            case "lookup" -> broker.connectionFactory();
+            default -> null;
+        });
+    }
+
+    /**
+     * A message sent to a destination including the attributes passed to the producer
+     */
+    public record SentMessage(String destination, Message message, int deliveryMode, int priority, long timeToLive) { }
+
+    public static final class Broker
+    {
+        private final String name;
+        private final List<SentMessage> sentMessages = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger createdConnections = new AtomicInteger();
+        private final AtomicInteger closedConnections = new AtomicInteger();
+        private final AtomicInteger createdSessions = new AtomicInteger();
+        private final AtomicInteger closedSessions = new AtomicInteger();
+        private final AtomicInteger commits = new AtomicInteger();
+        private final AtomicReference<Exception> sendFailure = new AtomicReference<>();
+        private final AtomicReference<JMSException> commitFailure = new AtomicReference<>();
+        private final AtomicReference<JMSException> receiveFailure = new AtomicReference<>();
+        private final AtomicReference<ExceptionListener> exceptionListener = new AtomicReference<>();
+        private final List<FakeConsumer> consumers = new CopyOnWriteArrayList<>();
+        private final AtomicInteger nextConsumer = new AtomicInteger();
+        private final AtomicInteger connectionStops = new AtomicInteger();
+        private volatile boolean started;
+        private int activeDeliveries; // Guarded by this
+
+        private Broker(String name)
+        {
+            this.name = name;
+        }
+
+        /**
+         * @return properties to connect to this broker
+         */
+        public Properties getProperties()
+        {
+            var properties = new Properties();
+            properties.put(JMSProperties.JNDI_FACTORY_KEY, FakeJMSProvider.class.getName());
+            properties.put(JMSProperties.JNDI_PROVIDER_URL_KEY, name);
+            return properties;
+        }
+
+        public List<SentMessage> getSentMessages()
+        {
+            synchronized (sentMessages)
+            {
+                return new ArrayList<>(sentMessages);
+            }
+        }
+
+        public int getCreatedConnections() { return createdConnections.get(); }
+
+        public int getClosedConnections() { return closedConnections.get(); }
+
+        public int getCreatedSessions() { return createdSessions.get(); }
+
+        public int getClosedSessions() { return closedSessions.get(); }
+
+        public int getCommits() { return commits.get(); }
+
+        /**
+         * @return number of calls of Connection.stop() including the calls that are still waiting for the listeners
+         */
+        public int getConnectionStops() { return connectionStops.get(); }
+
+        /**
+         * @return true if the most recently started or stopped connection is started
+         */
+        public boolean isStarted() { return started; }
+
+        /**
+         * The next message sent by a producer fails with given exception, which must be a JMSException or a
+         * RuntimeException
+         */
+        public void failNextSend(Exception exception)
+        {
+            sendFailure.set(exception);
+        }
+
+        public void failNextCommit(JMSException exception)
+        {
+            commitFailure.set(exception);
+        }
+
+        public void failNextReceive(JMSException exception)
+        {
+            receiveFailure.set(exception);
+        }
+
+        /**
+         * @return number of open consumers of given destination such as "queue://MyQueue"
+         */
+        public int getConsumers(String destination)
+        {
+            return (int) consumers.stream().filter(consumer -> consumer.destination.equals(destination)).count();
+        }
+
+        /**
+         * Delivers a message to one of the open consumers of given destination in a round-robin manner. If the
+         * consumer has a MessageListener, the message is passed to the listener by the calling thread. Like a real
+         * JMS provider, Connection.stop() waits until all listeners finished processing their current message.
+         */
+        public void deliver(String destination, Message message) throws JMSException
+        {
+            var receivers = consumers.stream().filter(consumer -> consumer.destination.equals(destination)).toList();
+            if (receivers.isEmpty())
+            {
+                throw new IllegalStateException("No consumer for destination " + destination);
+            }
+
+            message.setIntProperty(DELIVERY_COUNT, 1);
+            var consumer = receivers.get(Math.floorMod(nextConsumer.getAndIncrement(), receivers.size()));
+            var messageListener = consumer.messageListener;
+            if (messageListener != null)
+            {
+                synchronized (this)
+                {
+                    ++activeDeliveries;
+                }
+                try
+                {
+                    messageListener.onMessage(message);
+                }
+                finally
+                {
+                    synchronized (this)
+                    {
+                        --activeDeliveries;
+                        notifyAll();
+                    }
+                }
+            } else {
+                consumer.messages.addLast(message);
+            }
+        }
+
+        /**
+         * Reports a connection failure to the exception listener of the most recently created connection
+         */
+        public void failConnection(JMSException exception)
+        {
+            exceptionListener.get().onException(exception);
+        }
+
+        private ConnectionFactory connectionFactory()
+        {
+            return proxy(ConnectionFactory.class, (method, args) -> switch (method.getName())
+            {
+                case "createConnection" -> createConnection();
+                default -> null;
+            });
+        }
+
+        private Connection createConnection()
+        {
+            createdConnections.incrementAndGet();
+            return proxy(Connection.class, (method, args) -> switch (method.getName())
+            {
+                case "createSession" -> createSession(args != null && args.length == 2 && (Boolean) args[0]);
+                case "setExceptionListener" -> { exceptionListener.set((ExceptionListener) args[0]); yield null; }
+                case "start" -> { started = true; yield null; }
+                case "stop" -> { stop(); yield null; }
+                case "close" -> { closedConnections.incrementAndGet(); yield null; }
+                default -> null;
+            });
+        }
+
+        /**
+         * Waits until all listeners finished processing their current message. In contrast to a real JMS provider,
+         * it fails after some time, so that a test fails instead of hanging in case of a deadlock.
+         */
+        private synchronized void stop() throws JMSException, InterruptedException
+        {
+            connectionStops.incrementAndGet();
+            var deadline = System.currentTimeMillis() + STOP_TIMEOUT;
+            while (activeDeliveries > 0)
+            {
+                var remainingTime = deadline - System.currentTimeMillis();
+                if (remainingTime <= 0)
+                {
+                    throw new JMSException("Listeners did not finish processing their messages");
+                }
+                wait(remainingTime);
+            }
+            started = false;
+        }
+
+        private Session createSession(boolean transacted)
+        {
+            createdSessions.incrementAndGet();
+            var pendingMessages = new ArrayList<SentMessage>();
+            var receivedMessages = new ArrayList<ReceivedMessage>();
+            return proxy(Session.class, (method, args) -> switch (method.getName())
+            {
+                case "getTransacted" -> transacted;
+                case "createQueue" -> proxy(Queue.class, (queueMethod, queueArgs) -> "queue://" + args[0]);
+                case "createTopic" -> proxy(Topic.class, (topicMethod, topicArgs) -> "topic://" + args[0]);
+                case "createProducer" -> createProducer(args[0].toString(), transacted, pendingMessages);
+                case "createConsumer", "createSharedConsumer", "createDurableConsumer", "createSharedDurableConsumer"
+                        -> createConsumer(args[0].toString(), transacted, receivedMessages);
+                case "createTextMessage" -> createMessage(TextMessage.class, (args == null) ? null : (String) args[0]);
+                case "createBytesMessage" -> createMessage(BytesMessage.class, null);
+                case "commit" -> { commit(pendingMessages); receivedMessages.clear(); yield null; }
+                case "rollback" -> { pendingMessages.clear(); redeliver(receivedMessages); yield null; }
+                case "close" -> { pendingMessages.clear(); redeliver(receivedMessages); closedSessions.incrementAndGet(); yield null; }
+                default -> null;
+            });
+        }
+
+        private MessageConsumer createConsumer(String destination, boolean transacted, List<ReceivedMessage> receivedMessages)
+        {
+            var consumer = new FakeConsumer(destination);
+            consumers.add(consumer);
+            return proxy(MessageConsumer.class, (method, args) -> switch (method.getName())
+            {
+                case "setMessageListener" -> { consumer.messageListener = (MessageListener) args[0]; yield null; }
+                case "getMessageListener" -> consumer.messageListener;
+                case "receive" -> receive(consumer, (args == null) ? Long.MAX_VALUE : (Long) args[0], transacted, receivedMessages);
+                case "receiveNoWait" -> receive(consumer, 0, transacted, receivedMessages);
+                case "close" -> { consumers.remove(consumer); yield null; }
+                default -> null;
+            });
+        }
+
+        private Message receive(FakeConsumer consumer, long timeout, boolean transacted, List<ReceivedMessage> receivedMessages) throws JMSException, InterruptedException
+        {
+            var failure = receiveFailure.getAndSet(null);
+            if (failure != null)
+            {
+                throw failure;
+            }
+
+            var message = consumer.messages.pollFirst(timeout, TimeUnit.MILLISECONDS);
+            if (message != null && transacted)
+            {
+                receivedMessages.add(new ReceivedMessage(consumer, message));
+            }
+            return message;
+        }
+
+        /**
+         * Returns all messages received within the transaction of a session to the front of their consumer, so that
+         * they are received again in the same order
+         */
+        private static void redeliver(List<ReceivedMessage> receivedMessages) throws JMSException
+        {
+            for (int i = receivedMessages.size() - 1; i >= 0; --i)
+            {
+                var receivedMessage = receivedMessages.get(i);
+                receivedMessage.message().setBooleanProperty(REDELIVERED, true);
+                receivedMessage.message().setIntProperty(DELIVERY_COUNT, receivedMessage.message().getIntProperty(DELIVERY_COUNT) + 1);
+                receivedMessage.consumer().messages.addFirst(receivedMessage.message());
+            }
+            receivedMessages.clear();
+        }
+
+        private void commit(List<SentMessage> pendingMessages) throws JMSException
+        {
+            var failure = commitFailure.getAndSet(null);
+            if (failure != null)
+            {
+                pendingMessages.clear();
+                throw failure;
+            }
+            sentMessages.addAll(pendingMessages);
+            pendingMessages.clear();
+            commits.incrementAndGet();
+        }
+
+        private MessageProducer createProducer(String destination, boolean transacted, List<SentMessage> pendingMessages)
+        {
+            return proxy(MessageProducer.class, (method, args) -> {
+                if (!method.getName().equals("send"))
+                {
+                    return null;
+                }
+
+                var failure = sendFailure.getAndSet(null);
+                if (failure != null)
+                {
+                    throw failure;
+                }
+
+                var sentMessage = new SentMessage(destination, (Message) args[0], (Integer) args[1], (Integer) args[2], (Long) args[3]);
+                if (transacted)
+                {
+                    pendingMessages.add(sentMessage);
+                } else {
+                    sentMessages.add(sentMessage);
+                }
+
+                if (args.length > 4)
+                {
+                    ((CompletionListener) args[4]).onCompletion(sentMessage.message());
+                }
+                return null;
+            });
+        }
+    }
+
+    private static final class FakeConsumer
+    {
+        private final String destination;
+        private final LinkedBlockingDeque<Message> messages = new LinkedBlockingDeque<>();
+        private volatile MessageListener messageListener;
+
+        private FakeConsumer(String destination)
+        {
+            this.destination = destination;
+        }
+    }
+
+    private record ReceivedMessage(FakeConsumer consumer, Message message) { }
+
+    /**
+     * Creates a TextMessage or BytesMessage. A BytesMessage can be read as soon as it was written.
+     */
+    public static <T extends Message> T createMessage(Class<T> messageType, String text)
+    {
+        var properties = new HashMap<String, Object>();
+        var textBody = new AtomicReference<>(text);
+        var bytesBody = new ByteArrayOutputStream();
+        var output = new DataOutputStream(bytesBody);
+        var input = new AtomicReference<DataInputStream>();
+
+        return proxy(messageType, (method, args) -> {
+            switch (method.getName())
+            {
+                case "setStringProperty", "setIntProperty", "setBooleanProperty", "setObjectProperty" -> properties.put((String) args[0], args[1]);
+                case "getStringProperty" -> { return (properties.get(args[0]) == null) ? null : properties.get(args[0]).toString(); }
+                case "getObjectProperty" -> { return properties.get(args[0]); }
+                case "getIntProperty" -> { return properties.getOrDefault(args[0], 0); }
+                case "getBooleanProperty", "getJMSRedelivered" -> { return Boolean.TRUE.equals(properties.get(args == null ? REDELIVERED : args[0])); }
+                case "propertyExists" -> { return properties.containsKey(args[0]); }
+                case "getPropertyNames" -> { return Collections.enumeration(new ArrayList<>(properties.keySet())); }
+                case "setText" -> textBody.set((String) args[0]);
+                case "getText" -> { return textBody.get(); }
+                case "writeUTF" -> output.writeUTF((String) args[0]);
+                case "writeBytes" -> output.write((byte[]) args[0]);
+                case "getBodyLength" -> { return (long) bytesBody.size(); }
+                case "reset" -> input.set(null);
+                case "readUTF" -> { return getInput(input, bytesBody).readUTF(); }
+                case "readBytes" -> { return readBytes(getInput(input, bytesBody), (byte[]) args[0]); }
+                default -> { return defaultValue(method); }
+            }
+            return null;
+        });
+    }
+
+    private static DataInputStream getInput(AtomicReference<DataInputStream> input, ByteArrayOutputStream bytesBody)
+    {
+        return input.updateAndGet(current -> (current != null) ? current : new DataInputStream(new ByteArrayInputStream(bytesBody.toByteArray())));
+    }
+
+    private static int readBytes(DataInputStream input, byte[] buffer) throws IOException
+    {
+        var result = input.read(buffer);
+        return Math.max(result, -1);
+    }
+
+    @FunctionalInterface
+    private interface FakeMethod
+    {
+        Object invoke(Method method, Object[] args) throws Exception;
+    }
+
+    private static <T> T proxy(Class<T> type, FakeMethod fakeMethod)
+    {
+        InvocationHandler invocationHandler = (proxy, method, args) -> switch (method.getName())
+        {
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> String.valueOf(fakeMethod.invoke(method, args));
+            default -> {
+                var result = fakeMethod.invoke(method, args);
+                yield (result == null) ? defaultValue(method) : result;
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(FakeJMSProvider.class.getClassLoader(), new Class<?>[]{type}, invocationHandler));
+    }
+
+    private static Object defaultValue(Method method)
+    {
+        var returnType = method.getReturnType();
+        if (returnType == boolean.class) { return false; }
+        if (returnType == int.class) { return 0; }
+        if (returnType == long.class) { return 0L; }
+        return null;
+    }
+}
@@ -0,0 +1,266 @@
+package io.jexxa.infrastructure.messaging.jms;
+
+import io.jexxa.common.JexxaJMSProperties;
+import io.jexxa.testapplication.domain.model.JexxaValueObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.jms.DeliveryMode;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JMSSenderTest
+{
+    private static final String QUEUE_NAME = "MyQueue";
+
+    private FakeJMSProvider.Broker broker;
+    private JMSSender objectUnderTest;
+
+    @BeforeEach
+    void initTest()
+    {
+        broker = FakeJMSProvider.createBroker(UUID.randomUUID().toString());
+        objectUnderTest = new JMSSender(broker.getProperties());
+    }
+
+    @AfterEach
+    void cleanup()
+    {
+        objectUnderTest.close();
+    }
+
+    @Test
+    void reuseSession()
+    {
+        //Act
+        sendToQueue(1);
+        sendToQueue(2);
+
+        //Assert
+        assertEquals(2, broker.getSentMessages().size());
+        assertEquals(1, broker.getCreatedSessions());
+        assertEquals(0, broker.getClosedSessions());
+    }
+
+    @Test
+    void runtimeExceptionClosesBorrowedSession()
+    {
+        //Arrange
+        broker.failNextSend(new IllegalArgumentException("Invalid message"));
+
+        //Act
+        assertThrows(IllegalArgumentException.class, () -> sendToQueue(1));
+        sendToQueue(2);
+
+        //Assert - The borrowed session is closed instead of leaked, and the connection is still used
+        assertEquals(1, broker.getSentMessages().size());
+        assertEquals(2, broker.getCreatedSessions());
+        assertEquals(1, broker.getClosedSessions());
+        assertEquals(1, broker.getCreatedConnections());
+        assertEquals(0, broker.getClosedConnections());
+    }
+
+    @Test
+    void jmsExceptionClosesOnlyBorrowedSession()
+    {
+        //Arrange
+        broker.failNextSend(new JMSException("Could not send message"));
+
+        //Act
+        assertThrows(IllegalStateException.class, () -> sendToQueue(1));
+        sendToQueue(2);
+
+        //Assert
+        assertEquals(1, broker.getSentMessages().size());
+        assertEquals(1, broker.getClosedSessions());
+        assertEquals(1, broker.getCreatedConnections());
+        assertEquals(0, broker.getClosedConnections());
+    }
+
+    @Test
+    void connectionFailureClosesConnection()
+    {
+        //Arrange
+        sendToQueue(1);
+
+        //Act
+        broker.failConnection(new JMSException("Connection lost"));
+        sendToQueue(2);
+
+        //Assert - All sessions of the failed connection are closed and a new connection is created
+        assertEquals(2, broker.getSentMessages().size());
+        assertEquals(1, broker.getClosedSessions());
+        assertEquals(1, broker.getClosedConnections());
+        assertEquals(2, broker.getCreatedConnections());
+    }
+
+    @Test
+    void flushBatchOnSize()
+    {
+        //Arrange
+        var batchSender = createBatchSender(3, 60_000);
+
+        //Act
+        var result = IntStream.range(0, 3).mapToObj(element -> sendToQueueAsync(batchSender, element)).toList();
+
+        //Assert
+        result.forEach(CompletableFuture::join);
+        assertEquals(3, broker.getSentMessages().size());
+        assertEquals(1, broker.getCommits());
+    }
+
+    @Test
+    void flushBatchOnWindow()
+    {
+        //Arrange
+        var batchSender = createBatchSender(10, 50);
+
+        //Act - A synchronous send returns as soon as the batch window elapsed and the message is committed
+        batchSender.send(new JexxaValueObject(1)).toQueue(QUEUE_NAME).asJson();
+
+        //Assert
+        assertEquals(1, broker.getSentMessages().size());
+        assertEquals(1, broker.getCommits());
+    }
+
+    @Test
+    void reportFailedCommit()
+    {
+        //Arrange
+        var batchSender = createBatchSender(2, 60_000);
+        broker.failNextCommit(new JMSException("Could not commit"));
+
+        //Act
+        var firstMessage = sendToQueueAsync(batchSender, 1);
+        var secondMessage = sendToQueueAsync(batchSender, 2);
+
+        //Assert
+        assertThrows(CompletionException.class, firstMessage::join);
+        assertThrows(CompletionException.class, secondMessage::join);
+        assertTrue(broker.getSentMessages().isEmpty());
+    }
+
+    @Test
+    void reportFailedCommitOnSynchronousSend()
+    {
+        //Arrange
+        var batchSender = createBatchSender(10, 50);
+        var message = batchSender.send(new JexxaValueObject(1)).toQueue(QUEUE_NAME);
+        broker.failNextCommit(new JMSException("Could not commit"));
+
+        //Act/Assert
+        assertThrows(IllegalStateException.class, message::asJson);
+        assertTrue(broker.getSentMessages().isEmpty());
+    }
+
+    @Test
+    void commitBatchOnClose()
+    {
+        //Arrange
+        var batchSender = createBatchSender(10, 60_000);
+        var result = sendToQueueAsync(batchSender, 1);
+
+        //Act
+        batchSender.close();
+
+        //Assert
+        result.join();
+        assertEquals(1, broker.getSentMessages().size());
+    }
+
+    @Test
+    void resolveDeliveryProfile()
+    {
+        //Arrange - Define each attribute on a different level: default, messaging type and destination
+        var properties = broker.getProperties();
+        properties.put(JexxaJMSProperties.JEXXA_JMS_DELIVERY_MODE, "persistent");
+        properties.put(JexxaJMSProperties.JEXXA_JMS_PRIORITY, "1");
+        properties.put(JexxaJMSProperties.JEXXA_JMS_TIME_TO_LIVE, "500");
+        properties.put(JexxaJMSProperties.JEXXA_JMS_PRIORITY + ".queue", "5");
+        properties.put(JexxaJMSProperties.JEXXA_JMS_TIME_TO_LIVE + ".queue", "1000");
+        properties.put(JexxaJMSProperties.JEXXA_JMS_TIME_TO_LIVE + "." + QUEUE_NAME, "2000");
+        objectUnderTest.close();
+        objectUnderTest = new JMSSender(properties);
+
+        //Act
+        objectUnderTest.send(new JexxaValueObject(1)).toQueue(QUEUE_NAME).asJson();
+        objectUnderTest.send(new JexxaValueObject(2)).toTopic(QUEUE_NAME).asJson();
+        objectUnderTest.send(new JexxaValueObject(3)).toQueue("OtherQueue").asJson();
+        objectUnderTest.send(new JexxaValueObject(4)).toQueue(QUEUE_NAME).withPriority(9).asJson();
+
+        //Assert - A queue and a topic with the same name are resolved independently
+        var result = broker.getSentMessages();
+        assertSentMessage(result.get(0), "queue://" + QUEUE_NAME, 5, 2000);
+        assertSentMessage(result.get(1), "topic://" + QUEUE_NAME, 1, 2000);
+        assertSentMessage(result.get(2), "queue://OtherQueue", 5, 1000);
+        assertSentMessage(result.get(3), "queue://" + QUEUE_NAME, 9, 2000);
+    }
+
+    @Test
+    void useDefaultDeliveryProfile()
+    {
+        //Act
+        sendToQueue(1);
+
+        //Assert
+        var result = broker.getSentMessages().get(0);
+        assertEquals(DeliveryMode.NON_PERSISTENT, result.deliveryMode());
+        assertEquals(Message.DEFAULT_PRIORITY, result.priority());
+        assertEquals(0, result.timeToLive());
+    }
+
+    @Test
+    void invalidDeliveryProfile()
+    {
+        //Arrange
+        var invalidPriority = broker.getProperties();
+        invalidPriority.put(JexxaJMSProperties.JEXXA_JMS_PRIORITY + "." + QUEUE_NAME, "10");
+        var invalidDeliveryMode = broker.getProperties();
+        invalidDeliveryMode.put(JexxaJMSProperties.JEXXA_JMS_DELIVERY_MODE + ".topic", "sometimes");
+        var invalidTimeToLive = broker.getProperties();
+        invalidTimeToLive.put(JexxaJMSProperties.JEXXA_JMS_TIME_TO_LIVE, "forever");
+
+        //Act/Assert - Invalid properties are detected before a message is sent to the destination
+        assertThrows(IllegalArgumentException.class, () -> new JMSSender(invalidPriority));
+        assertThrows(IllegalArgumentException.class, () -> new JMSSender(invalidDeliveryMode));
+        assertThrows(IllegalArgumentException.class, () -> new JMSSender(invalidTimeToLive));
+    }
+
+    private static void assertSentMessage(FakeJMSProvider.SentMessage sentMessage, String destination, int priority, long timeToLive)
+    {
+        assertEquals(destination, sentMessage.destination());
+        assertEquals(DeliveryMode.PERSISTENT, sentMessage.deliveryMode());
+        assertEquals(priority, sentMessage.priority());
+        assertEquals(timeToLive, sentMessage.timeToLive());
+    }
+
+    private JMSSender createBatchSender(int batchSize, long batchWindow)
+    {
+        var properties = broker.getProperties();
+        properties.put(JexxaJMSProperties.JEXXA_JMS_BATCH_SIZE, String.valueOf(batchSize));
+        properties.put(JexxaJMSProperties.JEXXA_JMS_BATCH_WINDOW, String.valueOf(batchWindow));
+        objectUnderTest.close();
+        objectUnderTest = new JMSSender(properties);
+        return objectUnderTest;
+    }
+
+    private static CompletableFuture<Void> sendToQueueAsync(JMSSender jmsSender, int value)
+    {
+        return jmsSender.send(new JexxaValueObject(value)).toQueue(QUEUE_NAME).asJsonAsync();
+    }
+
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    private void sendToQueue(int value)
+    {
+        objectUnderTest.send(new JexxaValueObject(value)).toQueue(QUEUE_NAME).asJson();
+    }
+}
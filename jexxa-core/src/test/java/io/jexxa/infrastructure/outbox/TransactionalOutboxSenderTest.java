@@ -0,0 +1,203 @@
+package io.jexxa.infrastructure.outbox;
+
+import io.jexxa.adapterapi.invocation.InvocationManager;
+import io.jexxa.common.JexxaCoreProperties;
+import io.jexxa.infrastructure.ObjectStoreManager;
+import io.jexxa.infrastructure.messaging.MessageSender;
+import io.jexxa.infrastructure.outbox.TransactionalOutboxSender.JexxaOutboxMessage;
+import io.jexxa.infrastructure.outbox.TransactionalOutboxSender.OutboxSchema;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Execution(ExecutionMode.SAME_THREAD)
+class TransactionalOutboxSenderTest
+{
+    private static final int BATCH_SIZE = 10;
+    private static final int MESSAGE_COUNT = 95;
+    private static final String QUEUE_NAME = "MyQueue";
+    private static final String BLOCKED_QUEUE_NAME = "BlockedQueue";
+
+    private final Properties properties = new Properties();
+    private final RecordingMessageSender recordingSender = new RecordingMessageSender();
+    private TransactionalOutboxSender objectUnderTest;
+
+    @BeforeEach
+    void initTest()
+    {
+        properties.put(JexxaCoreProperties.JEXXA_OUTBOX_BATCH_SIZE, String.valueOf(BATCH_SIZE));
+
+        ObjectStoreManager
+                .getObjectStore(JexxaOutboxMessage.class, JexxaOutboxMessage::messageId, OutboxSchema.class, properties)
+                .removeAll();
+
+        objectUnderTest = new TransactionalOutboxSender(properties, () -> recordingSender);
+    }
+
+    @AfterEach
+    void cleanup()
+    {
+        recordingSender.release();
+        objectUnderTest.internalCleanup();
+    }
+
+    @Test
+    void forwardInOrder()
+    {
+        //Arrange
+        var expectedMessages = IntStream.range(0, MESSAGE_COUNT).mapToObj(String::valueOf).toList();
+
+        //Act
+        expectedMessages.forEach(this::sendToQueue);
+
+        //Assert
+        await().atMost(5, TimeUnit.SECONDS).until(() -> recordingSender.getMessages().size() == MESSAGE_COUNT);
+        assertEquals(expectedMessages, recordingSender.getMessages());
+        await().atMost(5, TimeUnit.SECONDS).until(() -> objectUnderTest.internalGetMetrics().outboxDepth() == 0);
+    }
+
+    @Test
+    void forwardInBatches()
+    {
+        //Arrange
+        var relayedBatches = new AtomicInteger();
+        InvocationManager.getRootInterceptor(objectUnderTest).registerBefore(invocationContext -> relayedBatches.incrementAndGet());
+        recordingSender.block();
+
+        //Act - All messages are stored while the relay is blocked by the first message
+        IntStream.range(0, MESSAGE_COUNT).mapToObj(String::valueOf).forEach(this::sendToQueue);
+        recordingSender.release();
+
+        //Assert - Relay requests are coalesced so that messages are not forwarded one by one
+        await().atMost(5, TimeUnit.SECONDS).until(() -> recordingSender.getMessages().size() == MESSAGE_COUNT);
+        assertTrue(relayedBatches.get() <= MESSAGE_COUNT / BATCH_SIZE + 3);
+    }
+
+    @Test
+    void keepFailedMessages()
+    {
+        //Arrange
+        recordingSender.failOn("5");
+
+        //Act
+        IntStream.range(0, BATCH_SIZE).mapToObj(String::valueOf).forEach(this::sendToQueue);
+
+        //Assert - Messages after the failed one are kept in the outbox to preserve their order, but only the failed
+        // message is counted as failed
+        await().atMost(5, TimeUnit.SECONDS).until(() -> objectUnderTest.internalGetMetrics().failedMessages() > 0);
+        assertEquals(List.of("0", "1", "2", "3", "4"), recordingSender.getMessages());
+        assertEquals(BATCH_SIZE - 5, objectUnderTest.internalGetMetrics().outboxDepth());
+        await().atMost(5, TimeUnit.SECONDS).until(() -> objectUnderTest.internalGetMetrics().failedMessages() == recordingSender.getFailedAttempts());
+    }
+
+    @Test
+    void forwardUnblockedPartitions()
+    {
+        //Arrange - The messages of the blocked partition are older than all others and exceed a batch
+        recordingSender.failOn("blocked-0");
+        var expectedMessages = IntStream.range(0, BATCH_SIZE).mapToObj(String::valueOf).toList();
+
+        //Act
+        IntStream.range(0, 2 * BATCH_SIZE).forEach(element -> sendToQueue("blocked-" + element, BLOCKED_QUEUE_NAME));
+        expectedMessages.forEach(this::sendToQueue);
+
+        //Assert
+        await().atMost(5, TimeUnit.SECONDS).until(() -> recordingSender.getMessages().size() == BATCH_SIZE);
+        assertEquals(expectedMessages, recordingSender.getMessages());
+        await().atMost(5, TimeUnit.SECONDS).until(() -> objectUnderTest.internalGetMetrics().outboxDepth() == 2 * BATCH_SIZE);
+    }
+
+    private void sendToQueue(String message)
+    {
+        sendToQueue(message, QUEUE_NAME);
+    }
+
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    private void sendToQueue(String message, String queueName)
+    {
+        objectUnderTest.send(message).toQueue(queueName).asString();
+    }
+
+    private static class RecordingMessageSender extends MessageSender
+    {
+        private final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+        private volatile CountDownLatch blocked = new CountDownLatch(0);
+        private volatile String failingMessage;
+        private final AtomicInteger failedAttempts = new AtomicInteger();
+
+        void block()
+        {
+            blocked = new CountDownLatch(1);
+        }
+
+        void release()
+        {
+            blocked.countDown();
+        }
+
+        void failOn(String message)
+        {
+            failingMessage = message;
+        }
+
+        int getFailedAttempts()
+        {
+            return failedAttempts.get();
+        }
+
+        List<String> getMessages()
+        {
+            synchronized (messages)
+            {
+                return new ArrayList<>(messages);
+            }
+        }
+
+        @Override
+        protected void sendToQueue(String message, String destination, Properties messageProperties, MessageType messageType)
+        {
+            record(message);
+        }
+
+        @Override
+        protected void sendToTopic(String message, String destination, Properties messageProperties, MessageType messageType)
+        {
+            record(message);
+        }
+
+        private void record(String message)
+        {
+            try
+            {
+                blocked.await();
+            } catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+
+            var value = message.replace("\"", "");
+            if (value.equals(failingMessage))
+            {
+                failedAttempts.incrementAndGet();
+                throw new IllegalStateException("Could not send message " + value);
+            }
+            messages.add(value);
+        }
+    }
+}
@@ -9,7 +9,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
 import java.util.stream.IntStream;
@@ -19,6 +21,8 @@ import static io.jexxa.infrastructure.persistence.objectstore.ObjectStoreTestDat
 import static io.jexxa.infrastructure.persistence.objectstore.metadata.MetaTags.numericTag;
 import static java.util.Comparator.comparing;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class INumericQueryIT
 {
@@ -424,6 +428,60 @@ class INumericQueryIT
         assertEquals(expectedResult, result);
     }
 
+    @ParameterizedTest
+    @MethodSource(REPOSITORY_CONFIG)
+    void testGetAscendingAfterWithEqualValues(Properties properties)
+    {
+        //Arrange
+        testData.forEach(element -> element.setInternalValue(element.getKey().getValue() % 10));
+        initObjectStore(properties);
+
+        var objectUnderTest = objectStore.getNumericQuery( JexxaObjectSchema.INT_VALUE, Integer.class);
+        var pageSize = 7;
+        var result = new ArrayList<JexxaObject>();
+        var pageCount = 0;
+
+        //Act
+        var page = objectUnderTest.getAscendingAfter(null, pageSize);
+        result.addAll(page.content());
+        ++pageCount;
+        while (page.hasNext())
+        {
+            page = objectUnderTest.getAscendingAfter(page.continuationToken(), pageSize);
+            result.addAll(page.content());
+            ++pageCount;
+        }
+
+        //Assert
+        assertEquals((TEST_DATA_SIZE + pageSize - 1) / pageSize, pageCount);
+        assertEquals(TEST_DATA_SIZE, new HashSet<>(result).size());
+        assertEquals(result.stream().sorted(comparing(JexxaObject::getInternalValue)).toList(), result);
+    }
+
+    @ParameterizedTest
+    @MethodSource(REPOSITORY_CONFIG)
+    void testGetAscendingAfterWithOptionalValue(Properties properties)
+    {
+        //Arrange
+        initObjectStore(properties);
+
+        var objectUnderTest = objectStore.getNumericQuery( JexxaObjectSchema.OPTIONAL_VALUE_OBJECT, JexxaValueObject.class);
+        var expectedResult = testData.stream()
+                .skip(10)
+                .limit(10)
+                .toList();
+
+        //Act
+        var result = objectUnderTest.getAscendingAfter(new JexxaValueObject(9), new JexxaValueObject(9), 10);
+        var lastPage = objectUnderTest.getAscendingAfter(new JexxaValueObject(39), new JexxaValueObject(39), 20);
+
+        //Assert
+        assertEquals(expectedResult, result.content());
+        assertTrue(result.hasNext());
+        assertEquals(10, lastPage.content().size()); // Elements without optional value are not included
+        assertFalse(lastPage.hasNext());
+    }
+
     @ParameterizedTest
     @MethodSource(REPOSITORY_CONFIG)
     void testQueryUsesLatestData(Properties properties) {
@@ -2,6 +2,7 @@ package io.jexxa.infrastructure.persistence.objectstore;
 
 import io.jexxa.TestConstants;
 import io.jexxa.common.wrapper.jdbc.JDBCConnection;
+import io.jexxa.common.wrapper.jdbc.JexxaJDBCProperties;
 import io.jexxa.infrastructure.ObjectStoreManager;
 import io.jexxa.infrastructure.persistence.objectstore.metadata.MetaTag;
 import io.jexxa.infrastructure.persistence.objectstore.metadata.MetaTags;
@@ -20,6 +21,7 @@ import java.util.stream.IntStream;
 
 import static java.util.Comparator.comparing;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @Execution(ExecutionMode.SAME_THREAD)
@@ -167,6 +169,92 @@ class IObjectStoreIT
         assertTrue(result.stream().allMatch(element -> element.getInternalValue() == TEST_DATA_SIZE));
     }
 
+    @ParameterizedTest
+    @MethodSource(ObjectStoreTestDatabase.REPOSITORY_CONFIG)
+    void testAddAll(Properties properties)
+    {
+        //Arrange - Use a batch size that does not divide the size of the test data
+        var batchProperties = new Properties();
+        batchProperties.putAll(properties);
+        if (!properties.isEmpty())
+        {
+            batchProperties.put(JexxaJDBCProperties.JEXXA_JDBC_BATCH_SIZE, "7");
+        }
+        initObjectStore(batchProperties);
+        objectUnderTest.removeAll();
+
+        //Act
+        objectUnderTest.addAll(testData);
+
+        //Assert
+        assertEquals(TEST_DATA_SIZE, objectUnderTest.get().size());
+        assertEquals(testData.subList(0, 10), objectUnderTest.getNumericQuery(JexxaObjectSchema.INT_VALUE, Integer.class).getAscending(10));
+        assertThrows(IllegalArgumentException.class, () -> objectUnderTest.addAll(testData));
+    }
+
+    @ParameterizedTest
+    @MethodSource(ObjectStoreTestDatabase.REPOSITORY_CONFIG)
+    void testUpdateAll(Properties properties)
+    {
+        //Arrange
+        initObjectStore(properties);
+        testData.forEach(element -> element.setInternalValue(TEST_DATA_SIZE));
+
+        //Act
+        objectUnderTest.updateAll(testData);
+
+        //Assert
+        assertTrue(objectUnderTest.get().stream().allMatch(element -> element.getInternalValue() == TEST_DATA_SIZE));
+        assertEquals(TEST_DATA_SIZE, objectUnderTest.getNumericQuery(JexxaObjectSchema.INT_VALUE, Integer.class).isEqualTo(TEST_DATA_SIZE).size());
+    }
+
+    @ParameterizedTest
+    @MethodSource(ObjectStoreTestDatabase.REPOSITORY_CONFIG)
+    void testRemoveAllKeys(Properties properties)
+    {
+        //Arrange
+        initObjectStore(properties);
+        var keysToRemove = testData.subList(0, TEST_DATA_SIZE / 2)
+                .stream()
+                .map(JexxaObject::getKey)
+                .toList();
+
+        //Act
+        objectUnderTest.removeAll(keysToRemove);
+
+        //Assert
+        assertEquals(TEST_DATA_SIZE / 2, objectUnderTest.get().size());
+        assertTrue(keysToRemove.stream().allMatch(key -> objectUnderTest.get(key).isEmpty()));
+        assertThrows(IllegalArgumentException.class, () -> objectUnderTest.removeAll(keysToRemove));
+    }
+
+    @ParameterizedTest
+    @MethodSource(ObjectStoreTestDatabase.REPOSITORY_CONFIG)
+    void testStream(Properties properties)
+    {
+        //Arrange
+        initObjectStore(properties);
+        var numericQuery = objectUnderTest.getNumericQuery(JexxaObjectSchema.INT_VALUE, Integer.class);
+
+        //Act
+        long count;
+        try (var stream = objectUnderTest.stream())
+        {
+            count = stream.count();
+        }
+
+        List<JexxaObject> descending;
+        try (var stream = numericQuery.streamDescending())
+        {
+            descending = stream.limit(10).toList();
+        }
+
+        //Assert
+        assertEquals(TEST_DATA_SIZE, count);
+        assertEquals(numericQuery.getDescending(10), descending);
+        assertEquals(numericQuery.getAscending(), numericQuery.streamAscending().toList());
+    }
+
     void initObjectStore(Properties properties)
     {
         if (!properties.isEmpty())
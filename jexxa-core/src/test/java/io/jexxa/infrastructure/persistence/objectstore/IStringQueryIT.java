@@ -9,6 +9,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 import java.util.stream.IntStream;
@@ -189,6 +190,39 @@ class IStringQueryIT
         assertEquals(expectedDescendingOrderLimit, descendingResultLimit);
     }
 
+    @ParameterizedTest
+    @MethodSource(REPOSITORY_CONFIG)
+    void testAscendingStringAfter(Properties properties)
+    {
+        //Arrange
+        initObjectStore(properties);
+        var pageSize = 8;
+
+        var objectUnderTest = objectStore.getStringQuery( JexxaObjectSchema.OPTIONAL_STRING_OBJECT, String.class);
+
+        var expectedAscendingOrder = objectStore.get()
+                .stream()
+                .filter(element -> element.getOptionalString() != null)
+                .sorted(comparing(JexxaObject::getOptionalString))
+                .toList();
+        var lastElement = expectedAscendingOrder.get(pageSize - 1);
+
+        //Act
+        var result = new ArrayList<JexxaObject>();
+        var page = objectUnderTest.getAscendingAfter(null, pageSize);
+        result.addAll(page.content());
+        while (page.hasNext())
+        {
+            page = objectUnderTest.getAscendingAfter(page.continuationToken(), pageSize);
+            result.addAll(page.content());
+        }
+        var secondPage = objectUnderTest.getAscendingAfter(lastElement.getOptionalString(), lastElement.getKey(), pageSize);
+
+        //Assert
+        assertEquals(expectedAscendingOrder, result);
+        assertEquals(expectedAscendingOrder.subList(pageSize, 2 * pageSize), secondPage.content());
+    }
+
     @ParameterizedTest
     @MethodSource(REPOSITORY_CONFIG)
     void testQueryUsesLatestData(Properties properties) {
@@ -0,0 +1,90 @@
+package io.jexxa.infrastructure.persistence.objectstore;
+
+import io.jexxa.TestConstants;
+import io.jexxa.common.wrapper.jdbc.JDBCConnection;
+import io.jexxa.infrastructure.persistence.objectstore.jdbc.JDBCObjectStore;
+import io.jexxa.infrastructure.persistence.objectstore.metadata.MetaTag;
+import io.jexxa.infrastructure.persistence.objectstore.metadata.MetaTags;
+import io.jexxa.infrastructure.persistence.objectstore.metadata.MetadataSchema;
+import io.jexxa.infrastructure.persistence.repository.jdbc.JDBCKeyValueRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Properties;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Validates that an object store can be used on top of a table that was created by a previous version of the
+ * application, i.e., by a key-value repository or with fewer metatags.
+ */
+@Execution(ExecutionMode.SAME_THREAD)
+@Tag(TestConstants.INTEGRATION_TEST)
+class ObjectStoreMigrationIT
+{
+    // Exceeds the size of a batch used to update existing objects
+    private static final int TEST_DATA_SIZE = 2500;
+
+    @ParameterizedTest
+    @MethodSource(ObjectStoreTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void addMissingMetadataColumns(Properties properties)
+    {
+        //Arrange
+        try(JDBCConnection jdbcConnection = new JDBCConnection(properties))
+        {
+            jdbcConnection.createTableCommand(Current.MigratedSchema.class)
+                    .dropTableIfExists(Current.MigratedObject.class)
+                    .asIgnore();
+        }
+
+        var legacyRepository = new JDBCKeyValueRepository<>(Legacy.MigratedObject.class, Legacy.MigratedObject::key, properties);
+        legacyRepository.addAll(IntStream.range(0, TEST_DATA_SIZE).mapToObj(element -> new Legacy.MigratedObject(element, element)).toList());
+
+        //Act
+        var objectUnderTest = new JDBCObjectStore<>(Current.MigratedObject.class, Current.MigratedObject::key,
+                Current.MigratedSchema.class, properties);
+        objectUnderTest.add(new Current.MigratedObject(TEST_DATA_SIZE, TEST_DATA_SIZE));
+
+        //Assert - Existing objects are backfilled so that queries on the new metatag include them
+        var result = objectUnderTest
+                .getNumericQuery(Current.MigratedSchema.INT_VALUE, Integer.class)
+                .getAscending();
+
+        assertEquals(TEST_DATA_SIZE + 1, result.size());
+        assertEquals(TEST_DATA_SIZE + 1, objectUnderTest.count());
+        IntStream.rangeClosed(0, TEST_DATA_SIZE).forEach(element -> assertEquals(element, result.get(element).intValue()));
+    }
+
+    private static final class Legacy
+    {
+        record MigratedObject(int key, int intValue) { }
+    }
+
+    private static final class Current
+    {
+        record MigratedObject(int key, int intValue) { }
+
+        private enum MigratedSchema implements MetadataSchema
+        {
+            INT_VALUE(MetaTags.numericTag(MigratedObject::intValue));
+
+            private final MetaTag<MigratedObject, ?, ? > metaTag;
+
+            MigratedSchema(MetaTag<MigratedObject,?, ?> metaTag)
+            {
+                this.metaTag = metaTag;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T, S, V> MetaTag<T, S, V> getTag()
+            {
+                return (MetaTag<T, S, V>) metaTag;
+            }
+        }
+    }
+}
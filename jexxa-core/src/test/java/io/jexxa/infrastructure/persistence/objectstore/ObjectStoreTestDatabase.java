@@ -8,12 +8,18 @@ import java.util.stream.Stream;
 public final class ObjectStoreTestDatabase
 {
     public static final String REPOSITORY_CONFIG = "io.jexxa.infrastructure.persistence.objectstore.ObjectStoreTestDatabase#repositoryConfig";
+    public static final String JDBC_REPOSITORY_CONFIG = "io.jexxa.infrastructure.persistence.objectstore.ObjectStoreTestDatabase#jdbcRepositoryConfig";
 
     @SuppressWarnings("unused")
     public static Stream<Properties> repositoryConfig() {
         return RepositoryConfig.repositoryConfig("objectstore");
     }
 
+    @SuppressWarnings("unused")
+    public static Stream<Properties> jdbcRepositoryConfig() {
+        return RepositoryConfig.jdbcRepositoryConfig("objectstore");
+    }
+
     private ObjectStoreTestDatabase()
     {
         //private constructor
@@ -0,0 +1,116 @@
+package io.jexxa.infrastructure.persistence.objectstore.imdb;
+
+import io.jexxa.TestConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Tag(TestConstants.UNIT_TEST)
+class IMDBIndexTest
+{
+    private record Item(int key, String value) { }
+
+    private IMDBIndex<Item, Integer, String> objectUnderTest;
+
+    @BeforeEach
+    void initTest()
+    {
+        //Arrange
+        objectUnderTest = new IMDBIndex<>(Item::value);
+        IntStream.range(0, 10).forEach(element -> put(new Item(element, "V" + element)));
+        put(new Item(10, null));
+    }
+
+    @Test
+    void range()
+    {
+        //Act
+        var closedRange = objectUnderTest.range("V2", true, "V5", true).toList();
+        var openRange = objectUnderTest.range("V2", false, "V5", false).toList();
+        var unboundedRange = objectUnderTest.range(null, false, "V2", false).toList();
+
+        //Assert
+        assertEquals(List.of(2, 3, 4, 5), closedRange);
+        assertEquals(List.of(3, 4), openRange);
+        assertEquals(List.of(0, 1), unboundedRange);
+        assertEquals(List.of(10), objectUnderTest.nullValues().toList());
+    }
+
+    @Test
+    void equalValuesAreOrderedByKey()
+    {
+        //Arrange
+        put(new Item(11, "V5"));
+        put(new Item(12, "V5"));
+
+        //Act
+        var result = objectUnderTest.range("V5", true, "V5", true).toList();
+
+        //Assert
+        assertEquals(List.of(11, 12, 5), result); // Keys are compared by their JSON representation
+    }
+
+    @Test
+    void updateValue()
+    {
+        //Act
+        put(new Item(2, "V9"));
+        put(new Item(3, null));
+        put(new Item(10, "V0"));
+
+        //Assert
+        assertEquals(List.of(0, 10, 1, 4, 5, 6, 7, 8, 2, 9), objectUnderTest.ascending().toList()); // Key 2 precedes key 9 with equal value
+        assertEquals(List.of(3), objectUnderTest.nullValues().toList());
+    }
+
+    @Test
+    void removeValue()
+    {
+        //Act
+        objectUnderTest.onRemove(2);
+        objectUnderTest.onRemove(10);
+
+        //Assert
+        assertEquals(List.of(9, 8, 7, 6, 5, 4, 3, 1, 0), objectUnderTest.descending().toList());
+        assertEquals(List.of(), objectUnderTest.nullValues().toList());
+    }
+
+    @Test
+    void entriesAfter()
+    {
+        //Arrange
+        put(new Item(11, "V5"));
+
+        //Act
+        var result = objectUnderTest.entriesAfter("V5", "11").toList();
+
+        //Assert
+        assertEquals(List.of(5, 6, 7, 8, 9), result.stream().map(Map.Entry::getValue).toList());
+        assertEquals(new IMDBIndex.IndexKey<>("V5", "5"), result.get(0).getKey());
+    }
+
+    @Test
+    void startingFrom()
+    {
+        //Arrange
+        put(new Item(11, "V10"));
+        put(new Item(12, "W1"));
+
+        //Act
+        var result = objectUnderTest.startingFrom("V1", element -> element.startsWith("V1")).toList();
+
+        //Assert
+        assertEquals(List.of(1, 11), result);
+    }
+
+    private void put(Item item)
+    {
+        objectUnderTest.onPut(item.key(), item);
+    }
+}
@@ -0,0 +1,150 @@
+package io.jexxa.infrastructure.persistence.repository.imdb;
+
+import io.jexxa.TestConstants;
+import io.jexxa.common.JexxaCoreProperties;
+import io.jexxa.testapplication.domain.model.JexxaEntity;
+import io.jexxa.testapplication.domain.model.JexxaValueObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Execution(ExecutionMode.SAME_THREAD)
+@Tag(TestConstants.UNIT_TEST)
+class IMDBCopyStrategiesTest
+{
+    private record ImmutableKey(int value) { }
+
+    private record ImmutableAggregate(ImmutableKey key, String name, Instant timestamp) { }
+
+    private record MutableAggregate(ImmutableKey key, List<String> values) { }
+
+    private static final class CopyableAggregate
+    {
+        private final int key;
+        private int value;
+
+        CopyableAggregate(int key)
+        {
+            this.key = key;
+        }
+
+        CopyableAggregate(CopyableAggregate other)
+        {
+            this.key = other.key;
+            this.value = other.value;
+        }
+    }
+
+    @AfterEach
+    void cleanup()
+    {
+        IMDBRepository.clear();
+    }
+
+    @Test
+    void detectImmutableRecord()
+    {
+        //Arrange
+        var aggregate = new ImmutableAggregate(new ImmutableKey(42), "name", Instant.now());
+
+        //Act
+        var objectUnderTest = IMDBCopyStrategies.detect(ImmutableAggregate.class);
+
+        //Assert
+        assertTrue(IMDBCopyStrategies.isImmutable(ImmutableAggregate.class));
+        assertFalse(IMDBCopyStrategies.isImmutable(MutableAggregate.class));
+        assertSame(aggregate, objectUnderTest.fromSnapshot(objectUnderTest.toSnapshot(aggregate)));
+    }
+
+    @Test
+    void detectCopyConstructor()
+    {
+        //Arrange
+        var aggregate = new CopyableAggregate(42);
+        aggregate.value = 1;
+        var objectUnderTest = IMDBCopyStrategies.detect(CopyableAggregate.class);
+
+        //Act
+        var snapshot = objectUnderTest.toSnapshot(aggregate);
+        aggregate.value = 2;
+        var result = objectUnderTest.fromSnapshot(snapshot);
+        result.value = 3;
+
+        //Assert - Neither changes of the original nor of the result affect the snapshot
+        assertNotSame(aggregate, result);
+        assertEquals(42, result.key);
+        assertEquals(1, objectUnderTest.fromSnapshot(snapshot).value);
+    }
+
+    @Test
+    void detectFallbackToJSON()
+    {
+        //Arrange
+        var aggregate = JexxaEntity.create(new JexxaValueObject(42));
+        var objectUnderTest = IMDBCopyStrategies.detect(JexxaEntity.class);
+
+        //Act
+        var snapshot = objectUnderTest.toSnapshot(aggregate);
+        var result = objectUnderTest.fromSnapshot(snapshot);
+
+        //Assert
+        assertTrue(snapshot instanceof String);
+        assertNotSame(aggregate, result);
+        assertEquals(aggregate, result);
+    }
+
+    @Test
+    void invalidStrategy()
+    {
+        //Arrange
+        var properties = new Properties();
+        properties.put(JexxaCoreProperties.JEXXA_IMDB_COPY_STRATEGY, "unknown");
+
+        //Act / Assert
+        assertThrows(IllegalArgumentException.class, () -> IMDBCopyStrategies.fromProperties(JexxaEntity.class, properties));
+    }
+
+    @Test
+    void repositoryWithAutoStrategy()
+    {
+        //Arrange
+        var properties = new Properties();
+        properties.put(JexxaCoreProperties.JEXXA_IMDB_COPY_STRATEGY, IMDBCopyStrategies.AUTO_STRATEGY);
+        var objectUnderTest = new IMDBRepository<>(CopyableAggregate.class, element -> element.key, properties);
+        var aggregate = new CopyableAggregate(42);
+
+        //Act
+        objectUnderTest.add(aggregate);
+        aggregate.value = 1;
+        objectUnderTest.get(42).orElseThrow().value = 2;
+
+        //Assert - Only update changes the stored aggregate
+        assertEquals(0, objectUnderTest.get(42).orElseThrow().value);
+        objectUnderTest.update(aggregate);
+        assertEquals(1, objectUnderTest.get(42).orElseThrow().value);
+    }
+
+    @Test
+    void repositoriesWithDifferentStrategies()
+    {
+        //Arrange
+        new IMDBRepository<>(CopyableAggregate.class, element -> element.key, IMDBCopyStrategies.copyConstructor(CopyableAggregate.class));
+
+        //Act / Assert
+        assertThrows(IllegalStateException.class, () ->
+                new IMDBRepository<>(CopyableAggregate.class, element -> element.key, IMDBCopyStrategies.jsonCopy(CopyableAggregate.class)));
+    }
+}
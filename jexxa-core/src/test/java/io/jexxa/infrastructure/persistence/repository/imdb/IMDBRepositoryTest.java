@@ -1,6 +1,11 @@
 package io.jexxa.infrastructure.persistence.repository.imdb;
 
 import io.jexxa.TestConstants;
+import io.jexxa.adapterapi.invocation.transaction.TransactionManager;
+import io.jexxa.common.JexxaCoreProperties;
+import io.jexxa.common.wrapper.json.JSONManager;
+import io.jexxa.infrastructure.persistence.RepositoryConfig;
+import io.jexxa.infrastructure.persistence.repository.jdbc.JDBCKeyValueRepository;
 import io.jexxa.testapplication.domain.model.JexxaEntity;
 import io.jexxa.testapplication.domain.model.JexxaValueObject;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,7 +14,18 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -57,6 +73,49 @@ class IMDBRepositoryTest
     }
 
 
+    @Test
+    void addAllAggregates()
+    {
+        //Arrange
+        var aggregates = List.of(aggregate, JexxaEntity.create(new JexxaValueObject(43)));
+
+        //Act
+        objectUnderTest.addAll(aggregates);
+
+        //Assert
+        assertEquals(2, objectUnderTest.get().size());
+        assertEquals(2, objectUnderTest.count());
+        assertEquals(aggregate, objectUnderTest.get(aggregate.getKey()).orElse(null));
+    }
+
+    @Test
+    void addAllAggregatesWithExistingAggregate()
+    {
+        //Arrange
+        objectUnderTest.add(aggregate);
+        var aggregates = List.of(JexxaEntity.create(new JexxaValueObject(43)), aggregate);
+
+        //Act
+        assertThrows(IllegalArgumentException.class, () -> objectUnderTest.addAll(aggregates));
+
+        //Assert - Repository is not changed
+        assertEquals(1, objectUnderTest.get().size());
+    }
+
+    @Test
+    void removeAllAggregatesWithUnknownKey()
+    {
+        //Arrange
+        objectUnderTest.add(aggregate);
+        var keys = List.of(aggregate.getKey(), new JexxaValueObject(43));
+
+        //Act
+        assertThrows(IllegalArgumentException.class, () -> objectUnderTest.removeAll(keys));
+
+        //Assert - Repository is not changed
+        assertEquals(1, objectUnderTest.get().size());
+    }
+
     @Test
     void removeAggregate()
     {
@@ -123,6 +182,145 @@ class IMDBRepositoryTest
         assertTrue( objectUnderTest.get().isEmpty() );
     }
 
+    @Test
+    @SuppressWarnings("deprecation")
+    void deprecatedAggregateMap()
+    {
+        //Arrange
+        objectUnderTest.add(aggregate);
+
+        //Act
+        var result = LegacyRepository.getJSONMap();
+
+        //Assert - Aggregates are still provided as JSON
+        assertEquals(1, result.size());
+        assertEquals(aggregate, JSONManager.getJSONConverter().fromJson(result.get(aggregate.getKey()), JexxaEntity.class));
+    }
+
+    @Test
+    void transactionalChanges() throws ExecutionException, InterruptedException
+    {
+        //Arrange
+        var transactionalRepository = createTransactionalRepository();
+
+        //Act
+        TransactionManager.initTransaction();
+        transactionalRepository.add(aggregate);
+        var visibleInTransaction = transactionalRepository.get(aggregate.getKey()).isPresent();
+        var visibleInOtherThread = CompletableFuture.supplyAsync(() -> transactionalRepository.get().size()).get();
+        TransactionManager.closeTransaction();
+
+        //Assert - Changes are only visible within the transaction until it is closed
+        assertTrue(visibleInTransaction);
+        assertEquals(0, visibleInOtherThread);
+        assertEquals(aggregate, objectUnderTest.get(aggregate.getKey()).orElse(null));
+    }
+
+    @Test
+    void transactionalRollback()
+    {
+        //Arrange
+        var transactionalRepository = createTransactionalRepository();
+        var otherAggregate = JexxaEntity.create(new JexxaValueObject(43));
+        transactionalRepository.add(aggregate);
+
+        //Act
+        TransactionManager.initTransaction();
+        transactionalRepository.removeAll();
+        transactionalRepository.add(otherAggregate);
+        assertEquals(List.of(otherAggregate), transactionalRepository.get());
+        TransactionManager.rollback();
+        TransactionManager.closeTransaction();
+
+        //Assert - Repository is not changed
+        assertEquals(List.of(aggregate), transactionalRepository.get());
+    }
+
+    @Test
+    void concurrentTransactionalUpdates() throws InterruptedException
+    {
+        //Arrange
+        var transactionalRepository = createTransactionalRepository();
+        transactionalRepository.add(aggregate);
+        var allAggregatesChanged = new CyclicBarrier(2);
+        var executorService = Executors.newFixedThreadPool(2);
+
+        //Act - Both transactions change the same aggregate before any of them is closed
+        var result = IntStream.range(0, 2)
+                .mapToObj(element -> CompletableFuture.runAsync(() -> {
+                    TransactionManager.initTransaction();
+                    try
+                    {
+                        var changedAggregate = transactionalRepository.get(aggregate.getKey()).orElseThrow();
+                        changedAggregate.setInternalValue(changedAggregate.getInternalValue() + 1);
+                        transactionalRepository.update(changedAggregate);
+                        transactionalRepository.add(JexxaEntity.create(new JexxaValueObject(element)));
+                        allAggregatesChanged.await(1, TimeUnit.SECONDS);
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException(e);
+                    }
+                    catch (BrokenBarrierException | TimeoutException e)
+                    {
+                        throw new IllegalStateException(e);
+                    }
+                    finally
+                    {
+                        TransactionManager.closeTransaction();
+                    }
+                }, executorService))
+                .toList();
+
+        var failedTransactions = result.stream().filter(transaction -> {
+            try
+            {
+                transaction.join();
+                return false;
+            }
+            catch (CompletionException e)
+            {
+                return e.getCause() instanceof IllegalStateException;
+            }
+        }).count();
+        executorService.shutdown();
+
+        //Assert - The conflicting transaction is discarded completely instead of overwriting the other one
+        assertTrue(executorService.awaitTermination(1, TimeUnit.SECONDS));
+        assertEquals(1, failedTransactions);
+        assertEquals(1, objectUnderTest.get(aggregate.getKey()).orElseThrow().getInternalValue());
+        assertEquals(2, objectUnderTest.get().size());
+    }
+
+    @Test
+    void conflictingTransactionRollsBackJDBCRepository()
+    {
+        //Arrange
+        var transactionalRepository = createTransactionalRepository();
+        var jdbcRepository = new JDBCKeyValueRepository<>(JexxaEntity.class, JexxaEntity::getKey, RepositoryConfig.h2RepositoryConfig());
+        var jdbcAggregate = JexxaEntity.create(new JexxaValueObject(43));
+        jdbcRepository.removeAll();
+        transactionalRepository.add(aggregate);
+
+        //Act - The JDBC repository joins the transaction before the aggregate is changed concurrently
+        TransactionManager.initTransaction();
+        jdbcRepository.add(jdbcAggregate);
+        var changedAggregate = transactionalRepository.get(aggregate.getKey()).orElseThrow();
+        changedAggregate.setInternalValue(1);
+        transactionalRepository.update(changedAggregate);
+
+        var concurrentAggregate = JexxaEntity.create(aggregate.getKey());
+        concurrentAggregate.setInternalValue(2);
+        objectUnderTest.update(concurrentAggregate);
+
+        //Assert - Neither the JDBC repository nor the IMDB repository commit their changes
+        assertThrows(IllegalStateException.class, TransactionManager::closeTransaction);
+        assertFalse(TransactionManager.isTransactionActive());
+        assertTrue(jdbcRepository.get().isEmpty());
+        assertEquals(2, objectUnderTest.get(aggregate.getKey()).orElseThrow().getInternalValue());
+    }
+
     @Test
     void reuseRepositoryAfterReset()
     {
@@ -144,5 +342,26 @@ class IMDBRepositoryTest
         assertEquals(1, newConnection.get().size());
     }
 
+    // Subclass that accesses the stored aggregates as in previous versions
+    private static final class LegacyRepository extends IMDBRepository<JexxaEntity, JexxaValueObject>
+    {
+        private LegacyRepository()
+        {
+            super(JexxaEntity.class, JexxaEntity::getKey, new Properties());
+        }
 
+        @SuppressWarnings("deprecation")
+        static Map<JexxaValueObject, String> getJSONMap()
+        {
+            return getAggregateMap(JexxaEntity.class);
+        }
+    }
+
+    private static IMDBRepository<JexxaEntity, JexxaValueObject> createTransactionalRepository()
+    {
+        var properties = new Properties();
+        properties.put(JexxaCoreProperties.JEXXA_IMDB_TRANSACTIONAL, "true");
+
+        return new IMDBRepository<>(JexxaEntity.class, JexxaEntity::getKey, properties);
+    }
 }